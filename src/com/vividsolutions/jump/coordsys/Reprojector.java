@@ -36,6 +36,8 @@ import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.CoordinateFilter;
 import org.locationtech.jts.geom.Geometry;
 
+import com.vividsolutions.jump.geom.CoordinateStorage;
+
 
 /**
  * The source and destination coordinate reference systems must have
@@ -108,7 +110,7 @@ public class Reprojector {
             return;
         }
 
-        geometry.apply(new CoordinateFilter() {
+        CoordinateStorage.apply(geometry, new CoordinateFilter() {
                 public void filter(Coordinate coord) {
                     reproject(coord, source, destination);
                 }
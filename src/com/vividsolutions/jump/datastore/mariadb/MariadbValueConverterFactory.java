@@ -64,10 +64,10 @@ public class MariadbValueConverterFactory extends SpatialDatabasesValueConverter
 
       Geometry geometry = null;
       if (bytes == null || bytes.length < 5) {
-        geometry = wktReader.read("GEOMETRYCOLLECTION EMPTY");
+        geometry = wktReader().read("GEOMETRYCOLLECTION EMPTY");
       } else {
         boolean nativeFormat = appearsToBeNativeFormat(bytes);
-        WKBReader wr = new WKBReader();
+        WKBReader wr = wkbReader();
 
         if (nativeFormat) {
           //copy the byte array, removing the first four
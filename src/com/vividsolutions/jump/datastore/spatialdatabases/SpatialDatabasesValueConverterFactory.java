@@ -7,6 +7,7 @@ import org.locationtech.jts.io.WKTReader;
 import java.sql.*;
 import com.vividsolutions.jump.datastore.jdbc.*;
 import com.vividsolutions.jump.feature.AttributeType;
+import com.vividsolutions.jump.geom.CoordinateStorage;
 import com.vividsolutions.jump.workbench.JUMPWorkbench;
 import java.io.IOException;
 
@@ -19,9 +20,6 @@ public class SpatialDatabasesValueConverterFactory {
   protected final ValueConverter WKB_GEOMETRY_MAPPER = new SpatialDatabasesValueConverterFactory.WKBGeometryValueConverter();
   public final ValueConverter WKB_OBJECT_MAPPER = new SpatialDatabasesValueConverterFactory.WKBObjectValueConverter();
 
-  protected final WKBReader wkbReader = new WKBReader();
-  protected final WKTReader wktReader = new WKTReader();
-
   protected final Connection conn;
 
   public SpatialDatabasesValueConverterFactory(Connection conn) {
@@ -49,6 +47,23 @@ public class SpatialDatabasesValueConverterFactory {
       throw new UnsupportedOperationException();
   }
 
+  /**
+   * Readers are not thread-safe and a factory may read several layers at
+   * once : each call returns a new reader, using the coordinate storage
+   * currently chosen in the options.
+   * @return a new WKBReader
+   */
+  protected WKBReader wkbReader() {
+    return new WKBReader(CoordinateStorage.getDefault().getGeometryFactory());
+  }
+
+  /**
+   * @return a new WKTReader (see {@link #wkbReader()})
+   */
+  protected WKTReader wktReader() {
+    return new WKTReader(CoordinateStorage.getDefault().getGeometryFactory());
+  }
+
   class WKTGeometryValueConverter implements ValueConverter {
 
     public AttributeType getType() {
@@ -59,9 +74,9 @@ public class SpatialDatabasesValueConverterFactory {
         throws IOException, SQLException, ParseException {
       Object valObj = rs.getObject(columnIndex);
       if (valObj == null) {
-        return wktReader.read("GEOMETRYCOLLECTION EMPTY");
+        return wktReader().read("GEOMETRYCOLLECTION EMPTY");
       } else {
-        return wktReader.read(valObj.toString());
+        return wktReader().read(valObj.toString());
       }
     }
   }
@@ -85,9 +100,9 @@ public class SpatialDatabasesValueConverterFactory {
       //use this logic to determine how to process the bytes.
       Geometry geometry = null;
       if (bytes == null || bytes.length <= 0) {
-        geometry = wktReader.read("GEOMETRYCOLLECTION EMPTY");
+        geometry = wktReader().read("GEOMETRYCOLLECTION EMPTY");
       } else if (new String(new byte[]{bytes[0]}).matches("[GLMP]")) {
-        geometry = wktReader.read(new String(bytes));
+        geometry = wktReader().read(new String(bytes));
       } else {
         //assume it's the actual bytes (from ST_AsBinary)
         byte[] realWkbBytes = bytes;
@@ -97,7 +112,7 @@ public class SpatialDatabasesValueConverterFactory {
           realWkbBytes = WKBReader.hexToBytes(hexString);
         }
 
-        geometry = wkbReader.read(realWkbBytes);
+        geometry = wkbReader().read(realWkbBytes);
       }
 
       return geometry;
@@ -123,7 +138,7 @@ public class SpatialDatabasesValueConverterFactory {
       //use this logic to determine how to process the bytes.
       Geometry geometry = null;
       if (bytes == null || bytes.length <= 0) {
-        geometry = wktReader.read("GEOMETRYCOLLECTION EMPTY");
+        geometry = wktReader().read("GEOMETRYCOLLECTION EMPTY");
       } else {
         //assume it's the actual bytes (from ST_AsBinary)
         byte[] realWkbBytes = bytes;
@@ -133,7 +148,7 @@ public class SpatialDatabasesValueConverterFactory {
           realWkbBytes = WKBReader.hexToBytes(hexString);
         }
 
-        geometry = wkbReader.read(realWkbBytes);
+        geometry = wkbReader().read(realWkbBytes);
       }
 
       return geometry;
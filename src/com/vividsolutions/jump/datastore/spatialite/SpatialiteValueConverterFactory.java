@@ -93,7 +93,7 @@ public class SpatialiteValueConverterFactory extends SpatialDatabasesValueConver
           returnGeometry = getNativeGeometryFromBlob(geometryBytes);
         }
       } else {
-        returnGeometry = wktReader.read("GEOMETRYCOLLECTION EMPTY");
+        returnGeometry = wktReader().read("GEOMETRYCOLLECTION EMPTY");
       }
 
       return returnGeometry;
@@ -110,7 +110,7 @@ public class SpatialiteValueConverterFactory extends SpatialDatabasesValueConver
       //prepend byte-order byte
       wkb[0] = blobAsBytes[1];
 
-      WKBReader wkbReader = new WKBReader();
+      WKBReader wkbReader = wkbReader();
       setEwkbGeometryType(wkb);
       returnGeometry = wkbReader.read(wkb);
 
@@ -151,7 +151,7 @@ public class SpatialiteValueConverterFactory extends SpatialDatabasesValueConver
 
       byte[] wkb = new byte[blobAsBytes.length - headerSize];
       System.arraycopy(blobAsBytes, headerSize, wkb, 0, blobAsBytes.length - headerSize);
-      WKBReader wkbReader = new WKBReader();
+      WKBReader wkbReader = wkbReader();
       setEwkbGeometryType(wkb);
       returnGeometry = wkbReader.read(wkb);
 
@@ -0,0 +1,752 @@
+package com.vividsolutions.jump.feature;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+
+/**
+ * A FeatureCollection storing the attributes of its features by column, for
+ * large layers.
+ * <p>
+ * Each attribute of the schema is stored in a single array : INTEGER, LONG,
+ * DOUBLE, BOOLEAN and DATE attributes in primitive arrays with a bitmap of
+ * null values, and STRING attributes as indices in a dictionary of the
+ * distinct values. A column falls back to an array of objects when it
+ * receives a value which does not fit its type (and a string column when
+ * most of its values are distinct). This avoids the object header and the
+ * boxed values of each feature, and attribute scans read contiguous arrays.
+ * </p>
+ * <p>
+ * Rows are filled by {@link #addRow(Feature)}, which copies a feature (with
+ * its ID), e.g. while a reader loads a file. The features of the rows are
+ * lightweight views : reading and writing their attributes reads and writes
+ * the columns, two views of the same row are equal, and
+ * {@link Feature#getAttributes()} returns a copy of the row. Features added
+ * with {@link #add(Feature)}, e.g. by an edit, are kept as they are, after
+ * the rows, so that the added objects stay the features of the collection.
+ * </p>
+ * <p>
+ * Removed rows are only marked as removed, so that views of removed
+ * features stay valid (adding such a view again, e.g. when a deletion is
+ * undone, restores its row). The memory of removed rows is released by
+ * {@link #clear()}. Setting the schema of a view changes the schema of all
+ * the rows (see {@link Feature#setSchema(FeatureSchema)} of the views).
+ * </p>
+ * Values of DATE attributes are returned as new java.util.Date objects.
+ */
+public class ColumnarFeatureCollection implements FeatureCollection {
+
+    /**
+     * DriverProperties key used to load a layer in a ColumnarFeatureCollection.
+     */
+    public static final String KEY = "ColumnarAttributes";
+
+    private static volatile boolean usedByDefault = false;
+
+    private Store store;
+    // features added as objects, after the rows
+    private final List<Feature> objects = new ArrayList<>();
+    private Envelope envelope = null;
+    // positions of the rows which have not been removed, if any has been
+    private int[] liveRows = null;
+
+    /**
+     * Creates an empty ColumnarFeatureCollection.
+     * @param featureSchema the types of the attributes of the features in this collection
+     */
+    public ColumnarFeatureCollection(FeatureSchema featureSchema) {
+        this.store = new Store(featureSchema, 16);
+    }
+
+    /**
+     * Creates a ColumnarFeatureCollection containing a copy of the features
+     * of a FeatureCollection in its rows.
+     * @param features the features to copy
+     */
+    public ColumnarFeatureCollection(FeatureCollection features) {
+        this.store = new Store(features.getFeatureSchema(), Math.max(16, features.size()));
+        for (Feature feature : features.getFeatures()) {
+            addRow(feature);
+        }
+    }
+
+    /**
+     * Returns true if readers load layers in a ColumnarFeatureCollection
+     * when their DriverProperties do not say otherwise.
+     */
+    public static boolean isUsedByDefault() {
+        return usedByDefault;
+    }
+
+    public static void setUsedByDefault(boolean used) {
+        usedByDefault = used;
+    }
+
+    /**
+     * Returns true if a reader must load a layer in a ColumnarFeatureCollection.
+     * @param value the {@link #KEY} property of the DriverProperties, or null
+     *              to use the default
+     */
+    public static boolean isUsed(String value) {
+        return value == null ? usedByDefault : Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * Returns the Feature at the given index (zero-based).
+     */
+    public Feature getFeature(int index) {
+        final int rowCount = rowCount();
+        return index < rowCount ? store.view(row(index)) : objects.get(index - rowCount);
+    }
+
+    @Override
+    public FeatureSchema getFeatureSchema() {
+        return store.schema;
+    }
+
+    /**
+     * Because the envelope is cached, the envelope may be incorrect if you
+     * later change a Feature's geometry using Feature#setGeometry.
+     */
+    @Override
+    public Envelope getEnvelope() {
+        if (envelope == null) {
+            envelope = new Envelope();
+            for (int i = 0, n = rowCount(); i < n; i++) {
+                final Geometry geometry = store.getGeometry(row(i));
+                if (geometry != null) {
+                    envelope.expandToInclude(geometry.getEnvelopeInternal());
+                }
+            }
+            for (Feature feature : objects) {
+                if (feature.getGeometry() != null) {
+                    envelope.expandToInclude(feature.getGeometry().getEnvelopeInternal());
+                }
+            }
+        }
+        return envelope;
+    }
+
+    @Override
+    public int size() {
+        return rowCount() + objects.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public List<Feature> getFeatures() {
+        return Collections.unmodifiableList(new AbstractList<Feature>() {
+            @Override
+            public Feature get(int index) {
+                return getFeature(index);
+            }
+            @Override
+            public int size() {
+                return ColumnarFeatureCollection.this.size();
+            }
+        });
+    }
+
+    @Override
+    public Iterator<Feature> iterator() {
+        return getFeatures().iterator();
+    }
+
+    @Override
+    public List<Feature> query(Envelope envelope) {
+        final List<Feature> queryResult = new ArrayList<>();
+        if (!envelope.intersects(getEnvelope())) {
+            return queryResult;
+        }
+        for (int i = 0, n = rowCount(); i < n; i++) {
+            final int row = row(i);
+            final Geometry geometry = store.getGeometry(row);
+            if (geometry != null && geometry.getEnvelopeInternal().intersects(envelope)) {
+                queryResult.add(store.view(row));
+            }
+        }
+        for (Feature feature : objects) {
+            final Geometry geometry = feature.getGeometry();
+            if (geometry != null && geometry.getEnvelopeInternal().intersects(envelope)) {
+                queryResult.add(feature);
+            }
+        }
+        return queryResult;
+    }
+
+    /**
+     * Copies the attributes and the ID of a feature in a new row.
+     * @param feature the feature to copy
+     */
+    public void addRow(Feature feature) {
+        store.add(feature);
+        if (store.removedCount > 0) liveRows = null;
+        expandEnvelope(feature);
+    }
+
+    /**
+     * Adds a feature. A removed view of this collection gets its row back,
+     * other features are kept as they are.
+     */
+    @Override
+    public void add(Feature feature) {
+        if (feature instanceof ColumnarFeature && ((ColumnarFeature) feature).store == store) {
+            final int row = ((ColumnarFeature) feature).row;
+            if (store.removed.get(row)) {
+                // a removed feature of this collection is added again
+                store.removed.clear(row);
+                store.removedCount--;
+                liveRows = null;
+            }
+        } else {
+            objects.add(feature);
+        }
+        expandEnvelope(feature);
+    }
+
+    @Override
+    public void addAll(Collection<Feature> features) {
+        for (Feature feature : features) {
+            add(feature);
+        }
+    }
+
+    /**
+     * Removes features from this collection. As in {@link FeatureDataset},
+     * features which are not views of this collection are identified by
+     * their ID.
+     */
+    @Override
+    public void removeAll(Collection<Feature> features) {
+        Set<Integer> ids = new HashSet<>();
+        for (Feature feature : features) {
+            if (feature instanceof ColumnarFeature && ((ColumnarFeature) feature).store == store) {
+                remove(((ColumnarFeature) feature).row);
+            } else {
+                ids.add(feature.getID());
+            }
+        }
+        if (!ids.isEmpty()) {
+            for (int row = 0; row < store.size; row++) {
+                if (ids.contains(store.ids[row])) remove(row);
+            }
+            objects.removeIf(feature -> ids.contains(feature.getID()));
+        }
+        liveRows = null;
+        invalidateEnvelope();
+    }
+
+    @Override
+    public void remove(Feature feature) {
+        removeAll(Collections.singletonList(feature));
+    }
+
+    /**
+     * Removes the features which intersect the given envelope
+     */
+    @Override
+    public Collection<Feature> remove(Envelope env) {
+        final Collection<Feature> features = query(env);
+        removeAll(features);
+        return features;
+    }
+
+    /**
+     * Removes all features from this collection, and releases the memory of
+     * the removed rows. Views of the features of this collection stay valid,
+     * but are detached from this collection.
+     */
+    @Override
+    public void clear() {
+        store = new Store(store.schema, 16);
+        objects.clear();
+        liveRows = null;
+        invalidateEnvelope();
+    }
+
+    /**
+     * Clears the cached envelope of this collection's Features. Call this
+     * method when a Feature's Geometry is modified.
+     */
+    public void invalidateEnvelope() {
+        envelope = null;
+    }
+
+    private void expandEnvelope(Feature feature) {
+        if (envelope != null && feature.getGeometry() != null) {
+            envelope.expandToInclude(feature.getGeometry().getEnvelopeInternal());
+        }
+    }
+
+    private void remove(int row) {
+        if (!store.removed.get(row)) {
+            store.removed.set(row);
+            store.removedCount++;
+        }
+    }
+
+    private int rowCount() {
+        return store.size - store.removedCount;
+    }
+
+    private int row(int index) {
+        if (index < 0 || index >= rowCount()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        if (store.removedCount == 0) return index;
+        if (liveRows == null) {
+            liveRows = new int[rowCount()];
+            int i = 0;
+            for (int row = store.removed.nextClearBit(0); row < store.size;
+                 row = store.removed.nextClearBit(row + 1)) {
+                liveRows[i++] = row;
+            }
+        }
+        return liveRows[index];
+    }
+
+    /**
+     * The columns of a collection. A new Store replaces the previous one when
+     * the collection is cleared, so that views of the previous rows keep
+     * their values.
+     */
+    private static final class Store {
+
+        FeatureSchema schema;
+        Column[] columns;
+        int[] ids;
+        int size = 0;
+        final BitSet removed = new BitSet();
+        int removedCount = 0;
+
+        Store(FeatureSchema schema, int capacity) {
+            this.schema = schema;
+            this.ids = new int[capacity];
+            this.columns = new Column[schema.getAttributeCount()];
+            for (int i = 0; i < columns.length; i++) {
+                // dynamic attributes are computed, not stored
+                if (!schema.isOperation(i)) {
+                    columns[i] = Column.create(schema.getAttributeType(i), capacity);
+                }
+            }
+        }
+
+        void ensureCapacity(int capacity) {
+            if (capacity <= ids.length) return;
+            capacity = Math.max(capacity, 2 * ids.length);
+            ids = Arrays.copyOf(ids, capacity);
+            for (Column column : columns) {
+                if (column != null) column.grow(capacity);
+            }
+        }
+
+        void add(Feature feature) {
+            ensureCapacity(size + 1);
+            final int row = size++;
+            ids[row] = feature.getID();
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i] != null) set(row, i, feature.getAttribute(i));
+            }
+        }
+
+        /**
+         * Changes the schema of all the rows. Columns of the attributes
+         * whose name and type are unchanged are kept, other values are null.
+         */
+        void setSchema(FeatureSchema newSchema) {
+            final Column[] newColumns = new Column[newSchema.getAttributeCount()];
+            for (int i = 0; i < newColumns.length; i++) {
+                if (newSchema.isOperation(i)) continue;
+                final String name = newSchema.getAttributeName(i);
+                if (schema.hasAttribute(name)) {
+                    final int old = schema.getAttributeIndex(name);
+                    if (columns[old] != null
+                            && schema.getAttributeType(old) == newSchema.getAttributeType(i)) {
+                        newColumns[i] = columns[old];
+                        continue;
+                    }
+                }
+                newColumns[i] = Column.create(newSchema.getAttributeType(i), ids.length);
+                for (int row = 0; row < size; row++) newColumns[i].set(row, null);
+            }
+            schema = newSchema;
+            columns = newColumns;
+        }
+
+        Object get(int row, int i) {
+            if (columns[i] == null) return null;
+            return columns[i].get(row);
+        }
+
+        void set(int row, int i, Object value) {
+            if (!columns[i].set(row, value)) {
+                columns[i] = new ObjectColumn(columns[i], ids.length, size);
+                columns[i].set(row, value);
+            }
+        }
+
+        Geometry getGeometry(int row) {
+            return (Geometry) get(row, schema.getGeometryIndex());
+        }
+
+        ColumnarFeature view(int row) {
+            return new ColumnarFeature(this, row);
+        }
+    }
+
+    /**
+     * A Feature reading and writing its attributes in a row of a Store.
+     */
+    private static final class ColumnarFeature implements Feature {
+
+        final Store store;
+        final int row;
+
+        ColumnarFeature(Store store, int row) {
+            this.store = store;
+            this.row = row;
+        }
+
+        public void setAttributes(Object[] attributes) {
+            for (int i = 0; i < attributes.length; i++) {
+                setAttribute(i, attributes[i]);
+            }
+        }
+
+        /**
+         * Changes the schema of all the rows of the collection of this view,
+         * as schema editors set the same new schema to every feature before
+         * setting their attributes : the columns of the attributes whose name
+         * and type are unchanged are kept, the other values are reset to null.
+         */
+        public void setSchema(FeatureSchema schema) {
+            if (schema != store.schema) {
+                store.setSchema(schema);
+            }
+        }
+
+        public int getID() {
+            return store.ids[row];
+        }
+
+        public void setAttribute(int attributeIndex, Object newAttribute) {
+            if (store.columns[attributeIndex] != null) {
+                store.set(row, attributeIndex, newAttribute);
+            }
+        }
+
+        public void setAttribute(String attributeName, Object newAttribute) {
+            setAttribute(store.schema.getAttributeIndex(attributeName), newAttribute);
+        }
+
+        public void setGeometry(Geometry geometry) {
+            setAttribute(store.schema.getGeometryIndex(), geometry);
+        }
+
+        public Object getAttribute(int i) {
+            if (store.schema.isOperation(i)) {
+                try {
+                    return store.schema.getOperation(i).invoke(this);
+                } catch(Exception e) {
+                    return new Error(e);
+                }
+            }
+            return store.get(row, i);
+        }
+
+        public Object getAttribute(String name) {
+            return getAttribute(store.schema.getAttributeIndex(name));
+        }
+
+        public String getString(int attributeIndex) {
+            final Object result = getAttribute(attributeIndex);
+            return result == null ? "" : result.toString();
+        }
+
+        public int getInteger(int attributeIndex) {
+            return ((Integer) getAttribute(attributeIndex)).intValue();
+        }
+
+        public double getDouble(int attributeIndex) {
+            return ((Double) getAttribute(attributeIndex)).doubleValue();
+        }
+
+        public String getString(String attributeName) {
+            return getString(store.schema.getAttributeIndex(attributeName));
+        }
+
+        public Geometry getGeometry() {
+            return store.getGeometry(row);
+        }
+
+        public FeatureSchema getSchema() {
+            return store.schema;
+        }
+
+        public Feature clone() {
+            return clone(true);
+        }
+
+        public Feature clone(boolean deep) {
+            return clone(deep, true);
+        }
+
+        public Feature clone(boolean deep, boolean copyPK) {
+            return AbstractBasicFeature.clone(this, deep, copyPK);
+        }
+
+        /**
+         * Returns a copy of the attributes of this feature.
+         */
+        public Object[] getAttributes() {
+            final Object[] attributes = new Object[store.columns.length];
+            for (int i = 0; i < attributes.length; i++) {
+                attributes[i] = getAttribute(i);
+            }
+            return attributes;
+        }
+
+        public int compareTo(Object o) {
+            return AbstractBasicFeature.compare(this, (Feature) o);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ColumnarFeature
+                    && ((ColumnarFeature) o).store == store
+                    && ((ColumnarFeature) o).row == row;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(store) * 31 + row;
+        }
+    }
+
+    /**
+     * The values of an attribute.
+     */
+    private abstract static class Column {
+
+        static Column create(AttributeType type, int capacity) {
+            if (type == AttributeType.INTEGER) return new IntColumn(capacity);
+            if (type == AttributeType.LONG || type == AttributeType.BIGINT) return new LongColumn(capacity);
+            if (type == AttributeType.DOUBLE || type == AttributeType.REAL) return new DoubleColumn(capacity);
+            if (type == AttributeType.BOOLEAN || type == AttributeType.BIT) return new BooleanColumn();
+            if (type == AttributeType.DATE) return new DateColumn(capacity);
+            if (type.toJavaClass() == String.class) return new StringColumn(capacity);
+            return new ObjectColumn(capacity);
+        }
+
+        abstract Object get(int row);
+
+        /**
+         * Sets the value of a row, or returns false if the value cannot be
+         * stored in this column.
+         */
+        abstract boolean set(int row, Object value);
+
+        abstract void grow(int capacity);
+    }
+
+    private static final class ObjectColumn extends Column {
+        Object[] values;
+
+        ObjectColumn(int capacity) {
+            values = new Object[capacity];
+        }
+
+        ObjectColumn(Column column, int capacity, int size) {
+            values = new Object[capacity];
+            for (int row = 0; row < size; row++) values[row] = column.get(row);
+        }
+
+        Object get(int row) {
+            return values[row];
+        }
+
+        boolean set(int row, Object value) {
+            values[row] = value;
+            return true;
+        }
+
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static final class IntColumn extends Column {
+        int[] values;
+        final BitSet nulls = new BitSet();
+
+        IntColumn(int capacity) {
+            values = new int[capacity];
+        }
+
+        Object get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+
+        boolean set(int row, Object value) {
+            if (value != null && value.getClass() != Integer.class) return false;
+            nulls.set(row, value == null);
+            values[row] = value == null ? 0 : (Integer) value;
+            return true;
+        }
+
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static final class LongColumn extends Column {
+        long[] values;
+        final BitSet nulls = new BitSet();
+
+        LongColumn(int capacity) {
+            values = new long[capacity];
+        }
+
+        Object get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+
+        boolean set(int row, Object value) {
+            if (value != null && value.getClass() != Long.class) return false;
+            nulls.set(row, value == null);
+            values[row] = value == null ? 0L : (Long) value;
+            return true;
+        }
+
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+        double[] values;
+        final BitSet nulls = new BitSet();
+
+        DoubleColumn(int capacity) {
+            values = new double[capacity];
+        }
+
+        Object get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+
+        boolean set(int row, Object value) {
+            if (value != null && value.getClass() != Double.class) return false;
+            nulls.set(row, value == null);
+            values[row] = value == null ? 0d : (Double) value;
+            return true;
+        }
+
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static final class BooleanColumn extends Column {
+        final BitSet values = new BitSet();
+        final BitSet nulls = new BitSet();
+
+        Object get(int row) {
+            return nulls.get(row) ? null : values.get(row);
+        }
+
+        boolean set(int row, Object value) {
+            if (value != null && value.getClass() != Boolean.class) return false;
+            nulls.set(row, value == null);
+            values.set(row, value != null && (Boolean) value);
+            return true;
+        }
+
+        void grow(int capacity) {
+        }
+    }
+
+    private static final class DateColumn extends Column {
+        long[] values;
+        final BitSet nulls = new BitSet();
+
+        DateColumn(int capacity) {
+            values = new long[capacity];
+        }
+
+        Object get(int row) {
+            return nulls.get(row) ? null : new Date(values[row]);
+        }
+
+        boolean set(int row, Object value) {
+            // subclasses (java.sql.Timestamp...) may hold more than millis
+            if (value != null && value.getClass() != Date.class) return false;
+            nulls.set(row, value == null);
+            values[row] = value == null ? 0L : ((Date) value).getTime();
+            return true;
+        }
+
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static final class StringColumn extends Column {
+
+        // above this size, the dictionary must be smaller than half the rows
+        private static final int MIN_DICTIONARY_SIZE = 1024;
+
+        int[] codes;
+        final List<String> dictionary = new ArrayList<>();
+        final Map<String,Integer> dictionaryIndex = new HashMap<>();
+
+        StringColumn(int capacity) {
+            codes = new int[capacity];
+        }
+
+        Object get(int row) {
+            return codes[row] < 0 ? null : dictionary.get(codes[row]);
+        }
+
+        boolean set(int row, Object value) {
+            if (value == null) {
+                codes[row] = -1;
+                return true;
+            }
+            if (value.getClass() != String.class) return false;
+            Integer code = dictionaryIndex.get(value);
+            if (code == null) {
+                if (dictionary.size() >= MIN_DICTIONARY_SIZE && 2 * dictionary.size() > row + 1) {
+                    // mostly distinct values are cheaper in an object column
+                    return false;
+                }
+                code = dictionary.size();
+                dictionary.add((String) value);
+                dictionaryIndex.put((String) value, code);
+            }
+            codes[row] = code;
+            return true;
+        }
+
+        void grow(int capacity) {
+            codes = Arrays.copyOf(codes, capacity);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.vividsolutions.jump.feature;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Polygonal;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+
+import com.vividsolutions.jump.I18N;
+import com.vividsolutions.jump.task.TaskMonitor;
+
+/**
+ * Finds the features intersecting a fence geometry.
+ * <p>
+ * Candidates are queried with the envelope of the fence, so that indexed
+ * feature collections only return the features near the fence. They are
+ * tested against a prepared fence, and geometries lying in the envelope
+ * of a rectangular fence, or whose envelope is covered by a polygonal
+ * fence, are accepted without further test. Large sets of candidates are
+ * tested in parallel.
+ * </p>
+ * Instances can be used by several threads.
+ */
+public class FenceFilter {
+
+    // candidates tested in parallel above this number
+    private static final int PARALLEL_THRESHOLD = 10000;
+    // candidates tested between two progress reports
+    private static final int BLOCK_SIZE = 16384;
+    // geometries with more points are first accepted from their envelope
+    private static final int ENVELOPE_TEST_MIN_POINTS = 32;
+
+    private final Geometry fence;
+    private final Envelope fenceEnvelope;
+    private final PreparedGeometry preparedFence;
+    private final boolean rectangle;
+    private final boolean polygonal;
+
+    public FenceFilter(Geometry fence) {
+        this.fence = fence;
+        this.fenceEnvelope = fence.getEnvelopeInternal();
+        this.preparedFence = PreparedGeometryFactory.prepare(fence);
+        this.rectangle = fence.isRectangle();
+        this.polygonal = fence instanceof Polygonal;
+    }
+
+    public Geometry getFence() {
+        return fence;
+    }
+
+    /**
+     * Returns true if geometry intersects the fence.
+     */
+    public boolean intersects(Geometry geometry) {
+        Envelope envelope = geometry.getEnvelopeInternal();
+        if (!fenceEnvelope.intersects(envelope)) {
+            return false;
+        }
+        if (rectangle && fenceEnvelope.covers(envelope)) {
+            return true;
+        }
+        if (polygonal && geometry.getNumPoints() >= ENVELOPE_TEST_MIN_POINTS
+                && preparedFence.covers(geometry.getFactory().toGeometry(envelope))) {
+            return true;
+        }
+        if (envelope.getWidth() == 0 && envelope.getHeight() == 0) {
+            // collapse zero-length lines to a point, see LayerViewPanel#intersects
+            return preparedFence.intersects(geometry.getFactory().createPoint(envelope.centre()));
+        }
+        return preparedFence.intersects(geometry);
+    }
+
+    /**
+     * Returns the features of featureCollection intersecting the fence, in
+     * the order of the query of featureCollection.
+     * @param monitor monitor receiving the progress, and which can cancel
+     *                the search (the features found so far are returned),
+     *                or null
+     */
+    public List<Feature> query(FeatureCollection featureCollection, TaskMonitor monitor) {
+        final List<Feature> candidates = featureCollection.query(fenceEnvelope);
+        final int size = candidates.size();
+        List<Feature> features = new ArrayList<>();
+        final boolean[] accepted = new boolean[Math.min(size, BLOCK_SIZE)];
+        for (int start = 0; start < size; start += BLOCK_SIZE) {
+            if (monitor != null) {
+                if (monitor.isCancelRequested()) break;
+                monitor.report(start, size, I18N.get("com.vividsolutions.jump.feature.FenceFilter.features"));
+            }
+            final int from = start;
+            final int to = Math.min(size, start + BLOCK_SIZE);
+            IntStream range = IntStream.range(from, to);
+            if (size >= PARALLEL_THRESHOLD) {
+                range = range.parallel();
+            }
+            range.forEach(i -> accepted[i - from] = intersects(candidates.get(i).getGeometry()));
+            for (int i = from; i < to; i++) {
+                if (accepted[i - from]) features.add(candidates.get(i));
+            }
+        }
+        return features;
+    }
+}
@@ -0,0 +1,199 @@
+package com.vividsolutions.jump.geom;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateFilter;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateSequenceFactory;
+import org.locationtech.jts.geom.CoordinateSequenceFilter;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.impl.CoordinateArraySequenceFactory;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequenceFactory;
+
+/**
+ * How the coordinates of the geometries of a loaded layer are stored.
+ * <p>
+ * ARRAY is the JTS default (one Coordinate object per vertex). PACKED_DOUBLE
+ * and PACKED_FLOAT store the ordinates of each sequence in a single double[]
+ * or float[] array, which roughly halves (or quarters) the memory used by
+ * large layers. Packed sequences without z values only store x and y.
+ * </p>
+ * <p>
+ * Modifying the Coordinates returned by Geometry#getCoordinates() or by a
+ * CoordinateFilter does not modify a packed geometry : tools modifying
+ * geometries in place must work on an {@link #editableCopy(Geometry)}, or
+ * apply their CoordinateFilter with {@link #apply(Geometry, CoordinateFilter)}.
+ * </p>
+ * Readers use the storage given by the {@link #KEY} property of their
+ * DriverProperties, or the default storage (see {@link #setDefault}).
+ */
+public enum CoordinateStorage {
+
+    ARRAY(CoordinateArraySequenceFactory.instance()),
+    PACKED_DOUBLE(new XYPackedCoordinateSequenceFactory(PackedCoordinateSequenceFactory.DOUBLE)),
+    PACKED_FLOAT(new XYPackedCoordinateSequenceFactory(PackedCoordinateSequenceFactory.FLOAT));
+
+    /**
+     * DriverProperties key used to choose the storage of a loaded layer.
+     */
+    public static final String KEY = "CoordinateStorage";
+
+    private static volatile CoordinateStorage defaultStorage = ARRAY;
+
+    private final CoordinateSequenceFactory coordinateSequenceFactory;
+    // shared by all the geometries loaded with this storage
+    private final GeometryFactory geometryFactory;
+
+    CoordinateStorage(CoordinateSequenceFactory coordinateSequenceFactory) {
+        this.coordinateSequenceFactory = coordinateSequenceFactory;
+        this.geometryFactory = new GeometryFactory(new PrecisionModel(), 0, coordinateSequenceFactory);
+    }
+
+    public static CoordinateStorage getDefault() {
+        return defaultStorage;
+    }
+
+    public static void setDefault(CoordinateStorage storage) {
+        defaultStorage = storage == null ? ARRAY : storage;
+    }
+
+    /**
+     * Returns the storage with the given name, or the default storage if
+     * name is null or is not the name of a storage.
+     */
+    public static CoordinateStorage get(String name) {
+        if (name != null) {
+            for (CoordinateStorage storage : values()) {
+                if (storage.name().equalsIgnoreCase(name.trim())) return storage;
+            }
+        }
+        return defaultStorage;
+    }
+
+    public CoordinateSequenceFactory getCoordinateSequenceFactory() {
+        return coordinateSequenceFactory;
+    }
+
+    /**
+     * @return the shared GeometryFactory of this storage (floating precision
+     *         and SRID 0)
+     */
+    public GeometryFactory getGeometryFactory() {
+        return geometryFactory;
+    }
+
+    /**
+     * @return a GeometryFactory of this storage with the given precision model
+     *         and SRID
+     */
+    public GeometryFactory getGeometryFactory(PrecisionModel precisionModel, int srid) {
+        if (srid == 0 && precisionModel.equals(geometryFactory.getPrecisionModel())) {
+            return geometryFactory;
+        }
+        return new GeometryFactory(precisionModel, srid, coordinateSequenceFactory);
+    }
+
+    /**
+     * Returns true if the coordinates of geometry are stored in packed
+     * sequences.
+     */
+    public static boolean isPacked(Geometry geometry) {
+        return geometry.getFactory().getCoordinateSequenceFactory()
+                instanceof PackedCoordinateSequenceFactory;
+    }
+
+    /**
+     * Returns a copy of geometry whose coordinates can be modified in place :
+     * a packed geometry is copied to an ARRAY geometry, other geometries are
+     * simply copied.
+     */
+    public static Geometry editableCopy(Geometry geometry) {
+        if (!isPacked(geometry)) {
+            return geometry.copy();
+        }
+        final GeometryFactory factory = geometry.getFactory();
+        final Geometry copy = new GeometryFactory(factory.getPrecisionModel(),
+                geometry.getSRID(), CoordinateArraySequenceFactory.instance())
+                .createGeometry(geometry);
+        copy.setUserData(geometry.getUserData());
+        return copy;
+    }
+
+    /**
+     * Applies a CoordinateFilter modifying coordinates to geometry, whatever
+     * its storage : the coordinates passed to filter are written back into
+     * the coordinate sequences of geometry.
+     */
+    public static void apply(Geometry geometry, final CoordinateFilter filter) {
+        geometry.apply(new CoordinateSequenceFilter() {
+            public void filter(CoordinateSequence seq, int i) {
+                // a copy for packed sequences, the stored Coordinate otherwise
+                Coordinate coordinate = seq.getCoordinate(i);
+                filter.filter(coordinate);
+                seq.setOrdinate(i, CoordinateSequence.X, coordinate.x);
+                seq.setOrdinate(i, CoordinateSequence.Y, coordinate.y);
+                if (seq.hasZ()) {
+                    seq.setOrdinate(i, CoordinateSequence.Z, coordinate.getZ());
+                }
+            }
+
+            public boolean isDone() {
+                return false;
+            }
+
+            public boolean isGeometryChanged() {
+                return true;
+            }
+        });
+    }
+
+    /**
+     * A PackedCoordinateSequenceFactory which does not store the z of
+     * coordinate arrays without z values.
+     */
+    private static final class XYPackedCoordinateSequenceFactory extends PackedCoordinateSequenceFactory {
+
+        private static final long serialVersionUID = -2935316227838185342L;
+
+        XYPackedCoordinateSequenceFactory(int type) {
+            super(type);
+        }
+
+        @Override
+        public CoordinateSequence create(Coordinate[] coordinates) {
+            if (coordinates == null || coordinates.length == 0 || !hasNoZ(coordinates)
+                    || coordinates[0].getClass() != Coordinate.class) {
+                return super.create(coordinates);
+            }
+            if (getType() == DOUBLE) {
+                return new PackedCoordinateSequence.Double(coordinates, 2, 0);
+            }
+            return new PackedCoordinateSequence.Float(coordinates, 2, 0);
+        }
+
+        @Override
+        public CoordinateSequence create(CoordinateSequence coordSeq) {
+            if (coordSeq.getDimension() == 3 && coordSeq.getMeasures() == 0
+                    && coordSeq.size() > 0 && hasNoZ(coordSeq)) {
+                return create(coordSeq.toCoordinateArray());
+            }
+            return super.create(coordSeq);
+        }
+
+        private static boolean hasNoZ(Coordinate[] coordinates) {
+            for (Coordinate c : coordinates) {
+                if (!Double.isNaN(c.getZ())) return false;
+            }
+            return true;
+        }
+
+        private static boolean hasNoZ(CoordinateSequence seq) {
+            for (int i = 0, n = seq.size(); i < n; i++) {
+                if (!Double.isNaN(seq.getZ(i))) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -68,7 +68,7 @@ public class GeometryMicroscope {
         CoordinateAdjusterFilter coordAdjFilter = new CoordinateAdjusterFilter(ptMap);
 
         for (Geometry geom : geomList) {
-            geom.apply(coordAdjFilter);
+            CoordinateStorage.apply(geom, coordAdjFilter);
         }
     }
 
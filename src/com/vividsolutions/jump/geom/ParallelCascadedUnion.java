@@ -0,0 +1,99 @@
+package com.vividsolutions.jump.geom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
+
+/**
+ * Union of a large collection of geometries, computed on several threads.
+ * <p>
+ * Geometries are sorted with the Sort-Tile-Recursive packing order (vertical
+ * slabs sorted by x, each slab sorted by y), so that consecutive geometries
+ * are close to each other. The sorted list is then split recursively in two
+ * halves which are unioned in parallel on the fork-join common pool. Lists
+ * smaller than {@link #LEAF_SIZE} are unioned with {@link UnaryUnionOp}
+ * (which is already a cascaded union).
+ * </p>
+ * The result is topologically equal to the one of UnaryUnionOp (geometries
+ * are merged in a different order, so vertex order and component order may
+ * differ). Small collections are directly processed by UnaryUnionOp.
+ */
+public class ParallelCascadedUnion {
+
+    /** Collections smaller than this size are unioned on a single thread */
+    public static final int LEAF_SIZE = 1024;
+
+    private ParallelCascadedUnion() {}
+
+    /**
+     * Computes the union of geometries.
+     * @param geometries the geometries to union
+     * @return the union, or null if geometries is empty
+     */
+    public static Geometry union(Collection<? extends Geometry> geometries) {
+        if (geometries.size() < 2 * LEAF_SIZE) {
+            return UnaryUnionOp.union(geometries);
+        }
+        final Geometry[] sorted = geometries.toArray(new Geometry[0]);
+        strSort(sorted);
+        return ForkJoinPool.commonPool().invoke(new UnionTask(sorted, 0, sorted.length));
+    }
+
+    /**
+     * Sort geometries in the Sort-Tile-Recursive order.
+     */
+    static void strSort(Geometry[] geometries) {
+        Arrays.sort(geometries, Comparator.comparingDouble(ParallelCascadedUnion::centreX));
+        final int slabCount = (int)Math.ceil(Math.sqrt(geometries.length / (double)LEAF_SIZE));
+        final int slabSize = (geometries.length + slabCount - 1) / slabCount;
+        for (int i = 0; i < geometries.length; i += slabSize) {
+            Arrays.sort(geometries, i, Math.min(geometries.length, i + slabSize),
+                    Comparator.comparingDouble(ParallelCascadedUnion::centreY));
+        }
+    }
+
+    private static double centreX(Geometry geometry) {
+        return geometry.isEmpty() ? 0 : geometry.getEnvelopeInternal().centre().x;
+    }
+
+    private static double centreY(Geometry geometry) {
+        return geometry.isEmpty() ? 0 : geometry.getEnvelopeInternal().centre().y;
+    }
+
+    private static class UnionTask extends RecursiveTask<Geometry> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Geometry[] geometries;
+        private final int from, to;
+
+        UnionTask(Geometry[] geometries, int from, int to) {
+            this.geometries = geometries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Geometry compute() {
+            if (to - from <= LEAF_SIZE) {
+                return UnaryUnionOp.union(Arrays.asList(geometries).subList(from, to));
+            }
+            final int middle = (from + to) >>> 1;
+            final UnionTask left = new UnionTask(geometries, from, middle);
+            left.fork();
+            final Geometry right = new UnionTask(geometries, middle, to).compute();
+            final List<Geometry> parts = new ArrayList<>(2);
+            final Geometry leftResult = left.join();
+            if (leftResult != null) parts.add(leftResult);
+            if (right != null) parts.add(right);
+            return UnaryUnionOp.union(parts);
+        }
+    }
+}
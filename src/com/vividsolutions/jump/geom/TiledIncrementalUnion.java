@@ -0,0 +1,108 @@
+package com.vividsolutions.jump.geom;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
+
+/**
+ * Union of a stream of geometries, computed incrementally to bound memory.
+ * <p>
+ * The extent is divided into a grid of tiles, and each geometry is assigned
+ * to the tile containing the centre of its envelope. Geometries are kept in
+ * a pending list of their tile until this list reaches
+ * {@link #getMaxPending()} geometries. The pending geometries are then
+ * merged with the partial union of the tile (full tiles are merged in
+ * parallel). As geometries of a tile are close to each other, a partial
+ * union is generally much smaller than the geometries it replaces.
+ * </p>
+ * {@link #getResult()} merges the remaining pending geometries and the
+ * partial unions of all the tiles. Geometries must be added from a single
+ * thread.
+ */
+public class TiledIncrementalUnion {
+
+    private final Envelope extent;
+    private final int tilesPerSide;
+    private final int maxPending;
+
+    private final Geometry[] partialUnions;
+    // one list per tile, only replaced with set so that tiles can be
+    // merged in parallel
+    private final List<List<Geometry>> pending;
+
+    /**
+     * @param extent the extent of the geometries to union
+     * @param tilesPerSide number of columns and rows of the grid
+     * @param maxPending number of geometries a tile can hold before they are
+     *                   merged with its partial union
+     */
+    public TiledIncrementalUnion(Envelope extent, int tilesPerSide, int maxPending) {
+        this.extent = new Envelope(extent);
+        this.tilesPerSide = Math.max(1, tilesPerSide);
+        this.maxPending = Math.max(2, maxPending);
+        partialUnions = new Geometry[this.tilesPerSide * this.tilesPerSide];
+        pending = new ArrayList<>(partialUnions.length);
+        for (int i = 0; i < partialUnions.length; i++) {
+            pending.add(new ArrayList<>());
+        }
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    /**
+     * Adds geometries to the union, and merges the tiles which are full.
+     * @param geometries the geometries to add (null and empty geometries are
+     *                   ignored)
+     */
+    public void addAll(Collection<? extends Geometry> geometries) {
+        for (Geometry geometry : geometries) {
+            if (geometry == null || geometry.isEmpty()) continue;
+            pending.get(tile(geometry.getEnvelopeInternal())).add(geometry);
+        }
+        final int[] full = IntStream.range(0, pending.size())
+                .filter(i -> pending.get(i).size() >= maxPending).toArray();
+        IntStream.of(full).parallel().forEach(this::merge);
+    }
+
+    /**
+     * Returns the union of all the geometries added so far.
+     * @return the union, or null if no geometry has been added
+     */
+    public Geometry getResult() {
+        IntStream.range(0, pending.size()).parallel()
+                .filter(i -> !pending.get(i).isEmpty())
+                .forEach(this::merge);
+        final List<Geometry> tiles = new ArrayList<>();
+        for (Geometry partialUnion : partialUnions) {
+            if (partialUnion != null) tiles.add(partialUnion);
+        }
+        return ParallelCascadedUnion.union(tiles);
+    }
+
+    private void merge(int tile) {
+        final List<Geometry> geometries = pending.get(tile);
+        if (partialUnions[tile] != null) geometries.add(partialUnions[tile]);
+        partialUnions[tile] = UnaryUnionOp.union(geometries);
+        pending.set(tile, new ArrayList<>());
+    }
+
+    private int tile(Envelope env) {
+        final Coordinate centre = env.centre();
+        return index(centre.x, extent.getMinX(), extent.getWidth())
+                + tilesPerSide * index(centre.y, extent.getMinY(), extent.getHeight());
+    }
+
+    private int index(double value, double min, double size) {
+        if (size <= 0) return 0;
+        final int i = (int)((value - min) / size * tilesPerSide);
+        return Math.max(0, Math.min(tilesPerSide - 1, i));
+    }
+}
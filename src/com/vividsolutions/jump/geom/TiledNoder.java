@@ -0,0 +1,208 @@
+package com.vividsolutions.jump.geom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.locationtech.jts.algorithm.LineIntersector;
+import org.locationtech.jts.algorithm.RobustLineIntersector;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.noding.MCIndexNoder;
+import org.locationtech.jts.noding.NodedSegmentString;
+import org.locationtech.jts.noding.Noder;
+import org.locationtech.jts.noding.SegmentIntersector;
+import org.locationtech.jts.noding.SegmentString;
+
+/**
+ * A {@link Noder} computing the intersections of large sets of
+ * {@link NodedSegmentString}s in parallel.
+ * <p>
+ * The extent of the segment strings is divided into a grid of tiles. Each
+ * tile receives the runs of consecutive segments whose envelope intersects
+ * it, and is noded independently with a {@link MCIndexNoder} (tiles are
+ * processed in parallel). Two intersecting segments always share a tile
+ * (the one containing their intersection point), so that no intersection
+ * is missed, and nodes found in the tiles are finally reconciled on the
+ * input segment strings, nodes found in several tiles being merged.
+ * </p>
+ * Intersections are computed like with a {@link org.locationtech.jts.noding.IntersectionAdder}
+ * (floating precision, trivial intersections between adjacent segments of
+ * a segment string are ignored), and each pair of segments is always
+ * intersected in the same order, so that a node found in several tiles has
+ * exactly the same coordinates.
+ */
+public class TiledNoder implements Noder {
+
+    // average number of segments per tile when the grid is computed
+    private static final int SEGMENTS_PER_TILE = 8192;
+
+    private final int tilesPerSide;
+    private Collection<SegmentString> segStrings;
+
+    /**
+     * Creates a TiledNoder computing the size of its grid from the number of
+     * segments to node.
+     */
+    public TiledNoder() {
+        this(0);
+    }
+
+    /**
+     * @param tilesPerSide number of columns and rows of the grid, or 0 to
+     *                     compute it from the number of segments
+     */
+    public TiledNoder(int tilesPerSide) {
+        this.tilesPerSide = tilesPerSide;
+    }
+
+    /**
+     * @param segStrings a collection of {@link NodedSegmentString}s
+     */
+    @SuppressWarnings("unchecked")
+    public void computeNodes(Collection segStrings) {
+        this.segStrings = segStrings;
+        final NodedSegmentString[] strings =
+                (NodedSegmentString[])segStrings.toArray(new NodedSegmentString[0]);
+        final Envelope extent = new Envelope();
+        final STRtree index = new STRtree();
+        long segments = 0;
+        for (int i = 0; i < strings.length; i++) {
+            final Envelope env = new Envelope();
+            for (Coordinate c : strings[i].getCoordinates()) env.expandToInclude(c);
+            index.insert(env, i);
+            extent.expandToInclude(env);
+            segments += Math.max(0, strings[i].size() - 1);
+        }
+        if (segments == 0) return;
+        final int n = tilesPerSide > 0 ? tilesPerSide :
+                (int)Math.max(1, Math.ceil(Math.sqrt((double)segments / SEGMENTS_PER_TILE)));
+
+        // build the index now, so that it can be queried concurrently
+        index.build();
+
+        final double[][] nodes = new double[n * n][];
+        IntStream.range(0, n * n).parallel().forEach(t ->
+                nodes[t] = nodeTile(tile(extent, n, t), strings, index));
+
+        // reconcile the nodes of all the tiles on the input segment strings
+        for (double[] tileNodes : nodes) {
+            for (int i = 0; i < tileNodes.length; i += 5) {
+                final Coordinate c = new Coordinate(tileNodes[i + 2], tileNodes[i + 3], tileNodes[i + 4]);
+                strings[(int)tileNodes[i]].addIntersection(c, (int)tileNodes[i + 1]);
+            }
+        }
+    }
+
+    public Collection getNodedSubstrings() {
+        return NodedSegmentString.getNodedSubstrings(segStrings);
+    }
+
+    private static Envelope tile(Envelope extent, int n, int t) {
+        final double w = extent.getWidth() / n;
+        final double h = extent.getHeight() / n;
+        final int col = t % n;
+        final int row = t / n;
+        // last column and row end exactly on the extent, whatever rounding
+        return new Envelope(
+                extent.getMinX() + col * w, col == n - 1 ? extent.getMaxX() : extent.getMinX() + (col + 1) * w,
+                extent.getMinY() + row * h, row == n - 1 ? extent.getMaxY() : extent.getMinY() + (row + 1) * h);
+    }
+
+    /**
+     * Nodes the segments of a tile, and returns the nodes found as
+     * (string index, segment index, x, y, z) values.
+     */
+    private static double[] nodeTile(Envelope tile, NodedSegmentString[] strings, STRtree index) {
+        final List<SegmentString> pieces = new ArrayList<>();
+        for (Object item : index.query(tile)) {
+            final int s = (Integer)item;
+            final Coordinate[] pts = strings[s].getCoordinates();
+            int start = -1;
+            for (int i = 0; i < pts.length - 1; i++) {
+                final boolean in = tile.intersects(pts[i], pts[i + 1]);
+                if (in && start < 0) start = i;
+                if (!in && start >= 0) {
+                    pieces.add(piece(pts, s, start, i));
+                    start = -1;
+                }
+            }
+            if (start >= 0) pieces.add(piece(pts, s, start, pts.length - 1));
+        }
+        final TileIntersector intersector = new TileIntersector(strings);
+        final MCIndexNoder noder = new MCIndexNoder();
+        noder.setSegmentIntersector(intersector);
+        noder.computeNodes(pieces);
+        return Arrays.copyOf(intersector.nodes, intersector.size);
+    }
+
+    /**
+     * A run of segments of a segment string, from vertex start to vertex end.
+     */
+    private static SegmentString piece(Coordinate[] pts, int string, int start, int end) {
+        return new NodedSegmentString(Arrays.copyOfRange(pts, start, end + 1),
+                new int[] {string, start});
+    }
+
+    /**
+     * Computes the intersections of the segments of the pieces of a tile, and
+     * records them as nodes of the input segment strings.
+     */
+    private static class TileIntersector implements SegmentIntersector {
+
+        private final NodedSegmentString[] strings;
+        private final LineIntersector li = new RobustLineIntersector();
+        private double[] nodes = new double[40];
+        private int size = 0;
+
+        TileIntersector(NodedSegmentString[] strings) {
+            this.strings = strings;
+        }
+
+        public void processIntersections(SegmentString e0, int segIndex0,
+                                         SegmentString e1, int segIndex1) {
+            final int[] p0 = (int[])e0.getData();
+            final int[] p1 = (int[])e1.getData();
+            int s0 = p0[0], i0 = p0[1] + segIndex0;
+            int s1 = p1[0], i1 = p1[1] + segIndex1;
+            if (s0 == s1 && i0 == i1) return;
+            // always intersect a pair of segments in the same order
+            if (s0 > s1 || (s0 == s1 && i0 > i1)) {
+                int tmp = s0; s0 = s1; s1 = tmp;
+                tmp = i0; i0 = i1; i1 = tmp;
+            }
+            final Coordinate[] pts0 = strings[s0].getCoordinates();
+            final Coordinate[] pts1 = strings[s1].getCoordinates();
+            li.computeIntersection(pts0[i0], pts0[i0 + 1], pts1[i1], pts1[i1 + 1]);
+            if (!li.hasIntersection() || isTrivialIntersection(s0, i0, s1, i1)) return;
+            for (int k = 0; k < li.getIntersectionNum(); k++) {
+                add(s0, i0, li.getIntersection(k));
+                add(s1, i1, li.getIntersection(k));
+            }
+        }
+
+        private boolean isTrivialIntersection(int s0, int i0, int s1, int i1) {
+            if (s0 != s1 || li.getIntersectionNum() != 1) return false;
+            if (Math.abs(i0 - i1) == 1) return true;
+            final NodedSegmentString ss = strings[s0];
+            final int maxSegIndex = ss.size() - 2;
+            return ss.isClosed() && i0 == 0 && i1 == maxSegIndex;
+        }
+
+        private void add(int string, int segIndex, Coordinate c) {
+            if (size + 5 > nodes.length) nodes = Arrays.copyOf(nodes, nodes.length * 2);
+            nodes[size++] = string;
+            nodes[size++] = segIndex;
+            nodes[size++] = c.x;
+            nodes[size++] = c.y;
+            nodes[size++] = c.getZ();
+        }
+
+        public boolean isDone() {
+            return false;
+        }
+    }
+}
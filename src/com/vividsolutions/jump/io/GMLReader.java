@@ -67,6 +67,7 @@ import com.vividsolutions.jump.feature.FeatureCollection;
 import com.vividsolutions.jump.feature.FeatureDataset;
 import com.vividsolutions.jump.feature.FeatureSchema;
 import com.vividsolutions.jump.feature.FlexibleFeature;
+import com.vividsolutions.jump.geom.CoordinateStorage;
 import com.vividsolutions.jump.task.DummyTaskMonitor;
 import com.vividsolutions.jump.task.TaskMonitor;
 import com.vividsolutions.jump.task.TaskMonitorSupport;
@@ -294,6 +295,8 @@ public class GMLReader extends DefaultHandler implements JUMPReader, TaskMonitor
                           // geometry
   private String current_geom_qname = "";
   private ArrayList<Geometry> geometry;
+  // storage of the coordinates (null means the default storage)
+  private CoordinateStorage coordinateStorage = null;
   private GeometryFactory geometryFactory = new GeometryFactory(); // this might get
                                                            // replaced if
                                                            // there's an SRID
@@ -440,6 +443,8 @@ public class GMLReader extends DefaultHandler implements JUMPReader, TaskMonitor
 
     isCompressed_template = (dp.getProperty("CompressedFileTemplate") != null);
 
+    coordinateStorage = CoordinateStorage.get(dp.getProperty(CoordinateStorage.KEY));
+
     isCompressed = (dp.getProperty("CompressedFile") != null);
 
     inputFname = dp.getProperty("File");
@@ -563,6 +568,7 @@ public class GMLReader extends DefaultHandler implements JUMPReader, TaskMonitor
 
     fcmd = GMLinput.toFeatureSchema();
     fc = new FeatureDataset(fcmd);
+    geometryFactory = getCoordinateStorage().getGeometryFactory(new PrecisionModel(), SRID);
 
     try {
       xr.parse(is);
@@ -582,6 +588,19 @@ public class GMLReader extends DefaultHandler implements JUMPReader, TaskMonitor
     return fc;
   }
 
+  /**
+   * Sets the storage of the coordinates of the geometries read.
+   * @param coordinateStorage the storage to use, or null to use the default
+   *                          storage
+   */
+  public void setCoordinateStorage(CoordinateStorage coordinateStorage) {
+    this.coordinateStorage = coordinateStorage;
+  }
+
+  private CoordinateStorage getCoordinateStorage() {
+    return coordinateStorage == null ? CoordinateStorage.getDefault() : coordinateStorage;
+  }
+
   // //////////////////////////////////////////////////////////////////
   // Event handlers.
   // //////////////////////////////////////////////////////////////////
@@ -679,7 +698,7 @@ public class GMLReader extends DefaultHandler implements JUMPReader, TaskMonitor
         if (newSRID != 0) {
           SRID = newSRID;
           if (geometryFactory.getSRID() != SRID)
-            geometryFactory = new GeometryFactory(new PrecisionModel(), SRID);
+            geometryFactory = getCoordinateStorage().getGeometryFactory(new PrecisionModel(), SRID);
         }
       }
 
@@ -54,10 +54,12 @@ import org.locationtech.jts.geom.GeometryFactory;
 import com.vividsolutions.jump.I18N;
 import com.vividsolutions.jump.feature.AttributeType;
 import com.vividsolutions.jump.feature.BasicFeature;
+import com.vividsolutions.jump.feature.ColumnarFeatureCollection;
 import com.vividsolutions.jump.feature.Feature;
 import com.vividsolutions.jump.feature.FeatureCollection;
 import com.vividsolutions.jump.feature.FeatureDataset;
 import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.geom.CoordinateStorage;
 import com.vividsolutions.jump.workbench.Logger;
 
 /**
@@ -96,6 +98,13 @@ import com.vividsolutions.jump.workbench.Logger;
  *         after being read.
  *      </td>
  *    </tr>
+ *
+ *    <tr>
+ *      <td style="border: 1px solid #999; padding: 4px;">ColumnarAttributes</td>
+ *      <td style="border: 1px solid #999; padding: 4px;">true to load the features in a
+ *      {@link ColumnarFeatureCollection} (default is
+ *      {@link ColumnarFeatureCollection#isUsedByDefault()})</td>
+ *    </tr>
  *  </table>
  */
 public class ShapefileReader extends AbstractJUMPReader {
@@ -145,7 +154,8 @@ public class ShapefileReader extends AbstractJUMPReader {
 
         try(InputStream shx = getShx(shpFileName, dp.getProperty(DataSource.COMPRESSED_KEY))) {
 
-            GeometryFactory factory = new GeometryFactory();
+            GeometryFactory factory = CoordinateStorage.get(
+                    dp.getProperty(CoordinateStorage.KEY)).getGeometryFactory();
             GeometryCollection collection;
             // Read the shapefile either from shx (if provided) or directly from shp
             collection = shx == null ? myshape.read(factory) : myshape.readFromIndex(factory, shx);
@@ -158,7 +168,7 @@ public class ShapefileReader extends AbstractJUMPReader {
 
             if ( mydbf == null ) {
                 // handle shapefiles without dbf files.
-                featureCollection = new FeatureDataset(fs);
+                featureCollection = createFeatureCollection(fs, dp);
 
                 int numGeometries = collection.getNumGeometries();
 
@@ -167,7 +177,7 @@ public class ShapefileReader extends AbstractJUMPReader {
                     Geometry geo = collection.getGeometryN(x);
 
                     feature.setGeometry(geo);
-                    featureCollection.add(feature);
+                    add(featureCollection, feature);
                 }
             } else {
                 // There is a DBF file so we have to set the Charset to use and
@@ -180,7 +190,7 @@ public class ShapefileReader extends AbstractJUMPReader {
                     fs.addAttribute( mydbf.getFieldName(j), type );
                 }
 
-                featureCollection = new FeatureDataset(fs);
+                featureCollection = createFeatureCollection(fs, dp);
 
                 for (int x = 0; x < Math.min(mydbf.getLastRec(), collection.getNumGeometries()); x++) {
 
@@ -198,7 +208,7 @@ public class ShapefileReader extends AbstractJUMPReader {
                     }
 
                     feature.setGeometry(geo);
-                    featureCollection.add(feature);
+                    add(featureCollection, feature);
                 }
 
                 // [mmichaud 2013-10-07] if the number of shapes is greater than the number of records
@@ -212,7 +222,7 @@ public class ShapefileReader extends AbstractJUMPReader {
                         Feature feature = new BasicFeature(fs);
                         Geometry geo = collection.getGeometryN(x);
                         feature.setGeometry(geo);
-                        featureCollection.add(feature);
+                        add(featureCollection, feature);
                     }
                 }
                 if (collection.getNumGeometries() < mydbf.getLastRec()) {
@@ -233,7 +243,7 @@ public class ShapefileReader extends AbstractJUMPReader {
                             feature.setAttribute(y + 1, mydbf.ParseRecordColumn(s, y));
                         }
                         feature.setGeometry(geo);
-                        featureCollection.add(feature);
+                        add(featureCollection, feature);
                     }
                 }
             }
@@ -457,6 +467,22 @@ public class ShapefileReader extends AbstractJUMPReader {
     }
 
 
+    private static FeatureCollection createFeatureCollection(FeatureSchema fs, DriverProperties dp) {
+        if (ColumnarFeatureCollection.isUsed(dp.getProperty(ColumnarFeatureCollection.KEY))) {
+            return new ColumnarFeatureCollection(fs);
+        }
+        return new FeatureDataset(fs);
+    }
+
+    // features read are copied in the rows of a ColumnarFeatureCollection
+    private static void add(FeatureCollection featureCollection, Feature feature) {
+        if (featureCollection instanceof ColumnarFeatureCollection) {
+            ((ColumnarFeatureCollection) featureCollection).addRow(feature);
+        } else {
+            featureCollection.add(feature);
+        }
+    }
+
     private void deleteTmpDbf() {
         if (delete_this_tmp_dbf != null) {
             delete_this_tmp_dbf.delete();
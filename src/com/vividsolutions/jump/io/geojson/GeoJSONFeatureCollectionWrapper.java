@@ -21,6 +21,7 @@ import com.vividsolutions.jump.feature.Feature;
 import com.vividsolutions.jump.feature.FeatureCollection;
 import com.vividsolutions.jump.feature.FeatureDataset;
 import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.geom.CoordinateStorage;
 import com.vividsolutions.jump.task.TaskMonitor;
 import com.vividsolutions.jump.task.TaskMonitorUtil;
 import com.vividsolutions.jump.util.Timer;
@@ -31,6 +32,7 @@ import com.vividsolutions.jump.util.Timer;
  */
 public class GeoJSONFeatureCollectionWrapper implements JSONStreamAware {
   MapGeoJsonGeometryReader geomReader = null;
+  CoordinateStorage coordinateStorage = CoordinateStorage.getDefault();
   FlexibleFeatureSchema featureSchema;
   FeatureCollection featureCollection;
   List<String> columnsWithMixedValues = new LinkedList<>();
@@ -51,6 +53,14 @@ public class GeoJSONFeatureCollectionWrapper implements JSONStreamAware {
     this.featureCollection = fc;
   }
 
+  /**
+   * set the storage of the coordinates of the geometries added from now on
+   */
+  public void setCoordinateStorage(CoordinateStorage coordinateStorage) {
+    this.coordinateStorage = coordinateStorage;
+    this.geomReader = null;
+  }
+
   /**
    * add a Feature defined by given JSON-simple map the to the collection
    */
@@ -139,7 +149,7 @@ public class GeoJSONFeatureCollectionWrapper implements JSONStreamAware {
       Map geometryMap = (Map) featureMap.get(GeoJSONConstants.GEOMETRY);
       // initialize geom reader
       if (geomReader == null)
-        geomReader = new MapGeoJsonGeometryReader();
+        geomReader = new MapGeoJsonGeometryReader(coordinateStorage);
 
       Geometry geom = geomReader.read(geometryMap);
       // memorize a geomtype from the dataset
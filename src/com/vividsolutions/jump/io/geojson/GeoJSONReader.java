@@ -28,6 +28,7 @@ import com.vividsolutions.jump.I18N;
 import com.vividsolutions.jump.feature.AttributeType;
 import com.vividsolutions.jump.feature.FeatureCollection;
 import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.geom.CoordinateStorage;
 import com.vividsolutions.jump.io.AbstractJUMPReader;
 import com.vividsolutions.jump.io.CompressedFile;
 import com.vividsolutions.jump.io.DriverProperties;
@@ -55,6 +56,7 @@ public class GeoJSONReader extends AbstractJUMPReader {
     Reader bufReader = null;
     // create a new geojson capable feature collection
     GeoJSONFeatureCollectionWrapper fcwrap = new GeoJSONFeatureCollectionWrapper();
+    fcwrap.setCoordinateStorage(CoordinateStorage.get(dp.getProperty(CoordinateStorage.KEY)));
     try {
       URI uri = new URI(inputUri);
 
@@ -244,6 +246,7 @@ public class GeoJSONReader extends AbstractJUMPReader {
 class MapGeoJsonGeometryReader extends
     org.locationtech.jts.io.geojson.GeoJsonReader {
   GeometryFactory geometryFactory = null;
+  CoordinateStorage coordinateStorage;
   Method m, m2;
 
   /**
@@ -255,6 +258,15 @@ class MapGeoJsonGeometryReader extends
    */
   public MapGeoJsonGeometryReader() throws NoSuchMethodException,
       SecurityException {
+    this(CoordinateStorage.getDefault());
+  }
+
+  /**
+   * @param coordinateStorage storage of the coordinates of the geometries read
+   */
+  public MapGeoJsonGeometryReader(CoordinateStorage coordinateStorage)
+      throws NoSuchMethodException, SecurityException {
+    this.coordinateStorage = coordinateStorage;
     m = GeoJsonReader.class.getDeclaredMethod("create", Map.class,
         GeometryFactory.class);
     m.setAccessible(true);
@@ -277,7 +289,9 @@ class MapGeoJsonGeometryReader extends
       IllegalArgumentException, InvocationTargetException,
       org.locationtech.jts.io.ParseException, ClassNotFoundException {
     if (this.geometryFactory == null) {
-      geometryFactory = (GeometryFactory) m2.invoke(this, geometryMap);
+      GeometryFactory crsFactory = (GeometryFactory) m2.invoke(this, geometryMap);
+      geometryFactory = coordinateStorage.getGeometryFactory(
+          crsFactory.getPrecisionModel(), crsFactory.getSRID());
     }
 
     // GeomColls have no coord list, but list geoms instead, so we skip this
@@ -47,6 +47,10 @@ import com.vividsolutions.jump.workbench.ui.plugin.*;
 import com.vividsolutions.jump.feature.*;
 import org.locationtech.jts.geom.*;
 import org.locationtech.jts.geom.util.LinearComponentExtracter;
+import org.locationtech.jts.noding.NodedSegmentString;
+import org.locationtech.jts.noding.SegmentString;
+import org.locationtech.jts.noding.SegmentStringDissolver;
+import com.vividsolutions.jump.geom.TiledNoder;
 import com.vividsolutions.jump.task.*;
 import com.vividsolutions.jump.workbench.ui.*;
 import org.openjump.core.ui.plugin.AbstractThreadedUiPlugIn;
@@ -55,8 +59,10 @@ public class LineNoderPlugIn extends AbstractThreadedUiPlugIn {
     
   private final static String SRC_LAYER = I18N.get("jump.plugin.edit.LineNoderPlugIn.Line-Layer");
   private final static String SELECTED_ONLY = GenericNames.USE_SELECTED_FEATURES_ONLY;
+  private final static String TILED_NODING = I18N.get("jump.plugin.edit.LineNoderPlugIn.tiled-noding");
   
   private boolean useSelected = false;
+  private boolean tiledNoding = false;
   private String layerName;
   private GeometryFactory fact = new GeometryFactory();
 
@@ -107,8 +113,7 @@ public class LineNoderPlugIn extends AbstractThreadedUiPlugIn {
     Collection<LineString> lines = getLines(inputFeatures);
 
     monitor.report(I18N.get("jump.plugin.edit.LineNoderPlugIn.Noding-input-lines"));
-    Geometry nodedGeom = nodeLines(lines);
-    Collection nodedLines = toLines(nodedGeom);
+    Collection nodedLines = tiledNoding ? nodeLinesByTiles(lines) : toLines(nodeLines(lines));
 
     if (monitor.isCancelRequested()) return;
     createLayer(context, nodedLines);
@@ -153,6 +158,33 @@ public class LineNoderPlugIn extends AbstractThreadedUiPlugIn {
     return linesGeom.union(unionInput);
   }
 
+  /**
+   * Nodes a collection of linestrings with a {@link TiledNoder}, which
+   * computes intersections tile by tile, in parallel. Duplicate noded
+   * linestrings (from overlapping input lines) are merged, as they are
+   * by union.
+   *
+   * @param lines the linear geometries to node
+   * @return a collection of linestrings, noded together
+   */
+  private List<LineString> nodeLinesByTiles(Collection<LineString> lines) {
+    List<SegmentString> segmentStrings = new ArrayList<>();
+    for (LineString line : lines) {
+      if (line.getNumPoints() > 1) {
+        segmentStrings.add(new NodedSegmentString(line.getCoordinates(), null));
+      }
+    }
+    TiledNoder noder = new TiledNoder();
+    noder.computeNodes(segmentStrings);
+    SegmentStringDissolver dissolver = new SegmentStringDissolver();
+    dissolver.dissolve(noder.getNodedSubstrings());
+    List<LineString> nodedLines = new ArrayList<>();
+    for (Object ss : dissolver.getDissolved()) {
+      nodedLines.add(fact.createLineString(((SegmentString)ss).getCoordinates()));
+    }
+    return nodedLines;
+  }
+
   private static List toLines(Geometry geom) {
     List linesList = new ArrayList();
     LinearComponentExtracter lineFilter = new LinearComponentExtracter(linesList);
@@ -187,12 +219,15 @@ public class LineNoderPlugIn extends AbstractThreadedUiPlugIn {
     dialog.setSideBarDescription(I18N.get("jump.plugin.edit.LineNoderPlugIn.Nodes-the-lines-in-a-layer"));
     dialog.addLayerComboBox(SRC_LAYER, context.getCandidateLayer(0), null, context.getLayerManager());
     dialog.addCheckBox(SELECTED_ONLY, useSelected);
+    dialog.addCheckBox(TILED_NODING, tiledNoding,
+        I18N.get("jump.plugin.edit.LineNoderPlugIn.tiled-noding-tooltip"));
   }
 
   private void getDialogValues(MultiInputDialog dialog) {
     Layer layer = dialog.getLayer(SRC_LAYER);
     layerName = layer.getName();
     useSelected = dialog.getBoolean(SELECTED_ONLY);
+    tiledNoding = dialog.getBoolean(TILED_NODING);
   }
   
 }
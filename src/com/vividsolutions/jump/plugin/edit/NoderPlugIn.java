@@ -39,6 +39,7 @@ import org.locationtech.jts.noding.snapround.SnapRoundingNoder;
 import org.locationtech.jts.operation.polygonize.Polygonizer;
 import org.locationtech.jts.precision.CoordinatePrecisionReducerFilter;
 import com.vividsolutions.jump.I18N;
+import com.vividsolutions.jump.geom.TiledNoder;
 import com.vividsolutions.jump.feature.*;
 import com.vividsolutions.jump.task.TaskMonitor;
 import com.vividsolutions.jump.workbench.WorkbenchContext;
@@ -74,6 +75,7 @@ import java.util.*;
  * <li>What do you want to do with lines : nothing, insert nodes, split lines</li>
  * <li>What do you want to do with polygons : nothing, insert nodes, split polygons</li>
  * <li>Make the process fully robust using snap rounding mode : yes/no</li>
+ * <li>Node large datasets by tiles, in parallel (when snap rounding is not used)</li>
  * <li>Interpolate z on new points</li>
  * </ul>
  *
@@ -97,6 +99,8 @@ public class NoderPlugIn extends AbstractThreadedUiPlugIn {
     private final static String SNAP_ROUNDING_TOOLTIP   = I18N.get("jump.plugin.edit.NoderPlugIn.snap-rounding-makes-noding-algorithm-fully-robust");
     private final static String SNAP_ROUNDING_DP        = I18N.get("jump.plugin.edit.NoderPlugIn.snap-rounding-decimal-places");
     private final static String DECIMAL_DIGITS_TOOLTIP  = I18N.get("jump.plugin.edit.NoderPlugIn.number-of-decimal-digits");
+    private final static String TILED_NODING            = I18N.get("jump.plugin.edit.NoderPlugIn.tiled-noding");
+    private final static String TILED_NODING_TOOLTIP    = I18N.get("jump.plugin.edit.NoderPlugIn.tiled-noding-tooltip");
     
     private final static String INTERPOLATE_Z           = I18N.get("jump.plugin.edit.NoderPlugIn.interpolate-z");
     private final static String INTERPOLATED_Z_DP       = I18N.get("jump.plugin.edit.NoderPlugIn.interpolated-z-decimal-places");
@@ -129,6 +133,8 @@ public class NoderPlugIn extends AbstractThreadedUiPlugIn {
     private boolean snap_rounding = false;
     private int snap_rounding_dp = 6;
     
+    private boolean tiled_noding = false;
+    
     private boolean interpolate_z = false;
     private int interpolated_z_dp  = 3;
     
@@ -166,6 +172,7 @@ public class NoderPlugIn extends AbstractThreadedUiPlugIn {
     public void setLayerName(String layerName) {this.layerName = layerName;}
     public void setSnapRounding(boolean snap_rounding) {this.snap_rounding = snap_rounding;}
     public void setSnapRoundingDp(int snap_rounding_dp) {this.snap_rounding_dp = snap_rounding_dp;}
+    public void setTiledNoding(boolean tiled_noding) {this.tiled_noding = tiled_noding;}
     public void setFindIntersections(boolean find_intersections) {this.find_intersections = find_intersections;}
     
     public void setLineProcessor(Processor processor) {this.line_processor = processor;}
@@ -260,6 +267,8 @@ public class NoderPlugIn extends AbstractThreadedUiPlugIn {
         else {
             Noder noder = snap_rounding ? 
                           getScaledNoder() :
+                          tiled_noding ?
+                          new TiledNoder() :
                           getMCIndexNoder(new IntersectionAdder(ROBUST_INTERSECTOR));
             noder.computeNodes(segmentStrings);
             Collection nodedSubstring = noder.getNodedSubstrings();
@@ -407,7 +416,8 @@ public class NoderPlugIn extends AbstractThreadedUiPlugIn {
     private FeatureCollection findIntersections(List<SegmentString> segmentStrings,
                                                IntersectionAdder intersector) {
     
-        Noder noder = getMCIndexNoder(intersector);
+        // TiledNoder computes the same nodes as an IntersectionAdder
+        Noder noder = tiled_noding ? new TiledNoder() : getMCIndexNoder(intersector);
         noder.computeNodes(segmentStrings);
         Set<Geometry> nodes = new HashSet<>();
         List<SegmentString> sss = (List<SegmentString>)noder.getNodedSubstrings();
@@ -691,14 +701,17 @@ public class NoderPlugIn extends AbstractThreadedUiPlugIn {
         
         final JCheckBox snapRoundingCB = dialog.addCheckBox(SNAP_ROUNDING, snap_rounding, SNAP_ROUNDING_TOOLTIP);
         final JTextField snapRoundingDPTF = dialog.addIntegerField(SNAP_ROUNDING_DP, snap_rounding_dp, 6, DECIMAL_DIGITS_TOOLTIP);
+        final JCheckBox tiledNodingCB = dialog.addCheckBox(TILED_NODING, tiled_noding, TILED_NODING_TOOLTIP);
         
         final JCheckBox interpolateZCB = dialog.addCheckBox(INTERPOLATE_Z, interpolate_z);
         final JTextField interpolateZDPTF = dialog.addIntegerField(INTERPOLATED_Z_DP, interpolated_z_dp, 6, DECIMAL_DIGITS_TOOLTIP);
         
         snapRoundingDPTF.setEnabled(snap_rounding);
+        tiledNodingCB.setEnabled(!snap_rounding);
         snapRoundingCB.addActionListener(new ActionListener(){
             public void actionPerformed(ActionEvent e) {
                 dialog.setFieldEnabled(SNAP_ROUNDING_DP, snapRoundingCB.isSelected());
+                dialog.setFieldEnabled(TILED_NODING, !snapRoundingCB.isSelected());
             }
         });
 
@@ -720,6 +733,7 @@ public class NoderPlugIn extends AbstractThreadedUiPlugIn {
 
         snap_rounding = dialog.getBoolean(SNAP_ROUNDING);
         snap_rounding_dp = dialog.getInteger(SNAP_ROUNDING_DP);        
+        tiled_noding = dialog.getBoolean(TILED_NODING);
         interpolate_z = dialog.getBoolean(INTERPOLATE_Z);
         interpolated_z_dp = dialog.getInteger(INTERPOLATED_Z_DP);
     }
@@ -65,4 +65,13 @@ public class BasicTopologyValidationError extends ValidationError {
     public Coordinate getLocation() {
         return basicTopologyError.getCoordinate();
     }
+
+    @Override
+    protected Object clone() throws CloneNotSupportedException {
+        BasicTopologyValidationError clone = (BasicTopologyValidationError) super.clone();
+        // TopologyValidationError copies its coordinate
+        clone.basicTopologyError = new TopologyValidationError(
+            basicTopologyError.getErrorType(), basicTopologyError.getCoordinate());
+        return clone;
+    }
 }
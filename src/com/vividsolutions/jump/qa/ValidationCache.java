@@ -0,0 +1,80 @@
+package com.vividsolutions.jump.qa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.locationtech.jts.geom.Geometry;
+import com.vividsolutions.jump.feature.Feature;
+
+/**
+ * Remembers the validation errors of features, so that validating a layer
+ * again only checks the features which have been modified since.
+ * <p>
+ * A cached result is used as long as the feature still references the very
+ * same Geometry instance (editing tools replace the geometry of the features
+ * they modify). Features are weakly referenced (cached errors are detached
+ * from their feature), and the whole cache is invalidated when it is used
+ * by a {@link Validator} with different settings.
+ * </p>
+ * A ValidationCache can be shared by several threads.
+ */
+public class ValidationCache {
+
+    private final Map<Feature,Entry> entries = new WeakHashMap<>();
+    private String settings;
+
+    /**
+     * Clears the cache if settings are not the ones of the cached results.
+     */
+    synchronized void checkSettings(String settings) {
+        if (!settings.equals(this.settings)) {
+            entries.clear();
+            this.settings = settings;
+        }
+    }
+
+    /**
+     * Returns the cached errors of feature, or null if the feature has not
+     * been validated or if its geometry has changed.
+     */
+    List<ValidationError> get(Feature feature) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(feature);
+        }
+        if (entry == null || entry.geometry != feature.getGeometry()) {
+            return null;
+        }
+        List<ValidationError> errors = new ArrayList<>(entry.errors.length);
+        for (ValidationError error : entry.errors) {
+            errors.add(error.withFeature(feature));
+        }
+        return errors;
+    }
+
+    void put(Feature feature, List<ValidationError> errors) {
+        ValidationError[] detached = new ValidationError[errors.size()];
+        for (int i = 0; i < detached.length; i++) {
+            detached[i] = errors.get(i).withFeature(null);
+        }
+        synchronized (this) {
+            entries.put(feature, new Entry(feature.getGeometry(), detached));
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private static class Entry {
+        final Geometry geometry;
+        final ValidationError[] errors;
+
+        Entry(Geometry geometry, ValidationError[] errors) {
+            this.geometry = geometry;
+            this.errors = errors;
+        }
+    }
+}
@@ -43,7 +43,7 @@ import com.vividsolutions.jump.geom.InteriorPointFinder;
  * An error with a Feature, found by Validator.
  * @see Validator
  */
-public class ValidationError {
+public class ValidationError implements Cloneable {
     private static InteriorPointFinder interiorPointFinder = new InteriorPointFinder();
     private ValidationErrorType type;
     private Feature feature;
@@ -114,6 +114,31 @@ public class ValidationError {
         return location;
     }
 
+    /**
+     * Returns a copy of this error, with its own copy of the location.
+     */
+    @Override
+    protected Object clone() throws CloneNotSupportedException {
+        ValidationError clone = (ValidationError) super.clone();
+        if (location != null) {
+            clone.location = location.copy();
+        }
+        return clone;
+    }
+
+    /**
+     * Returns a copy of this error concerning another feature (or no feature).
+     */
+    ValidationError withFeature(Feature feature) {
+        try {
+            ValidationError copy = (ValidationError) clone();
+            copy.feature = feature;
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private static Coordinate location(Geometry g) {
         try {
             return interiorPointFinder.findPoint(g);
@@ -34,6 +34,8 @@
 package com.vividsolutions.jump.qa;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 import org.locationtech.jts.algorithm.Orientation;
 import org.locationtech.jts.geom.*;
@@ -50,9 +52,19 @@ import com.vividsolutions.jump.util.CoordinateArrays;
 /**
  * Performs basic JTS validation, and additional validation like checking polygon
  * orientation.
+ * <p>
+ * Features are validated in parallel, by chunks of {@link #CHUNK_SIZE}
+ * features. Validation errors keep the order of the features.
+ * </p>
  */
 public class Validator {
 
+    /** Number of features validated by a single task */
+    public static final int CHUNK_SIZE = 256;
+
+    // number of chunks validated between two calls to the error handler
+    private static final int CHUNKS_PER_BATCH = 4 * Runtime.getRuntime().availableProcessors();
+
     private boolean checkingBasicTopology = true;
     private boolean checkingPolygonOrientation = false;
     private boolean checkingGeometriesSimple = false;
@@ -65,7 +77,7 @@ public class Validator {
     private double minAngle = 0;
     private double minPolygonArea = 0;
     private Collection<String> disallowedGeometryClassNames = new ArrayList<>();
-    private RepeatedPointTester repeatedPointTester = new RepeatedPointTester();
+    private ValidationCache cache = null;
 
     //<<TODO:REFACTORING>> Move this class and associated classes to JTS [Jon Aquino]
     public Validator() {
@@ -194,6 +206,16 @@ public class Validator {
         }
     }
 
+    /**
+     * Sets a cache of validation results. Features whose geometry has not
+     * changed since they have been validated with the same settings are not
+     * checked again.
+     * @param cache the cache to use, or null to validate all features
+     */
+    public void setCache(ValidationCache cache) {
+        this.cache = cache;
+    }
+
     /**
      * Checks a collection of features.
      * @param features the Feature's to validate
@@ -201,22 +223,89 @@ public class Validator {
      * will be empty
      */
     public List validate(Collection features, TaskMonitor monitor) {
+        final List<Object> validationErrors = new ArrayList<>();
+        validate(features, monitor, validationErrors::addAll);
+        return validationErrors;
+    }
+
+    /**
+     * Checks a collection of features, and hands validation errors to
+     * errorHandler as soon as they have been found for a batch of features,
+     * so that they can be processed incrementally.
+     * @param features the Feature's to validate
+     * @param monitor the TaskMonitor reporting progress and cancellation
+     * @param errorHandler receives the ValidationErrors, in the order of the
+     *                     features, on the calling thread
+     */
+    public void validate(Collection<?> features, TaskMonitor monitor,
+                         Consumer<List<Object>> errorHandler) {
         monitor.allowCancellationRequests();
-        int validatedFeatureCount = 0;
         monitor.report(I18N.get("qa.Validator.validating"));
+        if (cache != null) {
+            cache.checkSettings(getSettings());
+        }
 
-        List<Object> validationErrors = new ArrayList<>();
-        int totalFeatures = features.size();
+        final List<Feature> featureList = new ArrayList<>(features.size());
+        for (Object feature : features) {
+            featureList.add((Feature) feature);
+        }
+        final int totalFeatures = featureList.size();
+        final int chunks = (totalFeatures + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        final List<List<Object>> chunkErrors = new ArrayList<>(Collections.nCopies(chunks, null));
+
+        for (int batch = 0; batch < chunks && !monitor.isCancelRequested();
+                batch += CHUNKS_PER_BATCH) {
+            final int end = Math.min(chunks, batch + CHUNKS_PER_BATCH);
+            IntStream.range(batch, end).parallel().forEach(c -> {
+                if (monitor.isCancelRequested()) return;
+                List<Object> errors = new ArrayList<>();
+                int last = Math.min(totalFeatures, (c + 1) * CHUNK_SIZE);
+                for (int i = c * CHUNK_SIZE; i < last; i++) {
+                    validateWithCache(featureList.get(i), errors);
+                }
+                chunkErrors.set(c, errors);
+            });
+            for (int c = batch; c < end && !monitor.isCancelRequested(); c++) {
+                errorHandler.accept(chunkErrors.get(c));
+                chunkErrors.set(c, null);
+            }
+            monitor.report(Math.min(totalFeatures, end * CHUNK_SIZE), totalFeatures,
+                    I18N.get("qa.Validator.features"));
+        }
+    }
 
-        for (Iterator i = features.iterator();
-                i.hasNext() && !monitor.isCancelRequested();) {
-            Feature feature = (Feature) i.next();
+    private void validateWithCache(Feature feature, List<Object> validationErrors) {
+        if (cache == null) {
             validate(feature, validationErrors);
-            validatedFeatureCount++;
-            monitor.report(validatedFeatureCount, totalFeatures, "features");
+            return;
+        }
+        List<ValidationError> cached = cache.get(feature);
+        if (cached != null) {
+            validationErrors.addAll(cached);
+            return;
         }
+        List<Object> errors = new ArrayList<>();
+        validate(feature, errors);
+        validationErrors.addAll(errors);
+        List<ValidationError> cacheable = new ArrayList<>(errors.size());
+        for (Object error : errors) {
+            // only cache results which can be attached to the feature again
+            if (!(error instanceof ValidationError)) return;
+            cacheable.add((ValidationError) error);
+        }
+        cache.put(feature, cacheable);
+    }
 
-        return validationErrors;
+    /**
+     * Returns a description of the checks performed, results obtained with
+     * other settings cannot be reused.
+     */
+    private String getSettings() {
+        return getClass().getName() + checkingBasicTopology + checkingPolygonOrientation
+            + checkingGeometriesSimple + checkingMinSegmentLength + checkingMinAngle
+            + checkingMinPolygonArea + checkingNoRepeatedConsecutivePoints
+            + checkingNoHoles + minSegmentLength + ':' + minAngle + ':'
+            + minPolygonArea + new TreeSet<>(disallowedGeometryClassNames);
     }
 
     protected void addIfNotNull(Object item, Collection<Object> collection) {
@@ -284,6 +373,9 @@ public class Validator {
     }
 
     protected ValidationError validateBasicTopology(Feature feature) {
+        if (isTriviallyValid(feature.getGeometry())) {
+            return null;
+        }
         TopologyValidationError error = (new IsValidOp(feature.getGeometry())).getValidationError();
 
         if (error != null) {
@@ -293,8 +385,71 @@ public class Validator {
         return null;
     }
 
+    /**
+     * Cheap checks of geometries which are known to be valid without
+     * running the full topology validation : empty geometries, points and
+     * multipoints with finite coordinates, linestrings and multilinestrings
+     * with finite coordinates and at least two distinct points in each
+     * linestring, non degenerate rectangles (polygons equal to their
+     * envelope), and GeometryCollections made of such elements.
+     * Other geometries return false and must be validated.
+     */
+    private static boolean isTriviallyValid(Geometry geometry) {
+        if (geometry.isEmpty()) {
+            return true;
+        }
+        if (geometry instanceof Point) {
+            return hasFiniteCoordinates(((Point) geometry).getCoordinateSequence());
+        }
+        // a LinearRing must also be closed and simple
+        if (geometry instanceof LineString && !(geometry instanceof LinearRing)) {
+            CoordinateSequence seq = ((LineString) geometry).getCoordinateSequence();
+            return hasFiniteCoordinates(seq) && hasTwoDistinctPoints(seq);
+        }
+        if (geometry instanceof Polygon) {
+            if (!((Polygon) geometry).isRectangle()) {
+                return false;
+            }
+            Envelope env = geometry.getEnvelopeInternal();
+            return env.getWidth() > 0 && env.getHeight() > 0
+                && Double.isFinite(env.getWidth()) && Double.isFinite(env.getHeight());
+        }
+        // the elements of a MultiPolygon must also not overlap, those of
+        // other collections are validated independently
+        if (geometry instanceof GeometryCollection && !(geometry instanceof MultiPolygon)) {
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                if (!isTriviallyValid(geometry.getGeometryN(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean hasFiniteCoordinates(CoordinateSequence seq) {
+        for (int i = 0; i < seq.size(); i++) {
+            if (!Double.isFinite(seq.getX(i)) || !Double.isFinite(seq.getY(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasTwoDistinctPoints(CoordinateSequence seq) {
+        for (int i = 1; i < seq.size(); i++) {
+            if (seq.getX(i) != seq.getX(0) || seq.getY(i) != seq.getY(0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     protected ValidationError validateNoRepeatedConsecutivePoints(
         Feature feature) {
+        // RepeatedPointTester keeps the repeated point, it cannot be shared
+        // by threads validating features concurrently
+        RepeatedPointTester repeatedPointTester = new RepeatedPointTester();
         if (repeatedPointTester.hasRepeatedPoint(feature.getGeometry())) {
             return new ValidationError(ValidationErrorType.REPEATED_CONSECUTIVE_POINTS,
                 feature, repeatedPointTester.getCoordinate());
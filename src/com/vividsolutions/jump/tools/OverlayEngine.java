@@ -33,18 +33,28 @@
 
 package com.vividsolutions.jump.tools;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.MultiPolygon;
 import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
 import org.locationtech.jts.precision.EnhancedPrecisionOp;
 import com.vividsolutions.jump.I18N;
 import com.vividsolutions.jump.feature.BasicFeature;
 import com.vividsolutions.jump.feature.Feature;
 import com.vividsolutions.jump.feature.FeatureCollection;
 import com.vividsolutions.jump.feature.FeatureDataset;
+import com.vividsolutions.jump.feature.FeatureSchema;
 import com.vividsolutions.jump.feature.IndexedFeatureCollection;
 import com.vividsolutions.jump.task.TaskMonitor;
 import com.vividsolutions.jump.workbench.Logger;
@@ -56,8 +66,13 @@ import com.vividsolutions.jump.workbench.Logger;
  */
 public class OverlayEngine {
 
+    // number of features of the first dataset processed as a single task
+    // in parallel mode
+    private static final int CHUNK_SIZE = 64;
+
     private boolean splittingGeometryCollections = true;
     private boolean allowingPolygonsOnly = true;
+    private boolean parallel = false;
 
     /**
      * Creates a new OverlayEngine.
@@ -98,36 +113,135 @@ public class OverlayEngine {
         monitor.report(I18N.get("tools.OverlayEngine.overlaying-feature-collections"));
 
         FeatureDataset overlay = new FeatureDataset(mapping.createSchema("GEOMETRY"));
+        if (parallel) {
+            overlayParallel(a, indexedB, mapping, overlay, monitor);
+            return overlay;
+        }
         List<Feature> aFeatures = a.getFeatures();
 
         int count = 0;
+        List<Feature> buffer = new ArrayList<>();
         for (Feature aFeature : aFeatures) {
             if (monitor.isCancelRequested()) break;
 
-            for (Feature bFeature : indexedB.query(aFeature.getGeometry().getEnvelopeInternal())) {
-                if (monitor.isCancelRequested()) break;
-                addIntersection(aFeature, bFeature, mapping, overlay, monitor);
-            }
+            addIntersections(aFeature, indexedB, mapping, overlay.getFeatureSchema(),
+                    buffer, monitor);
+            overlay.addAll(buffer);
+            buffer.clear();
 
-            monitor.report(count++, a.size(), "features");
+            monitor.report(count++, a.size(), I18N.get("tools.OverlayEngine.features"));
         }
 
         return overlay;
     }
 
-    private void addIntersection(Feature a, Feature b,
-        AttributeMapping mapping, FeatureCollection overlay, TaskMonitor monitor) {
-        if (!a.getGeometry().getEnvelope().intersects(b.getGeometry()
-                                                           .getEnvelope())) {
+    /**
+     * Parallel version of the overlay. Features of a are sorted along a
+     * Z-order curve and split into chunks of spatially close features, which
+     * are intersected on the common fork-join pool. Each feature of a has its
+     * own output buffer, and buffers are gathered in the order of a, so that
+     * the result is the same as the one of the sequential overlay.
+     */
+    private void overlayParallel(FeatureCollection a, final IndexedFeatureCollection indexedB,
+        final AttributeMapping mapping, FeatureDataset overlay, final TaskMonitor monitor) {
+        final List<Feature> aFeatures = a.getFeatures();
+        final FeatureSchema schema = overlay.getFeatureSchema();
+        // The spatial index is lazily built on first query : build it before
+        // it is shared between threads
+        indexedB.query(new Envelope(0, 0, 0, 0));
+
+        final Integer[] order = zOrder(aFeatures, a.getEnvelope());
+        final int chunks = (order.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        // each index is set by a single task, the list is not resized
+        final List<List<Feature>> buffers = new ArrayList<>(Collections.nCopies(aFeatures.size(), null));
+        final AtomicInteger count = new AtomicInteger();
+        final String label = I18N.get("tools.OverlayEngine.features");
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            for (int i = chunk * CHUNK_SIZE; i < Math.min(order.length, (chunk + 1) * CHUNK_SIZE); i++) {
+                if (monitor.isCancelRequested()) return;
+                final int index = order[i];
+                final List<Feature> buffer = new ArrayList<>();
+                addIntersections(aFeatures.get(index), indexedB, mapping, schema, buffer, monitor);
+                buffers.set(index, buffer);
+                monitor.report(count.incrementAndGet(), aFeatures.size(), label);
+            }
+        });
+        for (List<Feature> buffer : buffers) {
+            // buffer is null if the process has been cancelled
+            if (buffer != null) overlay.addAll(buffer);
+        }
+    }
+
+    /**
+     * Adds the intersections of aFeature with the features of indexedB to
+     * overlay.
+     */
+    private void addIntersections(Feature aFeature, IndexedFeatureCollection indexedB,
+        AttributeMapping mapping, FeatureSchema schema, List<Feature> overlay,
+        TaskMonitor monitor) {
+        final List<Feature> candidates = indexedB.query(
+                aFeature.getGeometry().getEnvelopeInternal());
+        // Preparing the geometry pays off as soon as it is tested
+        // against several candidates
+        final PreparedGeometry prepared = candidates.size() > 1
+                ? PreparedGeometryFactory.prepare(aFeature.getGeometry()) : null;
+        for (Feature bFeature : candidates) {
+            if (monitor.isCancelRequested()) return;
+            addIntersection(aFeature, prepared, bFeature, mapping, schema, overlay, monitor);
+        }
+    }
+
+    /**
+     * Returns the indices of features sorted along a Z-order (Morton) curve
+     * computed on the center of their envelope.
+     */
+    private static Integer[] zOrder(List<Feature> features, Envelope extent) {
+        final long[] keys = new long[features.size()];
+        final double width = extent.getWidth() > 0 ? extent.getWidth() : 1;
+        final double height = extent.getHeight() > 0 ? extent.getHeight() : 1;
+        for (int i = 0; i < keys.length; i++) {
+            final Envelope env = features.get(i).getGeometry().getEnvelopeInternal();
+            if (env.isNull()) continue;
+            final int x = (int)((env.centre().x - extent.getMinX()) / width * 0xFFFF);
+            final int y = (int)((env.centre().y - extent.getMinY()) / height * 0xFFFF);
+            keys[i] = interleave(x) | interleave(y) << 1;
+        }
+        final Integer[] order = new Integer[keys.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparingLong(i -> keys[i]));
+        return order;
+    }
+
+    private static long interleave(int v) {
+        long x = v & 0xFFFFL;
+        x = (x | x << 8) & 0x00FF00FFL;
+        x = (x | x << 4) & 0x0F0F0F0FL;
+        x = (x | x << 2) & 0x33333333L;
+        x = (x | x << 1) & 0x55555555L;
+        return x;
+    }
+
+    private void addIntersection(Feature a, PreparedGeometry preparedA, Feature b,
+        AttributeMapping mapping, FeatureSchema schema, List<Feature> overlay,
+        TaskMonitor monitor) {
+        if (!a.getGeometry().getEnvelopeInternal().intersects(b.getGeometry()
+                                                           .getEnvelopeInternal())) {
             return;
         }
 
         Geometry intersection = null;
 
         try {
-            //TODO check with MD if it is still relevant to use EnhancedPrecisionOp
-            intersection = EnhancedPrecisionOp.intersection(a.getGeometry(),
-                    b.getGeometry());
+            if (preparedA != null && !preparedA.intersects(b.getGeometry())) {
+                return;
+            } else if (preparedA != null && preparedA.containsProperly(b.getGeometry())) {
+                // b is entirely inside a, no need to compute the intersection
+                intersection = b.getGeometry().copy();
+            } else {
+                //TODO check with MD if it is still relevant to use EnhancedPrecisionOp
+                intersection = EnhancedPrecisionOp.intersection(a.getGeometry(),
+                        b.getGeometry());
+            }
         } catch (Exception ex) {
             monitor.report(ex);
             Logger.error(a.getGeometry().toString());
@@ -138,16 +252,16 @@ public class OverlayEngine {
             return;
         }
 
-        addFeature(intersection, overlay, mapping, a, b);
+        addFeature(intersection, schema, overlay, mapping, a, b);
     }
 
-    private void addFeature(Geometry intersection, FeatureCollection overlay,
-                AttributeMapping mapping, Feature a, Feature b) {
+    private void addFeature(Geometry intersection, FeatureSchema schema,
+                List<Feature> overlay, AttributeMapping mapping, Feature a, Feature b) {
         if (splittingGeometryCollections && intersection instanceof GeometryCollection) {
             GeometryCollection gc = (GeometryCollection) intersection;
 
             for (int i = 0; i < gc.getNumGeometries(); i++) {
-                addFeature(gc.getGeometryN(i), overlay, mapping, a, b);
+                addFeature(gc.getGeometryN(i), schema, overlay, mapping, a, b);
             }
 
             return;
@@ -157,7 +271,7 @@ public class OverlayEngine {
             return;
         }
 
-        Feature feature = new BasicFeature(overlay.getFeatureSchema());
+        Feature feature = new BasicFeature(schema);
         mapping.transferAttributes(a, b, feature);
         feature.setGeometry(intersection);
         overlay.add(feature);
@@ -171,4 +285,12 @@ public class OverlayEngine {
     public void setAllowingPolygonsOnly(boolean allowingPolygonsOnly) {
         this.allowingPolygonsOnly = allowingPolygonsOnly;
     }
+
+    /**
+     * @param parallel if true, the overlay is computed on several threads.
+     * The result is the same as the one of the sequential overlay.
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
 }
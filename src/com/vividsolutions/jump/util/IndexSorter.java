@@ -0,0 +1,109 @@
+package com.vividsolutions.jump.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Stable sort of the indices 0 to size-1 of some data, comparing indices
+ * instead of boxed elements, so that data can be kept in primitive arrays.
+ * <p>
+ * Large arrays are sorted by a parallel merge sort.
+ * </p>
+ */
+public class IndexSorter {
+
+    /**
+     * Compares the elements at two indices of the sorted data.
+     */
+    public interface IndexComparator {
+        int compare(int i, int j);
+    }
+
+    // below this size, a range is sorted by the calling thread
+    private static final int PARALLEL_THRESHOLD = 8192;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private IndexSorter() {}
+
+    /**
+     * Returns the indices 0 to size-1 sorted with comparator. Indices of
+     * equal elements stay in ascending order.
+     * @param size number of elements of the sorted data
+     * @param comparator comparator of indices, which must be thread-safe
+     *                   if parallel is true
+     * @param parallel true to sort large arrays with several threads
+     */
+    public static int[] sort(int size, IndexComparator comparator, boolean parallel) {
+        int[] indices = new int[size];
+        for (int i = 0; i < size; i++) indices[i] = i;
+        int[] buffer = new int[size];
+        if (parallel && size > PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new SortTask(indices, buffer, 0, size, comparator));
+        } else {
+            mergeSort(indices, buffer, 0, size, comparator);
+        }
+        return indices;
+    }
+
+    private static void mergeSort(int[] a, int[] buffer, int from, int to, IndexComparator c) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(a, from, to, c);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(a, buffer, from, mid, c);
+        mergeSort(a, buffer, mid, to, c);
+        merge(a, buffer, from, mid, to, c);
+    }
+
+    private static void insertionSort(int[] a, int from, int to, IndexComparator c) {
+        for (int i = from + 1; i < to; i++) {
+            int v = a[i];
+            int j = i - 1;
+            while (j >= from && c.compare(a[j], v) > 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = v;
+        }
+    }
+
+    private static void merge(int[] a, int[] buffer, int from, int mid, int to, IndexComparator c) {
+        // already in order
+        if (c.compare(a[mid - 1], a[mid]) <= 0) return;
+        System.arraycopy(a, from, buffer, from, to - from);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            // take from the left run on ties, to keep the sort stable
+            a[k++] = c.compare(buffer[j], buffer[i]) < 0 ? buffer[j++] : buffer[i++];
+        }
+        while (i < mid) a[k++] = buffer[i++];
+        while (j < to) a[k++] = buffer[j++];
+    }
+
+    private static final class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int[] a, buffer;
+        private final int from, to;
+        private final IndexComparator c;
+
+        SortTask(int[] a, int[] buffer, int from, int to, IndexComparator c) {
+            this.a = a;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.c = c;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                mergeSort(a, buffer, from, to, c);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SortTask(a, buffer, from, mid, c), new SortTask(a, buffer, mid, to, c));
+            merge(a, buffer, from, mid, to, c);
+        }
+    }
+}
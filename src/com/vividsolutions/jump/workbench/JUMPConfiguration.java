@@ -77,6 +77,8 @@ import org.openjump.core.ui.plugin.view.SuperZoomPanTool;
 
 import org.locationtech.jts.util.Assert;
 import com.vividsolutions.jump.I18N;
+import com.vividsolutions.jump.feature.ColumnarFeatureCollection;
+import com.vividsolutions.jump.geom.CoordinateStorage;
 import com.vividsolutions.jump.workbench.model.Layer;
 import com.vividsolutions.jump.workbench.model.WMSLayer;
 import com.vividsolutions.jump.workbench.plugin.AbstractPlugIn;
@@ -498,6 +500,18 @@ public class JUMPConfiguration implements Setup {
     //-- adds the context menu for (Pirol/Sextante) Raster Images
     workbenchContext.getWorkbench().getFrame().getNodeClassToPopupMenuMap().put(RasterImageLayer.class, RasterImageContextMenu.getInstance(workbenchContext.createPlugInContext()));
 
+    // coordinate storage of the layers loaded from files
+    Object coordinateStorage = PersistentBlackboardPlugIn.get(workbenchContext)
+            .get(DatasetOptionsPanel.BB_DATASET_OPTIONS_COORDINATE_STORAGE);
+    if (coordinateStorage instanceof String) {
+      CoordinateStorage.setDefault(CoordinateStorage.get((String)coordinateStorage));
+    }
+    Object columnarAttributes = PersistentBlackboardPlugIn.get(workbenchContext)
+            .get(DatasetOptionsPanel.BB_DATASET_OPTIONS_COLUMNAR_ATTRIBUTES);
+    if (columnarAttributes instanceof Boolean) {
+      ColumnarFeatureCollection.setUsedByDefault((Boolean)columnarAttributes);
+    }
+
     Registry registry = workbenchContext.getRegistry();
     List<DataSourceQueryChooser> loadChoosers = DataSourceQueryChooserManager.get(
             workbenchContext.getBlackboard()).getLoadDataSourceQueryChoosers();
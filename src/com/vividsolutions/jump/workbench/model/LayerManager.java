@@ -35,6 +35,10 @@ import java.awt.Color;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.InvocationTargetException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import com.vividsolutions.jump.util.ObjectGraphIterator;
 import org.openjump.core.ccordsys.utils.SRSInfo;
@@ -46,6 +50,7 @@ import com.vividsolutions.jump.coordsys.CoordinateSystem;
 import com.vividsolutions.jump.feature.Feature;
 import com.vividsolutions.jump.feature.FeatureCollection;
 import com.vividsolutions.jump.util.Blackboard;
+import com.vividsolutions.jump.workbench.Logger;
 import com.vividsolutions.jump.workbench.ui.GUIUtil;
 import com.vividsolutions.jump.workbench.ui.renderer.style.BasicStyle;
 import com.vividsolutions.jump.workbench.ui.style.AbstractPalettePanel;
@@ -77,6 +82,18 @@ public class LayerManager {
     private final List<WeakReference<Layerable>> layerReferencesToDispose = new ArrayList<>();
 
     private final List<LayerListener> layerListeners = new ArrayList<>();
+    // listeners notified by backgroundExecutor instead of the event thread
+    private final List<LayerListener> backgroundLayerListeners = new ArrayList<>();
+    private ExecutorService backgroundExecutor = null;
+
+    // feature events fired by a thread between #startCoalescingFeatureEvents
+    // and #stopCoalescingFeatureEvents, not yet delivered
+    private final ThreadLocal<CoalescedFeatureEvents> coalescedFeatureEvents = new ThreadLocal<>();
+    private final AtomicLong featureEventsFired = new AtomicLong();
+    private final AtomicLong featureEventsCoalesced = new AtomicLong();
+    private final AtomicLong eventsSuppressed = new AtomicLong();
+    private final Map<Layerable,AtomicLong> layerEventsSuppressed =
+            Collections.synchronizedMap(new WeakHashMap<>());
     private final Iterator<Color> firstColors;
     private final Blackboard blackboard = new Blackboard();
 
@@ -375,6 +392,13 @@ public class LayerManager {
 
     public void dispose() {
         this.setFiringEvents(false);
+        synchronized (backgroundLayerListeners) {
+            backgroundLayerListeners.clear();
+            if (backgroundExecutor != null) {
+                backgroundExecutor.shutdown();
+                backgroundExecutor = null;
+            }
+        }
         for (WeakReference<Layerable> reference : layerReferencesToDispose) {
             Layer layer = (Layer) reference.get();
 
@@ -389,6 +413,7 @@ public class LayerManager {
         // send
         // #die to each to request that the resources be freed. [Jon Aquino]
         undoableEditReceiver.getUndoManager().discardAllEdits();
+        undoableEditReceiver.getUndoStore().dispose();
     }
 
     public void dispose(Layerable l) {
@@ -412,6 +437,7 @@ public class LayerManager {
         if (!firingEvents) {
             return;
         }
+        flushCoalescedFeatureEvents();
 
         // [sstein 2.Feb.2007] old line results sometimes in
         // ConcurrentModificationException
@@ -423,6 +449,9 @@ public class LayerManager {
                 layerListener.categoryChanged(new CategoryEvent(category, type, categoryIndex))
             );
         }
+        fireBackgroundLayerEvent(layerListener ->
+            layerListener.categoryChanged(new CategoryEvent(category, type, categoryIndex))
+        );
     }
 
     public void fireFeaturesChanged(final Collection<Feature> features,
@@ -442,15 +471,193 @@ public class LayerManager {
             final FeatureEventType type, final Layer layer,
             final Collection<Feature> oldFeatureClones) {
         if (!firingEvents) {
+            suppressEvent(layer);
+            return;
+        }
+        CoalescedFeatureEvents coalesced = coalescedFeatureEvents.get();
+        if (coalesced != null) {
+            if (coalesced.add(features, type, layer, oldFeatureClones)) {
+                featureEventsCoalesced.incrementAndGet();
+            }
             return;
         }
+        dispatchFeaturesChanged(new FeatureEvent(features, type, layer, oldFeatureClones));
+    }
 
+    private void dispatchFeaturesChanged(final FeatureEvent event) {
+        featureEventsFired.incrementAndGet();
         // New ArrayList to avoid ConcurrentModificationException [Jon Aquino]
         for (final LayerListener layerListener : new ArrayList<>(layerListeners)) {
             fireLayerEvent(() ->
-                layerListener.featuresChanged(new FeatureEvent(features, type, layer, oldFeatureClones))
+                layerListener.featuresChanged(event)
             );
         }
+        fireBackgroundLayerEvent(layerListener -> layerListener.featuresChanged(event));
+    }
+
+    /**
+     * Starts coalescing the feature events fired by the current thread. Until
+     * the matching {@link #stopCoalescingFeatureEvents()}, successive events
+     * of the same type on the same layer are merged into a single event.
+     * Events are delivered when coalescing stops, or before the next layer
+     * or category event, so that listeners receive them in order. Calls can
+     * be nested.
+     */
+    public void startCoalescingFeatureEvents() {
+        CoalescedFeatureEvents coalesced = coalescedFeatureEvents.get();
+        if (coalesced == null) {
+            coalesced = new CoalescedFeatureEvents();
+            coalescedFeatureEvents.set(coalesced);
+        }
+        coalesced.depth++;
+    }
+
+    /**
+     * Stops coalescing the feature events of the current thread, and
+     * delivers the pending events when the outermost call is reached.
+     */
+    public void stopCoalescingFeatureEvents() {
+        CoalescedFeatureEvents coalesced = coalescedFeatureEvents.get();
+        Assert.isTrue(coalesced != null, "Feature events are not being coalesced");
+        if (--coalesced.depth > 0) {
+            return;
+        }
+        coalescedFeatureEvents.remove();
+        for (FeatureEvent event : coalesced.events()) {
+            if (firingEvents) {
+                dispatchFeaturesChanged(event);
+            } else {
+                suppressEvent(event.getLayer());
+            }
+        }
+    }
+
+    private void flushCoalescedFeatureEvents() {
+        CoalescedFeatureEvents coalesced = coalescedFeatureEvents.get();
+        if (coalesced != null) {
+            for (FeatureEvent event : coalesced.events()) {
+                dispatchFeaturesChanged(event);
+            }
+        }
+    }
+
+    /**
+     * @return the number of feature events delivered to the listeners
+     */
+    public long getFeatureEventsFired() {
+        return featureEventsFired.get();
+    }
+
+    /**
+     * @return the number of feature events merged into another event
+     *         instead of being delivered
+     */
+    public long getFeatureEventsCoalesced() {
+        return featureEventsCoalesced.get();
+    }
+
+    /**
+     * @return the number of feature and layer events not fired because
+     *         firing events was disabled. Listeners keeping data derived
+     *         from the features can compare it with a previous value to
+     *         find out that features changed silently.
+     */
+    public long getEventsSuppressed() {
+        return eventsSuppressed.get();
+    }
+
+    /**
+     * @return the number of feature and layer events about layerable not
+     *         fired because firing events was disabled
+     * @see #getEventsSuppressed()
+     */
+    public long getEventsSuppressed(Layerable layerable) {
+        AtomicLong suppressed = layerEventsSuppressed.get(layerable);
+        return suppressed == null ? 0 : suppressed.get();
+    }
+
+    private void suppressEvent(Layerable layerable) {
+        eventsSuppressed.incrementAndGet();
+        if (layerable != null) {
+            layerEventsSuppressed.computeIfAbsent(layerable, k -> new AtomicLong())
+                    .incrementAndGet();
+        }
+    }
+
+    /**
+     * Feature events of a thread waiting to be delivered. An event is merged
+     * into the last pending event of the same layer if it has the same type.
+     */
+    private static class CoalescedFeatureEvents {
+        int depth = 0;
+        private final List<PendingFeatureEvent> pending = new ArrayList<>();
+
+        /**
+         * @return true if the event has been merged into a pending event
+         */
+        boolean add(Collection<Feature> features, FeatureEventType type,
+                Layer layer, Collection<Feature> oldFeatureClones) {
+            for (int i = pending.size() - 1; i >= 0; i--) {
+                PendingFeatureEvent event = pending.get(i);
+                if (event.layer != layer) {
+                    continue;
+                }
+                if (event.type == type
+                        && (event.oldFeatureClones == null) == (oldFeatureClones == null)) {
+                    event.add(features, oldFeatureClones);
+                    return true;
+                }
+                break;
+            }
+            PendingFeatureEvent event = new PendingFeatureEvent(layer, type,
+                    oldFeatureClones != null);
+            event.add(features, oldFeatureClones);
+            pending.add(event);
+            return false;
+        }
+
+        /**
+         * Returns the pending events and forgets them.
+         */
+        List<FeatureEvent> events() {
+            List<FeatureEvent> events = new ArrayList<>(pending.size());
+            for (PendingFeatureEvent event : pending) {
+                events.add(new FeatureEvent(event.features, event.type,
+                        event.layer, event.oldFeatureClones));
+            }
+            pending.clear();
+            return events;
+        }
+    }
+
+    private static class PendingFeatureEvent {
+        final Layer layer;
+        final FeatureEventType type;
+        final List<Feature> features = new ArrayList<>();
+        final List<Feature> oldFeatureClones;
+        // a feature modified twice keeps the clone of its first modification
+        // (features are compared with equals, as two views of a row of a
+        // ColumnarFeatureCollection are the same feature)
+        final Set<Feature> featureSet = new HashSet<>();
+
+        PendingFeatureEvent(Layer layer, FeatureEventType type, boolean withClones) {
+            this.layer = layer;
+            this.type = type;
+            this.oldFeatureClones = withClones ? new ArrayList<>() : null;
+        }
+
+        void add(Collection<Feature> features, Collection<Feature> oldFeatureClones) {
+            Iterator<Feature> clones = oldFeatureClones == null ? null : oldFeatureClones.iterator();
+            for (Feature feature : features) {
+                Feature clone = clones == null ? null : clones.next();
+                if (featureSet.add(feature)) {
+                    this.features.add(feature);
+                    if (clones != null) {
+                        this.oldFeatureClones.add(clone);
+                    }
+                }
+            }
+        }
     }
 
     private void fireLayerEvent(Runnable eventFirer) {
@@ -487,8 +694,10 @@ public class LayerManager {
             final LayerEventType layerChangeType, final Category category,
             final int layerIndex) {
         if (!firingEvents) {
+            suppressEvent(layerable);
             return;
         }
+        flushCoalescedFeatureEvents();
 
         // New ArrayList to avoid ConcurrentModificationException [Jon Aquino]
         for (final LayerListener layerListener : new ArrayList<>(layerListeners)) {
@@ -498,6 +707,29 @@ public class LayerManager {
                 )
             );
         }
+        fireBackgroundLayerEvent(layerListener ->
+            layerListener.layerChanged(
+                new LayerEvent(layerable, layerChangeType, category, layerIndex)
+            )
+        );
+    }
+
+    private void fireBackgroundLayerEvent(final Consumer<LayerListener> eventFirer) {
+        synchronized (backgroundLayerListeners) {
+            if (backgroundLayerListeners.isEmpty()) {
+                return;
+            }
+            final List<LayerListener> listeners = new ArrayList<>(backgroundLayerListeners);
+            backgroundExecutor.execute(() -> {
+                for (LayerListener layerListener : listeners) {
+                    try {
+                        eventFirer.accept(layerListener);
+                    } catch (RuntimeException e) {
+                        Logger.error(e);
+                    }
+                }
+            });
+        }
     }
 
     // <<TODO:DESIGN>> Most callers of #fireLayerChanged(Layer, LayerChangeType,
@@ -635,6 +867,30 @@ public class LayerManager {
 
     public void removeLayerListener(LayerListener layerListener) {
         layerListeners.remove(layerListener);
+        synchronized (backgroundLayerListeners) {
+            backgroundLayerListeners.remove(layerListener);
+        }
+    }
+
+    /**
+     * Adds a listener notified on a background thread rather than on the
+     * event dispatching thread, for listeners doing heavy work without
+     * using Swing components. Background listeners receive the events in
+     * the order they are fired, after they have been fired (and must
+     * therefore be thread-safe).
+     */
+    public void addBackgroundLayerListener(LayerListener layerListener) {
+        synchronized (backgroundLayerListeners) {
+            Assert.isTrue(!backgroundLayerListeners.contains(layerListener));
+            backgroundLayerListeners.add(layerListener);
+            if (backgroundExecutor == null) {
+                backgroundExecutor = Executors.newSingleThreadExecutor(r -> {
+                    Thread thread = new Thread(r, "LayerManager background listeners");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
     }
 
     public Layer getLayer(int index) {
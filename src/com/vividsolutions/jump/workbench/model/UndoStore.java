@@ -0,0 +1,466 @@
+package com.vividsolutions.jump.workbench.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateSequenceFilter;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.impl.CoordinateArraySequenceFactory;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+
+import com.vividsolutions.jump.I18N;
+import com.vividsolutions.jump.geom.CoordinateStorage;
+import com.vividsolutions.jump.workbench.Logger;
+
+/**
+ * Compact storage of the geometries kept by undoable edits.
+ * <p>
+ * A geometry is stored as a delta (the coordinates which differ) from a
+ * reference geometry of the same structure, typically the geometry the
+ * feature has after the edit, or as WKB otherwise. When the stored entries
+ * exceed the memory budget, the least recently used ones are written to a
+ * temporary file and read back when they are needed again.
+ * </p>
+ * Stored geometries are decoded as editable geometries (arrays of
+ * Coordinates).
+ */
+public class UndoStore {
+
+    /**
+     * Default memory budget of a store, in bytes.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    private static volatile long defaultMemoryBudget = DEFAULT_MEMORY_BUDGET;
+
+    // record kinds
+    private static final byte SAME = 0;
+    private static final byte DELTA = 1;
+    private static final byte WKB = 2;
+    private static final byte LIVE = 3;
+
+    // size of a changed coordinate in a delta : index, x, y, z
+    private static final int DELTA_COORDINATE_SIZE = 4 + 3 * 8;
+
+    private long memoryBudget = defaultMemoryBudget;
+    // entries held in memory, the least recently used first
+    private final LinkedHashSet<Entry> entriesInMemory = new LinkedHashSet<>();
+    private long bytesInMemory = 0;
+    private long bytesSpilled = 0;
+    private int entries = 0;
+    private File spillFile;
+    private RandomAccessFile spill;
+
+    /**
+     * Sets the memory budget of the stores created afterwards.
+     */
+    public static void setDefaultMemoryBudget(long budget) {
+        defaultMemoryBudget = budget;
+    }
+
+    public static long getDefaultMemoryBudget() {
+        return defaultMemoryBudget;
+    }
+
+    public synchronized void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        spillIfNeeded();
+    }
+
+    public synchronized long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Returns the number of bytes of the entries held in memory.
+     */
+    public synchronized long getBytesInMemory() {
+        return bytesInMemory;
+    }
+
+    /**
+     * Returns the number of bytes of the entries written to the temporary
+     * file and not released yet.
+     */
+    public synchronized long getBytesSpilled() {
+        return bytesSpilled;
+    }
+
+    /**
+     * Stores geometries.
+     * @param geometries geometries to store, by feature ID
+     * @param references geometries the stored ones are compared with (by
+     *                   feature ID), which must be left unchanged and given
+     *                   back to {@link Entry#load(Map)}
+     * @param live geometries which are kept as references instead of being
+     *             encoded, e.g. because they are still used by a feature
+     */
+    public Entry store(Map<Integer,Geometry> geometries,
+                       Map<Integer,Geometry> references,
+                       Predicate<Geometry> live) {
+        Entry entry = new Entry();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        WKBWriter[] writers = new WKBWriter[4];
+        try {
+            out.writeInt(geometries.size());
+            for (Map.Entry<Integer,Geometry> e : geometries.entrySet()) {
+                Geometry geometry = e.getValue();
+                Geometry reference = references.get(e.getKey());
+                out.writeInt(e.getKey());
+                if (geometry == reference) {
+                    out.writeByte(SAME);
+                } else if (geometry == null || live.test(geometry)
+                        || geometry.getUserData() != null) {
+                    // user data cannot be serialized
+                    out.writeByte(LIVE);
+                    entry.live.add(geometry);
+                } else if (!writeDelta(out, geometry, reference)) {
+                    out.writeByte(WKB);
+                    int dimension = dimension(geometry);
+                    if (writers[dimension] == null) writers[dimension] = new WKBWriter(dimension);
+                    byte[] wkb = writers[dimension].write(geometry);
+                    out.writeInt(geometry.getSRID());
+                    out.writeInt(wkb.length);
+                    out.write(wkb);
+                    entry.factories.add(geometry.getFactory());
+                }
+            }
+            out.flush();
+        } catch (IOException ex) {
+            // cannot happen with a ByteArrayOutputStream
+            throw new IllegalStateException(ex);
+        }
+        synchronized (this) {
+            entry.bytes = bytes.toByteArray();
+            entries++;
+            addToMemory(entry);
+        }
+        return entry;
+    }
+
+    private synchronized void addToMemory(Entry entry) {
+        entriesInMemory.add(entry);
+        bytesInMemory += entry.bytes.length;
+        spillIfNeeded();
+    }
+
+    private void spillIfNeeded() {
+        for (Iterator<Entry> it = entriesInMemory.iterator();
+             bytesInMemory > memoryBudget && it.hasNext(); ) {
+            Entry entry = it.next();
+            try {
+                if (spill == null) {
+                    spillFile = File.createTempFile("undo", ".bin");
+                    spillFile.deleteOnExit();
+                    spill = new RandomAccessFile(spillFile, "rw");
+                }
+                entry.offset = spill.length();
+                entry.length = entry.bytes.length;
+                spill.seek(entry.offset);
+                spill.write(entry.bytes);
+            } catch (IOException ex) {
+                // keep the remaining entries in memory
+                Logger.error("Cannot write undo history to " + spillFile, ex);
+                return;
+            }
+            it.remove();
+            bytesInMemory -= entry.length;
+            bytesSpilled += entry.length;
+            entry.bytes = null;
+        }
+    }
+
+    private synchronized byte[] bytes(Entry entry) throws IOException {
+        if (entry.bytes == null) {
+            if (spill == null) {
+                throw new IOException("Undo history file closed");
+            }
+            byte[] bytes = new byte[entry.length];
+            spill.seek(entry.offset);
+            spill.readFully(bytes);
+            return bytes;
+        }
+        // most recently used
+        entriesInMemory.remove(entry);
+        entriesInMemory.add(entry);
+        return entry.bytes;
+    }
+
+    private synchronized void release(Entry entry) {
+        if (entry.released) return;
+        entry.released = true;
+        if (entry.bytes != null) {
+            entriesInMemory.remove(entry);
+            bytesInMemory -= entry.bytes.length;
+            entry.bytes = null;
+        } else {
+            bytesSpilled -= entry.length;
+        }
+        entries--;
+        if (entries == 0 && spill != null) {
+            // nothing left in the file
+            try {
+                spill.setLength(0);
+            } catch (IOException ex) {
+                Logger.error("Cannot truncate undo history file " + spillFile, ex);
+            }
+        }
+    }
+
+    /**
+     * Releases all the entries and deletes the temporary file.
+     */
+    public synchronized void dispose() {
+        for (Entry entry : new ArrayList<>(entriesInMemory)) {
+            release(entry);
+        }
+        entriesInMemory.clear();
+        bytesInMemory = 0;
+        bytesSpilled = 0;
+        entries = 0;
+        if (spill != null) {
+            try {
+                spill.close();
+            } catch (IOException ex) {
+                Logger.error("Cannot close undo history file " + spillFile, ex);
+            }
+            spillFile.delete();
+            spill = null;
+            spillFile = null;
+        }
+    }
+
+    private static int dimension(Geometry geometry) {
+        final boolean[] hasZ = new boolean[1];
+        geometry.apply(new CoordinateSequenceFilter() {
+            public void filter(CoordinateSequence seq, int i) {
+                hasZ[0] = !Double.isNaN(seq.getZ(i));
+            }
+            public boolean isDone() {
+                return hasZ[0];
+            }
+            public boolean isGeometryChanged() {
+                return false;
+            }
+        });
+        return hasZ[0] ? 3 : 2;
+    }
+
+    /**
+     * Writes the coordinates of geometry which differ from reference, if
+     * both have the same structure and the delta is smaller than WKB.
+     */
+    private static boolean writeDelta(DataOutputStream out, Geometry geometry, Geometry reference)
+            throws IOException {
+        if (reference == null || !sameStructure(geometry, reference)
+                || geometry.getSRID() != reference.getSRID()
+                || reference.getUserData() != null) {
+            return false;
+        }
+        List<CoordinateSequence> sequences = sequences(geometry);
+        List<CoordinateSequence> referenceSequences = sequences(reference);
+        int max = geometry.getNumPoints() * 2 * 8 / DELTA_COORDINATE_SIZE;
+        List<double[]> changes = new ArrayList<>();
+        int index = 0;
+        for (int s = 0; s < sequences.size(); s++) {
+            CoordinateSequence seq = sequences.get(s);
+            CoordinateSequence ref = referenceSequences.get(s);
+            for (int i = 0; i < seq.size(); i++, index++) {
+                double x = seq.getX(i), y = seq.getY(i), z = seq.getZ(i);
+                if (!same(x, ref.getX(i)) || !same(y, ref.getY(i)) || !same(z, ref.getZ(i))) {
+                    if (changes.size() == max) return false;
+                    changes.add(new double[] {index, x, y, z});
+                }
+            }
+        }
+        out.writeByte(DELTA);
+        out.writeInt(changes.size());
+        for (double[] change : changes) {
+            out.writeInt((int)change[0]);
+            out.writeDouble(change[1]);
+            out.writeDouble(change[2]);
+            out.writeDouble(change[3]);
+        }
+        return true;
+    }
+
+    private static boolean same(double a, double b) {
+        return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+    }
+
+    private static boolean sameStructure(Geometry a, Geometry b) {
+        if (a.getClass() != b.getClass() || a.getNumPoints() != b.getNumPoints()) {
+            return false;
+        }
+        if (a instanceof Polygon) {
+            Polygon p = (Polygon)a, q = (Polygon)b;
+            if (p.getNumInteriorRing() != q.getNumInteriorRing()) return false;
+            for (int i = 0; i < p.getNumInteriorRing(); i++) {
+                if (p.getInteriorRingN(i).getNumPoints() != q.getInteriorRingN(i).getNumPoints()) {
+                    return false;
+                }
+            }
+        } else if (a instanceof GeometryCollection) {
+            if (a.getNumGeometries() != b.getNumGeometries()) return false;
+            for (int i = 0; i < a.getNumGeometries(); i++) {
+                if (!sameStructure(a.getGeometryN(i), b.getGeometryN(i))) return false;
+            }
+        }
+        return true;
+    }
+
+    // the coordinate sequences of geometry, in the order of Geometry#apply
+    private static List<CoordinateSequence> sequences(Geometry geometry) {
+        final List<CoordinateSequence> sequences = new ArrayList<>();
+        geometry.apply(new CoordinateSequenceFilter() {
+            public void filter(CoordinateSequence seq, int i) {
+                if (i == 0) sequences.add(seq);
+            }
+            public boolean isDone() {
+                return false;
+            }
+            public boolean isGeometryChanged() {
+                return false;
+            }
+        });
+        return sequences;
+    }
+
+    /**
+     * Geometries stored by {@link UndoStore#store}.
+     */
+    public final class Entry {
+
+        private byte[] bytes;
+        private long offset;
+        private int length;
+        private boolean released = false;
+        // geometries kept as references, and factories of WKB geometries,
+        // in the order of the records
+        private final List<Geometry> live = new ArrayList<>();
+        private final List<GeometryFactory> factories = new ArrayList<>();
+
+        private Entry() {}
+
+        /**
+         * Returns the stored geometries by feature ID, in the order they were
+         * given.
+         * @param references the reference geometries given to
+         *                   {@link UndoStore#store}
+         */
+        public Map<Integer,Geometry> load(Map<Integer,Geometry> references) {
+            if (released) {
+                throw new IllegalStateException("Released undo entry");
+            }
+            Map<Integer,Geometry> geometries = new LinkedHashMap<>();
+            Map<GeometryFactory,WKBReader> readers = new IdentityHashMap<>();
+            Iterator<Geometry> liveGeometries = live.iterator();
+            Iterator<GeometryFactory> wkbFactories = factories.iterator();
+            try {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes(this)));
+                for (int n = in.readInt(); n > 0; n--) {
+                    Integer id = in.readInt();
+                    byte kind = in.readByte();
+                    if (kind == SAME) {
+                        geometries.put(id, references.get(id));
+                    } else if (kind == LIVE) {
+                        geometries.put(id, liveGeometries.next());
+                    } else if (kind == DELTA) {
+                        geometries.put(id, readDelta(in, references.get(id)));
+                    } else {
+                        GeometryFactory factory = wkbFactories.next();
+                        int srid = in.readInt();
+                        byte[] wkb = new byte[in.readInt()];
+                        in.readFully(wkb);
+                        WKBReader reader = readers.get(factory);
+                        if (reader == null) {
+                            // decode as arrays of Coordinates, as editable copies
+                            reader = new WKBReader(new GeometryFactory(factory.getPrecisionModel(),
+                                    factory.getSRID(), CoordinateArraySequenceFactory.instance()));
+                            readers.put(factory, reader);
+                        }
+                        Geometry geometry = reader.read(wkb);
+                        geometry.setSRID(srid);
+                        geometries.put(id, geometry);
+                    }
+                }
+            } catch (IOException | ParseException ex) {
+                // the edit cannot be applied, the caller (the undo or redo
+                // action) reports the exception to the user
+                Logger.error("Cannot read undo history from " + spillFile, ex);
+                throw new IllegalStateException(
+                        I18N.get("model.UndoStore.cannot-read-undo-history"), ex);
+            }
+            return geometries;
+        }
+
+        private Geometry readDelta(DataInputStream in, Geometry reference) throws IOException {
+            final int count = in.readInt();
+            final int[] indices = new int[count];
+            final double[] ordinates = new double[3 * count];
+            for (int i = 0; i < count; i++) {
+                indices[i] = in.readInt();
+                ordinates[3 * i] = in.readDouble();
+                ordinates[3 * i + 1] = in.readDouble();
+                ordinates[3 * i + 2] = in.readDouble();
+            }
+            Geometry geometry = CoordinateStorage.editableCopy(reference);
+            if (count == 0) return geometry;
+            geometry.apply(new CoordinateSequenceFilter() {
+                int index = 0;
+                int next = 0;
+                public void filter(CoordinateSequence seq, int i) {
+                    if (index++ == indices[next]) {
+                        seq.setOrdinate(i, CoordinateSequence.X, ordinates[3 * next]);
+                        seq.setOrdinate(i, CoordinateSequence.Y, ordinates[3 * next + 1]);
+                        if (seq.getDimension() > 2) {
+                            seq.setOrdinate(i, CoordinateSequence.Z, ordinates[3 * next + 2]);
+                        }
+                        next++;
+                    }
+                }
+                public boolean isDone() {
+                    return next == count;
+                }
+                public boolean isGeometryChanged() {
+                    return true;
+                }
+            });
+            return geometry;
+        }
+
+        /**
+         * Frees the memory or disk space used by this entry, which cannot be
+         * loaded afterwards.
+         */
+        public void release() {
+            UndoStore.this.release(this);
+        }
+
+        public boolean isSpilled() {
+            synchronized (UndoStore.this) {
+                return bytes == null && !released;
+            }
+        }
+    }
+}
@@ -54,6 +54,7 @@ import org.locationtech.jts.util.Assert;
 public class UndoableEditReceiver {
 
     private UndoManager undoManager = new UndoManager();
+    private UndoStore undoStore = new UndoStore();
     private ArrayList<UndoableEdit> newUndoableEdits = new ArrayList<>();
     /** Handle nested calls to UndoableEditReceiver */
     private int transactions = 0;
@@ -152,6 +153,14 @@ public class UndoableEditReceiver {
         return undoManager;
     }
 
+    /**
+     * Returns the store where undoable edits can keep the geometries they
+     * need in a compact form.
+     */
+    public UndoStore getUndoStore() {
+        return undoStore;
+    }
+
     private void setNothingToUndoReported(boolean nothingToUndoReported) {
         this.nothingToUndoReported = nothingToUndoReported;
     }
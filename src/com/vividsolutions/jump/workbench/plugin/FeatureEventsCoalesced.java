@@ -0,0 +1,12 @@
+package com.vividsolutions.jump.workbench.plugin;
+
+/**
+ * a marker interface for threaded plugins whose feature events are
+ * coalesced while they run (see
+ * {@link com.vividsolutions.jump.workbench.model.LayerManager#startCoalescingFeatureEvents()}),
+ * so that listeners receive a few batched events when the plugin ends
+ * instead of one event per modified feature
+ */
+public interface FeatureEventsCoalesced {
+
+}
@@ -54,7 +54,7 @@ import com.vividsolutions.jump.workbench.model.Layer;
 // lists with size 1 only)
 public abstract class AbstractSelection {
     
-    private Map<Layer,Map<Feature,Set<Integer>>> layerMap = new HashMap<>();
+    private Map<Layer,SelectedItems> layerMap = new HashMap<>();
 
     public abstract String getRendererContentID();
 
@@ -88,23 +88,40 @@ public abstract class AbstractSelection {
         return items;
     }
 
+    /**
+     * Creates the structure holding the selected items of a layer. The
+     * default one maps each feature to the indices of its selected items.
+     */
+    protected SelectedItems createSelectedItems() {
+        return new IndexedSelectedItems();
+    }
+
+    private SelectedItems selectedItems(Layer layer) {
+        SelectedItems selectedItems = layerMap.get(layer);
+        if (selectedItems == null) {
+            selectedItems = createSelectedItems();
+            layerMap.put(layer, selectedItems);
+        }
+        return selectedItems;
+    }
+
     /**
      * Returns a mapping of each feature to indices of selected items in this
      * feature.
      * Note that some features in the map may not have selected items.
+     * The map may be read-only : use the select and unselect methods to
+     * change the selection.
      */
     public Map<Feature,Set<Integer>> getFeatureToSelectedItemIndexCollectionMap(Layer layer) {
-        if (!layerMap.containsKey(layer)) {
-            layerMap.put(layer, new LinkedHashMap<Feature,Set<Integer>>());
-        }
-        return layerMap.get(layer);
+        return selectedItems(layer).asMap();
     }
 
     /**
      * Returns indices of selected items in this feature.
      */
     public Set<Integer> getSelectedItemIndices(Layer layer, Feature feature) {
-        Set<Integer> indices = getFeatureToSelectedItemIndexCollectionMap(layer).get(feature);
+        SelectedItems selectedItems = layerMap.get(layer);
+        Set<Integer> indices = selectedItems == null ? null : selectedItems.get(feature);
         return indices == null ? Collections.<Integer>emptySet() : indices;
     }
 
@@ -113,20 +130,19 @@ public abstract class AbstractSelection {
      */
     public Map<Feature,List<Geometry>> getFeatureToSelectedItemCollectionMap(Layer layer) {
         Map<Feature,List<Geometry>> collectionMap = new LinkedHashMap<>();
-        for (Feature feature : getFeatureToSelectedItemIndexCollectionMap(layer).keySet()) {
-            Set<Integer> set = getSelectedItemIndices(layer, feature);
-            if (set != null) {
-                collectionMap.put(feature, items(feature.getGeometry(), set));
-            }
+        SelectedItems selectedItems = layerMap.get(layer);
+        if (selectedItems == null) return collectionMap;
+        for (Feature feature : selectedItems.features()) {
+            collectionMap.put(feature, items(feature.getGeometry(), selectedItems.get(feature)));
         }
         return collectionMap;
     }
 
     public Collection<Layer> getLayersWithSelectedItems() {
         List<Layer> layersWithSelectedItems = new ArrayList<>();
-        for (Layer layer : layerMap.keySet()) {
-            if (!getFeaturesWithSelectedItems(layer).isEmpty()) {
-                layersWithSelectedItems.add(layer);
+        for (Map.Entry<Layer,SelectedItems> entry : layerMap.entrySet()) {
+            if (entry.getValue().size() > 0) {
+                layersWithSelectedItems.add(entry.getKey());
             }
         }
         return layersWithSelectedItems;
@@ -141,13 +157,29 @@ public abstract class AbstractSelection {
     }
 
     public Collection<Feature> getFeaturesWithSelectedItems(Layer layer) {
-        List<Feature> featuresWithSelectedItems = new ArrayList<>();
-        for (Feature feature : getFeatureToSelectedItemIndexCollectionMap(layer).keySet()) {
-            if (!getFeatureToSelectedItemIndexCollectionMap(layer).get(feature).isEmpty()) {
-                featuresWithSelectedItems.add(feature);
-            }
+        SelectedItems selectedItems = layerMap.get(layer);
+        return selectedItems == null ? new ArrayList<Feature>()
+                : new ArrayList<>(selectedItems.features());
+    }
+
+    /**
+     * Returns the number of features of layer with selected items, without
+     * collecting them.
+     */
+    public int getFeaturesWithSelectedItemsCount(Layer layer) {
+        SelectedItems selectedItems = layerMap.get(layer);
+        return selectedItems == null ? 0 : selectedItems.size();
+    }
+
+    /**
+     * Returns the number of selected items, without collecting them.
+     */
+    public int getSelectedItemsCount() {
+        int count = 0;
+        for (SelectedItems selectedItems : layerMap.values()) {
+            count += selectedItems.itemCount();
         }
-        return featuresWithSelectedItems;
+        return count;
     }
 
     public Collection<Geometry> getSelectedItems() {
@@ -160,8 +192,10 @@ public abstract class AbstractSelection {
 
     public Collection<Geometry> getSelectedItems(Layer layer) {
         List<Geometry> selectedItems = new ArrayList<>(1);
-        for (Feature feature : getFeatureToSelectedItemIndexCollectionMap(layer).keySet()) {
-            selectedItems.addAll(getSelectedItems(layer, feature));
+        SelectedItems layerSelectedItems = layerMap.get(layer);
+        if (layerSelectedItems == null) return selectedItems;
+        for (Feature feature : layerSelectedItems.features()) {
+            selectedItems.addAll(items(feature.getGeometry(), layerSelectedItems.get(feature)));
         }
         return selectedItems;
     }
@@ -176,9 +210,7 @@ public abstract class AbstractSelection {
      * the selection indices.
      */
     public Collection<Geometry> getSelectedItems(Layer layer, Feature feature, Geometry geometry) {
-        Set<Integer> indices = getFeatureToSelectedItemIndexCollectionMap(layer).get(feature);
-        if (indices == null) indices = Collections.emptySet();
-        return items(geometry, indices);
+        return items(geometry, getSelectedItemIndices(layer, feature));
     }
 
     /**
@@ -227,15 +259,7 @@ public abstract class AbstractSelection {
         selectionManager.setPanelUpdatesEnabled(false);
         try {
             unselectInDescendants(layer, feature, itemsToSelect);
-            Set<Integer> featureIndices = getFeatureToSelectedItemIndexCollectionMap(layer).get(feature);
-            if (featureIndices == null) {
-                featureIndices = new LinkedHashSet<Integer>(1);
-                getFeatureToSelectedItemIndexCollectionMap(layer).put(feature, featureIndices);
-            }
-            Set<Integer> itemIndices = indices(feature.getGeometry(), itemsToSelect);
-            if (itemIndices != null) {
-                featureIndices.addAll(itemIndices);
-            }
+            selectedItems(layer).add(feature, indices(feature.getGeometry(), itemsToSelect));
         } finally {
             selectionManager.setPanelUpdatesEnabled(originalPanelUpdatesEnabled);
         }
@@ -246,14 +270,10 @@ public abstract class AbstractSelection {
         boolean originalPanelUpdatesEnabled = selectionManager.arePanelUpdatesEnabled();
         selectionManager.setPanelUpdatesEnabled(false);
         try {
-            Set<Integer> itemsIndices = indices(feature.getGeometry(), items);
-            Set<Integer> featureIndices = getFeatureToSelectedItemIndexCollectionMap(layer).get(feature);
-            if (featureIndices != null && itemsIndices != null) {
-                featureIndices.removeAll(itemsIndices);
+            SelectedItems selectedItems = layerMap.get(layer);
+            if (selectedItems != null) {
                 // [mmichaud 2013-01-10] remove feature from layerMap if no more item is selected
-                if (featureIndices.isEmpty()) {
-                    getFeatureToSelectedItemIndexCollectionMap(layer).remove(feature);
-                }
+                selectedItems.remove(feature, indices(feature.getGeometry(), items));
             }
         } finally {
             selectionManager.setPanelUpdatesEnabled(originalPanelUpdatesEnabled);
@@ -336,22 +356,40 @@ public abstract class AbstractSelection {
     }
 
     public void unselectItems(Layer layer, Feature feature) {
-        getFeatureToSelectedItemIndexCollectionMap(layer).remove(feature);
+        SelectedItems selectedItems = layerMap.get(layer);
+        if (selectedItems != null) selectedItems.remove(feature);
         // [mmichaud 2011-09-24 : fix 2792806]
         //updatePanel();
     }
 
     public void unselectItem(Layer layer, Feature feature, int selectedItemIndex) {
-        Set<Integer> indices = getFeatureToSelectedItemIndexCollectionMap(layer).get(feature);
-        if (indices != null) {
-            indices.remove(selectedItemIndex);
-            if (indices.isEmpty()) {
-                getFeatureToSelectedItemIndexCollectionMap(layer).remove(feature);
-            }
+        SelectedItems selectedItems = layerMap.get(layer);
+        if (selectedItems != null) {
+            selectedItems.remove(feature, Collections.singleton(selectedItemIndex));
         }
     }
 
-    private void updatePanel() {
+    /**
+     * Returns true if some items of layer are selected.
+     */
+    boolean hasSelectedItems(Layer layer) {
+        SelectedItems selectedItems = layerMap.get(layer);
+        return selectedItems != null && selectedItems.size() > 0;
+    }
+
+    /**
+     * Selects whole features of a layer, for selections whose items are
+     * whole features.
+     */
+    void addFeatures(Layer layer, Collection features) {
+        SelectedItems selectedItems = selectedItems(layer);
+        Set<Integer> all = Collections.singleton(0);
+        for (Object feature : features) {
+            selectedItems.add((Feature) feature, all);
+        }
+    }
+
+    protected void updatePanel() {
         selectionManager.updatePanel();
     }
 
@@ -371,4 +409,102 @@ public abstract class AbstractSelection {
         return parent;
     }
 
+    /**
+     * Selected items of the features of a layer.
+     */
+    protected static abstract class SelectedItems {
+
+        /**
+         * Returns the indices of the selected items of feature, or null.
+         */
+        abstract Set<Integer> get(Feature feature);
+
+        abstract void add(Feature feature, Set<Integer> indices);
+
+        /**
+         * Unselects items of feature, and the feature itself if it has no
+         * more selected items.
+         */
+        abstract void remove(Feature feature, Set<Integer> indices);
+
+        abstract void remove(Feature feature);
+
+        /**
+         * Returns the features with selected items, in selection order.
+         */
+        abstract Collection<Feature> features();
+
+        /**
+         * Returns the number of features with selected items.
+         */
+        abstract int size();
+
+        abstract int itemCount();
+
+        abstract Map<Feature,Set<Integer>> asMap();
+    }
+
+    /**
+     * Selected items stored as the set of the indices of the items of each
+     * feature.
+     */
+    private static final class IndexedSelectedItems extends SelectedItems {
+
+        private final Map<Feature,Set<Integer>> map = new LinkedHashMap<>();
+
+        Set<Integer> get(Feature feature) {
+            return map.get(feature);
+        }
+
+        void add(Feature feature, Set<Integer> indices) {
+            Set<Integer> featureIndices = map.get(feature);
+            if (featureIndices == null) {
+                featureIndices = new LinkedHashSet<>(1);
+                map.put(feature, featureIndices);
+            }
+            featureIndices.addAll(indices);
+        }
+
+        void remove(Feature feature, Set<Integer> indices) {
+            Set<Integer> featureIndices = map.get(feature);
+            if (featureIndices != null) {
+                featureIndices.removeAll(indices);
+                if (featureIndices.isEmpty()) {
+                    map.remove(feature);
+                }
+            }
+        }
+
+        void remove(Feature feature) {
+            map.remove(feature);
+        }
+
+        Collection<Feature> features() {
+            List<Feature> features = new ArrayList<>(map.size());
+            for (Map.Entry<Feature,Set<Integer>> entry : map.entrySet()) {
+                if (!entry.getValue().isEmpty()) features.add(entry.getKey());
+            }
+            return features;
+        }
+
+        int size() {
+            int size = 0;
+            for (Set<Integer> indices : map.values()) {
+                if (!indices.isEmpty()) size++;
+            }
+            return size;
+        }
+
+        int itemCount() {
+            int count = 0;
+            for (Set<Integer> indices : map.values()) {
+                count += indices.size();
+            }
+            return count;
+        }
+
+        Map<Feature,Set<Integer>> asMap() {
+            return map;
+        }
+    }
 }
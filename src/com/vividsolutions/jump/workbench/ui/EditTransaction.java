@@ -37,7 +37,9 @@ import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.util.Assert;
 import com.vividsolutions.jump.I18N;
 import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.geom.CoordinateStorage;
 import com.vividsolutions.jump.workbench.model.Layer;
+import com.vividsolutions.jump.workbench.model.UndoStore;
 import com.vividsolutions.jump.workbench.model.UndoableCommand;
 
 import java.util.*;
@@ -65,6 +67,9 @@ public class EditTransaction {
     private Map<Integer,Geometry> originalGeometries;
     // Maps a feature id to its new geometry [mmichaud 2011-09-17 : List->Map]
     private Map<Integer,Geometry> proposedGeometries;
+    // after the first execution, geometries of the state which is not applied
+    // to the features, stored against the geometries of the applied state
+    private UndoStore.Entry stored;
     private Layer layer;
     private String name;
     private boolean rollingBackInvalidEdits;
@@ -180,7 +185,8 @@ public class EditTransaction {
         for (Iterator i = selectionManager.getFeaturesWithSelectedItems(layer)
                                                    .iterator(); i.hasNext(); ) {
             Feature feature = (Feature) i.next();
-            Geometry newGeometry = (Geometry) feature.getGeometry().clone();
+            // editors modify the coordinates of newGeometry in place
+            Geometry newGeometry = CoordinateStorage.editableCopy(feature.getGeometry());
             ArrayList selectedItems = new ArrayList();
             for (Iterator j = selectionManager.getSelections().iterator(); j.hasNext(); ) {
                 AbstractSelection selection = (AbstractSelection) j.next();
@@ -313,6 +319,13 @@ public class EditTransaction {
                     if (!subCommand.isCanceled()) subCommand.unexecute();
                 }
             }
+            public void dispose() {
+                super.dispose();
+                // release the geometries kept in the UndoStore
+                for (Iterator i = editTransactions.iterator(); i.hasNext();) {
+                    ((EditTransaction) i.next()).disposeGeometries();
+                }
+            }
         };
         command.execute();
         ((EditTransaction) editTransactions.iterator().next())
@@ -357,28 +370,63 @@ public class EditTransaction {
         UndoableCommand command = new UndoableCommand(name, layer) {
             public void dispose() {
                 super.dispose();
-                features.clear();
-                proposedGeometries.clear();
-                originalGeometries.clear();
+                disposeGeometries();
             }
             public void execute() {
+                if (proposedGeometries == null) {
+                    proposedGeometries = stored.load(originalGeometries);
+                    stored.release();
+                }
                 changeGeometries(proposedGeometries, originalGeometries, layer);
+                stored = store(originalGeometries, proposedGeometries);
+                originalGeometries = null;
             }
 
             public void unexecute() {
+                originalGeometries = stored.load(proposedGeometries);
+                stored.release();
                 changeGeometries(originalGeometries, proposedGeometries, layer);
+                stored = store(proposedGeometries, originalGeometries);
+                proposedGeometries = null;
             }
         };
         return command;
     }
 
+    private void disposeGeometries() {
+        features.clear();
+        if (stored != null) {
+            stored.release();
+            stored = null;
+        }
+        if (proposedGeometries != null) proposedGeometries.clear();
+        if (originalGeometries != null) originalGeometries.clear();
+    }
+
+    /**
+     * Stores geometries in the UndoStore of the layer, as deltas from the
+     * geometries of the features. Geometries still used by features (e.g.
+     * the ones of removed features) are not encoded.
+     */
+    private UndoStore.Entry store(Map<Integer,Geometry> geometries,
+                                  Map<Integer,Geometry> featureGeometries) {
+        final Set<Geometry> used = Collections.newSetFromMap(new IdentityHashMap<Geometry,Boolean>());
+        for (Iterator i = features.iterator(); i.hasNext();) {
+            used.add(((Feature) i.next()).getGeometry());
+        }
+        return layer.getLayerManager().getUndoableEditReceiver().getUndoStore()
+            .store(geometries, featureGeometries,
+                geometry -> geometry == EMPTY_GEOMETRY || used.contains(geometry));
+    }
+
     private Map<Integer,Geometry> geometryClones(Collection features) {
         Map<Integer,Geometry> geometryClones = new LinkedHashMap<Integer,Geometry>();
         for (Iterator i = features.iterator(); i.hasNext();) {
             Feature feature = (Feature) i.next();
             // [mmichaud 2011-09-17] Tried to get rid of clone, but some
             // transactions need that (ex. SnapVerticesOp)
-            geometryClones.put(feature.getID(), (Geometry)feature.getGeometry().clone());
+            // (packed geometries are copied to arrays of Coordinates)
+            geometryClones.put(feature.getID(), CoordinateStorage.editableCopy(feature.getGeometry()));
             //geometryClones.put(feature.getID(), feature.getGeometry());
         }
         return geometryClones;
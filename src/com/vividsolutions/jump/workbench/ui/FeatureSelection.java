@@ -25,10 +25,15 @@
  * (250)385-6040 www.vividsolutions.com
  */
 package com.vividsolutions.jump.workbench.ui;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.locationtech.jts.geom.Geometry;
@@ -39,6 +44,11 @@ import com.vividsolutions.jump.workbench.ui.renderer.FeatureSelectionRenderer;
 
 /**
  * A collection of selected {@link Feature Features}
+ * <p>
+ * The selected features of a layer are stored as a bitset of their IDs
+ * and a list, so that selecting all the features of a large layer does not
+ * allocate a map entry and a set per feature.
+ * </p>
  */
 public class FeatureSelection extends AbstractSelection {
     
@@ -70,6 +80,30 @@ public class FeatureSelection extends AbstractSelection {
     public String getRendererContentID() {
         return FeatureSelectionRenderer.CONTENT_ID;
     }
+
+    protected SelectedItems createSelectedItems() {
+        return new SelectedFeatures();
+    }
+
+    public void selectItems(Layer layer, Collection features) {
+        // same as selecting the features one by one, without computing
+        // their items
+        if (layer.isSelectable()) {
+            if (getChild().hasSelectedItems(layer) || getChild().getChild().hasSelectedItems(layer)) {
+                for (Object feature : features) {
+                    getChild().unselectItems(layer, (Feature) feature);
+                    getChild().getChild().unselectItems(layer, (Feature) feature);
+                }
+            }
+            addFeatures(layer, features);
+        }
+        updatePanel();
+    }
+
+    public void unselectFromFeaturesWithModifiedItemCounts(Layer layer,
+            Collection<Feature> features, Collection<Feature> oldFeatureClones) {
+        // a feature is always a single item
+    }
     
     protected boolean selectedInAncestors(Layer layer, Feature feature, Geometry item) {
         Assert.isTrue(getParent() == null);
@@ -83,4 +117,137 @@ public class FeatureSelection extends AbstractSelection {
         getChild().unselectItems(layer, feature);
         getChild().getChild().unselectItems(layer, feature);
     }
-}
\ No newline at end of file
+
+    /**
+     * Selected features of a layer. Features are identified by their ID
+     * (features of a layer have distinct IDs). Unselected features are
+     * removed from the list lazily.
+     */
+    private static final class SelectedFeatures extends SelectedItems {
+
+        private static final Set<Integer> ITEMS = Collections.singleton(0);
+
+        private final FeatureIdSet ids = new FeatureIdSet();
+        private final ArrayList<Feature> features = new ArrayList<>();
+        // number of unselected features still in the list
+        private int unselected = 0;
+
+        Set<Integer> get(Feature feature) {
+            return ids.contains(feature.getID()) ? ITEMS : null;
+        }
+
+        void add(Feature feature, Set<Integer> indices) {
+            if (indices.isEmpty() || ids.contains(feature.getID())) return;
+            // the feature may still be in the list
+            if (unselected > 0) compact();
+            ids.add(feature.getID());
+            features.add(feature);
+        }
+
+        void remove(Feature feature, Set<Integer> indices) {
+            if (indices.contains(0)) remove(feature);
+        }
+
+        void remove(Feature feature) {
+            if (ids.remove(feature.getID())) unselected++;
+        }
+
+        private void compact() {
+            int j = 0;
+            for (int i = 0, n = features.size(); i < n; i++) {
+                Feature feature = features.get(i);
+                if (ids.contains(feature.getID())) features.set(j++, feature);
+            }
+            features.subList(j, features.size()).clear();
+            features.trimToSize();
+            unselected = 0;
+        }
+
+        Collection<Feature> features() {
+            if (unselected > 0) compact();
+            return Collections.unmodifiableList(features);
+        }
+
+        int size() {
+            return features.size() - unselected;
+        }
+
+        int itemCount() {
+            return size();
+        }
+
+        Map<Feature,Set<Integer>> asMap() {
+            return new AbstractMap<Feature,Set<Integer>>() {
+                public Set<Integer> get(Object key) {
+                    return key instanceof Feature ? SelectedFeatures.this.get((Feature) key) : null;
+                }
+                public boolean containsKey(Object key) {
+                    return get(key) != null;
+                }
+                public Set<Map.Entry<Feature,Set<Integer>>> entrySet() {
+                    return new AbstractSet<Map.Entry<Feature,Set<Integer>>>() {
+                        public Iterator<Map.Entry<Feature,Set<Integer>>> iterator() {
+                            final Iterator<Feature> it = features().iterator();
+                            return new Iterator<Map.Entry<Feature,Set<Integer>>>() {
+                                public boolean hasNext() {
+                                    return it.hasNext();
+                                }
+                                public Map.Entry<Feature,Set<Integer>> next() {
+                                    return new SimpleImmutableEntry<>(it.next(), ITEMS);
+                                }
+                            };
+                        }
+                        public int size() {
+                            return SelectedFeatures.this.size();
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    /**
+     * A set of feature IDs stored as blocks of 4096 bits, so that the IDs of
+     * a layer, which are usually contiguous, use one bit each.
+     */
+    private static final class FeatureIdSet {
+
+        private static final int BLOCK_SHIFT = 12;
+        private static final int BLOCK_MASK = (1 << BLOCK_SHIFT) - 1;
+
+        private final Map<Integer,long[]> blocks = new HashMap<>();
+
+        boolean contains(int id) {
+            long[] block = blocks.get(id >> BLOCK_SHIFT);
+            int bit = id & BLOCK_MASK;
+            return block != null && (block[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        /**
+         * Returns true if id was not in the set.
+         */
+        boolean add(int id) {
+            long[] block = blocks.get(id >> BLOCK_SHIFT);
+            if (block == null) {
+                block = new long[1 << (BLOCK_SHIFT - 6)];
+                blocks.put(id >> BLOCK_SHIFT, block);
+            }
+            int bit = id & BLOCK_MASK;
+            long word = block[bit >>> 6];
+            block[bit >>> 6] = word | (1L << bit);
+            return (word & (1L << bit)) == 0;
+        }
+
+        /**
+         * Returns true if id was in the set.
+         */
+        boolean remove(int id) {
+            long[] block = blocks.get(id >> BLOCK_SHIFT);
+            if (block == null) return false;
+            int bit = id & BLOCK_MASK;
+            long word = block[bit >>> 6];
+            block[bit >>> 6] = word & ~(1L << bit);
+            return (word & (1L << bit)) != 0;
+        }
+    }
+}
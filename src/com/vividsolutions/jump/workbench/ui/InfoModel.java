@@ -77,7 +77,21 @@ public class InfoModel {
         boolean layerNew = !layerToTableModelMap.containsKey(layer);
         LayerTableModel layerTableModel = getTableModel(layer);
         layerTableModel.addAll(features);
+        layerAdded(layerTableModel, layerNew);
+    }
+
+    /**
+     * Shows all the features of layer, without copying them into the model.
+     * @see LayerTableModel#showAllFeatures()
+     */
+    public void addAllFeatures(Layer layer) {
+        boolean layerNew = !layerToTableModelMap.containsKey(layer);
+        LayerTableModel layerTableModel = getTableModel(layer);
+        layerTableModel.showAllFeatures();
+        layerAdded(layerTableModel, layerNew);
+    }
 
+    private void layerAdded(LayerTableModel layerTableModel, boolean layerNew) {
         //Notify the listeners *after* adding the features to the table-panel model:
         //TablePanels need the data so they can properly size their columns. [Jon Aquino]
         if (layerNew) {
@@ -33,8 +33,10 @@
 
 package com.vividsolutions.jump.workbench.ui;
 
+import java.text.CollationKey;
 import java.text.Collator;
 import java.util.*;
+import java.util.stream.IntStream;
 
 import javax.swing.JTable;
 import javax.swing.event.TableModelEvent;
@@ -45,6 +47,7 @@ import com.vividsolutions.jump.I18N;
 import com.vividsolutions.jump.feature.AttributeType;
 import com.vividsolutions.jump.feature.Feature;
 import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.util.IndexSorter;
 import com.vividsolutions.jump.workbench.model.CategoryEvent;
 import com.vividsolutions.jump.workbench.model.FeatureEvent;
 import com.vividsolutions.jump.workbench.model.FeatureEventType;
@@ -56,10 +59,29 @@ import com.vividsolutions.jump.workbench.model.UndoableCommand;
 
 public class LayerTableModel extends ColumnBasedTableModel {
     private Layer layer;
-    private ArrayList features = new ArrayList();
+    // features added to the model, or null if the model shows all the
+    // features of the layer, read from the layer when rows are displayed
+    private ArrayList<Feature> features = new ArrayList<>();
+    // index in features() of each row, null until the rows are sorted
+    private int[] order = null;
+    // row of each index in features(), built from order when needed
+    private int[] rowsOfIndexes = null;
+    // index of each feature in features(), built when needed
+    private Map<Feature,Integer> indexes = null;
+    // values of the sorted column for each index in features(), kept up to
+    // date by feature events so that the table can be sorted again without
+    // reading them
+    private SortKeys sortKeys = null;
     private String sortedColumnName = null;
     private boolean sortAscending = false;
     static Collator collator = Collator.getInstance(Locale.getDefault());
+    static {
+        collator.setStrength(Collator.PRIMARY);
+    }
+    // collation keys compare as the collator, the copies of each thread
+    // avoiding its lock
+    private static final ThreadLocal<Collator> collators = ThreadLocal.withInitial(
+            () -> (Collator) collator.clone());
 
     private abstract class MyColumn extends Column {
         public MyColumn(String name, Class dataClass) {
@@ -106,7 +128,6 @@ public class LayerTableModel extends ColumnBasedTableModel {
 
         layer.getLayerManager().addLayerListener(layerListener);
         initColumns(layer);
-        collator.setStrength(Collator.PRIMARY);
     }
 
     final LayerListener layerListener = new LayerListener() {
@@ -118,14 +139,27 @@ public class LayerTableModel extends ColumnBasedTableModel {
             if (e.getType() == FeatureEventType.DELETED) {
                 removeAll(e.getFeatures());
             }
+            if (e.getType() == FeatureEventType.ADDED && features == null) {
+                layerFeaturesChanged();
+            }
             if (e.getType() == FeatureEventType.ATTRIBUTES_MODIFIED) {
-                for (Iterator i = e.getFeatures().iterator(); i.hasNext();) {
-                    Feature feature = (Feature) i.next();
-                    int row = getFeatures().indexOf(feature);
-                    if (row != -1) {
-                        fireTableChanged(new TableModelEvent(LayerTableModel.this, row, row));
+                int firstRow = Integer.MAX_VALUE;
+                int lastRow = -1;
+                for (Feature feature : e.getFeatures()) {
+                    Integer index = indexes().get(feature);
+                    if (index == null) {
+                        continue;
+                    }
+                    int row = order == null ? index : rowsOfIndexes()[index];
+                    firstRow = Math.min(firstRow, row);
+                    lastRow = Math.max(lastRow, row);
+                    if (sortKeys != null && !sortKeys.set(index, feature)) {
+                        sortKeys = null;
                     }
                 }
+                if (lastRow != -1) {
+                    fireTableChanged(new TableModelEvent(LayerTableModel.this, firstRow, lastRow));
+                }
             }
         }
         public void layerChanged(LayerEvent e) {
@@ -147,6 +181,7 @@ public class LayerTableModel extends ColumnBasedTableModel {
 
     private void initColumns(final Layer layer) {
         schema = layer.getFeatureCollectionWrapper().getFeatureSchema();
+        sortKeys = null;
         ArrayList columns = new ArrayList();
         columns.add(geomButtonColumn);
         columns.add(fidColumn);
@@ -229,11 +264,50 @@ public class LayerTableModel extends ColumnBasedTableModel {
     }
 
     public Feature getFeature(int row) {
-        return (Feature) features.get(row);
+        return features().get(order() == null ? row : order[row]);
     }
 
     public int getRowCount() {
-        return features.size();
+        return order() == null ? features().size() : order.length;
+    }
+
+    private List<Feature> features() {
+        return features != null ? features : layer.getFeatureCollectionWrapper().getFeatures();
+    }
+
+    private int[] order() {
+        // features of the layer may have been added or removed while events
+        // were not fired
+        if (order != null && order.length != features().size()) {
+            resetRows();
+        }
+        return order;
+    }
+
+    private void resetRows() {
+        order = null;
+        rowsOfIndexes = null;
+        indexes = null;
+        sortKeys = null;
+    }
+
+    /**
+     * Shows all the features of the layer. They are read from the layer when
+     * rows are displayed instead of being copied into the model, and rows
+     * follow the features added to and removed from the layer. A sorted
+     * table is sorted again when features are added or removed.
+     */
+    public void showAllFeatures() {
+        features = null;
+        layerFeaturesChanged();
+    }
+
+    private void layerFeaturesChanged() {
+        resetRows();
+        if (sortedColumnName != null) {
+            sort(sortedColumnName, sortAscending);
+        }
+        fireTableChanged(new TableModelEvent(this));
     }
 
     public boolean isCellEditable(int rowIndex, int columnIndex) {
@@ -259,33 +333,81 @@ public class LayerTableModel extends ColumnBasedTableModel {
     }
 
     public void clear() {
-        features.clear();
+        features = new ArrayList<>();
+        resetRows();
         fireTableChanged(new TableModelEvent(this));
     }
 
 
     public void removeAll(Collection featuresToRemove) {
+        if (features == null) {
+            // already removed from the layer
+            layerFeaturesChanged();
+            return;
+        }
         List<Integer> idsToRemove = new ArrayList<Integer>();
-        for (Iterator it = featuresToRemove.iterator() ; it.hasNext() ; ) {
-            idsToRemove.add(((Feature)it.next()).getID());
+        for (Object feature : featuresToRemove) {
+            idsToRemove.add(((Feature) feature).getID());
         }
         Collections.sort(idsToRemove);
-        ArrayList newFeatures = new ArrayList();
-        for (Iterator it = features.iterator() ; it.hasNext() ; ) {
-            Feature f = (Feature)it.next();
+        ArrayList<Feature> newFeatures = new ArrayList<>();
+        int[] keptIndexes = new int[features.size()];
+        int[] newIndexes = new int[features.size()];
+        for (int index = 0 ; index < features.size() ; index++) {
+            Feature f = features.get(index);
             if (Collections.binarySearch(idsToRemove, f.getID()) < 0) {
+                keptIndexes[newFeatures.size()] = index;
+                newIndexes[index] = newFeatures.size();
                 newFeatures.add(f);
+            } else {
+                newIndexes[index] = -1;
+            }
+        }
+        if (sortKeys != null) {
+            sortKeys.retain(keptIndexes, newFeatures.size());
+        }
+        if (order != null) {
+            int[] newOrder = new int[newFeatures.size()];
+            int row = 0;
+            for (int index : order) {
+                if (newIndexes[index] != -1) {
+                    newOrder[row++] = newIndexes[index];
+                }
             }
+            order = newOrder;
         }
         features = newFeatures;
+        rowsOfIndexes = null;
+        indexes = null;
         fireTableChanged(new TableModelEvent(this));
     }
 
     public void addAll(Collection newFeatures) {
+        if (features == null) {
+            // rows are updated when the features are added to the layer
+            return;
+        }
         int originalFeaturesSize = features.size();
-        Collection newFeaturesOnly = new ArrayList(newFeatures);
-        newFeaturesOnly.removeAll(features);
-        features.addAll(newFeaturesOnly);
+        Map<Feature,Integer> indexes = indexes();
+        for (Object object : newFeatures) {
+            Feature feature = (Feature) object;
+            if (!indexes.containsKey(feature)) {
+                indexes.put(feature, features.size());
+                features.add(feature);
+                if (sortKeys != null && !sortKeys.add(feature)) {
+                    sortKeys = null;
+                }
+            }
+        }
+        if (order != null) {
+            // new features are in the last rows until sorted
+            int[] newOrder = Arrays.copyOf(order, features.size());
+            for (int index = originalFeaturesSize; index < features.size(); index++) {
+                newOrder[index] = index;
+            }
+            order = newOrder;
+            rowsOfIndexes = null;
+        }
 
         if (sortedColumnName != null) {
             sort(sortedColumnName, sortAscending);
@@ -305,11 +427,43 @@ public class LayerTableModel extends ColumnBasedTableModel {
      */
     public void dispose() {
         layer.getLayerManager().removeLayerListener(layerListener);
-        features.clear();
+        features = new ArrayList<>();
+        resetRows();
     }
 
-    public List getFeatures() {
-        return Collections.unmodifiableList(features);
+    private Map<Feature,Integer> indexes() {
+        if (indexes == null) {
+            List<Feature> features = features();
+            indexes = new HashMap<>(2 * features.size() + 16);
+            for (int index = 0; index < features.size(); index++) {
+                indexes.put(features.get(index), index);
+            }
+        }
+        return indexes;
+    }
+
+    private int[] rowsOfIndexes() {
+        if (rowsOfIndexes == null) {
+            rowsOfIndexes = new int[order.length];
+            for (int row = 0; row < order.length; row++) {
+                rowsOfIndexes[order[row]] = row;
+            }
+        }
+        return rowsOfIndexes;
+    }
+
+    /**
+     * @return the features of the rows, in row order
+     */
+    public List<Feature> getFeatures() {
+        return Collections.unmodifiableList(new AbstractList<Feature>() {
+            public Feature get(int row) {
+                return getFeature(row);
+            }
+            public int size() {
+                return getRowCount();
+            }
+        });
     }
 
     /**
@@ -331,21 +485,157 @@ public class LayerTableModel extends ColumnBasedTableModel {
         this.sortAscending = ascending;
         this.sortedColumnName = columnName;
 
-        final int column = indexOfColumn(columnName);
-        Collections.sort(features, new Comparator() {
-            public int compare(Object o1, Object o2) {
-                return ascendingCompare(o1, o2) * (ascending ? 1 : (-1));
+        // rows are sorted through a permutation of their indices, comparing
+        // the values of the column read once (and kept for the next sorts).
+        // Features are not moved, the permutation maps rows to features.
+        order();
+        if (sortKeys == null || !sortKeys.columnName.equals(columnName)) {
+            sortKeys = new SortKeys(columnName);
+        }
+        final SortKeys keys = sortKeys;
+        final int sign = ascending ? 1 : -1;
+        final int[] previousOrder = order;
+        // stable with respect to the current rows, so that a table can be
+        // sorted by several columns, one after the other
+        int[] sortedRows = previousOrder == null
+                ? IndexSorter.sort(keys.size, (i, j) -> sign * keys.compare(i, j), true)
+                : IndexSorter.sort(keys.size,
+                        (i, j) -> sign * keys.compare(previousOrder[i], previousOrder[j]), true);
+        if (previousOrder != null) {
+            for (int row = 0; row < sortedRows.length; row++) {
+                sortedRows[row] = previousOrder[sortedRows[row]];
             }
+        }
+        order = sortedRows;
+        rowsOfIndexes = null;
+    }
 
-            private int ascendingCompare(Object o1, Object o2) {
-                Feature f1 = (Feature) o1;
-                Feature f2 = (Feature) o2;
-                
-                Object v1 = ((MyColumn) getColumn(column)).getValue(f1);
-                Object v2 = ((MyColumn) getColumn(column)).getValue(f2);
-                return compareValue(v1, v2);
+    /**
+     * Values of a column for each index in features(), stored as doubles
+     * for numeric columns and as collation keys for string columns. Other
+     * columns are compared with #compareValue.
+     */
+    private class SortKeys {
+        final String columnName;
+        final MyColumn column;
+        int size;
+        // values of a numeric column (the nulls being flagged in nulls)
+        double[] numbers;
+        // values of a string column
+        CollationKey[] strings;
+        // values of other columns
+        Object[] objects;
+        BitSet nulls = new BitSet();
+
+        SortKeys(String columnName) {
+            this.columnName = columnName;
+            this.column = (MyColumn) getColumn(indexOfColumn(columnName));
+            List<Feature> features = features();
+            size = features.size();
+            Object[] values = new Object[size];
+            IntStream.range(0, size).parallel().forEach(index ->
+                    values[index] = column.getValue(features.get(index)));
+            boolean allNumbers = true, allStrings = true;
+            for (Object value : values) {
+                allNumbers &= value == null || isNumber(value);
+                allStrings &= value == null || value instanceof String;
             }
-        });
+            if (allNumbers) {
+                numbers = new double[size];
+                for (int index = 0; index < size; index++) setNumber(index, values[index]);
+            } else if (allStrings) {
+                strings = new CollationKey[size];
+                IntStream.range(0, size).parallel().forEach(index ->
+                        strings[index] = values[index] == null ? null
+                                : collators.get().getCollationKey((String) values[index]));
+            } else {
+                objects = values;
+            }
+        }
+
+        private boolean isNumber(Object value) {
+            // types whose values are exactly represented by doubles
+            return value instanceof Integer || value instanceof Double
+                    || value instanceof Float || value instanceof Short
+                    || value instanceof Byte;
+        }
+
+        private void setNumber(int index, Object value) {
+            nulls.set(index, value == null);
+            numbers[index] = value == null ? 0 : ((Number) value).doubleValue();
+        }
+
+        int compare(int i, int j) {
+            if (numbers != null) {
+                boolean n1 = nulls.get(i), n2 = nulls.get(j);
+                if (n1 || n2) return n1 == n2 ? 0 : (n1 ? -1 : 1);
+                return Double.compare(numbers[i], numbers[j]);
+            }
+            if (strings != null) {
+                CollationKey k1 = strings[i], k2 = strings[j];
+                if (k1 == null || k2 == null) return k1 == k2 ? 0 : (k1 == null ? -1 : 1);
+                return k1.compareTo(k2);
+            }
+            return compareValue(objects[i], objects[j]);
+        }
+
+        /**
+         * Updates the value of index. Returns false if the value cannot be
+         * stored with the other values of the column.
+         */
+        boolean set(int index, Feature feature) {
+            Object value = column.getValue(feature);
+            if (numbers != null) {
+                if (value != null && !isNumber(value)) return false;
+                setNumber(index, value);
+            } else if (strings != null) {
+                if (value != null && !(value instanceof String)) return false;
+                strings[index] = value == null ? null : collators.get().getCollationKey((String) value);
+            } else {
+                objects[index] = value;
+            }
+            return true;
+        }
+
+        /**
+         * Appends the value of feature. Returns false if the value cannot be
+         * stored with the other values of the column.
+         */
+        boolean add(Feature feature) {
+            if (numbers != null && size == numbers.length) {
+                numbers = Arrays.copyOf(numbers, 2 * size + 1);
+            } else if (strings != null && size == strings.length) {
+                strings = Arrays.copyOf(strings, 2 * size + 1);
+            } else if (objects != null && size == objects.length) {
+                objects = Arrays.copyOf(objects, 2 * size + 1);
+            }
+            return set(size++, feature);
+        }
+
+        /**
+         * Keeps the values of the given indexes only, in the given order.
+         */
+        void retain(int[] keptIndexes, int count) {
+            BitSet keptNulls = new BitSet();
+            if (numbers != null) {
+                double[] kept = new double[count];
+                for (int i = 0; i < count; i++) {
+                    kept[i] = numbers[keptIndexes[i]];
+                    if (nulls.get(keptIndexes[i])) keptNulls.set(i);
+                }
+                numbers = kept;
+            } else if (strings != null) {
+                CollationKey[] kept = new CollationKey[count];
+                for (int i = 0; i < count; i++) kept[i] = strings[keptIndexes[i]];
+                strings = kept;
+            } else {
+                Object[] kept = new Object[count];
+                for (int i = 0; i < count; i++) kept[i] = objects[keptIndexes[i]];
+                objects = kept;
+            }
+            nulls = keptNulls;
+            size = count;
+        }
     }
 
     private static int compareValue(Object o1, Object o2)
@@ -361,7 +651,7 @@ public class LayerTableModel extends ColumnBasedTableModel {
         return 0;  // for now - change to compare type
       }
       else if (o1 instanceof String && o2 instanceof String) {
-        return collator.compare(o1, o2);
+        return collators.get().compare(o1, o2);
       }
       else if (o1 instanceof Comparable) {
         Comparable attribute1 = (Comparable) o1;
@@ -75,6 +75,8 @@ import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.util.Assert;
 import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FenceFilter;
+import com.vividsolutions.jump.task.TaskMonitor;
 import com.vividsolutions.jump.util.Blackboard;
 import com.vividsolutions.jump.workbench.JUMPWorkbench;
 import com.vividsolutions.jump.workbench.model.CategoryEvent;
@@ -330,7 +332,16 @@ public class LayerViewPanel extends JPanel
 	 * The Fence layer will be included.
 	 */
 	public Map visibleLayerToFeaturesInFenceMap(Geometry fence) {
+		return visibleLayerToFeaturesInFenceMap(fence, null);
+	}
+
+	/**
+	 * The Fence layer will be included.
+	 * @param monitor receives the progress of the search in each layer, or null
+	 */
+	public Map visibleLayerToFeaturesInFenceMap(Geometry fence, TaskMonitor monitor) {
 		Map map = new HashMap();
+		FenceFilter filter = new FenceFilter(fence);
 
 		for (Iterator i = getLayerManager().iterator(Layer.class); i.hasNext();) {
 			Layer layer = (Layer) i.next();
@@ -339,17 +350,16 @@ public class LayerViewPanel extends JPanel
 				continue;
 			}
 
-			HashSet features = new HashSet();
-
-			for (Iterator j = layer.getFeatureCollectionWrapper().query(
-					fence.getEnvelopeInternal()).iterator(); j.hasNext();) {
-				Feature candidate = (Feature) j.next();
-
-				if (intersects(candidate.getGeometry(), fence)) {
-					features.add(candidate);
+			if (monitor != null) {
+				if (monitor.isCancelRequested()) {
+					break;
 				}
+				monitor.report(layer.getName());
 			}
 
+			HashSet features = new HashSet(filter.query(
+					layer.getFeatureCollectionWrapper(), monitor));
+
 			if (!features.isEmpty()) {
 				map.put(layer, features);
 			}
@@ -52,7 +52,7 @@ public class OneLayerAttributeTab extends AttributeTab {
         //InfoModel#add must be called after the AttributeTab is created; otherwise
         //layer won't be added to the Attribute Tab -- the AttributeTab listens for
         //the event fired by InfoModel#add. [Jon Aquino]
-        getModel().add(layer, layer.getFeatureCollectionWrapper().getFeatures());
+        getModel().addAllFeatures(layer);
 
         return this;
     }
@@ -255,8 +255,17 @@ public class SelectionManager {
         if (!panelUpdatesEnabled) {
             return;
         }
-    	selectedItems = this.getSelectedItems().size(); //need to cache these to optimize size checks
-    	featuresWithSelectedItemsCount = this.getFeaturesWithSelectedItems().size();  
+        //need to cache these to optimize size checks
+        selectedItems = 0;
+        for (AbstractSelection selection : selections) {
+            selectedItems += selection.getSelectedItemsCount();
+        }
+        featuresWithSelectedItemsCount = 0;
+        for (Layer layer : getLayersWithSelectedItems()) {
+            featuresWithSelectedItemsCount += partsOrLineStringsSelected(layer)
+                    ? getFeaturesWithSelectedItems(layer).size()
+                    : featureSelection.getFeaturesWithSelectedItemsCount(layer);
+        }
 
         panel.fireSelectionChanged();
         panel.getRenderingManager().render(SelectionBackgroundRenderer.CONTENT_ID);
@@ -269,7 +278,15 @@ public class SelectionManager {
         this.panelUpdatesEnabled = panelUpdatesEnabled;
     }
 
+    private boolean partsOrLineStringsSelected(Layer layer) {
+        return partSelection.hasSelectedItems(layer) || lineStringSelection.hasSelectedItems(layer);
+    }
+
     public Collection<Feature> getFeaturesWithSelectedItems(Layer layer) {
+        if (!partsOrLineStringsSelected(layer)) {
+            // no need to remove duplicates
+            return featureSelection.getFeaturesWithSelectedItems(layer);
+        }
         Set<Feature> featuresWithSelectedItems = new java.util.LinkedHashSet<>();
         for (AbstractSelection selection : selections) {
             featuresWithSelectedItems.addAll(selection.getFeaturesWithSelectedItems(layer));
@@ -39,6 +39,7 @@ import java.util.Iterator;
 import java.util.Map;
 
 import org.locationtech.jts.geom.Geometry;
+import com.vividsolutions.jump.task.TaskMonitor;
 import com.vividsolutions.jump.workbench.WorkbenchContext;
 import com.vividsolutions.jump.workbench.model.FenceLayerFinder;
 import com.vividsolutions.jump.workbench.model.Layer;
@@ -46,12 +47,19 @@ import com.vividsolutions.jump.workbench.plugin.AbstractPlugIn;
 import com.vividsolutions.jump.workbench.plugin.EnableCheckFactory;
 import com.vividsolutions.jump.workbench.plugin.MultiEnableCheck;
 import com.vividsolutions.jump.workbench.plugin.PlugInContext;
+import com.vividsolutions.jump.workbench.plugin.ThreadedPlugIn;
+import com.vividsolutions.jump.workbench.ui.GUIUtil;
 import com.vividsolutions.jump.workbench.ui.LayerNamePanel;
 import com.vividsolutions.jump.workbench.ui.LayerViewPanel;
 import com.vividsolutions.jump.workbench.ui.MenuNames;
 
 
-public class SelectFeaturesInFencePlugIn extends AbstractPlugIn {
+/**
+ * Selects the features of the selected layers intersecting the fence. The
+ * features are searched in a background thread, with the layer indexes and
+ * a prepared fence (see {@link com.vividsolutions.jump.feature.FenceFilter}).
+ */
+public class SelectFeaturesInFencePlugIn extends AbstractPlugIn implements ThreadedPlugIn {
     public SelectFeaturesInFencePlugIn() {
     }
 
@@ -64,21 +72,45 @@ public class SelectFeaturesInFencePlugIn extends AbstractPlugIn {
 
     public boolean execute(PlugInContext context) throws Exception {
         reportNothingToUndoYet(context);
-        context.getLayerViewPanel().getSelectionManager().clear();
-        execute(context.getLayerViewPanel(), context.getLayerNamePanel(),
-            context.getLayerViewPanel().getFence(), true, false);
 
         return true;
     }
 
+    public void run(TaskMonitor monitor, final PlugInContext context)
+        throws Exception {
+        monitor.allowCancellationRequests();
+        final LayerViewPanel layerViewPanel = context.getLayerViewPanel();
+        final Map layerToFeaturesInFenceMap =
+            layerViewPanel.visibleLayerToFeaturesInFenceMap(layerViewPanel.getFence(), monitor);
+        if (monitor.isCancelRequested()) {
+            return;
+        }
+        GUIUtil.invokeOnEventThread(new Runnable() {
+            public void run() {
+                layerViewPanel.getSelectionManager().clear();
+                select(layerViewPanel, context.getLayerNamePanel(),
+                    layerToFeaturesInFenceMap, true);
+            }
+        });
+    }
+
     public static void execute(
         LayerViewPanel layerViewPanel,
         LayerNamePanel layerNamePanel,
         Geometry fence,
         boolean skipUnselectedLayers,
         boolean mentionModifierHelp) {
+        select(layerViewPanel, layerNamePanel,
+            layerViewPanel.visibleLayerToFeaturesInFenceMap(fence),
+            skipUnselectedLayers);
+    }
+
+    private static void select(
+        LayerViewPanel layerViewPanel,
+        LayerNamePanel layerNamePanel,
+        Map layerToFeaturesInFenceMap,
+        boolean skipUnselectedLayers) {
         Collection selectedLayers = Arrays.asList(layerNamePanel.getSelectedLayers());
-        Map layerToFeaturesInFenceMap = layerViewPanel.visibleLayerToFeaturesInFenceMap(fence);
 
         for (Iterator i = layerToFeaturesInFenceMap.keySet().iterator(); i.hasNext();) {
             Layer layer = (Layer) i.next();
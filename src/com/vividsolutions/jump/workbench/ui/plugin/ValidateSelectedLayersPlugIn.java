@@ -35,8 +35,9 @@ package com.vividsolutions.jump.workbench.ui.plugin;
 
 import java.awt.Color;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryCollection;
@@ -53,10 +54,10 @@ import com.vividsolutions.jump.feature.BasicFeature;
 import com.vividsolutions.jump.feature.Feature;
 import com.vividsolutions.jump.feature.FeatureDataset;
 import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.qa.ValidationCache;
 import com.vividsolutions.jump.qa.ValidationError;
 import com.vividsolutions.jump.qa.Validator;
 import com.vividsolutions.jump.task.TaskMonitor;
-import com.vividsolutions.jump.util.CollectionMap;
 import com.vividsolutions.jump.workbench.WorkbenchContext;
 import com.vividsolutions.jump.workbench.model.Layer;
 import com.vividsolutions.jump.workbench.model.StandardCategoryNames;
@@ -102,6 +103,9 @@ public class ValidateSelectedLayersPlugIn extends AbstractPlugIn
     private GeometryFactory geometryFactory = new GeometryFactory();
     private Color GOLD = new Color(255, 192, 0, 150);
     private Validator validator;
+    // validation results of the features which have not been modified since
+    // the last validation
+    private final ValidationCache validationCache = new ValidationCache();
 
     public ValidateSelectedLayersPlugIn() {
         initFeatureSchema();
@@ -166,6 +170,7 @@ public class ValidateSelectedLayersPlugIn extends AbstractPlugIn
         }
 
         Validator validator = new Validator();
+        validator.setCache(validationCache);
         validator.setCheckingBasicTopology(dialog.getBoolean(
         		CHECK_BASIC_TOPOLOGY));
         validator.setCheckingNoRepeatedConsecutivePoints(dialog.getBoolean(
@@ -222,68 +227,48 @@ public class ValidateSelectedLayersPlugIn extends AbstractPlugIn
 
     private void validate(final Layer layer, final Validator validator,
         PlugInContext context, TaskMonitor monitor) {
-        List validationErrors = validator.validate(layer.getFeatureCollectionWrapper()
-                                                        .getFeatures(), monitor);
-
-        if (!validationErrors.isEmpty()) {
+        // errors are converted to features as soon as they are found
+        final List<Feature> locationFeatures = new ArrayList<>();
+        final List<Feature> badFeatures = new ArrayList<>();
+        final Map<String,Integer> errorCounts = new LinkedHashMap<>();
+        validator.validate(layer.getFeatureCollectionWrapper().getFeatures(),
+            monitor, validationErrors -> {
+                for (Object o : validationErrors) {
+                    ValidationError error = (ValidationError) o;
+                    locationFeatures.add(toFeature(error, layer,
+                            geometryFactory.createPoint(error.getLocation())));
+                    badFeatures.add(toFeature(error, layer,
+                            (Geometry) error.getFeature().getGeometry().clone()));
+                    errorCounts.merge(error.getMessage(), 1, Integer::sum);
+                }
+            });
+
+        if (!locationFeatures.isEmpty()) {
             addLayer(toLayer(I18N.get("ui.plugin.ValidateSelectedLayersPlugIn.error-locations")+" - " + layer.getName(),
-                    toLocationFeatures(validationErrors, layer), layer, true,
+                    locationFeatures, layer, true,
                     context), context);
             addLayer(toLayer(I18N.get("ui.plugin.ValidateSelectedLayersPlugIn.bad-features")+" - " + layer.getName(),
-                    toFeatures(validationErrors, layer), layer, false, context),
+                    badFeatures, layer, false, context),
                 context);
         }
 
-        outputSummary(context, layer, validationErrors);
+        outputSummary(context, layer, errorCounts);
     }
 
     private void outputSummary(PlugInContext context, Layer layer,
-        List validationErrors) {
+        Map<String,Integer> errorCounts) {
         context.getOutputFrame().addHeader(2, I18N.get("ui.plugin.ValidateSelectedLayersPlugIn.layer")+" " + layer.getName());
 
-        if (validationErrors.isEmpty()) {
+        if (errorCounts.isEmpty()) {
             context.getOutputFrame().addText(I18N.get("ui.plugin.ValidateSelectedLayersPlugIn.no-validation-errors"));
 
             return;
         }
 
-        CollectionMap descriptionToErrorMap = new CollectionMap();
-
-        for (Iterator i = validationErrors.iterator(); i.hasNext();) {
-            ValidationError error = (ValidationError) i.next();
-            descriptionToErrorMap.addItem(error.getMessage(), error);
-        }
-
-        for (Iterator i = descriptionToErrorMap.keySet().iterator();
-                i.hasNext();) {
-            String message = (String) i.next();
-            context.getOutputFrame().addField(message + ":",
-                descriptionToErrorMap.getItems(message).size() + "");
-        }
-    }
-
-    private List toFeatures(List validationErrors, Layer sourceLayer) {
-        ArrayList features = new ArrayList();
-
-        for (Iterator i = validationErrors.iterator(); i.hasNext();) {
-            ValidationError error = (ValidationError) i.next();
-            features.add(toFeature(error, sourceLayer,
-                    (Geometry) error.getFeature().getGeometry().clone()));
-        }
-
-        return features;
-    }
-
-    private List toLocationFeatures(List validationErrors, Layer sourceLayer) {
-        ArrayList features = new ArrayList();
-
-        for (Iterator i = validationErrors.iterator(); i.hasNext();) {
-            ValidationError error = (ValidationError) i.next();
-            Geometry geometry = geometryFactory.createPoint(error.getLocation());
-            features.add(toFeature(error, sourceLayer, geometry));
+        for (Map.Entry<String,Integer> entry : errorCounts.entrySet()) {
+            context.getOutputFrame().addField(entry.getKey() + ":",
+                entry.getValue() + "");
         }
-
-        return features;
     }
 
     private Feature toFeature(ValidationError error, Layer sourceLayer,
@@ -36,14 +36,16 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.lang.Exception;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JTextField;
 
 import org.locationtech.jts.geom.*;
-import org.locationtech.jts.operation.union.UnaryUnionOp;
 import com.vividsolutions.jump.I18N;
+import com.vividsolutions.jump.geom.TiledIncrementalUnion;
 import org.locationtech.jts.operation.buffer.BufferOp;
 import org.locationtech.jts.operation.buffer.BufferParameters;
 import org.locationtech.jts.simplify.DouglasPeuckerSimplifier;
@@ -83,6 +85,13 @@ public class BufferPlugIn extends AbstractThreadedUiPlugIn {
     private static final int LEFT  = 1;
     private static final int RIGHT = 2;
 
+    // number of features buffered in parallel before results are consumed
+    private static final int BATCH_SIZE = 1024;
+    // union : average number of features per tile, and number of buffers
+    // a tile can hold before they are merged
+    private static final int FEATURES_PER_TILE = 4096;
+    private static final int MAX_PENDING_BUFFERS = 256;
+
     private String MAIN_OPTIONS;
     private String PROCESSED_DATA;
     private String LAYER;
@@ -306,13 +315,20 @@ public class BufferPlugIn extends AbstractThreadedUiPlugIn {
                 return;
             }
 
-            Map<Integer,Geometry> resultMap = runBuffer(monitor, context, inputFD);
-
             if ((Boolean)getParameters().get(P_UPDATE_SOURCE)) {
+                Map<Integer,Geometry> resultMap = new HashMap<>(inputFD.size());
+                runBuffer(monitor, context, inputFD, (features, buffers) -> {
+                    for (int i = 0; i < buffers.length; i++) {
+                        resultMap.put(features.get(i).getID(), buffers[i]);
+                    }
+                });
                 updateSourceLayer(monitor, context, layer, inputFD, resultMap);
             }
+            else if ((Boolean)getParameter(P_UNION_RESULT)) {
+                createUnionLayer(monitor, context, inputFD);
+            }
             else {
-                createNewLayer(monitor, context, inputFD, resultMap, featureSchema);
+                createNewLayer(monitor, context, inputFD, featureSchema);
             }
         } catch(Exception e) {
             throw e;
@@ -323,32 +339,51 @@ public class BufferPlugIn extends AbstractThreadedUiPlugIn {
     }
 
     private void createNewLayer(TaskMonitor monitor, PlugInContext context, FeatureCollection inputFD,
-                                Map<Integer,Geometry> resultMap, FeatureSchema featureSchema) {
-        FeatureCollection resultFC = new FeatureDataset(featureSchema);
+                                FeatureSchema featureSchema) throws Exception {
+        final FeatureCollection resultFC;
         if ((Boolean) getParameter(P_COPY_ATTRIBUTE)) {
-            FeatureCollection resultFeatureColl = new FeatureDataset(featureSchema);
-            for (Iterator iSource = inputFD.iterator(); iSource.hasNext(); ) {
-                Feature sourceFeature = (Feature) iSource.next();
-                Geometry gResult = resultMap.get(sourceFeature.getID());
-                if (!(gResult == null || gResult.isEmpty())) {
-                    Feature newFeature = sourceFeature.clone(false);
-                    newFeature.setGeometry(gResult);
-                    resultFeatureColl.add(newFeature);
+            resultFC = new FeatureDataset(featureSchema);
+            runBuffer(monitor, context, inputFD, (features, buffers) -> {
+                for (int i = 0; i < buffers.length; i++) {
+                    if (!(buffers[i] == null || buffers[i].isEmpty())) {
+                        Feature newFeature = features.get(i).clone(false);
+                        newFeature.setGeometry(buffers[i]);
+                        resultFC.add(newFeature);
+                    }
                 }
-                if (monitor.isCancelRequested()) break;
-            }
-            resultFC = resultFeatureColl;
+            });
         } else {
-            resultFC = FeatureDatasetFactory.createFromGeometry(resultMap.values());
-        }
-        if ((Boolean)getParameter(P_UNION_RESULT)) {
-            monitor.report(I18N.get("ui.plugin.analysis.BufferPlugIn.union-buffered-features"));
-            Collection geoms = FeatureUtil.toGeometries(resultFC.getFeatures());
-            Geometry g = UnaryUnionOp.union(geoms);
-            geoms.clear();
-            if (!(g == null || g.isEmpty())) geoms.add(g);
+            List<Geometry> geoms = new ArrayList<>(inputFD.size());
+            runBuffer(monitor, context, inputFD, (features, buffers) -> {
+                for (Geometry buffer : buffers) {
+                    if (buffer != null) geoms.add(buffer);
+                }
+            });
             resultFC = FeatureDatasetFactory.createFromGeometry(geoms);
         }
+        addResultLayer(context, resultFC);
+    }
+
+    /**
+     * Buffers and unions features batch after batch, so that all the buffers
+     * never have to be held in memory.
+     */
+    private void createUnionLayer(TaskMonitor monitor, PlugInContext context,
+                                  FeatureCollection inputFD) throws Exception {
+        int tilesPerSide = (int)Math.ceil(Math.sqrt(inputFD.size() / (double)FEATURES_PER_TILE));
+        TiledIncrementalUnion union = new TiledIncrementalUnion(
+                inputFD.getEnvelope(), tilesPerSide, MAX_PENDING_BUFFERS);
+        runBuffer(monitor, context, inputFD,
+                (features, buffers) -> union.addAll(Arrays.asList(buffers)));
+        if (monitor.isCancelRequested()) return;
+        monitor.report(I18N.get("ui.plugin.analysis.BufferPlugIn.union-buffered-features"));
+        Geometry g = union.getResult();
+        List<Geometry> geoms = new ArrayList<>(1);
+        if (!(g == null || g.isEmpty())) geoms.add(g);
+        addResultLayer(context, FeatureDatasetFactory.createFromGeometry(geoms));
+    }
+
+    private void addResultLayer(PlugInContext context, FeatureCollection resultFC) {
         if (resultFC.isEmpty()) {
             context.getWorkbenchFrame()
                     .warnUser(I18N.get("ui.plugin.analysis.BufferPlugIn.empty-result-set"));
@@ -378,7 +413,20 @@ public class BufferPlugIn extends AbstractThreadedUiPlugIn {
     }
 
 
-    private Map<Integer,Geometry> runBuffer(TaskMonitor monitor, PlugInContext context, FeatureCollection fcA) throws Exception {
+    /**
+     * Receives the buffers of a batch of features, in the order of the features.
+     */
+    private interface BufferConsumer {
+        void accept(List<Feature> features, Geometry[] buffers);
+    }
+
+    /**
+     * Buffers the features of fcA by batches of BATCH_SIZE features. The
+     * features of a batch are buffered in parallel, then the batch is handed
+     * to consumer before the next one is processed.
+     */
+    private void runBuffer(TaskMonitor monitor, PlugInContext context, FeatureCollection fcA,
+                           BufferConsumer consumer) throws Exception {
         int quadrantSegments = (Integer)getParameter(P_QUADRANT_SEGMENTS);
         int endCapStyleCode = (Integer)getParameter(P_END_CAP_STYLE);
         int joinStyleCode = (Integer)getParameter(P_JOIN_STYLE);
@@ -388,55 +436,60 @@ public class BufferPlugIn extends AbstractThreadedUiPlugIn {
         double bufferDistance = (Double)getParameter(P_DISTANCE);
         boolean fromAttribute = (Boolean)getParameter(P_FROM_ATTRIBUTE);
         int attributeIndex = (Integer)getParameter(P_ATTRIBUTE_INDEX);
-        int total = fcA.size();
-        int count = 0;
-        //Collection resultColl = new ArrayList();
-        Map<Integer,Geometry> map = new HashMap<Integer, Geometry>(fcA.size());
+        // BufferParameters are not modified by BufferOp, they are shared by all the features
         BufferParameters bufferParameters = 
             new BufferParameters(quadrantSegments, endCapStyleCode, joinStyleCode, mitreLimit);
         bufferParameters.setSingleSided(leftSingleSided || rightSingleSided);
         int side = 0;
         if (leftSingleSided) side += LEFT;
         if (rightSingleSided) side += RIGHT;
-        for (Iterator ia = fcA.iterator(); ia.hasNext(); ) {
-            monitor.report(count++, total, I18N.get("com.vividsolutions.jump.qa.diff.DiffGeometry.features"));
+        final int sides = side;
+        List<Feature> features = fcA.getFeatures();
+        int total = features.size();
+        AtomicReference<Feature> failedFeature = new AtomicReference<>();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        for (int start = 0; start < total; start += BATCH_SIZE) {
+            monitor.report(start, total, I18N.get("com.vividsolutions.jump.qa.diff.DiffGeometry.features"));
             if (monitor.isCancelRequested()) break;
-            Feature fa = (Feature) ia.next();
-            Geometry ga = fa.getGeometry();
-            if (fromAttribute) {
-        	    Object o = fa.getAttribute(attributeIndex);
-        	    if (o instanceof Double)     		  
-        		    bufferDistance = ((Double) o).doubleValue();
-        	    else if (o instanceof Integer)
-           		    bufferDistance = ((Integer) o).doubleValue();
-            }
-            try {
-                if (side == 0) {
-                    Geometry result = runBuffer(ga, bufferParameters, 0, bufferDistance);
-                    map.put(fa.getID(), result);
-                }
-                if (side == LEFT) {
-                    Geometry result = runBuffer(ga, bufferParameters, LEFT, bufferDistance);
-                    map.put(fa.getID(), result);
+            List<Feature> batch = features.subList(start, Math.min(total, start + BATCH_SIZE));
+            Geometry[] buffers = new Geometry[batch.size()];
+            IntStream.range(0, batch.size()).parallel().forEach(i -> {
+                if (failure.get() != null) return;
+                Feature fa = batch.get(i);
+                double distance = bufferDistance;
+                if (fromAttribute) {
+                    Object o = fa.getAttribute(attributeIndex);
+                    if (o instanceof Double)
+                        distance = ((Double) o).doubleValue();
+                    else if (o instanceof Integer)
+                        distance = ((Integer) o).doubleValue();
                 }
-                if (side == RIGHT) {
-                    Geometry result = runBuffer(ga, bufferParameters, RIGHT, bufferDistance);
-                    map.put(fa.getID(), result);
+                try {
+                    buffers[i] = bufferSides(fa.getGeometry(), bufferParameters, sides, distance);
+                } catch (Exception e) {
+                    if (failure.compareAndSet(null, e)) failedFeature.set(fa);
                 }
-                if (side == LEFT + RIGHT) {
-                    Geometry left = runBuffer(ga, bufferParameters, LEFT, bufferDistance);
-                    Geometry right = runBuffer(ga, bufferParameters, RIGHT, bufferDistance);
-                    map.put(fa.getID(), left.getFactory().createGeometryCollection(new Geometry[]{left,right}));
-                }
-            } catch (Exception e) {
+            });
+            if (failure.get() != null) {
+                Feature fa = failedFeature.get();
+                Geometry ga = fa.getGeometry();
                 String errorMessage = I18N.getMessage(
                     "ui.plugin.analysis.BufferPlugIn.error-found",
                     new Object[]{fa.getID(), ga.getCoordinate().x, ga.getCoordinate().x});
                 context.getWorkbenchFrame().warnUser(errorMessage);
-                throw new Exception(errorMessage, e);
+                throw new Exception(errorMessage, failure.get());
             }
+            consumer.accept(batch, buffers);
+        }
+    }
+
+    private Geometry bufferSides(Geometry ga, BufferParameters param, int sides, double bufferDistance) throws Exception {
+        if (sides == LEFT + RIGHT) {
+            Geometry left = runBuffer(ga, param, LEFT, bufferDistance);
+            Geometry right = runBuffer(ga, param, RIGHT, bufferDistance);
+            return left.getFactory().createGeometryCollection(new Geometry[]{left,right});
         }
-        return map;
+        return runBuffer(ga, param, sides, bufferDistance);
     }
 
     private Geometry runBuffer(Geometry a, BufferParameters param, int side, double bufferDistance) throws Exception {
@@ -36,6 +36,7 @@ package com.vividsolutions.jump.workbench.ui.plugin.analysis;
 import java.util.*;
 import org.locationtech.jts.algorithm.*;
 import org.locationtech.jts.geom.*;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
 import org.locationtech.jts.simplify.*;
 import com.vividsolutions.jump.qa.diff.BufferGeometryMatcher;
 import com.vividsolutions.jump.workbench.ui.GenericNames;
@@ -66,7 +67,7 @@ public abstract class GeometryPredicate
     new InteriorPointIntersectsPredicate()
   };
 
-  static List<String> getNames()
+  public static List<String> getNames()
   {
     List<String> names = new ArrayList<>();
     for (GeometryPredicate m : method) {
@@ -75,7 +76,7 @@ public abstract class GeometryPredicate
     return names;
   }
 
-  static GeometryPredicate getPredicate(String name)
+  public static GeometryPredicate getPredicate(String name)
   {
     for (GeometryPredicate m : method) {
       if (m.name.equals(name))
@@ -118,25 +119,53 @@ public abstract class GeometryPredicate
 
   public abstract boolean isTrue(Geometry geom0, Geometry geom1, double[] param);
 
+  /**
+   * Evaluates the predicate with a prepared first geometry.
+   * Predicates which can take advantage of the prepared geometry override
+   * this method, the default implementation uses the plain geometry.
+   */
+  public boolean isTrue(PreparedGeometry prepared0, Geometry geom1, double[] param) {
+    return isTrue(prepared0.getGeometry(), geom1, param);
+  }
+
+  /**
+   * Evaluates the predicate with a prepared second geometry.
+   * Predicates which can take advantage of the prepared geometry override
+   * this method, the default implementation uses the plain geometry.
+   */
+  public boolean isTrue(Geometry geom0, PreparedGeometry prepared1, double[] param) {
+    return isTrue(geom0, prepared1.getGeometry(), param);
+  }
+
   private static class IntersectsPredicate extends GeometryPredicate {
     public IntersectsPredicate() {  super(GenericNames.INTERSECTS);  }
     public boolean isTrue(Geometry geom0, Geometry geom1, double[] param) {
       return geom0.intersects(geom1);   }
+    public boolean isTrue(PreparedGeometry prepared0, Geometry geom1, double[] param) {
+      return prepared0.intersects(geom1);   }
+    public boolean isTrue(Geometry geom0, PreparedGeometry prepared1, double[] param) {
+      return prepared1.intersects(geom0);   }
   }
   private static class ContainsPredicate extends GeometryPredicate {
     public ContainsPredicate() {  super(GenericNames.CONTAINS);  }
     public boolean isTrue(Geometry geom0, Geometry geom1, double[] param) {
       return geom0.contains(geom1);   }
+    public boolean isTrue(PreparedGeometry prepared0, Geometry geom1, double[] param) {
+      return prepared0.contains(geom1);   }
   }
   private static class CoversPredicate extends GeometryPredicate {
     public CoversPredicate() {  super(GenericNames.COVERS);  }
     public boolean isTrue(Geometry geom0, Geometry geom1, double[] param) {
       return geom0.covers(geom1);   }
+    public boolean isTrue(PreparedGeometry prepared0, Geometry geom1, double[] param) {
+      return prepared0.covers(geom1);   }
   }
   private static class CoveredByPredicate extends GeometryPredicate {
     public CoveredByPredicate() {  super(GenericNames.COVEREDBY);  }
     public boolean isTrue(Geometry geom0, Geometry geom1, double[] param) {
       return geom0.coveredBy(geom1);   }
+    public boolean isTrue(Geometry geom0, PreparedGeometry prepared1, double[] param) {
+      return prepared1.covers(geom0);   }
   }
   private static class CrossesPredicate extends GeometryPredicate {
     public CrossesPredicate() {  super(GenericNames.CROSSES);  }
@@ -147,6 +176,10 @@ public abstract class GeometryPredicate
     public DisjointPredicate() {  super(GenericNames.DISJOINT);  }
     public boolean isTrue(Geometry geom0, Geometry geom1, double[] param) {
       return geom0.disjoint(geom1);   }
+    public boolean isTrue(PreparedGeometry prepared0, Geometry geom1, double[] param) {
+      return prepared0.disjoint(geom1);   }
+    public boolean isTrue(Geometry geom0, PreparedGeometry prepared1, double[] param) {
+      return prepared1.disjoint(geom0);   }
   }
   private static class EqualsPredicate extends GeometryPredicate {
     public EqualsPredicate() {  super(GenericNames.EQUALS);  }
@@ -167,6 +200,8 @@ public abstract class GeometryPredicate
     public WithinPredicate() {  super(GenericNames.WITHIN);  }
     public boolean isTrue(Geometry geom0, Geometry geom1, double[] param) {
       return geom0.within(geom1);   }
+    public boolean isTrue(Geometry geom0, PreparedGeometry prepared1, double[] param) {
+      return prepared1.contains(geom0);   }
   }
   public static class WithinDistancePredicate extends GeometryPredicate {
     public WithinDistancePredicate() {  super(GenericNames.WITHIN_DISTANCE, 1);  }
@@ -183,10 +218,14 @@ public abstract class GeometryPredicate
     public IntersectsInteriorPointPredicate() {  super(GenericNames.INTERSECTS_INTERIOR_POINT);  }
     public boolean isTrue(Geometry geom0, Geometry geom1, double[] param) {
       return geom0.intersects(geom1.getInteriorPoint());   }
+    public boolean isTrue(PreparedGeometry prepared0, Geometry geom1, double[] param) {
+      return prepared0.intersects(geom1.getInteriorPoint());   }
   }
   private static class InteriorPointIntersectsPredicate extends GeometryPredicate {
     public InteriorPointIntersectsPredicate() {  super(GenericNames.INTERIOR_POINT_INTERSECTS);  }
     public boolean isTrue(Geometry geom0, Geometry geom1, double[] param) {
       return geom0.getInteriorPoint().intersects(geom1);   }
+    public boolean isTrue(Geometry geom0, PreparedGeometry prepared1, double[] param) {
+      return prepared1.intersects(geom0.getInteriorPoint());   }
   }
 }
@@ -70,8 +70,10 @@ public class OverlayPlugIn extends AbstractPlugIn implements ThreadedPlugIn {
     private String SECOND_LAYER = I18N.get("ui.plugin.analysis.OverlayPlugIn.second-layer");
     private String TRANSFER_ATTRIBUTES_FROM_FIRST_LAYER = I18N.get("ui.plugin.analysis.OverlayPlugIn.transfer-attributes-from-first-layer");
     private String TRANSFER_ATTRIBUTES_FROM_SECOND_LAYER = I18N.get("ui.plugin.analysis.OverlayPlugIn.transfer-attributes-from-second-layer");
+    private String PARALLEL = I18N.get("ui.plugin.analysis.OverlayPlugIn.parallel");
     private MultiInputDialog dialog;
     private OverlayEngine overlayEngine;
+    private boolean parallel = false;
 
     public OverlayPlugIn() {
     }
@@ -106,6 +108,7 @@ public class OverlayPlugIn extends AbstractPlugIn implements ThreadedPlugIn {
 		SECOND_LAYER = I18N.get("ui.plugin.analysis.OverlayPlugIn.second-layer");
 		TRANSFER_ATTRIBUTES_FROM_FIRST_LAYER = I18N.get("ui.plugin.analysis.OverlayPlugIn.transfer-attributes-from-first-layer");
 		TRANSFER_ATTRIBUTES_FROM_SECOND_LAYER = I18N.get("ui.plugin.analysis.OverlayPlugIn.transfer-attributes-from-second-layer");
+		PARALLEL = I18N.get("ui.plugin.analysis.OverlayPlugIn.parallel");
 
         overlayEngine = prompt(context);
 
@@ -125,6 +128,8 @@ public class OverlayPlugIn extends AbstractPlugIn implements ThreadedPlugIn {
         OverlayEngine e = new OverlayEngine();
         e.setAllowingPolygonsOnly(dialog.getBoolean(POLYGON_OUTPUT));
         e.setSplittingGeometryCollections(dialog.getBoolean(POLYGON_OUTPUT));
+        parallel = dialog.getBoolean(PARALLEL);
+        e.setParallel(parallel);
 
         return e;
     }
@@ -143,6 +148,8 @@ public class OverlayPlugIn extends AbstractPlugIn implements ThreadedPlugIn {
             true);
         dialog.addCheckBox(TRANSFER_ATTRIBUTES_FROM_SECOND_LAYER,
             true);
+        dialog.addCheckBox(PARALLEL, parallel,
+            I18N.get("ui.plugin.analysis.OverlayPlugIn.parallel-tooltip"));
         GUIUtil.centreOnWindow(dialog);
     }
 
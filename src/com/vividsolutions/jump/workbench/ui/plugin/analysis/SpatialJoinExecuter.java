@@ -3,8 +3,6 @@ package com.vividsolutions.jump.workbench.ui.plugin.analysis;
 import java.util.*;
 import com.vividsolutions.jump.task.*;
 
-
-import org.locationtech.jts.geom.*;
 import com.vividsolutions.jump.feature.*;
 
 /**
@@ -20,63 +18,15 @@ public class SpatialJoinExecuter
   private FeatureCollection tgtAFC; // Target layer
   private FeatureCollection srcBFC; // Source layer
 
-  private FeatureCollection queryFC;
-
   private boolean isExceptionThrown = false;
   private Exception exception;
 
-  private Geometry geoms[] = new Geometry[2];
-  private Set resultSet = new HashSet();
-
   public SpatialJoinExecuter(FeatureCollection srcBFC, FeatureCollection tgtAFC)
   {
     this.tgtAFC = tgtAFC;
     this.srcBFC = srcBFC;
   }
 
-  /**
-   * Gets the feature collection to query.
-   * A spatial index may be created if this would improve performance.
-   *
-   * @param pred geometry predicate
-   */
-  private void createQueryFeatureCollection(GeometryPredicate pred)
-  {
-    boolean buildIndex = false;
-    if (tgtAFC.size() > 10) buildIndex = true;
-    if (srcBFC.size() > 100) buildIndex = true;
-    if (pred instanceof GeometryPredicate.DisjointPredicate) buildIndex = false;
-
-    if (buildIndex) {
-      queryFC = new IndexedFeatureCollection(srcBFC);
-    }
-    else {
-      queryFC = srcBFC;
-    }
-  }
-
-  private Iterator query(GeometryPredicate pred, double[] params, Geometry gMask)
-  {
-    Envelope queryEnv = gMask.getEnvelopeInternal();
-    // special hack for withinDistance
-    if (pred instanceof GeometryPredicate.WithinDistancePredicate) {
-      queryEnv.expandBy(params[0]);
-    }
-
-    boolean useQuery = true;
-    if (pred instanceof GeometryPredicate.DisjointPredicate) useQuery = false;
-
-    Iterator queryIt = null;
-    if (useQuery) {
-      Collection queryResult = queryFC.query(queryEnv);
-      queryIt = queryResult.iterator();
-    }
-    else {
-      queryIt = queryFC.iterator();
-    }
-    return queryIt;
-  }
-
   public boolean isExceptionThrown() {
     return isExceptionThrown;
   }
@@ -111,14 +61,10 @@ public class SpatialJoinExecuter
     return new FeatureDataset(createResultSchema());
   }
 
-  private boolean isInResult(Feature f)
-  {
-    return resultSet.contains(f);
-  }
-
-
   /**
-   * Computes geomSrc.func(geomMask)
+   * Computes geomTgt.func(geomSrc).
+   * The larger layer is indexed and candidate pairs are evaluated in
+   * parallel, with prepared geometries (see {@link SpatialPredicateJoin}).
    *
    * @param monitor a TaskMonitor
    * @param func function containing the GeometryPredicate
@@ -131,35 +77,15 @@ public class SpatialJoinExecuter
                                      FeatureCollection resultFC
                                      )
   {
-    createQueryFeatureCollection(func);
-
-    int total = tgtAFC.size();
-    int count = 0;
-    for (Iterator iMask = tgtAFC.iterator(); iMask.hasNext(); ) {
-
-      monitor.report(count++, total, "features");
-      if (monitor.isCancelRequested()) return;
-
-      Feature tgtFeat = (Feature) iMask.next();
-      Geometry tgtGeom = tgtFeat.getGeometry();
-
-      Iterator queryIt = query(func, params, tgtGeom);
-      for (; queryIt.hasNext(); ) {
-        Feature srcFeat = (Feature) queryIt.next();
-
-        // optimization - if feature already in result no need to re-test
-        if (isInResult(srcFeat))
-          continue;
-
-        Geometry srcGeom = srcFeat.getGeometry();
-        //geoms[0] = gSrc;
-        //geoms[1] = gMask;
-        boolean isInResult = isTrue(func, tgtGeom, srcGeom, params);
-
-        if (isInResult) {
-          addToResult(tgtFeat, srcFeat, resultFC);
-        }
-      }
+    final List<Feature> tgtFeatures = tgtAFC.getFeatures();
+    final List<Feature> srcFeatures = srcBFC.getFeatures();
+    SpatialPredicateJoin join = new SpatialPredicateJoin(func, params);
+    join.execute(SpatialPredicateJoin.geometries(tgtFeatures),
+        SpatialPredicateJoin.geometries(srcFeatures), monitor,
+        (i, j) -> addToResult(tgtFeatures.get(i), srcFeatures.get(j), resultFC));
+    if (join.isExceptionThrown()) {
+      isExceptionThrown = true;
+      exception = join.getException();
     }
   }
 
@@ -189,18 +115,4 @@ public class SpatialJoinExecuter
 		  }
 	  }
   }
-  private boolean isTrue(GeometryPredicate func, Geometry tgtGeom, Geometry srcGeom, double[] params)
-  {
-    try {
-      return func.isTrue(tgtGeom, srcGeom, params);
-    }
-    catch (RuntimeException ex) {
-      // simply eat exceptions and report them by returning null
-      isExceptionThrown = true;
-      exception = ex;
-    }
-    return false;
-
-  }
-
 }
\ No newline at end of file
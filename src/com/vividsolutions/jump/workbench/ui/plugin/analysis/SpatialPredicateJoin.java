@@ -0,0 +1,214 @@
+package com.vividsolutions.jump.workbench.ui.plugin.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.task.TaskMonitor;
+import com.vividsolutions.jump.workbench.ui.GenericNames;
+
+/**
+ * Finds the pairs of geometries (g0, g1) of two lists for which a
+ * {@link GeometryPredicate} is true (g0 from the first list, g1 from the
+ * second one).
+ * <p>
+ * The larger list is always indexed in an STRtree, and the geometries of
+ * the smaller list are used to query the index. A geometry which has more
+ * than one candidate is prepared, and the predicate is evaluated with
+ * {@link GeometryPredicate#isTrue(PreparedGeometry, Geometry, double[])} or
+ * {@link GeometryPredicate#isTrue(Geometry, PreparedGeometry, double[])}.
+ * Query geometries are processed in parallel chunks, and pairs are handed
+ * to a {@link PairVisitor} chunk after chunk, in the order of the query
+ * list, on the calling thread.
+ * </p>
+ * Exceptions thrown by the predicate are caught, the pair is considered
+ * as not matching and the last exception can be retrieved with
+ * {@link #getException()}.
+ */
+public class SpatialPredicateJoin {
+
+  /**
+   * Receives the pairs of indices (in first list, in second list) of
+   * matching geometries.
+   */
+  public interface PairVisitor {
+    void visit(int i0, int i1);
+  }
+
+  private static final int CHUNK_SIZE = 64;
+
+  // number of chunks processed between two calls to the visitor
+  private static final int CHUNKS_PER_BATCH = 4 * Runtime.getRuntime().availableProcessors();
+
+  private final GeometryPredicate predicate;
+  private final double[] params;
+  private boolean firstMatchOnly = false;
+
+  private volatile Exception exception;
+
+  public SpatialPredicateJoin(GeometryPredicate predicate, double[] params) {
+    this.predicate = predicate;
+    this.params = params;
+  }
+
+  /**
+   * If true, each geometry of the first list is reported at most once,
+   * with one of its matching geometries, and is not tested any more once a
+   * match has been found.
+   */
+  public void setFirstMatchOnly(boolean firstMatchOnly) {
+    this.firstMatchOnly = firstMatchOnly;
+  }
+
+  public boolean isExceptionThrown() {
+    return exception != null;
+  }
+
+  public Exception getException() {
+    return exception;
+  }
+
+  /**
+   * Computes the pairs of first x second for which the predicate is true.
+   *
+   * @param first geometries used as first argument of the predicate
+   * @param second geometries used as second argument of the predicate
+   * @param monitor the TaskMonitor reporting progress and cancellation
+   * @param visitor receives the matching pairs
+   * @return false if the process has been cancelled
+   */
+  public boolean execute(List<Geometry> first, List<Geometry> second,
+                         TaskMonitor monitor, PairVisitor visitor) {
+    // the larger list is indexed, the smaller one is iterated
+    final boolean queryFirst = first.size() <= second.size();
+    final List<Geometry> queried = queryFirst ? first : second;
+    final List<Geometry> indexed = queryFirst ? second : first;
+    final STRtree index = isDisjoint() ? null : buildIndex(indexed);
+    final AtomicIntegerArray matched = firstMatchOnly && !queryFirst ?
+        new AtomicIntegerArray(first.size()) : null;
+
+    final int chunks = (queried.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    final int[][] pairs = new int[chunks][];
+    for (int batch = 0; batch < chunks; batch += CHUNKS_PER_BATCH) {
+      if (monitor.isCancelRequested()) return false;
+      monitor.report(batch * CHUNK_SIZE, queried.size(), GenericNames.FEATURES);
+      final int end = Math.min(chunks, batch + CHUNKS_PER_BATCH);
+      IntStream.range(batch, end).parallel().forEach(c ->
+          pairs[c] = processChunk(c, queried, indexed, index, queryFirst, matched));
+      // stream pairs in order, then release them
+      for (int c = batch; c < end; c++) {
+        final int[] chunkPairs = pairs[c];
+        for (int p = 0; p < chunkPairs.length; p += 2) {
+          final int i0 = queryFirst ? chunkPairs[p] : chunkPairs[p + 1];
+          final int i1 = queryFirst ? chunkPairs[p + 1] : chunkPairs[p];
+          visitor.visit(i0, i1);
+        }
+        pairs[c] = null;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the geometries of features, in the same order.
+   */
+  static List<Geometry> geometries(List<Feature> features) {
+    final List<Geometry> geometries = new ArrayList<>(features.size());
+    for (Feature feature : features) {
+      geometries.add(feature.getGeometry());
+    }
+    return geometries;
+  }
+
+  private boolean isDisjoint() {
+    return predicate instanceof GeometryPredicate.DisjointPredicate;
+  }
+
+  private STRtree buildIndex(List<Geometry> geometries) {
+    final STRtree index = new STRtree();
+    for (int i = 0; i < geometries.size(); i++) {
+      final Geometry g = geometries.get(i);
+      if (g == null || g.isEmpty()) continue;
+      index.insert(g.getEnvelopeInternal(), i);
+    }
+    // build now, so that the tree can be queried concurrently
+    index.build();
+    return index;
+  }
+
+  /**
+   * Returns the matching pairs of a chunk as (queried index, indexed index)
+   * values.
+   */
+  private int[] processChunk(int chunk, List<Geometry> queried, List<Geometry> indexed,
+                             STRtree index, boolean queryFirst, AtomicIntegerArray matched) {
+    int[] pairs = new int[32];
+    int n = 0;
+    final int end = Math.min(queried.size(), (chunk + 1) * CHUNK_SIZE);
+    for (int q = chunk * CHUNK_SIZE; q < end; q++) {
+      final Geometry g = queried.get(q);
+      if (g == null) continue;
+      final int[] candidates = candidates(g, indexed.size(), index);
+      // preparing a geometry only pays off if it is tested several times
+      final PreparedGeometry prepared = candidates.length > 1 ?
+          PreparedGeometryFactory.prepare(g) : null;
+      for (int candidate : candidates) {
+        if (matched != null && matched.get(candidate) != 0) continue;
+        final Geometry other = indexed.get(candidate);
+        if (other == null) continue;
+        if (!isTrue(g, prepared, other, queryFirst)) continue;
+        if (matched != null && !matched.compareAndSet(candidate, 0, 1)) continue;
+        if (n + 2 > pairs.length) pairs = Arrays.copyOf(pairs, pairs.length * 2);
+        pairs[n++] = q;
+        pairs[n++] = candidate;
+        if (firstMatchOnly && queryFirst) break;
+      }
+    }
+    return Arrays.copyOf(pairs, n);
+  }
+
+  /**
+   * Indices of the indexed geometries which may match g, in ascending order.
+   */
+  private int[] candidates(Geometry g, int indexedSize, STRtree index) {
+    if (index == null) {
+      return IntStream.range(0, indexedSize).toArray();
+    }
+    final Envelope env = new Envelope(g.getEnvelopeInternal());
+    // geometries within the tolerance may match withinDistance and similar
+    if (predicate instanceof GeometryPredicate.WithinDistancePredicate ||
+        predicate instanceof GeometryPredicate.SimilarPredicate) {
+      env.expandBy(params[0]);
+    }
+    final List<?> items = env.isNull() ? new ArrayList<>() : index.query(env);
+    final int[] candidates = new int[items.size()];
+    for (int i = 0; i < candidates.length; i++) {
+      candidates[i] = (Integer) items.get(i);
+    }
+    Arrays.sort(candidates);
+    return candidates;
+  }
+
+  private boolean isTrue(Geometry g, PreparedGeometry prepared, Geometry other, boolean queryFirst) {
+    try {
+      if (prepared == null) {
+        return queryFirst ? predicate.isTrue(g, other, params) : predicate.isTrue(other, g, params);
+      }
+      return queryFirst ? predicate.isTrue(prepared, other, params)
+          : predicate.isTrue(other, prepared, params);
+    }
+    catch (RuntimeException ex) {
+      exception = ex;
+    }
+    return false;
+  }
+}
@@ -2,10 +2,7 @@ package com.vividsolutions.jump.workbench.ui.plugin.analysis;
 
 import java.util.*;
 import com.vividsolutions.jump.task.*;
-import com.vividsolutions.jump.workbench.ui.GenericNames;
 
-
-import org.locationtech.jts.geom.*;
 import com.vividsolutions.jump.feature.*;
 
 /**
@@ -21,16 +18,13 @@ public class SpatialQueryExecuter {
   private FeatureCollection maskFC;
   private FeatureCollection sourceFC;
 
-  private FeatureCollection queryFC;
-
   private boolean complementResult = false;
   private boolean allowDuplicatesInResult = false;
   private boolean isExceptionThrown = false;
   private Exception exception;
 
-
-  private Geometry geoms[] = new Geometry[2];
-  private Set resultSet = new HashSet();
+  // indices of the source features in the result
+  private BitSet resultSet = new BitSet();
   
   private boolean createNewLayer = true;
 
@@ -60,49 +54,6 @@ public class SpatialQueryExecuter {
     this.complementResult = complementResult;
   }
 
-  /**
-   * Gets the featurec collection to query.
-   * This may be indexed if this would improve performance.
-   *
-   * @param pred geometry predicate
-   */
-  private void createQueryFeatureCollection(GeometryPredicate pred)
-  {
-    boolean buildIndex = false;
-    if (maskFC.size() > 10) buildIndex = true;
-    if (sourceFC.size() > 100) buildIndex = true;
-    if (pred instanceof GeometryPredicate.DisjointPredicate) buildIndex = false;
-
-    if (buildIndex) {
-      queryFC = new IndexedFeatureCollection(sourceFC);
-    }
-    else {
-      queryFC = sourceFC;
-    }
-  }
-
-  private Iterator query(GeometryPredicate pred, double[] params, Geometry gMask)
-  {
-    Envelope queryEnv = gMask.getEnvelopeInternal();
-    // special hack for withinDistance
-    if (pred instanceof GeometryPredicate.WithinDistancePredicate) {
-      queryEnv.expandBy(params[0]);
-    }
-
-    boolean useQuery = true;
-    if (pred instanceof GeometryPredicate.DisjointPredicate) useQuery = false;
-
-    Iterator queryIt = null;
-    if (useQuery) {
-      Collection queryResult = queryFC.query(queryEnv);
-      queryIt = queryResult.iterator();
-    }
-    else {
-      queryIt = queryFC.iterator();
-    }
-    return queryIt;
-  }
-
   public boolean isExceptionThrown() {
     return isExceptionThrown;
   }
@@ -116,14 +67,13 @@ public class SpatialQueryExecuter {
     return new FeatureDataset(sourceFC.getFeatureSchema());
   }
 
-  private boolean isInResult(Feature f)
-  {
-    return resultSet.contains(f);
-  }
-
-
   /**
-   * Computes geomSrc.func(geomMask)
+   * Computes geomSrc.func(geomMask).
+   * The larger layer is indexed and candidate pairs are evaluated in
+   * parallel, with prepared geometries (see {@link SpatialPredicateJoin}).
+   * If duplicates are allowed, the result holds the source features
+   * matching the first mask feature, then those matching the second one,
+   * and so on, each group in the order of the source layer.
    *
    * @param monitor a TaskMonitor
    * @param func function containing the GeometryPredicate
@@ -135,43 +85,33 @@ public class SpatialQueryExecuter {
                       double[] params,
                       FeatureCollection resultFC) {
 
-    createQueryFeatureCollection(func);
-
-    int total = maskFC.size();
-    int count = 0;
-    for (Iterator iMask = maskFC.iterator(); iMask.hasNext(); ) {
-
-      monitor.report(count++, total, GenericNames.FEATURES);
-      if (monitor.isCancelRequested()) return;
-
-      Feature fMask = (Feature) iMask.next();
-      Geometry gMask = fMask.getGeometry();
-
-      Iterator queryIt = query(func, params, gMask);
-      for (; queryIt.hasNext(); ) {
-        Feature fSrc = (Feature) queryIt.next();
-
-        // optimization - if feature already in result no need to re-test
-        if (isInResult(fSrc))
-          continue;
-
-        Geometry gSrc = fSrc.getGeometry();
-        geoms[0] = gSrc;
-        geoms[1] = gMask;
-        boolean isInResult = isTrue(func, gSrc, gMask, params);
-
-        if (isInResult) {
+    final List<Feature> maskFeatures = maskFC.getFeatures();
+    SpatialPredicateJoin join = new SpatialPredicateJoin(func, params);
+    // optimization - if feature already in result no need to re-test
+    join.setFirstMatchOnly(! allowDuplicatesInResult);
+    // pairs come in the order of the smaller layer, they are kept to be
+    // added mask feature after mask feature
+    final PairList pairs = new PairList();
+    boolean completed = join.execute(SpatialPredicateJoin.geometries(sourceFC.getFeatures()),
+        SpatialPredicateJoin.geometries(maskFeatures), monitor,
+        (i, j) -> {
           if (allowDuplicatesInResult) {
-            addToResult(fSrc, resultFC);
+            pairs.add(i, j);
           }
           else {
-            resultSet.add(fSrc);
+            resultSet.set(i);
           }
-        }
-      }
+        });
+    if (join.isExceptionThrown()) {
+      isExceptionThrown = true;
+      exception = join.getException();
     }
+    if (! completed) return;
 
-    if (! allowDuplicatesInResult) {
+    if (allowDuplicatesInResult) {
+      loadPairs(pairs, maskFeatures.size(), resultFC);
+    }
+    else {
       if (complementResult) {
         loadComplement(resultFC);
       }
@@ -181,21 +121,59 @@ public class SpatialQueryExecuter {
     }
   }
 
+  private void loadPairs(PairList pairs, int maskCount, FeatureCollection resultFC)
+  {
+    List<Feature> features = sourceFC.getFeatures();
+    // counting sort of the pairs by mask feature, pairs of the same mask
+    // feature keeping their (source) order
+    int[] start = new int[maskCount + 1];
+    for (int p = 0; p < pairs.size; p++) {
+      start[pairs.masks[p] + 1]++;
+    }
+    for (int m = 0; m < maskCount; m++) {
+      start[m + 1] += start[m];
+    }
+    int[] sources = new int[pairs.size];
+    for (int p = 0; p < pairs.size; p++) {
+      sources[start[pairs.masks[p]]++] = pairs.sources[p];
+    }
+    for (int source : sources) {
+      addToResult(features.get(source), resultFC);
+    }
+  }
+
   private void loadComplement(FeatureCollection resultFC)
   {
-    for (Iterator i = sourceFC.iterator(); i.hasNext(); ) {
-      Feature f = (Feature) i.next();
-      if (! resultSet.contains(f)) {
-        addToResult(f, resultFC);
-      }
+    List<Feature> features = sourceFC.getFeatures();
+    for (int i = resultSet.nextClearBit(0); i < features.size(); i = resultSet.nextClearBit(i + 1)) {
+      addToResult(features.get(i), resultFC);
     }
   }
 
   private void loadResult(FeatureCollection resultFC)
   {
-    for (Iterator i = resultSet.iterator(); i.hasNext(); ) {
-      Feature f = (Feature) i.next();
-      addToResult(f, resultFC);
+    List<Feature> features = sourceFC.getFeatures();
+    for (int i = resultSet.nextSetBit(0); i >= 0; i = resultSet.nextSetBit(i + 1)) {
+      addToResult(features.get(i), resultFC);
+    }
+  }
+
+  /**
+   * Indices of the (source feature, mask feature) pairs found by the join.
+   */
+  private static class PairList {
+    int[] sources = new int[64];
+    int[] masks = new int[64];
+    int size = 0;
+
+    void add(int source, int mask) {
+      if (size == sources.length) {
+        sources = Arrays.copyOf(sources, 2 * size);
+        masks = Arrays.copyOf(masks, 2 * size);
+      }
+      sources[size] = source;
+      masks[size] = mask;
+      size++;
     }
   }
 
@@ -218,20 +196,6 @@ public class SpatialQueryExecuter {
 	  }
   }
 
-  private boolean isTrue(GeometryPredicate func, Geometry geom0, Geometry geom1, double[] params)
-  {
-    try {
-      return func.isTrue(geom0, geom1, params);
-    }
-    catch (RuntimeException ex) {
-      // simply eat exceptions and report them by returning null
-      isExceptionThrown = true;
-      exception = ex;
-    }
-    return false;
-
-  }
-  
   // Code added by the Sunburned Surveyor to allow
   // the creation of "normal" selections if a new
   // layer isn't being created for the features
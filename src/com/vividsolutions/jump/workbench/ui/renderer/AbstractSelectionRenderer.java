@@ -34,6 +34,8 @@ package com.vividsolutions.jump.workbench.ui.renderer;
 
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.util.Assert;
 import com.vividsolutions.jump.feature.Feature;
 import com.vividsolutions.jump.workbench.model.Layer;
@@ -50,6 +52,7 @@ import de.latlon.deejump.plugin.style.VertexStylesFactory;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.Graphics2D;
@@ -125,8 +128,7 @@ public abstract class AbstractSelectionRenderer extends FeatureCollectionRendere
 
     public void paint(Feature f, Graphics2D g, Viewport viewport)
         throws NoninvertibleTransformException {
-        for (Iterator i = featureToSelectedItemsMap.get(f).iterator(); i.hasNext(); ) {
-            Geometry geometry = (Geometry) i.next();
+        for (Geometry geometry : featureToSelectedItemsMap.get(f)) {
             paint(geometry, g, viewport);
         }
     }
@@ -137,46 +139,66 @@ public abstract class AbstractSelectionRenderer extends FeatureCollectionRendere
                                         throws NoninvertibleTransformException {
     	if (!viewport.getEnvelopeInModelCoordinates().intersects(geometry.getEnvelopeInternal()))
     		return;
-        Coordinate[] modelCoordinates = geometry.getCoordinates();
-        if ((geometry.getDimension() > 0) || (!paintingHandles)) {  //points will be obscurred by handles anyway      
-        	StyleUtil.paint(
-            geometry,
-            g,
-            viewport,
-            filling,
-            fillStroke,
-            fillColor,
-            true,
-            lineStroke,
-			lineColor);
+        paint(geometry, g, viewport, viewport.toViewRectangle(
+                viewport.getEnvelopeInModelCoordinates()));
+    }
+
+    // Each element is converted once, with the same StyleUtil path as the
+    // layer styles, and its handles are painted from the converted shape
+    private void paint(Geometry geometry, Graphics2D g, Viewport viewport,
+            Rectangle2D viewRectangle) throws NoninvertibleTransformException {
+        if (geometry instanceof GeometryCollection) {
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                paint(geometry.getGeometryN(i), g, viewport, viewRectangle);
+            }
+            return;
+        }
+        if (geometry.isEmpty()) {
+            return;
+        }
+        if (geometry instanceof Point) {
+            //points will be obscurred by handles anyway
+            if (paintingHandles) {
+                paintHandle(g, viewport.toViewPoint(geometry.getCoordinate()), viewRectangle);
+            } else {
+                StyleUtil.paint(geometry, g, viewport, filling, fillStroke,
+                        fillColor, true, lineStroke, lineColor);
+            }
+            return;
         }
+        Shape shape = StyleUtil.toShape(geometry, viewport);
+        StyleUtil.paint(shape, g, filling, fillStroke, fillColor, true,
+                lineStroke, lineColor);
         if (paintingHandles) {
-           // paintHandles(g, coordinates, handleStroke, handleFillColor, handleLineColor, panel.getViewport());
-           // LDB: the above method is very slow.  The following code is aproximately equivalent
-           //      although it draws a different style of handle (overlapping vs. hollow)
-            Coordinate[] viewCoordinates = viewport.getJava2DConverter().toViewCoordinates(modelCoordinates);
+            // paintHandles(g, coordinates, handleStroke, handleFillColor, handleLineColor, panel.getViewport());
+            // LDB: the above method is very slow.  The following code is aproximately equivalent
+            //      although it draws a different style of handle (overlapping vs. hollow)
             g.setStroke(handleStroke);
-        	Rectangle2D viewRectangle = viewport.toViewRectangle( 
-    				viewport.getEnvelopeInModelCoordinates());
-        	for (Coordinate p : viewCoordinates) {
-        	  double x = p.x;
-        	  double y = p.y;
-        	  if (!viewRectangle.contains(x,y)) {  //<<JOKE:handle with care>>
-        	    //Otherwise get "sun.dc.pr.PRException: endPath: bad path" exception [Jon Aquino 10/22/2003]
-              continue;
-        	  }
-				    vertexStyle.paint(g, new Point2D.Double(x, y)); // [Matthias Scholz 3. Sept. 2010]
-        	}
+            double[] coords = new double[6];
+            for (PathIterator i = shape.getPathIterator(null); !i.isDone(); i.next()) {
+                int type = i.currentSegment(coords);
+                if (type == PathIterator.SEG_MOVETO || type == PathIterator.SEG_LINETO) {
+                    paintHandle(g, new Point2D.Double(coords[0], coords[1]), viewRectangle);
+                }
+            }
+        }
+    }
+
+    private void paintHandle(Graphics2D g, Point2D p, Rectangle2D viewRectangle) {
+        if (!viewRectangle.contains(p)) {  //<<JOKE:handle with care>>
+            //Otherwise get "sun.dc.pr.PRException: endPath: bad path" exception [Jon Aquino 10/22/2003]
+            return;
         }
+        vertexStyle.paint(g, p); // [Matthias Scholz 3. Sept. 2010]
     }
 
-    protected Collection styles() {
+    protected Collection<Style> styles() {
 		return Collections.singleton(this);
 	}
     
-    protected Map layerToFeaturesMap() {
+    protected Map<Layer,Collection<Feature>> layerToFeaturesMap() {
         featureToSelectedItemsMap = new HashMap<>();
-		    Map<Layer,List<Feature>> layerToFeaturesMap = new HashMap();
+		    Map<Layer,Collection<Feature>> layerToFeaturesMap = new HashMap<>();
         for (Iterator<Layer> i = panel.getLayerManager().iterator(Layer.class); i.hasNext();) {
             Layer layer = i.next();
             if (layer instanceof LayerView) continue;
@@ -240,7 +262,7 @@ public abstract class AbstractSelectionRenderer extends FeatureCollectionRendere
         }
     }
 
-    protected boolean useImageCaching(Map layerToFeaturesMap) {
+    protected boolean useImageCaching(Map<Layer,Collection<Feature>> layerToFeaturesMap) {
 		return true;
 	}
 
@@ -4,8 +4,6 @@ package com.vividsolutions.jump.workbench.ui.renderer;
 
 import java.awt.Graphics2D;
 import java.util.Collection;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 
 import com.vividsolutions.jump.feature.Feature;
@@ -56,8 +54,8 @@ public abstract class FeatureCollectionRenderer implements Renderer {
 	}
 
 	public Runnable createRunnable() {
-		Map layerToFeaturesMap = layerToFeaturesMap();
-		Collection styles = styles();
+		Map<Layer,Collection<Feature>> layerToFeaturesMap = layerToFeaturesMap();
+		Collection<Style> styles = styles();
 		imageCachingFeatureCollectionRenderer
 				.setLayerToFeaturesMap(layerToFeaturesMap);
 		imageCachingFeatureCollectionRenderer.setStyles(styles);
@@ -69,13 +67,13 @@ public abstract class FeatureCollectionRenderer implements Renderer {
 		return currentFeatureCollectionRenderer.createRunnable();
 	}
 
-	protected boolean useImageCaching(Map<Layer, List<Feature>> layerToFeaturesMap) {
+	protected boolean useImageCaching(Map<Layer,Collection<Feature>> layerToFeaturesMap) {
 		return featureCount(layerToFeaturesMap) >= this.maxFeatures;
 	}
 
-	private int featureCount(Map<Layer, List<Feature>> layerToFeaturesMap) {
+	private int featureCount(Map<Layer,Collection<Feature>> layerToFeaturesMap) {
 		int count = 0;
-		for (List<Feature> features : layerToFeaturesMap.values()) {
+		for (Collection<Feature> features : layerToFeaturesMap.values()) {
 			count += features.size();
 		}
 
@@ -37,11 +37,19 @@ import org.locationtech.jts.geom.Geometry;
 import com.vividsolutions.jump.feature.Feature;
 import com.vividsolutions.jump.util.Blackboard;
 import com.vividsolutions.jump.workbench.model.Layer;
+import com.vividsolutions.jump.workbench.model.LayerView;
+import com.vividsolutions.jump.workbench.ui.FeatureSelection;
 import com.vividsolutions.jump.workbench.ui.LayerViewPanel;
 import com.vividsolutions.jump.workbench.ui.plugin.PersistentBlackboardPlugIn;
+import com.vividsolutions.jump.workbench.ui.Viewport;
 import com.vividsolutions.jump.workbench.ui.WorkbenchFrame;
 
 import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.NoninvertibleTransformException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -76,4 +84,31 @@ public class FeatureSelectionRenderer extends AbstractSelectionRenderer {
                     .getFeatureToSelectedItemCollectionMap(layer);
     }    
 
+    /**
+     * The selected items are the geometries of the selected features : they
+     * are painted from the features, without building a map of the selected
+     * items.
+     */
+    protected Map<Layer,Collection<Feature>> layerToFeaturesMap() {
+        FeatureSelection selection = panel.getSelectionManager().getFeatureSelection();
+        Map<Layer,Collection<Feature>> layerToFeaturesMap = new HashMap<>();
+        for (Iterator<Layer> i = panel.getLayerManager().iterator(Layer.class); i.hasNext();) {
+            Layer layer = i.next();
+            if (layer instanceof LayerView) continue;
+            if (selection.getFeaturesWithSelectedItemsCount(layer) > 0) {
+                layerToFeaturesMap.put(layer, selection.getFeaturesWithSelectedItems(layer));
+            }
+        }
+        return layerToFeaturesMap;
+    }
+
+    /**
+     * Paints the geometry of a selected feature, converting it once to view
+     * coordinates for its outline, its fill and its handles.
+     */
+    public void paint(Feature f, Graphics2D g, Viewport viewport)
+        throws NoninvertibleTransformException {
+        paint(f.getGeometry(), g, viewport);
+    }
+
 }
@@ -11,6 +11,7 @@ import org.locationtech.jts.geom.Geometry;
 import com.vividsolutions.jump.feature.Feature;
 import com.vividsolutions.jump.workbench.model.Layer;
 import com.vividsolutions.jump.workbench.ui.LayerViewPanel;
+import com.vividsolutions.jump.workbench.ui.renderer.style.LabelStyle;
 import com.vividsolutions.jump.workbench.ui.renderer.style.Style;
 
 /**
@@ -24,19 +25,19 @@ public class ImageCachingFeatureCollectionRenderer extends ImageCachingRenderer
 		super(contentID, panel);
 	}
 
-	private Collection styles = new ArrayList();
+	private Collection<Style> styles = new ArrayList<>();
 
-	private Map layerToFeaturesMap = new HashMap();
+	private Map<Layer,Collection<Feature>> layerToFeaturesMap = new HashMap<>();
 
-	protected void setLayerToFeaturesMap(Map layerToFeaturesMap) {
+	protected void setLayerToFeaturesMap(Map<Layer,Collection<Feature>> layerToFeaturesMap) {
 		this.layerToFeaturesMap = layerToFeaturesMap;
 	}
 
-	protected void setStyles(Collection styles) {
+	protected void setStyles(Collection<Style> styles) {
 		this.styles = styles;
 	}
 
-	protected void renderHook(ThreadSafeImage image, Collection features,
+	protected void renderHook(ThreadSafeImage image, Collection<Feature> features,
 			Layer layer, final Style style) throws Exception {
 		if (!layer.isVisible()) {
 			return;
@@ -45,20 +46,23 @@ public class ImageCachingFeatureCollectionRenderer extends ImageCachingRenderer
 			return;
 		}
 		style.initialize(layer);
+		if (style instanceof LabelStyle) {
+			features = ((LabelStyle) style).inPriorityOrder(features);
+		}
 		//new ArrayList to avoid ConcurrentModificationException. [Jon Aquino]
 
 		// Revert to the original list, as the features may be a LazyList
 		// containing a huge number of features from a database. Monitor the
 		// frequency of ConcurrentModificationException errors. [Jon Aquino
 		// 2005-03-02]
-		for (Iterator i = features.iterator(); i.hasNext();) {
+		for (Iterator<Feature> i = features.iterator(); i.hasNext();) {
       // 2018-05-14 : Clone the feature to optimize rendering process in the case
       // where feature attributes are not in memory (but read from disk or database)
 			// 2018-05-16 : revert the change : selection rendering uses a map with features
 			// as keys and using feature clone breaks selection painting (feature does not
 			// implements equals)
 			//final Feature feature = ((Feature) i.next()).clone();
-			final Feature feature = (Feature)i.next();
+			final Feature feature = i.next();
 			Geometry geom = feature.getGeometry();
 			if (cancelled) {
 				break;
@@ -77,14 +81,9 @@ public class ImageCachingFeatureCollectionRenderer extends ImageCachingRenderer
 	}
 
 	protected void renderHook(ThreadSafeImage image) throws Exception {
-		for (Iterator i = styles.iterator(); i.hasNext();) {
-			Style style = (Style) i.next();
-			for (Iterator j = layerToFeaturesMap.keySet().iterator(); j
-					.hasNext();) {
-				Layer layer = (Layer) j.next();
-				Collection features = (Collection) layerToFeaturesMap
-						.get(layer);
-				renderHook(image, features, layer, style);
+		for (Style style : styles) {
+			for (Map.Entry<Layer,Collection<Feature>> entry : layerToFeaturesMap.entrySet()) {
+				renderHook(image, entry.getValue(), entry.getKey(), style);
 			}
 		}
 	}
@@ -146,7 +146,7 @@ public class LayerRenderer extends FeatureCollectionRenderer {
         return styles;
     }
 
-    protected boolean useImageCaching(Map<Layer, List<Feature>> layerToFeaturesMap) {
+    protected boolean useImageCaching(Map<Layer, Collection<Feature>> layerToFeaturesMap) {
         if (layer.getBlackboard().get(ALWAYS_USE_IMAGE_CACHING_KEY, false)) {
             return true;
         }
@@ -1,15 +1,15 @@
 package com.vividsolutions.jump.workbench.ui.renderer;
 
 import java.awt.Graphics2D;
-import java.util.*;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.Map;
 
 import com.vividsolutions.jump.feature.Feature;
 import com.vividsolutions.jump.workbench.model.Layer;
 import com.vividsolutions.jump.workbench.ui.LayerViewPanel;
+import com.vividsolutions.jump.workbench.ui.renderer.style.LabelStyle;
 import com.vividsolutions.jump.workbench.ui.renderer.style.Style;
 
 /**
@@ -23,7 +23,7 @@ public class SimpleFeatureCollectionRenderer extends SimpleRenderer {
 		super(contentID, panel);
 	}
 
-	private void paint(Graphics2D g, Collection features, Layer layer,
+	private void paint(Graphics2D g, Collection<Feature> features, Layer layer,
 			Style style) throws Exception {
 		if (!layer.isVisible()) {
 			return;
@@ -32,9 +32,11 @@ public class SimpleFeatureCollectionRenderer extends SimpleRenderer {
 			return;
 		}
 		style.initialize(layer);
+		if (style instanceof LabelStyle) {
+			features = ((LabelStyle) style).inPriorityOrder(features);
+		}
 		//new ArrayList to avoid ConcurrentModificationException. [Jon Aquino]
-		for (Iterator i = new ArrayList(features).iterator(); i.hasNext();) {
-			final Feature feature = (Feature) i.next();
+		for (Feature feature : new ArrayList<>(features)) {
 			if (cancelled) {
 				return;
 			}
@@ -46,33 +48,28 @@ public class SimpleFeatureCollectionRenderer extends SimpleRenderer {
 	}
 
 	protected void paint(Graphics2D g) throws Exception {
-		for (Iterator i = styles.iterator(); i.hasNext();) {
-			Style style = (Style) i.next();
+		for (Style style : styles) {
 			if (cancelled) {
 				return;
 			}
-			for (Iterator j = layerToFeaturesMap.keySet().iterator(); j
-					.hasNext();) {
-				Layer layer = (Layer) j.next();
+			for (Map.Entry<Layer,Collection<Feature>> entry : layerToFeaturesMap.entrySet()) {
 				if (cancelled) {
 					return;
 				}
-				Collection features = (Collection) layerToFeaturesMap
-						.get(layer);
-				paint(g, features, layer, style);
+				paint(g, entry.getValue(), entry.getKey(), style);
 			}
 		}
 	}
 
-	private Collection styles = new ArrayList();
+	private Collection<Style> styles = new ArrayList<>();
 
-	private Map layerToFeaturesMap = new HashMap();
+	private Map<Layer,Collection<Feature>> layerToFeaturesMap = new HashMap<>();
 
-	protected void setLayerToFeaturesMap(Map layerToFeaturesMap) {
+	protected void setLayerToFeaturesMap(Map<Layer,Collection<Feature>> layerToFeaturesMap) {
 		this.layerToFeaturesMap = layerToFeaturesMap;
 	}
 
-	protected void setStyles(Collection styles) {
+	protected void setStyles(Collection<Style> styles) {
 		this.styles = styles;
 	}
 
@@ -55,6 +55,7 @@ import org.locationtech.jts.geom.MultiPoint;
 import org.locationtech.jts.geom.MultiPolygon;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.impl.CoordinateArraySequence;
 
 /**
  * Converts JTS Geometry objects into Java 2D Shape objects
@@ -88,34 +89,59 @@ public class Java2DConverter {
 	private Shape toShape(Polygon p) throws NoninvertibleTransformException {
 		ArrayList holeVertexCollection = new ArrayList();
 
+		// rings are read through their CoordinateSequence, so that packed
+		// sequences do not build Coordinate arrays
 		for (int j = 0; j < p.getNumInteriorRing(); j++) {
 			holeVertexCollection.add(
-				toViewCoordinates(p.getInteriorRingN(j).getCoordinates()));
+				toViewCoordinates(p.getInteriorRingN(j).getCoordinateSequence()));
 		}
 
 		return new PolygonShape(
-			toViewCoordinates(p.getExteriorRing().getCoordinates()),
+			toViewCoordinates(p.getExteriorRing().getCoordinateSequence()),
 			holeVertexCollection);
 	}
 
 	public Coordinate[] toViewCoordinates(Coordinate[] modelCoordinates)
 		throws NoninvertibleTransformException {
-		Coordinate[] viewCoordinates = new Coordinate[modelCoordinates.length];
+		return toViewCoordinates(new CoordinateArraySequence(modelCoordinates));
+	}
+
+	public Coordinate[] toViewCoordinates(CoordinateSequence modelCoordinates)
+		throws NoninvertibleTransformException {
+		return toViewCoordinates(modelCoordinates, 0, modelCoordinates.size() - 1);
+	}
+
+	/**
+	 * Converts the coordinates from start to end (inclusive) of a sequence,
+	 * reading their ordinates directly.
+	 */
+	private Coordinate[] toViewCoordinates(CoordinateSequence modelCoordinates,
+			int start, int end) throws NoninvertibleTransformException {
+		int mpts = end - start + 1;
+		if (mpts <= 0) {
+			return new Coordinate[0];
+		}
+		Coordinate[] viewCoordinates = new Coordinate[mpts];
         double ps = decimatorResolution / pointConverter.getScale();  // convert in model units
-		Coordinate p0 = modelCoordinates[0];
+		Coordinate pi = new Coordinate();
+		double x0 = modelCoordinates.getX(start);
+		double y0 = modelCoordinates.getY(start);
 		int npts = 0;
-		int mpts = modelCoordinates.length;
-		for (int i = 0; i < mpts; i++) {
-			Coordinate pi = modelCoordinates[i];
+		for (int i = start; i <= end; i++) {
+			double x = modelCoordinates.getX(i);
+			double y = modelCoordinates.getY(i);
 			//inline Decimator
-			double xd = Math.abs(p0.x-pi.x);
-			double yd = Math.abs(p0.y-pi.y);
-			if ((xd>=ps) || (yd>=ps) || (npts<4) || (i == mpts-1)) { 
+			double xd = Math.abs(x0-x);
+			double yd = Math.abs(y0-y);
+			if ((xd>=ps) || (yd>=ps) || (npts<4) || (i == end)) { 
 				//LDB: have replaced the following with inline code but
 				//     it was no faster.  AffineTransform must be highly optimized!
+				pi.x = x;
+				pi.y = y;
 				Point2D point2D = pointConverter.toViewPoint(pi);
 				viewCoordinates[npts++] = new Coordinate(point2D.getX(), point2D.getY());
-				p0 = pi;
+				x0 = x;
+				y0 = y;
 			}
 		} 
 		if (npts != mpts) {
@@ -167,9 +193,16 @@ public class Java2DConverter {
 		
 		public LineStringPath(LineString linestring, Java2DConverter j2D){
 			try {
-			  points = j2D.toViewCoordinates(linestring.getCoordinates());
+			  points = j2D.toViewCoordinates(linestring.getCoordinateSequence());
 			}
 			catch (NoninvertibleTransformException ex){	}
+			init();
+		}
+		LineStringPath(Coordinate[] viewPoints){
+			points = viewPoints;
+			init();
+		}
+		private void init(){
 			this.numPoints = points.length; 
 			iterate = 0;
 			closed = (numPoints>1) && (points[0].equals2D(points[numPoints-1]));
@@ -205,38 +238,37 @@ public class Java2DConverter {
 	// New toShape method for LineString [mmichaud 2011-03-05]
 	// This new method exclude all segments entirely out of the viewPort from
 	// the general path
+	// Runs of consecutive segments intersecting the viewport are read
+	// directly from the CoordinateSequence
 	private GeneralPath toShape(LineString lineString) 
 	                                    throws NoninvertibleTransformException {
-	    org.locationtech.jts.geom.GeometryFactory gf = lineString.getFactory();
-	    Coordinate[] cc = lineString.getCoordinates();
-	    GeneralPath shape = new GeneralPath(GeneralPath.WIND_NON_ZERO, cc.length);
-	    org.locationtech.jts.geom.CoordinateList list = new org.locationtech.jts.geom.CoordinateList();
+	    CoordinateSequence cs = lineString.getCoordinateSequence();
+	    int max = cs.size();
+	    GeneralPath shape = new GeneralPath(GeneralPath.WIND_NON_ZERO, max);
 	    Envelope view = pointConverter.getEnvelopeInModelCoordinates();
-	    Coordinate c0 = cc[0];
-	    boolean start = true;
-	    for (int i = 1,  max = cc.length ; i < max ; i++) {
-	        Coordinate c1 = cc[i];
-	        if (view.intersects(new Envelope(c0, c1))) {
-	            if (start) list.add(c0);
-	            list.add(c1);
-	            start = false;
-	        }
-	        else if (!list.isEmpty()) {
-	            PathIterator pi = new LineStringPath(gf.createLineString(list.toCoordinateArray()), this);
-		        shape.append(pi,false);
-		        list.clear();
-		        start = true;
+	    int runStart = -1;
+	    for (int i = 1 ; i < max ; i++) {
+	        if (intersects(view, cs, i-1, i)) {
+	            if (runStart < 0) runStart = i-1;
 	        }
-	        else {/**list empty, do nothing*/}
-	        if (i == max-1 && !list.isEmpty()) {
-	            PathIterator pi = new LineStringPath(gf.createLineString(list.toCoordinateArray()), this);
-		        shape.append(pi,false);
+	        else if (runStart >= 0) {
+	            shape.append(new LineStringPath(toViewCoordinates(cs, runStart, i-1)), false);
+	            runStart = -1;
 	        }
-	        c0 = c1;
+	    }
+	    if (runStart >= 0) {
+	        shape.append(new LineStringPath(toViewCoordinates(cs, runStart, max-1)), false);
 	    }
 	    return shape;
 	}
 
+	private static boolean intersects(Envelope env, CoordinateSequence cs, int i, int j) {
+	    double x0 = cs.getX(i), y0 = cs.getY(i);
+	    double x1 = cs.getX(j), y1 = cs.getY(j);
+	    return !(Math.max(x0, x1) < env.getMinX() || Math.min(x0, x1) > env.getMaxX()
+	            || Math.max(y0, y1) < env.getMinY() || Math.min(y0, y1) > env.getMaxY());
+	}
+
 	private Shape toShape(Point point) throws NoninvertibleTransformException {
 		Rectangle2D.Double pointMarker =
 			new Rectangle2D.Double(
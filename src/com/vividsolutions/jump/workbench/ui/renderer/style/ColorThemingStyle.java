@@ -30,10 +30,12 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.SortedMap;
 import org.locationtech.jts.util.Assert;
 import com.vividsolutions.jump.feature.Feature;
 import com.vividsolutions.jump.feature.FeatureSchema;
 import com.vividsolutions.jump.util.LangUtil;
+import com.vividsolutions.jump.util.Range;
 import com.vividsolutions.jump.workbench.model.Layer;
 import com.vividsolutions.jump.workbench.ui.Viewport;
 
@@ -132,7 +134,18 @@ public class ColorThemingStyle implements Style, AlphaSetting {
 		getStyle(f).paint(f, g, viewport);
 	}
 
-    private BasicStyle getStyle(Feature feature) {
+    /**
+     * Returns the style used to paint feature, or the default style if the
+     * attribute value of feature is not mapped to a style.
+     */
+    BasicStyle getStyle(Feature feature) {
+		// fast path for the features of the layer this style has been
+		// initialized with
+		Lookup lookup = this.lookup;
+		if (lookup != null && lookup.schema == feature.getSchema()) {
+			BasicStyle style = lookup.get(feature);
+			return style == null ? defaultStyle : style;
+		}
 		//Attribute name will be null if a layer has only a spatial attribute [Jon Aquino]
 		//If we can't find an attribute with this name, just use the defaultStyle.
 		// The attribute may have been deleted. [Jon Aquino]
@@ -169,12 +182,17 @@ public class ColorThemingStyle implements Style, AlphaSetting {
 
     private String attributeName;
 
+    // attribute index and style tables compiled by #initialize for the
+    // schema of the layer (null until the style is initialized)
+    private transient volatile Lookup lookup;
+
 	//[sstein 2.Dec.06] note: some things here are different. I am not sure if the changes
 	// come from changes by VividSolution or preparations for different classing by Erwan
     @Override
 	public Object clone() {
 		try {
 			ColorThemingStyle clone = (ColorThemingStyle) super.clone();
+			clone.lookup = null;
 			//Deep-copy the map, to facilitate undo. [Jon Aquino]
             clone.attributeValueToBasicStyleMap =
                     (Map<Object,BasicStyle>)attributeValueToBasicStyleMap.getClass().newInstance();
@@ -215,6 +233,7 @@ public class ColorThemingStyle implements Style, AlphaSetting {
 	public void setAttributeValueToBasicStyleMap(
             Map<Object,BasicStyle> attributeValueToBasicStyleMap) {
 		this.attributeValueToBasicStyleMap = attributeValueToBasicStyleMap;
+		lookup = null;
 	}
 
     /**
@@ -230,6 +249,7 @@ public class ColorThemingStyle implements Style, AlphaSetting {
 
 	public void setAttributeName(String attributeName) {
 		this.attributeName = attributeName;
+		lookup = null;
 	}
 	public Map<Object,BasicStyle> getAttributeValueToBasicStyleMap() {
 		return attributeValueToBasicStyleMap;
@@ -238,8 +258,16 @@ public class ColorThemingStyle implements Style, AlphaSetting {
         return attributeValueToLabelMap;
     }
 	private boolean enabled = false;
+	/**
+	 * Called before each rendering of the layer : resolves the index of the
+	 * attribute and compiles the attribute value to style map once, so that
+	 * painting a feature does not look up its attribute by name.
+	 */
 	public void initialize(Layer layer) {
 		this.layer = layer;
+		lookup = layer == null || layer.getFeatureCollectionWrapper() == null ? null :
+				new Lookup(layer.getFeatureCollectionWrapper().getFeatureSchema(),
+						attributeName, attributeValueToBasicStyleMap);
 	}
 	public void setEnabled(boolean enabled) {
 		this.enabled = enabled;
@@ -311,4 +339,100 @@ public class ColorThemingStyle implements Style, AlphaSetting {
         return defaultStyle.getAlpha();
     }
 
+    /**
+     * Attribute value to style lookup compiled for a schema. Numeric ranges
+     * are stored as sorted bounds searched by dichotomy, other maps are
+     * looked up as is.
+     */
+    private static final class Lookup {
+
+        final FeatureSchema schema;
+        final int index;
+        final Map<Object,BasicStyle> map;
+        // bounds of the ranges (sorted), null if the keys are not numeric ranges
+        double[] mins, maxs;
+        boolean[] includingMins, includingMaxs;
+        BasicStyle[] styles;
+
+        Lookup(FeatureSchema schema, String attributeName, Map<Object,BasicStyle> map) {
+            this.schema = schema;
+            this.index = attributeName != null && schema.hasAttribute(attributeName) ?
+                    schema.getAttributeIndex(attributeName) : -1;
+            this.map = map;
+            if (map instanceof SortedMap && !map.isEmpty()) {
+                compileRanges();
+            }
+        }
+
+        private void compileRanges() {
+            int n = map.size();
+            double[] mins = new double[n], maxs = new double[n];
+            boolean[] includingMins = new boolean[n], includingMaxs = new boolean[n];
+            BasicStyle[] styles = new BasicStyle[n];
+            int i = 0;
+            // keys of a sorted map are iterated in ascending order
+            for (Map.Entry<Object,BasicStyle> entry : map.entrySet()) {
+                if (!(entry.getKey() instanceof Range)) return;
+                Range range = (Range)entry.getKey();
+                Object min = range.getMin(), max = range.getMax();
+                if (min instanceof Range.NegativeInfinity) {
+                    mins[i] = Double.NEGATIVE_INFINITY;
+                    includingMins[i] = true;
+                } else if (min instanceof Number) {
+                    mins[i] = ((Number)min).doubleValue();
+                    includingMins[i] = range.isIncludingMin();
+                } else return;
+                if (max instanceof Range.PositiveInfinity) {
+                    maxs[i] = Double.POSITIVE_INFINITY;
+                    includingMaxs[i] = true;
+                } else if (max instanceof Number) {
+                    maxs[i] = ((Number)max).doubleValue();
+                    includingMaxs[i] = range.isIncludingMax();
+                } else return;
+                styles[i++] = entry.getValue();
+            }
+            this.mins = mins;
+            this.maxs = maxs;
+            this.includingMins = includingMins;
+            this.includingMaxs = includingMaxs;
+            this.styles = styles;
+        }
+
+        /**
+         * @return the style of feature, or null if its value is not mapped
+         */
+        BasicStyle get(Feature feature) {
+            if (index < 0) return null;
+            Object value = feature.getAttribute(index);
+            if (value == null) return null;
+            if (styles != null && value instanceof Number
+                    && !Double.isNaN(((Number)value).doubleValue())) {
+                return get(((Number)value).doubleValue());
+            }
+            try {
+                return map.get(trimIfString(value));
+            } catch (ClassCastException e) {
+                return null;
+            }
+        }
+
+        private BasicStyle get(double value) {
+            // last range whose min is below value (ranges are disjoint)
+            int lo = 0, hi = mins.length - 1, found = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (mins[mid] < value || (mins[mid] == value && includingMins[mid])) {
+                    found = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            if (found < 0) return null;
+            if (value < maxs[found] || (value == maxs[found] && includingMaxs[found])) {
+                return styles[found];
+            }
+            return null;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+package com.vividsolutions.jump.workbench.ui.renderer.style;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The labels drawn on a view, indexed by a grid of square screen cells, so
+ * that checking a new label for collision only looks at the labels drawn in
+ * the cells it covers.
+ * <p>
+ * A label is stored as the quadrilateral obtained by transforming its
+ * bounds (rotated labels stay rotated), and two labels collide if their
+ * quadrilaterals overlap (labels which only touch each other do not
+ * collide). Overlap is tested with the separating axis theorem, which
+ * does not allocate anything, instead of intersecting
+ * {@link java.awt.geom.Area}s.
+ * </p>
+ */
+public class LabelCollisionGrid {
+
+    // size of a cell, in pixels : a few times the size of a usual label
+    private static final double CELL_SIZE = 64;
+
+    private final Map<Long,int[]> cells = new HashMap<>();
+    // corners (x0, y0, ... x3, y3) and bounds (minX, minY, maxX, maxY) of
+    // the labels, 12 values per label
+    private double[] labels = new double[12 * 64];
+    private int size = 0;
+
+    /**
+     * @return the number of labels added to this grid
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds the label with the given bounds and transform to this grid if it
+     * does not collide with a label already added.
+     * @param bounds the bounds of the label, before transformation
+     * @param transform the transform used to draw the label
+     * @return true if the label has been added, false if it collides with
+     *         another label
+     */
+    public boolean add(Rectangle2D bounds, AffineTransform transform) {
+        final double[] label = new double[12];
+        label[0] = label[6] = bounds.getMinX();
+        label[1] = label[3] = bounds.getMinY();
+        label[2] = label[4] = bounds.getMaxX();
+        label[5] = label[7] = bounds.getMaxY();
+        transform.transform(label, 0, label, 0, 4);
+        label[8] = Math.min(Math.min(label[0], label[2]), Math.min(label[4], label[6]));
+        label[9] = Math.min(Math.min(label[1], label[3]), Math.min(label[5], label[7]));
+        label[10] = Math.max(Math.max(label[0], label[2]), Math.max(label[4], label[6]));
+        label[11] = Math.max(Math.max(label[1], label[3]), Math.max(label[5], label[7]));
+        final int minCol = cell(label[8]), maxCol = cell(label[10]);
+        final int minRow = cell(label[9]), maxRow = cell(label[11]);
+        for (int col = minCol; col <= maxCol; col++) {
+            for (int row = minRow; row <= maxRow; row++) {
+                final int[] cell = cells.get(key(col, row));
+                if (cell == null) continue;
+                for (int i = 1; i <= cell[0]; i++) {
+                    if (overlaps(label, 0, labels, 12 * cell[i])) return false;
+                }
+            }
+        }
+        if (12 * (size + 1) > labels.length) {
+            labels = Arrays.copyOf(labels, 2 * labels.length);
+        }
+        System.arraycopy(label, 0, labels, 12 * size, 12);
+        for (int col = minCol; col <= maxCol; col++) {
+            for (int row = minRow; row <= maxRow; row++) {
+                addToCell(key(col, row), size);
+            }
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes all the labels of this grid.
+     */
+    public void clear() {
+        cells.clear();
+        size = 0;
+    }
+
+    private static int cell(double coordinate) {
+        return (int)Math.floor(coordinate / CELL_SIZE);
+    }
+
+    private static long key(int col, int row) {
+        return ((long)col << 32) | (row & 0xFFFFFFFFL);
+    }
+
+    private void addToCell(long key, int label) {
+        // the number of labels of a cell is kept in its first element
+        int[] cell = cells.get(key);
+        if (cell == null) {
+            cell = new int[4];
+            cells.put(key, cell);
+        } else if (cell[0] + 1 == cell.length) {
+            cell = Arrays.copyOf(cell, 2 * cell.length);
+            cells.put(key, cell);
+        }
+        cell[++cell[0]] = label;
+    }
+
+    /**
+     * Returns true if the interiors of two labels stored in arrays at the
+     * given offsets overlap.
+     */
+    static boolean overlaps(double[] a, int i, double[] b, int j) {
+        if (a[i + 10] <= b[j + 8] || b[j + 10] <= a[i + 8] ||
+                a[i + 11] <= b[j + 9] || b[j + 11] <= a[i + 9]) {
+            return false;
+        }
+        return !hasSeparatingAxis(a, i, b, j) && !hasSeparatingAxis(b, j, a, i);
+    }
+
+    /**
+     * Returns true if an edge of label a separates it from label b. A label
+     * being a parallelogram, its first two edges are enough.
+     */
+    private static boolean hasSeparatingAxis(double[] a, int i, double[] b, int j) {
+        for (int e = 0; e < 2; e++) {
+            // normal of the edge from corner e to corner e + 1
+            final double nx = a[i + 2 * e + 1] - a[i + 2 * e + 3];
+            final double ny = a[i + 2 * e + 2] - a[i + 2 * e];
+            double minA = Double.POSITIVE_INFINITY, maxA = Double.NEGATIVE_INFINITY;
+            double minB = Double.POSITIVE_INFINITY, maxB = Double.NEGATIVE_INFINITY;
+            for (int k = 0; k < 8; k += 2) {
+                final double pa = nx * a[i + k] + ny * a[i + k + 1];
+                final double pb = nx * b[j + k] + ny * b[j + k + 1];
+                minA = Math.min(minA, pa);
+                maxA = Math.max(maxA, pa);
+                minB = Math.min(minB, pb);
+                maxB = Math.max(maxB, pb);
+            }
+            if (maxA <= minB || maxB <= minA) return true;
+        }
+        return false;
+    }
+}
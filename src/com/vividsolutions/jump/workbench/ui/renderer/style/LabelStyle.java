@@ -35,19 +35,23 @@ import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
-import java.awt.Shape;
 import java.awt.Stroke;
+import java.awt.font.FontRenderContext;
 import java.awt.font.TextLayout;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.Area;
 import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.Point2D;
-import java.awt.geom.Rectangle2D;
 import java.text.DateFormat;
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.openjump.core.ui.util.ScreenScale;
 
@@ -56,7 +60,6 @@ import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LineSegment;
-import org.locationtech.jts.index.quadtree.Quadtree;
 import org.locationtech.jts.simplify.DouglasPeuckerSimplifier;
 import org.locationtech.jts.util.Assert;
 import com.vividsolutions.jump.I18N;
@@ -74,6 +77,8 @@ public class LabelStyle implements Style {
 
     public final static int FONT_BASE_SIZE = 12;
     public static final String FID_COLUMN = "$FID";
+    // maximum number of text layouts kept in the cache
+    private static final int MAX_CACHED_LAYOUTS = 4096;
 
     public final static String ABOVE_LINE = "ABOVE_LINE"; // LDB: keep these for
                                                           // Project file
@@ -128,12 +133,16 @@ public class LabelStyle implements Style {
     private Layer layer;
     private Geometry viewportRectangle = null;
     private final InteriorPointFinder interiorPointFinder = new InteriorPointFinder();
-    private Quadtree labelsDrawn = null;
+    private LabelCollisionGrid labelsDrawn = null;
+    private Map<String,TextLayout> layouts = newLayoutCache();
+    private Font layoutFont = null;
+    private FontRenderContext layoutContext = null;
     private String attribute = LabelStyle.FID_COLUMN;
     private String angleAttribute = ""; // "" means no angle attribute [Jon
                                         // Aquino]
     private String heightAttribute = ""; // "" means no height attribute [Jon
                                          // Aquino]
+    private String priorityAttribute = ""; // "" means no priority attribute
     private boolean enabled = false;
     private Color color = Color.black;
     private Font font = new Font("Dialog", Font.PLAIN, FONT_BASE_SIZE);
@@ -156,7 +165,7 @@ public class LabelStyle implements Style {
 
     @Override
     public void initialize(Layer layer) {
-        labelsDrawn = new Quadtree();
+        labelsDrawn = new LabelCollisionGrid();
         viewportRectangle = null;
         this.layer = layer;
     }
@@ -485,21 +494,17 @@ public class LabelStyle implements Style {
             if (isScaling()) {
                 scale *= viewportScale;
             }
-            final TextLayout layout = new TextLayout(text, getFont(),
-                    g.getFontRenderContext());
+            final TextLayout layout = layout(text, g.getFontRenderContext());
             final AffineTransform transform = g.getTransform();
             configureTransform(transform, viewCentre, scale, layout, angle, dim);
             g.setTransform(transform);
             if (isHidingOverlappingLabels()) {
-                final Area transformedLabelBounds = new Area(layout.getBounds())
-                        .createTransformedArea(transform);
-                final Envelope transformedLabelBoundsEnvelope = envelope(transformedLabelBounds);
-                if (collidesWithExistingLabel(transformedLabelBounds,
-                        transformedLabelBoundsEnvelope)) {
+                if (labelsDrawn == null) {
+                    labelsDrawn = new LabelCollisionGrid();
+                }
+                if (!labelsDrawn.add(layout.getBounds(), transform)) {
                     return;
                 }
-                labelsDrawn.insert(transformedLabelBoundsEnvelope,
-                        transformedLabelBounds);
             }
             if (outlineShowing) {
                 g.setColor(outlineColor);
@@ -513,25 +518,33 @@ public class LabelStyle implements Style {
         }
     }
 
-    private Envelope envelope(Shape shape) {
-        final Rectangle2D bounds = shape.getBounds2D();
-        return new Envelope(bounds.getMinX(), bounds.getMaxX(),
-                bounds.getMinY(), bounds.getMaxY());
+    /**
+     * Returns the layout of text with the font of this style. Layouts are
+     * cached, as the same texts are usually drawn again and again while the
+     * user pans and zooms, and the cache is cleared when the font or the
+     * rendering context changes.
+     */
+    private TextLayout layout(String text, FontRenderContext context) {
+        if (!getFont().equals(layoutFont) || !context.equals(layoutContext)) {
+            layouts.clear();
+            layoutFont = getFont();
+            layoutContext = context;
+        }
+        TextLayout layout = layouts.get(text);
+        if (layout == null) {
+            layout = new TextLayout(text, layoutFont, layoutContext);
+            layouts.put(text, layout);
+        }
+        return layout;
     }
 
-    private boolean collidesWithExistingLabel(Area transformedLabelBounds,
-            Envelope transformedLabelBoundsEnvelope) {
-        final List potentialCollisions = labelsDrawn
-                .query(transformedLabelBoundsEnvelope);
-        for (final Iterator i = potentialCollisions.iterator(); i.hasNext();) {
-            final Area potentialCollision = (Area) i.next();
-            final Area intersection = new Area(potentialCollision);
-            intersection.intersect(transformedLabelBounds);
-            if (!intersection.isEmpty()) {
-                return true;
+    private static Map<String,TextLayout> newLayoutCache() {
+        return new LinkedHashMap<String,TextLayout>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String,TextLayout> eldest) {
+                return size() > MAX_CACHED_LAYOUTS;
             }
-        }
-        return false;
+        };
     }
 
     private void setup(Graphics2D g) {
@@ -684,6 +697,10 @@ public class LabelStyle implements Style {
         return heightAttribute;
     }
 
+    public String getPriorityAttribute() {
+        return priorityAttribute;
+    }
+
     @Override
     public boolean isEnabled() {
         return enabled;
@@ -773,6 +790,10 @@ public class LabelStyle implements Style {
         this.heightAttribute = heightAttribute;
     }
 
+    public void setPriorityAttribute(String priorityAttribute) {
+        this.priorityAttribute = priorityAttribute;
+    }
+
     @Override
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
@@ -828,10 +849,57 @@ public class LabelStyle implements Style {
         this.hideAtScale = hideAtScale;
     }
 
+    /**
+     * Returns the features in the order their labels must be placed : when
+     * overlapping labels are hidden, labels drawn first win, so features are
+     * sorted by decreasing value of the priority attribute (features without
+     * a value come last, in their original order).
+     * @param features the features to label
+     * @return features, or a sorted copy of features if this style has a
+     *         priority attribute
+     */
+    public Collection<Feature> inPriorityOrder(Collection<Feature> features) {
+        if (priorityAttribute.equals("") || !isHidingOverlappingLabels()) {
+            return features;
+        }
+        final List<Feature> sorted = new ArrayList<>(features);
+        final Map<Feature,Double> priorities = new IdentityHashMap<>();
+        for (Feature feature : sorted) {
+            priorities.put(feature, priority(feature));
+        }
+        sorted.sort(Comparator.comparing(priorities::get,
+                Comparator.nullsLast(Comparator.<Double>reverseOrder())));
+        return sorted;
+    }
+
+    private Double priority(Feature feature) {
+        if (!feature.getSchema().hasAttribute(priorityAttribute)) {
+            return null;
+        }
+        final Object value = feature.getAttribute(priorityAttribute);
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value.toString().trim());
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
     @Override
     public Object clone() {
         try {
-            return super.clone();
+            final LabelStyle clone = (LabelStyle) super.clone();
+            // drawn labels and cached layouts are not shared with the clone
+            clone.labelsDrawn = null;
+            clone.layouts = newLayoutCache();
+            clone.layoutFont = null;
+            clone.layoutContext = null;
+            return clone;
         } catch (final CloneNotSupportedException e) {
             Assert.shouldNeverReachHere();
             return null;
@@ -68,7 +68,18 @@ public class StyleUtil {
             return;
         }
 
-        final Shape shape = toShape(geometry, viewport);
+        paint(toShape(geometry, viewport), g, renderingFill, fillStroke,
+                fillPaint, renderingLine, lineStroke, lineColor);
+    }
+
+    /**
+     * Paints a Shape converted by {@link #toShape(Geometry, Viewport)} from a
+     * Geometry which is not a GeometryCollection, so that callers needing the
+     * view coordinates of the Geometry convert it only once.
+     */
+    public static void paint(Shape shape, Graphics2D g, boolean renderingFill,
+            Stroke fillStroke, Paint fillPaint, boolean renderingLine,
+            Stroke lineStroke, Color lineColor) {
         if (!(shape instanceof GeneralPath) && renderingFill) {
             g.setStroke(fillStroke);
             g.setPaint(fillPaint);
@@ -99,7 +110,11 @@ public class StyleUtil {
         }
     }
 
-    private static Shape toShape(Geometry geometry, Viewport viewport)
+    /**
+     * Converts a Geometry to view coordinates, clipping it to the viewport
+     * first when it extends far beyond it.
+     */
+    public static Shape toShape(Geometry geometry, Viewport viewport)
             throws NoninvertibleTransformException {
         // At high magnifications, Java rendering can be sped up by clipping
         // the Geometry to only that portion visible inside the viewport.
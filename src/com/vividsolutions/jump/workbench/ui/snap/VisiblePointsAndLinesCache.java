@@ -31,35 +31,66 @@
  */
 package com.vividsolutions.jump.workbench.ui.snap;
 
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateSequenceFilter;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.index.quadtree.Quadtree;
 import org.locationtech.jts.index.strtree.STRtree;
 import org.locationtech.jts.util.Assert;
 
 import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureCollection;
 import com.vividsolutions.jump.workbench.model.CategoryEvent;
 import com.vividsolutions.jump.workbench.model.FeatureEvent;
+import com.vividsolutions.jump.workbench.model.FeatureEventType;
 import com.vividsolutions.jump.workbench.model.Layer;
 import com.vividsolutions.jump.workbench.model.LayerEvent;
+import com.vividsolutions.jump.workbench.model.LayerEventType;
 import com.vividsolutions.jump.workbench.model.LayerListener;
+import com.vividsolutions.jump.workbench.model.cache.DynamicFeatureCollection;
 import com.vividsolutions.jump.workbench.ui.LayerViewPanel;
 import com.vividsolutions.jump.workbench.ui.ViewportListener;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 
+/**
+ * Finds the vertices and segments of the visible layers of a LayerViewPanel
+ * close to a coordinate, for snapping.
+ * <p>
+ * Each layer has its own index of features, built the first time the layer
+ * is searched and kept across zooms and pans. It is updated with the
+ * features of the FeatureEvents of the layer, and rebuilt only if the
+ * feature collection of the layer is replaced, or if events about this
+ * layer were suppressed by
+ * {@link com.vividsolutions.jump.workbench.model.LayerManager#setFiringEvents(boolean)},
+ * because its geometries may then have been modified without FeatureEvent.
+ * The index of a layer is dropped when the layer is removed.
+ * Layers read from a datastore are not indexed, their feature collection
+ * is queried around the searched coordinate instead.
+ * </p>
+ */
 public class VisiblePointsAndLinesCache {
     private static final String PANEL_PROPERTY_KEY = "VISIBLE_POINTS_AND_LINES_CACHE";
     private LayerListener layerListener = new LayerListener() {
             public void layerChanged(LayerEvent e) {
                 invalidate();
+                if (e.getType() == LayerEventType.REMOVED) {
+                    removeIndex(e.getLayerable());
+                }
             }
 
             public void featuresChanged(FeatureEvent e) {
+                update(e);
             }
 
             public void categoryChanged(CategoryEvent e) {
@@ -74,7 +105,8 @@ public class VisiblePointsAndLinesCache {
 
     private LayerViewPanel panel;
     private GeometryFactory factory = new GeometryFactory();
-    private STRtree tree = null;
+    private volatile STRtree tree = null;
+    private final Map<Layer,LayerIndex> layerIndexes = new HashMap<>();
 
     private VisiblePointsAndLinesCache(LayerViewPanel panel) {
         this.panel = panel;
@@ -86,6 +118,104 @@ public class VisiblePointsAndLinesCache {
         tree = null;
     }
 
+    /**
+     * Returns the vertex of the visible layers closest to coordinate, or
+     * null if no vertex is within tolerance.
+     * @param coordinate the searched coordinate
+     * @param tolerance maximum distance, in model units
+     */
+    public Coordinate getClosestVertex(Coordinate coordinate, double tolerance) {
+        return getClosest(coordinate, tolerance, false);
+    }
+
+    /**
+     * Returns the point of the visible points, lines and polygon boundaries
+     * closest to coordinate, or null if no point is within tolerance.
+     * @param coordinate the searched coordinate
+     * @param tolerance maximum distance, in model units
+     */
+    public Coordinate getClosestPoint(Coordinate coordinate, double tolerance) {
+        return getClosest(coordinate, tolerance, true);
+    }
+
+    private synchronized Coordinate getClosest(Coordinate coordinate,
+            double tolerance, boolean onSegments) {
+        Envelope envelope = new Envelope(coordinate);
+        envelope.expandBy(tolerance);
+        ClosestPointFilter filter = new ClosestPointFilter(coordinate, tolerance, onSegments);
+        for (Iterator<Layer> i = panel.getLayerManager().iterator(Layer.class); i.hasNext();) {
+            Layer layer = i.next();
+            if (!layer.isVisible()) {
+                continue;
+            }
+            for (Geometry geometry : query(layer, envelope)) {
+                if (geometry.getEnvelopeInternal().intersects(envelope)) {
+                    geometry.apply(filter);
+                }
+            }
+        }
+        return filter.closest;
+    }
+
+    /**
+     * Returns the geometries of the features of layer whose envelope may
+     * intersect envelope.
+     */
+    private List<Geometry> query(Layer layer, Envelope envelope) {
+        FeatureCollection featureCollection = layer.getFeatureCollectionWrapper().getUltimateWrappee();
+        List<Feature> features;
+        if (featureCollection instanceof DynamicFeatureCollection) {
+            features = layer.getFeatureCollectionWrapper().query(envelope);
+        } else {
+            LayerIndex index = layerIndexes.get(layer);
+            long eventsSuppressed = panel.getLayerManager().getEventsSuppressed(layer);
+            // the feature collection of the layer may have been replaced, or
+            // its features modified while events were not fired
+            if (index == null || index.featureCollection != featureCollection
+                    || index.eventsSuppressed != eventsSuppressed) {
+                index = new LayerIndex(featureCollection, eventsSuppressed,
+                        layer.getFeatureCollectionWrapper().getFeatures());
+                layerIndexes.put(layer, index);
+            }
+            features = index.query(envelope);
+        }
+        List<Geometry> geometries = new ArrayList<>(features.size());
+        for (Feature feature : features) {
+            Geometry geometry = feature.getGeometry();
+            if (geometry != null) {
+                geometries.add(geometry);
+            }
+        }
+        return geometries;
+    }
+
+    private synchronized void update(FeatureEvent e) {
+        LayerIndex index = layerIndexes.get(e.getLayer());
+        if (index == null) {
+            return;
+        }
+        if (e.getType() == FeatureEventType.ADDED
+                || e.getType() == FeatureEventType.GEOMETRY_MODIFIED) {
+            for (Feature feature : e.getFeatures()) {
+                index.add(feature);
+            }
+        } else if (e.getType() == FeatureEventType.DELETED) {
+            for (Feature feature : e.getFeatures()) {
+                index.remove(feature);
+            }
+        }
+    }
+
+    private synchronized void removeIndex(Object layerable) {
+        layerIndexes.remove(layerable);
+    }
+
+    /**
+     * @deprecated use {@link #getClosestVertex} or {@link #getClosestPoint},
+     * which use indexes kept up to date instead of a tree rebuilt after
+     * each change
+     */
+    @Deprecated
     public STRtree getTree() {
         if (tree == null) {
             Envelope viewportEnvelope = panel.getViewport()
@@ -137,4 +267,114 @@ public class VisiblePointsAndLinesCache {
 
         return (VisiblePointsAndLinesCache) panel.getBlackboard().get(PANEL_PROPERTY_KEY);
     }
+
+    /**
+     * Features of a layer indexed by the envelope of their geometry. The
+     * geometries are read when the index is searched, so that only the
+     * envelopes have to be updated when a geometry is modified.
+     */
+    private static final class LayerIndex {
+        final FeatureCollection featureCollection;
+        // LayerManager#getEventsSuppressed(layer) when the index was built
+        final long eventsSuppressed;
+        final Quadtree quadtree = new Quadtree();
+        // envelopes used to insert the features, needed to remove them
+        final Map<Feature,Envelope> envelopes = new HashMap<>();
+
+        LayerIndex(FeatureCollection featureCollection, long eventsSuppressed,
+                List<Feature> features) {
+            this.featureCollection = featureCollection;
+            this.eventsSuppressed = eventsSuppressed;
+            for (Feature feature : features) {
+                add(feature);
+            }
+        }
+
+        void add(Feature feature) {
+            remove(feature);
+            Geometry geometry = feature.getGeometry();
+            if (geometry == null || geometry.isEmpty()) {
+                return;
+            }
+            Envelope envelope = new Envelope(geometry.getEnvelopeInternal());
+            envelopes.put(feature, envelope);
+            quadtree.insert(envelope, feature);
+        }
+
+        void remove(Feature feature) {
+            Envelope envelope = envelopes.remove(feature);
+            if (envelope != null) {
+                quadtree.remove(envelope, feature);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Feature> query(Envelope envelope) {
+            // only features are inserted in the quadtree
+            return quadtree.query(envelope);
+        }
+    }
+
+    /**
+     * Keeps the vertex (or the point of a segment) closest to a coordinate,
+     * reading the coordinate sequences of the geometries it is applied to.
+     */
+    private static final class ClosestPointFilter implements CoordinateSequenceFilter {
+        private final Coordinate coordinate;
+        private final boolean onSegments;
+        private double minDistance;
+        Coordinate closest = null;
+
+        ClosestPointFilter(Coordinate coordinate, double tolerance, boolean onSegments) {
+            this.coordinate = coordinate;
+            this.onSegments = onSegments;
+            // the first point found must be within tolerance
+            this.minDistance = tolerance;
+        }
+
+        public void filter(CoordinateSequence seq, int i) {
+            double x = seq.getX(i);
+            double y = seq.getY(i);
+            double d = distance(x, y);
+            if (d < minDistance || (closest == null && d == minDistance)) {
+                minDistance = d;
+                closest = seq.getCoordinateCopy(i);
+            }
+            if (onSegments && i > 0) {
+                double x0 = seq.getX(i - 1);
+                double y0 = seq.getY(i - 1);
+                double dx = x - x0;
+                double dy = y - y0;
+                double length2 = dx * dx + dy * dy;
+                if (length2 == 0) {
+                    return;
+                }
+                // projection of coordinate on the segment
+                double r = ((coordinate.x - x0) * dx + (coordinate.y - y0) * dy) / length2;
+                if (r > 0 && r < 1) {
+                    double px = x0 + r * dx;
+                    double py = y0 + r * dy;
+                    d = distance(px, py);
+                    if (d < minDistance || (closest == null && d == minDistance)) {
+                        minDistance = d;
+                        closest = new Coordinate(px, py);
+                    }
+                }
+            }
+        }
+
+        private double distance(double x, double y) {
+            double dx = x - coordinate.x;
+            double dy = y - coordinate.y;
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+
+        public boolean isDone() {
+            return false;
+        }
+
+        public boolean isGeometryChanged() {
+            return false;
+        }
+    }
 }
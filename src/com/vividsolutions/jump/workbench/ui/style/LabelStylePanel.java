@@ -98,6 +98,8 @@ public class LabelStylePanel extends JPanel implements StylePanel {
     	I18N.get("ui.style.LabelStylePanel.hide-overlapping-labels");
     private static final String HEIGHT_ATTRIBUTE = 
     	I18N.get("ui.style.LabelStylePanel.height-attribute");
+    private static final String PRIORITY_ATTRIBUTE = 
+    	I18N.get("ui.style.LabelStylePanel.priority-attribute");
     private static final String SCALE_IS_BELOW = 
     	I18N.get("ui.style.LabelStylePanel.scale-is-below");
 
@@ -198,6 +200,8 @@ public class LabelStylePanel extends JPanel implements StylePanel {
     private JCheckBox hideOverlappingLabelsCheckBox = new JCheckBox();
     private JLabel heightAttributeLabel = new JLabel();
     private JComboBox heightAttributeComboBox = new JComboBox();
+    private JLabel priorityAttributeLabel = new JLabel();
+    private JComboBox priorityAttributeComboBox = new JComboBox();
     private JLabel horizontalPositionLabel = new JLabel();
     private JComboBox horizontalPositionComboBox = new JComboBox();
     private JLabel horizontalAlignmentLabel = new JLabel();
@@ -349,6 +353,7 @@ public class LabelStylePanel extends JPanel implements StylePanel {
         setAttribute(labelStyle.getAttribute());
         setAngleAttribute(labelStyle.getAngleAttribute());
         setHeightAttribute(labelStyle.getHeightAttribute());
+        setPriorityAttribute(labelStyle.getPriorityAttribute());
         setColor(labelStyle.getColor());
         setLabelFont(labelStyle.getFont());
         setScaling(labelStyle.isScaling());
@@ -383,6 +388,8 @@ public class LabelStylePanel extends JPanel implements StylePanel {
         attributeComboBox.addItem(LabelStyle.FID_COLUMN);
         angleAttributeComboBox.addItem(NONE);
         heightAttributeComboBox.addItem(NONE);
+        priorityAttributeComboBox.removeAllItems();
+        priorityAttributeComboBox.addItem(NONE);
 
         for (int i = 0; i < schema.getAttributeCount(); i++) {
             attributeComboBox.addItem(schema.getAttributeName(i));
@@ -392,6 +399,11 @@ public class LabelStylePanel extends JPanel implements StylePanel {
                 angleAttributeComboBox.addItem(schema.getAttributeName(i));
                 heightAttributeComboBox.addItem(schema.getAttributeName(i));
             }
+            if ((schema.getAttributeType(i) == AttributeType.DOUBLE) ||
+                    (schema.getAttributeType(i) == AttributeType.INTEGER) ||
+                    (schema.getAttributeType(i) == AttributeType.LONG)) {
+                priorityAttributeComboBox.addItem(schema.getAttributeName(i));
+            }
         }
     }
 
@@ -432,6 +444,16 @@ public class LabelStylePanel extends JPanel implements StylePanel {
         heightAttributeComboBox.setSelectedItem(heightAttribute);
     }
 
+    private void setPriorityAttribute(String priorityAttribute) {
+        if (priorityAttribute.equals("")) {
+            priorityAttributeComboBox.setSelectedItem(NONE);
+
+            return;
+        }
+
+        priorityAttributeComboBox.setSelectedItem(priorityAttribute);
+    }
+
     private void setLabelFont(Font labelFont) {
         this.labelFont = labelFont;
     }
@@ -548,6 +570,9 @@ public class LabelStylePanel extends JPanel implements StylePanel {
                     heightAttributeComboBox_actionPerformed(e);
                 }
             });
+        priorityAttributeLabel.setText(PRIORITY_ATTRIBUTE);
+        priorityAttributeLabel.setToolTipText(
+            I18N.get("ui.style.LabelStylePanel.priority-attribute-tooltip"));
         int row = 0;
         add(labellingCheckBox,
             new GridBagConstraints(0, row++, 2, 1, 0.0, 0.0,
@@ -640,6 +665,14 @@ public class LabelStylePanel extends JPanel implements StylePanel {
             new GridBagConstraints(0, row++, 2, 1, 0.0, 0.0,
                 GridBagConstraints.WEST, GridBagConstraints.HORIZONTAL,
                 new Insets(0, 0, 0, 0), 0, 0));
+        this.add(priorityAttributeLabel,
+            new GridBagConstraints(0, row, 1, 1, 0.0, 0.0,
+                GridBagConstraints.WEST, GridBagConstraints.NONE,
+                new Insets(0, 0, 0, 0), 0, 0));
+        this.add(priorityAttributeComboBox,
+            new GridBagConstraints(1, row++, 1, 1, 0.0, 0.0,
+                GridBagConstraints.EAST, GridBagConstraints.NONE,
+                new Insets(0, 4, 2, 0), 0, 0));
         this.add(buttonPanel,
         		new GridBagConstraints(0, row++, 3, 1, 0.0, 0.0,
         				GridBagConstraints.WEST, GridBagConstraints.HORIZONTAL,
@@ -724,6 +757,14 @@ public class LabelStylePanel extends JPanel implements StylePanel {
         return (String) heightAttributeComboBox.getSelectedItem();
     }
 
+    private String getPriorityAttribute() {
+        if (NONE == priorityAttributeComboBox.getSelectedItem()) {
+            return "";
+        }
+
+        return (String) priorityAttributeComboBox.getSelectedItem();
+    }
+
     private String getLabelAttribute() {
         return (String) attributeComboBox.getSelectedItem();
     }
@@ -735,6 +776,7 @@ public class LabelStylePanel extends JPanel implements StylePanel {
         labelStyle.setAttribute(getLabelAttribute());
         labelStyle.setAngleAttribute(getAngleAttribute());
         labelStyle.setHeightAttribute(getHeightAttribute());
+        labelStyle.setPriorityAttribute(getPriorityAttribute());
         labelStyle.setColor(color);
         labelStyle.setOutlineColor(outlineColor);
         labelStyle.setFont(labelFont);
@@ -795,6 +837,10 @@ public class LabelStylePanel extends JPanel implements StylePanel {
         		showOutlineCheckBox.isSelected());
         scaleCheckBox.setEnabled(labellingCheckBox.isSelected());
         hideOverlappingLabelsCheckBox.setEnabled(labellingCheckBox.isSelected());
+        priorityAttributeLabel.setEnabled(labellingCheckBox.isSelected() &&
+            hideOverlappingLabelsCheckBox.isSelected());
+        priorityAttributeComboBox.setEnabled(labellingCheckBox.isSelected() &&
+            hideOverlappingLabelsCheckBox.isSelected());
         hideAtScaleCheckBox.setEnabled(labellingCheckBox.isSelected());
         hideAtScaleLabel.setEnabled(labellingCheckBox.isSelected() &&
         		hideAtScaleCheckBox.isSelected());
@@ -40,6 +40,8 @@ import javax.swing.Timer;
 
 import com.vividsolutions.jump.I18N;
 import com.vividsolutions.jump.util.StringUtil;
+import com.vividsolutions.jump.workbench.model.LayerManager;
+import com.vividsolutions.jump.workbench.plugin.FeatureEventsCoalesced;
 import com.vividsolutions.jump.workbench.plugin.PlugInContext;
 import com.vividsolutions.jump.workbench.plugin.ThreadedPlugIn;
 import com.vividsolutions.jump.workbench.ui.GUIUtil;
@@ -146,9 +148,22 @@ public class TaskMonitorManager {
 
         public void run() {
             Throwable throwable = null;
+            // feature events fired by the plug-in are delivered as a few
+            // batched events when it ends, if it asks for it
+            LayerManager layerManager = plugIn instanceof FeatureEventsCoalesced
+                    ? context.getWorkbenchContext().getLayerManager() : null;
 
             try {
-                plugIn.run(dialog, context);
+                if (layerManager != null) {
+                    layerManager.startCoalescingFeatureEvents();
+                }
+                try {
+                    plugIn.run(dialog, context);
+                } finally {
+                    if (layerManager != null) {
+                        layerManager.stopCoalescingFeatureEvents();
+                    }
+                }
             } catch (Throwable t) {
                 throwable = t;
             } finally {
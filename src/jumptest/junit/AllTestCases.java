@@ -20,23 +20,44 @@ public class AllTestCases extends TestCase {
     result.addTest(new TestSuite(AttributeMappingTestCase.class));
     result.addTest(new TestSuite(AttributeTypeTestCase.class));
     result.addTest(new TestSuite(CollectionUtilTestCase.class));
+    result.addTest(new TestSuite(ColorThemingStyleTestCase.class));
+    result.addTest(new TestSuite(ColumnarFeatureCollectionTestCase.class));
+    result.addTest(new TestSuite(CoordinateStorageTestCase.class));
+    result.addTest(new TestSuite(CoverageEdgeGraphTestCase.class));
     result.addTest(new TestSuite(DbfFileTestCase.class));
+    result.addTest(new TestSuite(DeleteDuplicateGeometriesTestCase.class));
     result.addTest(new TestSuite(EnvelopeIntersectorTestCase.class));
     result.addTest(new TestSuite(FeatureCollectionMetaDataTestCase.class));
+    result.addTest(new TestSuite(FeatureSelectionTestCase.class));
     result.addTest(new TestSuite(FeatureTestCase.class));
+    result.addTest(new TestSuite(FenceFilterTestCase.class));
     result.addTest(new TestSuite(FlexibleDateParserTestCase.class));    
     result.addTest(new TestSuite(GMLWriterTestCase.class));
     result.addTest(new TestSuite(GUIUtilTestCase.class));
     result.addTest(new TestSuite(InteriorPointFinderTestCase.class));
+    result.addTest(new TestSuite(JoinTableTestCase.class));
+    result.addTest(new TestSuite(LabelCollisionGridTestCase.class));
+    result.addTest(new TestSuite(LayerManagerEventsTestCase.class));
+    result.addTest(new TestSuite(LayerTableModelTestCase.class));
+    result.addTest(new TestSuite(NearestNeighboursTestCase.class));
     result.addTest(new TestSuite(OverlayEngineTestCase.class));
+    result.addTest(new TestSuite(OverviewsBuilderTestCase.class));
     result.addTest(new TestSuite(PanelTestCase.class));
+    result.addTest(new TestSuite(ParallelVectorizeAlgorithmTestCase.class));
     result.addTest(new TestSuite(RangeTestCase.class));
+    result.addTest(new TestSuite(RasterSymbologyLUTTestCase.class));
+    result.addTest(new TestSuite(ScanlineRasterizerTestCase.class));
     result.addTest(new TestSuite(ShapeCollectionPathIteratorTestCase.class));
     result.addTest(new TestSuite(SimpleGMLReaderTestCase.class));
+    result.addTest(new TestSuite(SpatialPredicateJoinTestCase.class));
     result.addTest(new TestSuite(StringUtilTestCase.class));
+    result.addTest(new TestSuite(TiledNoderTestCase.class));
     result.addTest(new TestSuite(TriangulatorTestCase.class));
+    result.addTest(new TestSuite(UndoStoreTestCase.class));
     result.addTest(new TestSuite(ValidatorTestCase.class));
     result.addTest(new TestSuite(VerticesInFencePlugInTestCase.class));
+    result.addTest(new TestSuite(VisiblePointsAndLinesCacheTestCase.class));
+    result.addTest(new TestSuite(ZonalStatisticsTestCase.class));
     return result;
   }
 
@@ -0,0 +1,118 @@
+package jumptest.junit;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import com.vividsolutions.jump.feature.AttributeType;
+import com.vividsolutions.jump.feature.BasicFeature;
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureDataset;
+import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.util.Range;
+import com.vividsolutions.jump.workbench.model.Layer;
+import com.vividsolutions.jump.workbench.model.LayerManager;
+import com.vividsolutions.jump.workbench.ui.renderer.style.BasicStyle;
+import com.vividsolutions.jump.workbench.ui.Viewport;
+import com.vividsolutions.jump.workbench.ui.renderer.style.ColorThemingStyle;
+
+public class ColorThemingStyleTestCase extends TestCase {
+
+  public ColorThemingStyleTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {ColorThemingStyleTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private FeatureSchema schema;
+  private FeatureDataset dataset;
+
+  protected void setUp() {
+    schema = new FeatureSchema();
+    schema.addAttribute("geometry", AttributeType.GEOMETRY);
+    schema.addAttribute("name", AttributeType.STRING);
+    schema.addAttribute("value", AttributeType.DOUBLE);
+    dataset = new FeatureDataset(schema);
+  }
+
+  private BasicStyle painted;
+
+  // records the style painting a feature, ColorThemingStyle#getStyle being
+  // package-private
+  private class RecordingStyle extends BasicStyle {
+    RecordingStyle(Color color) {
+      super(color);
+    }
+    public void paint(Feature f, Graphics2D g, Viewport viewport) {
+      painted = this;
+    }
+  }
+
+  private BasicStyle styleOf(ColorThemingStyle style, Feature f) throws Exception {
+    painted = null;
+    style.paint(f, null, null);
+    return painted;
+  }
+
+  private Feature feature(String name, Double value) {
+    Feature f = new BasicFeature(schema);
+    f.setGeometry(new GeometryFactory().createPoint(new Coordinate(0, 0)));
+    f.setAttribute("name", name);
+    f.setAttribute("value", value);
+    return f;
+  }
+
+  public void testDiscreteValues() throws Exception {
+    Map<Object,BasicStyle> map = new HashMap<>();
+    BasicStyle a = new RecordingStyle(Color.RED);
+    map.put("a", a);
+    ColorThemingStyle style = new ColorThemingStyle("name", map, new RecordingStyle(Color.GRAY));
+    style.initialize(new Layer("test", Color.BLACK, dataset, new LayerManager()));
+    assertSame(a, styleOf(style, feature(" a ", 1.0)));
+    assertSame(style.getDefaultStyle(), styleOf(style, feature("b", 1.0)));
+    assertSame(style.getDefaultStyle(), styleOf(style, feature(null, 1.0)));
+  }
+
+  public void testRanges() throws Exception {
+    Map<Object,BasicStyle> map = new Range.RangeTreeMap<>();
+    double[] breaks = {-10, 0, 2.5, 7, 100};
+    map.put(new Range(new Range.NegativeInfinity(), false, breaks[0], false), new RecordingStyle(Color.WHITE));
+    for (int i = 1; i < breaks.length; i++) {
+      map.put(new Range(breaks[i - 1], true, breaks[i], false), new RecordingStyle(Color.WHITE));
+    }
+    map.put(new Range(breaks[breaks.length - 1], true, new Range.PositiveInfinity(), false),
+            new RecordingStyle(Color.WHITE));
+    ColorThemingStyle style = new ColorThemingStyle("value", map, new RecordingStyle(Color.GRAY));
+    style.initialize(new Layer("test", Color.BLACK, dataset, new LayerManager()));
+    // a clone is not initialized and looks values up by name
+    ColorThemingStyle uninitialized = (ColorThemingStyle)style.clone();
+
+    Random random = new Random(42);
+    for (int i = 0; i < 2000; i++) {
+      Double value = i < breaks.length ? breaks[i] : (random.nextDouble() - 0.2) * 150;
+      Feature f = feature("x", value);
+      // same style as the RangeTreeMap lookup (clone has copied the styles)
+      BasicStyle expected = styleOf(uninitialized, f);
+      Object expectedRange = null;
+      for (Map.Entry<Object,BasicStyle> e : uninitialized.getAttributeValueToBasicStyleMap().entrySet()) {
+        if (e.getValue() == expected) expectedRange = e.getKey();
+      }
+      BasicStyle actual = styleOf(style, f);
+      Object actualRange = null;
+      for (Map.Entry<Object,BasicStyle> e : map.entrySet()) {
+        if (e.getValue() == actual) actualRange = e.getKey();
+      }
+      assertNotNull(actualRange);
+      assertEquals(expectedRange, actualRange);
+    }
+    assertSame(style.getDefaultStyle(), styleOf(style, feature("x", null)));
+  }
+}
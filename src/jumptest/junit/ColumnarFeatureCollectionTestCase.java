@@ -0,0 +1,195 @@
+package jumptest.junit;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import com.vividsolutions.jump.feature.*;
+import com.vividsolutions.jump.io.DriverProperties;
+import com.vividsolutions.jump.io.ShapefileReader;
+import com.vividsolutions.jump.io.ShapefileWriter;
+
+public class ColumnarFeatureCollectionTestCase extends TestCase {
+
+  public ColumnarFeatureCollectionTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {ColumnarFeatureCollectionTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private GeometryFactory factory = new GeometryFactory();
+
+  private FeatureSchema schema() {
+    FeatureSchema fs = new FeatureSchema();
+    fs.addAttribute("geometry", AttributeType.GEOMETRY);
+    fs.addAttribute("integer", AttributeType.INTEGER);
+    fs.addAttribute("long", AttributeType.LONG);
+    fs.addAttribute("double", AttributeType.DOUBLE);
+    fs.addAttribute("boolean", AttributeType.BOOLEAN);
+    fs.addAttribute("date", AttributeType.DATE);
+    fs.addAttribute("string", AttributeType.STRING);
+    return fs;
+  }
+
+  private FeatureDataset dataset(int n) {
+    FeatureSchema fs = schema();
+    FeatureDataset dataset = new FeatureDataset(fs);
+    for (int i = 0; i < n; i++) {
+      Feature f = new BasicFeature(fs);
+      f.setAttribute(0, factory.createPoint(new Coordinate(i, i)));
+      f.setAttribute(1, i % 7 == 0 ? null : i);
+      f.setAttribute(2, i % 5 == 0 ? null : (long)i << 33);
+      f.setAttribute(3, i % 3 == 0 ? null : i / 4.0);
+      f.setAttribute(4, i % 11 == 0 ? null : i % 2 == 0);
+      f.setAttribute(5, i % 13 == 0 ? null : new Date(1000L * i));
+      f.setAttribute(6, i % 17 == 0 ? null : "value" + (i % 10));
+      dataset.add(f);
+    }
+    return dataset;
+  }
+
+  public void testSameAttributes() {
+    FeatureDataset dataset = dataset(500);
+    ColumnarFeatureCollection columnar = new ColumnarFeatureCollection(dataset);
+    assertEquals(dataset.size(), columnar.size());
+    for (int i = 0; i < dataset.size(); i++) {
+      Feature expected = dataset.getFeature(i);
+      Feature actual = columnar.getFeature(i);
+      assertEquals(expected.getID(), actual.getID());
+      assertTrue(Arrays.equals(expected.getAttributes(), actual.getAttributes()));
+    }
+    assertEquals(dataset.getEnvelope(), columnar.getEnvelope());
+    assertEquals(dataset.query(new Envelope(10, 20, 0, 500)).size(),
+        columnar.query(new Envelope(10, 20, 0, 500)).size());
+  }
+
+  public void testSetAttribute() {
+    ColumnarFeatureCollection columnar = new ColumnarFeatureCollection(dataset(10));
+    Feature f = columnar.getFeature(3);
+    f.setAttribute("integer", 42);
+    f.setAttribute("string", null);
+    assertEquals(42, columnar.getFeature(3).getInteger(1));
+    assertNull(columnar.getFeature(3).getAttribute("string"));
+    assertEquals(f, columnar.getFeature(3));
+    // a value which does not fit the column type is kept as is
+    f.setAttribute("integer", "not an integer");
+    assertEquals("not an integer", columnar.getFeature(3).getAttribute(1));
+    assertEquals(4, columnar.getFeature(4).getInteger(1));
+  }
+
+  public void testRemoveAndAddAgain() {
+    FeatureDataset dataset = dataset(20);
+    ColumnarFeatureCollection columnar = new ColumnarFeatureCollection(dataset);
+    List<Feature> removed = new ArrayList<>();
+    removed.add(columnar.getFeature(2));
+    removed.add(dataset.getFeature(5)); // identified by its ID
+    columnar.removeAll(removed);
+    assertEquals(18, columnar.size());
+    assertEquals(dataset.getFeature(3).getID(), columnar.getFeature(2).getID());
+    assertEquals(dataset.getFeature(7).getID(), columnar.getFeature(5).getID());
+    // undo the removal of the view
+    columnar.add(removed.get(0));
+    assertEquals(19, columnar.size());
+    assertEquals(dataset.getFeature(2).getID(), columnar.getFeature(2).getID());
+    columnar.clear();
+    assertTrue(columnar.isEmpty());
+    assertEquals(2, removed.get(0).getInteger(1));
+  }
+
+  public void testAddedFeaturesAreKept() {
+    FeatureDataset dataset = dataset(10);
+    ColumnarFeatureCollection columnar = new ColumnarFeatureCollection(dataset);
+    // an edit adds a feature, then removes it when it is undone
+    Feature added = dataset.getFeature(4).clone(true);
+    added.setGeometry(factory.createPoint(new Coordinate(100, 100)));
+    columnar.add(added);
+    assertEquals(11, columnar.size());
+    assertSame(added, columnar.getFeature(10));
+    assertSame(added, columnar.query(new Envelope(99, 101, 99, 101)).get(0));
+    assertEquals(100.0, columnar.getEnvelope().getMaxX());
+    columnar.remove(added);
+    assertEquals(10, columnar.size());
+    assertTrue(columnar.query(new Envelope(99, 101, 99, 101)).isEmpty());
+  }
+
+  public void testSetSchema() {
+    ColumnarFeatureCollection columnar = new ColumnarFeatureCollection(dataset(20));
+    Feature added = new BasicFeature(columnar.getFeatureSchema());
+    added.setAttribute("integer", 99);
+    columnar.add(added);
+    // as the schema editors do : convert the attributes of every feature
+    // first, then set the new schema and the converted attributes
+    FeatureSchema schema = new FeatureSchema();
+    schema.addAttribute("string", AttributeType.STRING);
+    schema.addAttribute("geometry", AttributeType.GEOMETRY);
+    schema.addAttribute("integer", AttributeType.STRING);
+    List<Feature> features = new ArrayList<>(columnar.getFeatures());
+    List<Object[]> converted = new ArrayList<>();
+    for (Feature f : features) {
+      converted.add(new Object[] {f.getAttribute("string"), f.getGeometry(),
+          f.getAttribute("integer") == null ? null : f.getAttribute("integer").toString()});
+    }
+    for (int i = 0; i < features.size(); i++) {
+      features.get(i).setSchema(schema);
+      features.get(i).setAttributes(converted.get(i));
+    }
+    assertSame(schema, columnar.getFeatureSchema());
+    for (int i = 0; i < 20; i++) {
+      Feature f = columnar.getFeature(i);
+      assertSame(schema, f.getSchema());
+      assertEquals(i % 17 == 0 ? null : "value" + (i % 10), f.getAttribute(0));
+      assertEquals(new Coordinate(i, i), f.getGeometry().getCoordinate());
+      assertEquals(i % 7 == 0 ? null : String.valueOf(i), f.getAttribute(2));
+      assertEquals(3, f.getAttributes().length);
+    }
+    assertEquals("99", columnar.getFeature(20).getAttribute(2));
+  }
+
+  public void testShapefileReader() throws Exception {
+    FeatureSchema fs = new FeatureSchema();
+    fs.addAttribute("GEOMETRY", AttributeType.GEOMETRY);
+    fs.addAttribute("ID", AttributeType.INTEGER);
+    fs.addAttribute("NAME", AttributeType.STRING);
+    FeatureDataset dataset = new FeatureDataset(fs);
+    for (int i = 0; i < 100; i++) {
+      Feature f = new BasicFeature(fs);
+      f.setGeometry(factory.createPoint(new Coordinate(i, 2 * i)));
+      f.setAttribute("ID", i);
+      f.setAttribute("NAME", "name" + (i % 3));
+      dataset.add(f);
+    }
+    File shp = File.createTempFile("columnar", ".shp");
+    try {
+      DriverProperties dp = new DriverProperties(shp.getPath());
+      new ShapefileWriter().write(dataset, dp);
+      FeatureCollection rows = new ShapefileReader().read(new DriverProperties(shp.getPath()));
+      dp.set(ColumnarFeatureCollection.KEY, "true");
+      FeatureCollection columns = new ShapefileReader().read(dp);
+      assertFalse(rows instanceof ColumnarFeatureCollection);
+      assertTrue(columns instanceof ColumnarFeatureCollection);
+      assertEquals(rows.size(), columns.size());
+      for (int i = 0; i < rows.size(); i++) {
+        Feature expected = rows.getFeatures().get(i);
+        Feature actual = columns.getFeatures().get(i);
+        assertTrue(expected.getGeometry().equalsExact(actual.getGeometry()));
+        for (int j = 1; j < expected.getSchema().getAttributeCount(); j++) {
+          assertEquals(expected.getAttribute(j), actual.getAttribute(j));
+        }
+      }
+    } finally {
+      String base = shp.getPath().substring(0, shp.getPath().length() - 4);
+      for (String extension : new String[] {".shp", ".shx", ".dbf", ".prj", ".cpg"}) {
+        new File(base + extension).delete();
+      }
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package jumptest.junit;
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateFilter;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.impl.PackedCoordinateSequence;
+import org.locationtech.jts.io.WKTReader;
+import com.vividsolutions.jump.geom.CoordinateStorage;
+import com.vividsolutions.jump.workbench.ui.renderer.java2D.Java2DConverter;
+import org.openjump.core.ui.util.GeometryUtils;
+
+public class CoordinateStorageTestCase extends TestCase {
+
+  public CoordinateStorageTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {CoordinateStorageTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private static final String WKT = "MULTILINESTRING((0 0, 10 0, 10 10, 30 10, 30 -20, 5 5, 0 50)," +
+          "(100 100, 110 110, 120 100))";
+
+  public void testPackedSequences() throws Exception {
+    Geometry g = new WKTReader(CoordinateStorage.PACKED_DOUBLE.getGeometryFactory()).read(WKT);
+    assertTrue(CoordinateStorage.isPacked(g));
+    CoordinateSequence seq = ((LineString)g.getGeometryN(0)).getCoordinateSequence();
+    assertTrue(seq instanceof PackedCoordinateSequence.Double);
+    assertEquals(new Coordinate(30, -20), seq.getCoordinate(4));
+
+    // coordinates without z are stored as x and y only
+    LineString xy = CoordinateStorage.PACKED_DOUBLE.getGeometryFactory()
+            .createLineString(new Coordinate[] {new Coordinate(0, 0), new Coordinate(1, 1)});
+    assertEquals(2, xy.getCoordinateSequence().getDimension());
+    assertEquals(2, ((LineString)xy.copy()).getCoordinateSequence().getDimension());
+
+    LineString z = CoordinateStorage.PACKED_FLOAT.getGeometryFactory()
+            .createLineString(new Coordinate[] {new Coordinate(0, 0, 1), new Coordinate(1, 1, 2)});
+    assertEquals(3, z.getCoordinateSequence().getDimension());
+    assertEquals(2.0, z.getCoordinateSequence().getZ(1), 0.0);
+  }
+
+  public void testEditableCopy() throws Exception {
+    Geometry g = new WKTReader(CoordinateStorage.PACKED_FLOAT.getGeometryFactory()).read(WKT);
+    g.setSRID(2154);
+    g.setUserData("data");
+    Geometry copy = CoordinateStorage.editableCopy(g);
+    assertFalse(CoordinateStorage.isPacked(copy));
+    assertTrue(copy.equalsExact(g));
+    assertEquals(2154, copy.getSRID());
+    assertEquals("data", copy.getUserData());
+    // coordinates of the copy can be modified in place
+    copy.getCoordinates()[0].x = -1;
+    assertEquals(-1.0, copy.getCoordinates()[0].x, 0.0);
+    assertEquals(0.0, g.getCoordinates()[0].x, 0.0);
+  }
+
+  public void testMovePackedGeometry() throws Exception {
+    for (CoordinateStorage storage : CoordinateStorage.values()) {
+      WKTReader reader = new WKTReader(storage.getGeometryFactory());
+      Geometry g = reader.read("POLYGON ((0 0, 10 0, 10 10, 0 0))");
+      Geometry copy = g.copy();
+      GeometryUtils.centerGeometry(copy, new Coordinate(5, 3));
+      assertTrue(storage.name(), copy.equalsExact(reader.read("POLYGON ((5 3, 15 3, 15 13, 5 3))")));
+      assertEquals(storage.name(), new Envelope(5, 15, 3, 13), copy.getEnvelopeInternal());
+      // the original is not modified
+      assertTrue(storage.name(), g.equalsExact(reader.read("POLYGON ((0 0, 10 0, 10 10, 0 0))")));
+
+      // z values are kept
+      Geometry g3d = reader.read("LINESTRING (0 0 1, 10 0 2)");
+      CoordinateStorage.apply(g3d, new CoordinateFilter() {
+        public void filter(Coordinate coordinate) {
+          coordinate.x += 1;
+          coordinate.y += 1;
+        }
+      });
+      assertEquals(storage.name(), new Coordinate(11, 1), g3d.getCoordinates()[1]);
+      assertEquals(storage.name(), 2.0, g3d.getCoordinates()[1].getZ(), 0.0);
+    }
+  }
+
+  public void testJava2DConverter() throws Exception {
+    Geometry array = new WKTReader(new GeometryFactory()).read(WKT);
+    Geometry packed = new WKTReader(CoordinateStorage.PACKED_DOUBLE.getGeometryFactory()).read(WKT);
+    // a view showing part of the geometry only
+    Java2DConverter converter = new Java2DConverter(new Java2DConverter.PointConverter() {
+      public Point2D toViewPoint(Coordinate c) {
+        return new Point2D.Double(2 * c.x, 100 - 2 * c.y);
+      }
+      public double getScale() {
+        return 2;
+      }
+      public Envelope getEnvelopeInModelCoordinates() {
+        return new Envelope(-5, 40, -5, 40);
+      }
+    });
+    List<double[]> expected = segments(converter.toShape(array));
+    List<double[]> actual = segments(converter.toShape(packed));
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertTrue(Arrays.equals(expected.get(i), actual.get(i)));
+    }
+    // the second line is out of the view
+    assertEquals(7, actual.size());
+  }
+
+  private List<double[]> segments(Shape shape) {
+    List<double[]> segments = new ArrayList<>();
+    for (PathIterator it = shape.getPathIterator(null); !it.isDone(); it.next()) {
+      double[] coords = new double[6];
+      int type = it.currentSegment(coords);
+      segments.add(new double[] {type, coords[0], coords[1]});
+    }
+    return segments;
+  }
+}
@@ -0,0 +1,163 @@
+package jumptest.junit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.WKTReader;
+import org.locationtech.jts.operation.polygonize.Polygonizer;
+import org.openjump.core.ui.plugin.tools.generalization.CoverageEdgeGraph;
+
+import com.vividsolutions.jump.feature.AttributeType;
+import com.vividsolutions.jump.feature.BasicFeature;
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureSchema;
+
+public class CoverageEdgeGraphTestCase extends TestCase {
+
+  public CoverageEdgeGraphTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {CoverageEdgeGraphTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private static final int CELLS = 4;
+  private static final int STEPS = 10;
+
+  private final WKTReader reader = new WKTReader();
+  private final GeometryFactory factory = new GeometryFactory();
+
+  private List<Feature> features(String... wkts) throws Exception {
+    FeatureSchema schema = new FeatureSchema();
+    schema.addAttribute("geometry", AttributeType.GEOMETRY);
+    List<Feature> features = new ArrayList<>();
+    for (String wkt : wkts) {
+      Feature feature = new BasicFeature(schema);
+      feature.setGeometry(reader.read(wkt));
+      features.add(feature);
+    }
+    return features;
+  }
+
+  // a CELLS x CELLS grid of square cells whose sides are jagged lines,
+  // neighbouring cells sharing exactly the same vertices
+  private List<Feature> coverage() {
+    Random random = new Random(11);
+    int n = CELLS * STEPS + 1;
+    Coordinate[][] lattice = new Coordinate[n][n];
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        boolean corner = i % STEPS == 0 && j % STEPS == 0;
+        lattice[i][j] = corner ? new Coordinate(i, j) : new Coordinate(
+                i + 0.3 * (random.nextDouble() - 0.5), j + 0.3 * (random.nextDouble() - 0.5));
+      }
+    }
+    FeatureSchema schema = new FeatureSchema();
+    schema.addAttribute("geometry", AttributeType.GEOMETRY);
+    List<Feature> features = new ArrayList<>();
+    for (int cx = 0; cx < CELLS; cx++) {
+      for (int cy = 0; cy < CELLS; cy++) {
+        int i0 = cx * STEPS, j0 = cy * STEPS, i1 = i0 + STEPS, j1 = j0 + STEPS;
+        List<Coordinate> ring = new ArrayList<>();
+        for (int i = i0; i < i1; i++) ring.add(lattice[i][j0]);
+        for (int j = j0; j < j1; j++) ring.add(lattice[i1][j]);
+        for (int i = i1; i > i0; i--) ring.add(lattice[i][j1]);
+        for (int j = j1; j > j0; j--) ring.add(lattice[i0][j]);
+        ring.add(lattice[i0][j0]);
+        Feature feature = new BasicFeature(schema);
+        feature.setGeometry(factory.createPolygon(ring.toArray(new Coordinate[0])));
+        features.add(feature);
+      }
+    }
+    return features;
+  }
+
+  private static int numPoints(Collection<Geometry> geometries) {
+    int n = 0;
+    for (Geometry g : geometries) n += g.getNumPoints();
+    return n;
+  }
+
+  // polygonizes the simplified edges and checks that they still form a
+  // coverage of the source polygons, without gap or overlap
+  private void assertCoverage(List<Feature> features, List<Geometry> edges) {
+    List<Geometry> sources = new ArrayList<>();
+    for (Feature f : features) sources.add(f.getGeometry());
+    Polygonizer polygonizer = new Polygonizer();
+    polygonizer.add(edges);
+    List<Geometry> polygons = new ArrayList<>();
+    for (Object polygon : polygonizer.getPolygons()) polygons.add((Geometry)polygon);
+    assertTrue(polygonizer.getDangles().isEmpty());
+    assertTrue(polygonizer.getCutEdges().isEmpty());
+    assertEquals(features.size(), polygons.size());
+
+    // match each simplified polygon with its source cell
+    Geometry[] simplified = new Geometry[sources.size()];
+    for (int i = 0; i < sources.size(); i++) {
+      Geometry center = sources.get(i).getInteriorPoint();
+      for (Geometry polygon : polygons) {
+        if (polygon.contains(center)) simplified[i] = polygon;
+      }
+      assertNotNull(simplified[i]);
+      assertTrue(simplified[i].isValid());
+    }
+    double area = 0;
+    for (int i = 0; i < sources.size(); i++) {
+      area += simplified[i].getArea();
+      for (int j = i + 1; j < sources.size(); j++) {
+        // no overlap
+        assertEquals(0, simplified[i].intersection(simplified[j]).getArea(), 1e-9);
+        // neighbours still share an edge, and only neighbours do
+        boolean neighbours = sources.get(i).intersection(sources.get(j)).getDimension() == 1;
+        assertEquals(neighbours, simplified[i].intersection(simplified[j]).getDimension() == 1);
+      }
+    }
+    // no gap
+    Geometry union = factory.buildGeometry(polygons).union();
+    assertEquals(1, union.getNumGeometries());
+    assertEquals(0, ((Polygon)union).getNumInteriorRing());
+    assertEquals(union.getArea(), area, 1e-6);
+  }
+
+  public void testNeighboursShareSimplifiedEdges() {
+    List<Feature> features = coverage();
+    CoverageEdgeGraph graph = new CoverageEdgeGraph(features, null);
+    assertTrue(graph.isComplete());
+    List<Geometry> edges = graph.simplify(1.0, null);
+    assertEquals(graph.size(), edges.size());
+    List<Geometry> sources = new ArrayList<>();
+    for (Feature f : features) sources.add(f.getGeometry());
+    assertTrue(numPoints(edges) < numPoints(sources) / 2);
+    assertCoverage(features, edges);
+  }
+
+  public void testCollapsingEdgesKeepTheirGeometry() throws Exception {
+    // both boundaries of the thin polygon would collapse onto the same line
+    List<Feature> features = features(
+            "POLYGON ((0 0, 5 2, 10 0, 10 -10, 0 -10, 0 0))",
+            "POLYGON ((0 0, 5 2.5, 10 0, 5 2, 0 0))");
+    CoverageEdgeGraph graph = new CoverageEdgeGraph(features, null);
+    List<Geometry> edges = graph.simplify(3.0, null);
+    assertCoverage(features, edges);
+  }
+
+  public void testIsBuiltFrom() {
+    List<Feature> features = coverage();
+    CoverageEdgeGraph graph = new CoverageEdgeGraph(features, null);
+    assertTrue(graph.isBuiltFrom(features));
+    List<Feature> modified = new ArrayList<>(features);
+    Feature clone = modified.get(0).clone(true);
+    modified.set(0, clone);
+    assertFalse(graph.isBuiltFrom(modified));
+    assertFalse(graph.isBuiltFrom(features.subList(1, features.size())));
+  }
+}
@@ -0,0 +1,119 @@
+package jumptest.junit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKTReader;
+import org.openjump.core.ui.plugin.tools.DeleteDuplicateGeometriesPlugIn;
+
+import com.vividsolutions.jump.feature.AttributeType;
+import com.vividsolutions.jump.feature.BasicFeature;
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.task.DummyTaskMonitor;
+
+public class DeleteDuplicateGeometriesTestCase extends TestCase {
+
+  public DeleteDuplicateGeometriesTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {DeleteDuplicateGeometriesTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private final WKTReader reader = new WKTReader();
+  private FeatureSchema schema;
+
+  protected void setUp() {
+    schema = new FeatureSchema();
+    schema.addAttribute("geometry", AttributeType.GEOMETRY);
+    schema.addAttribute("name", AttributeType.STRING);
+  }
+
+  private Feature feature(String wkt, String name) throws Exception {
+    Feature feature = new BasicFeature(schema);
+    feature.setGeometry(reader.read(wkt));
+    feature.setAttribute("name", name);
+    return feature;
+  }
+
+  private BitSet findDuplicates(List<Feature> features, boolean onlySameAttributes) {
+    return new DeleteDuplicateGeometriesPlugIn().findDuplicates(features, schema,
+        onlySameAttributes, new DummyTaskMonitor());
+  }
+
+  public void testFingerprintOfNegativeZero() throws Exception {
+    Geometry zero = reader.read("LINESTRING (0 0, 1 0)");
+    Geometry negativeZero = reader.read("LINESTRING (-0.0 -0.0, 1 -0.0)");
+    assertTrue(zero.equalsExact(negativeZero));
+    assertEquals(DeleteDuplicateGeometriesPlugIn.fingerprint(zero),
+        DeleteDuplicateGeometriesPlugIn.fingerprint(negativeZero));
+    assertFalse(DeleteDuplicateGeometriesPlugIn.fingerprint(zero)
+        == DeleteDuplicateGeometriesPlugIn.fingerprint(reader.read("LINESTRING (0 0, 1 1)")));
+    // same coordinates, different structure
+    assertFalse(DeleteDuplicateGeometriesPlugIn.fingerprint(reader.read("MULTIPOINT ((0 0), (1 0))"))
+        == DeleteDuplicateGeometriesPlugIn.fingerprint(zero));
+  }
+
+  public void testDuplicatesOfNormalizedGeometries() throws Exception {
+    List<Feature> features = new ArrayList<>();
+    features.add(feature("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))", "a"));
+    // same polygon, other start point and orientation
+    features.add(feature("POLYGON ((10 10, 10 0, 0 0, 0 10, 10 10))", "b"));
+    features.add(feature("POLYGON ((-0.0 -0.0, 0 10, 10 10, 10 -0.0, -0.0 -0.0))", "a"));
+    features.add(feature("POLYGON ((0 0, 10 0, 10 10, 0 10.000001, 0 0))", "a"));
+    features.add(feature("LINESTRING (5 5, 6 6)", "a"));
+    features.add(feature("LINESTRING (6 6, 5 5)", "a"));
+    features.add(feature("MULTIPOINT ((1 1), (2 2))", "a"));
+    features.add(feature("MULTIPOINT ((2 2), (1 1))", "a"));
+    features.add(feature("POINT (1 1)", "a"));
+
+    assertEquals("{1, 2, 5, 7}", findDuplicates(features, false).toString());
+    // the second polygon has another name and is kept
+    assertEquals("{2, 5, 7}", findDuplicates(features, true).toString());
+  }
+
+  public void testFeatureWithSmallestIdIsKept() throws Exception {
+    Feature first = feature("POINT (3 4)", "a");
+    Feature second = feature("POINT (3 4)", "a");
+    List<Feature> features = new ArrayList<>();
+    features.add(second);
+    features.add(first);
+    assertTrue(first.getID() < second.getID());
+    assertEquals("{0}", findDuplicates(features, false).toString());
+  }
+
+  public void testSameAsPairwiseComparison() throws Exception {
+    Random random = new Random(5);
+    List<Feature> features = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      int x = random.nextInt(10);
+      int y = random.nextInt(10);
+      String wkt = random.nextBoolean()
+          ? "LINESTRING (" + x + " " + y + ", " + y + " " + x + ")"
+          : "POINT (" + x + " " + (random.nextBoolean() ? "-0.0" : "" + y) + ")";
+      features.add(feature(wkt, random.nextBoolean() ? "a" : "b"));
+    }
+    for (boolean onlySameAttributes : new boolean[] {false, true}) {
+      BitSet expected = new BitSet();
+      for (int i = 0; i < features.size(); i++) {
+        for (int j = 0; j < i; j++) {
+          Feature fi = features.get(i);
+          Feature fj = features.get(j);
+          if (fi.getGeometry().equalsNorm(fj.getGeometry())
+              && (!onlySameAttributes || fi.getAttribute("name").equals(fj.getAttribute("name")))) {
+            expected.set(i);
+            break;
+          }
+        }
+      }
+      assertEquals(expected, findDuplicates(features, onlySameAttributes));
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package jumptest.junit;
+import java.awt.Graphics2D;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKTReader;
+import com.vividsolutions.jump.feature.AttributeType;
+import com.vividsolutions.jump.feature.BasicFeature;
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureDataset;
+import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.workbench.model.Layer;
+import com.vividsolutions.jump.workbench.model.LayerManager;
+import com.vividsolutions.jump.workbench.model.LayerManagerProxy;
+import com.vividsolutions.jump.workbench.ui.FeatureSelection;
+import com.vividsolutions.jump.workbench.ui.LayerViewPanel;
+import com.vividsolutions.jump.workbench.ui.LayerViewPanelContext;
+import com.vividsolutions.jump.workbench.ui.PartSelection;
+import com.vividsolutions.jump.workbench.ui.SelectionManager;
+import com.vividsolutions.jump.workbench.ui.renderer.FeatureSelectionRenderer;
+import com.vividsolutions.jump.workbench.ui.renderer.LayerRendererFactory;
+import com.vividsolutions.jump.workbench.ui.renderer.RenderingManager;
+
+public class FeatureSelectionTestCase extends TestCase {
+
+  public FeatureSelectionTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {FeatureSelectionTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private Layer layer;
+  private List<Feature> features;
+  private SelectionManager selectionManager;
+
+  protected void setUp() throws Exception {
+    final LayerManager manager = new LayerManager();
+    FeatureSchema schema = new FeatureSchema();
+    schema.addAttribute("geometry", AttributeType.GEOMETRY);
+    FeatureDataset dataset = new FeatureDataset(schema);
+    Geometry geometry = new WKTReader().read("MULTIPOINT ((0 0), (1 1))");
+    for (int i = 0; i < 10000; i++) {
+      Feature feature = new BasicFeature(schema);
+      feature.setGeometry(geometry.copy());
+      dataset.add(feature);
+    }
+    layer = manager.addLayer("test", "layer", dataset);
+    features = new ArrayList<>(dataset.getFeatures());
+    selectionManager = new SelectionManager(null, new LayerManagerProxy() {
+      public LayerManager getLayerManager() {
+        return manager;
+      }
+    });
+    // no LayerViewPanel to update
+    selectionManager.setPanelUpdatesEnabled(false);
+  }
+
+  public void testSelectAndUnselect() {
+    FeatureSelection selection = selectionManager.getFeatureSelection();
+    selection.selectItems(layer, features);
+    assertEquals(features.size(), selection.getFeaturesWithSelectedItemsCount(layer));
+    assertEquals(features.size(), selection.getSelectedItemsCount());
+    assertEquals(features, selection.getFeaturesWithSelectedItems(layer));
+    assertEquals(Collections.singleton(0), selection.getSelectedItemIndices(layer, features.get(5)));
+    assertSame(features.get(5).getGeometry(),
+            selection.getSelectedItems(layer, features.get(5)).iterator().next());
+
+    // unselect every other feature, then select one of them again
+    List<Feature> unselected = new ArrayList<>();
+    for (int i = 0; i < features.size(); i += 2) unselected.add(features.get(i));
+    selection.unselectItems(layer, unselected);
+    assertEquals(features.size() / 2, selection.getFeaturesWithSelectedItemsCount(layer));
+    assertTrue(selection.getSelectedItemIndices(layer, features.get(0)).isEmpty());
+    selection.selectItems(layer, features.get(0));
+    selection.selectItems(layer, features.get(1));
+    List<Feature> expected = new ArrayList<>();
+    for (int i = 1; i < features.size(); i += 2) expected.add(features.get(i));
+    expected.add(features.get(0));
+    assertEquals(expected, selection.getFeaturesWithSelectedItems(layer));
+    assertEquals(expected.size(), selection.getFeatureToSelectedItemIndexCollectionMap(layer).size());
+    assertTrue(selection.getFeatureToSelectedItemIndexCollectionMap(layer).containsKey(features.get(0)));
+    assertEquals(Collections.singletonList(layer), selection.getLayersWithSelectedItems());
+
+    selection.unselectItems(layer);
+    assertEquals(0, selection.getFeaturesWithSelectedItemsCount(layer));
+    assertTrue(selection.getLayersWithSelectedItems().isEmpty());
+  }
+
+  public void testPartSelection() {
+    FeatureSelection selection = selectionManager.getFeatureSelection();
+    PartSelection partSelection = selectionManager.getPartSelection();
+    Feature feature = features.get(0);
+    Geometry part = feature.getGeometry().getGeometryN(1);
+    partSelection.selectItems(layer, feature, Collections.singletonList(part));
+    assertEquals(Collections.singleton(1), partSelection.getSelectedItemIndices(layer, feature));
+    assertEquals(1, selectionManager.getFeaturesWithSelectedItems(layer).size());
+
+    // selecting the whole feature unselects its parts
+    selection.selectItems(layer, features.subList(0, 3));
+    assertTrue(partSelection.getSelectedItemIndices(layer, feature).isEmpty());
+    assertEquals(3, selectionManager.getFeaturesWithSelectedItems(layer).size());
+    // parts of a selected feature cannot be selected
+    partSelection.selectItems(layer, feature, Collections.singletonList(part));
+    assertTrue(partSelection.getSelectedItemIndices(layer, feature).isEmpty());
+
+    partSelection.selectItems(layer, features.get(5), Collections.singletonList(
+            features.get(5).getGeometry().getGeometryN(0)));
+    assertEquals(4, selectionManager.getFeaturesWithSelectedItems(layer).size());
+    assertEquals(4, selectionManager.getSelectedItems(layer).size());
+  }
+
+  public void testRendererPaintsHandlesAtVertices() throws Exception {
+    LayerViewPanel panel = new LayerViewPanel(layer.getLayerManager(), new LayerViewPanelContext() {
+      public void setStatusMessage(String message) {}
+      public void handleThrowable(Throwable t) {}
+      public void warnUser(String warning) {}
+    });
+    RenderingManager.setRendererFactory(Layer.class, new LayerRendererFactory());
+    panel.setSize(200, 200);
+    panel.getViewport().zoom(new Envelope(0, 100, 0, 100));
+    Feature feature = features.get(0);
+    feature.setGeometry(new WKTReader().read(
+            "POLYGON ((10 10, 90 10, 90 90, 10 90, 10 10), (40 40, 60 40, 60 60, 40 60, 40 40))"));
+    BufferedImage image = new BufferedImage(200, 200, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = image.createGraphics();
+    new FeatureSelectionRenderer(panel).paint(feature, g, panel.getViewport());
+    g.dispose();
+
+    int fill = pixel(image, panel, new Coordinate(25, 50));
+    assertTrue(fill != 0);
+    // a handle covers each vertex of the shell and of the hole, but not the
+    // middle of their edges
+    for (Coordinate c : feature.getGeometry().getCoordinates()) {
+      assertTrue(fill != pixel(image, panel, new Coordinate(c.x + 0.5, c.y + 0.5)));
+    }
+    assertEquals(fill, pixel(image, panel, new Coordinate(50, 11)));
+    assertEquals(0, pixel(image, panel, new Coordinate(50, 50)));
+  }
+
+  private static int pixel(BufferedImage image, LayerViewPanel panel, Coordinate c)
+          throws Exception {
+    Point2D p = panel.getViewport().toViewPoint(c);
+    return image.getRGB((int) p.getX(), (int) p.getY());
+  }
+}
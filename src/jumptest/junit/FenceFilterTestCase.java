@@ -0,0 +1,102 @@
+package jumptest.junit;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.io.WKTReader;
+import com.vividsolutions.jump.feature.AttributeType;
+import com.vividsolutions.jump.feature.BasicFeature;
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureDataset;
+import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.feature.FenceFilter;
+import com.vividsolutions.jump.task.DummyTaskMonitor;
+
+public class FenceFilterTestCase extends TestCase {
+
+  public FenceFilterTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {FenceFilterTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private final WKTReader reader = new WKTReader();
+  private FeatureSchema schema;
+
+  protected void setUp() {
+    schema = new FeatureSchema();
+    schema.addAttribute("geometry", AttributeType.GEOMETRY);
+  }
+
+  private FeatureDataset dataset() {
+    // a grid of points, short lines and small squares
+    GeometryFactory factory = new GeometryFactory();
+    FeatureDataset dataset = new FeatureDataset(schema);
+    for (int x = 0; x < 150; x++) {
+      for (int y = 0; y < 100; y++) {
+        Geometry geometry;
+        switch ((x + y) % 3) {
+          case 0 : geometry = factory.createPoint(new Coordinate(x, y)); break;
+          case 1 : geometry = factory.createLineString(new Coordinate[]{
+                  new Coordinate(x, y), new Coordinate(x + 0.5, y + 0.5)}); break;
+          default : geometry = factory.toGeometry(new Envelope(x, x + 0.5, y, y + 0.5));
+        }
+        Feature feature = new BasicFeature(schema);
+        feature.setGeometry(geometry);
+        dataset.add(feature);
+      }
+    }
+    return dataset;
+  }
+
+  private void assertSameAsIntersects(String wkt) throws Exception {
+    Geometry fence = reader.read(wkt);
+    FeatureDataset dataset = dataset();
+    List<Feature> expected = new ArrayList<>();
+    for (Feature feature : dataset.getFeatures()) {
+      if (fence.intersects(feature.getGeometry())) expected.add(feature);
+    }
+    assertFalse(expected.isEmpty());
+    FenceFilter filter = new FenceFilter(fence);
+    assertEquals(expected, filter.query(dataset, null));
+    assertEquals(expected, filter.query(dataset, new DummyTaskMonitor()));
+  }
+
+  public void testRectangleFence() throws Exception {
+    assertSameAsIntersects("POLYGON ((10.2 10.2, 140.7 10.2, 140.7 90.7, 10.2 90.7, 10.2 10.2))");
+  }
+
+  public void testPolygonFence() throws Exception {
+    assertSameAsIntersects("POLYGON ((0.3 0.3, 149 50.2, 0.3 99.7, 40.2 50.2, 0.3 0.3), " +
+            "(60.1 45.1, 80.1 45.1, 80.1 55.1, 60.1 45.1))");
+  }
+
+  public void testLineFence() throws Exception {
+    assertSameAsIntersects("LINESTRING (0.1 0.2, 149.3 99.1)");
+  }
+
+  public void testZeroLengthLine() throws Exception {
+    Geometry fence = reader.read("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))");
+    FenceFilter filter = new FenceFilter(fence);
+    assertTrue(filter.intersects(reader.read("LINESTRING (5 5, 5 5)")));
+    assertTrue(filter.intersects(reader.read("LINESTRING (10 5, 10 5)")));
+    assertFalse(filter.intersects(reader.read("LINESTRING (11 5, 11 5)")));
+  }
+
+  public void testCancel() throws Exception {
+    FenceFilter filter = new FenceFilter(reader.read("POLYGON ((0 0, 200 0, 200 200, 0 200, 0 0))"));
+    assertTrue(filter.query(dataset(), new DummyTaskMonitor() {
+      public boolean isCancelRequested() {
+        return true;
+      }
+    }).isEmpty());
+  }
+}
@@ -0,0 +1,155 @@
+package jumptest.junit;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.openjump.sigle.plugin.joinTable.HashJoin;
+import org.openjump.sigle.plugin.joinTable.JoinTable;
+import org.openjump.sigle.plugin.joinTable.JoinTable.Aggregation;
+
+import com.vividsolutions.jump.feature.AttributeType;
+import com.vividsolutions.jump.feature.BasicFeature;
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureDataset;
+import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.workbench.model.Layer;
+import com.vividsolutions.jump.workbench.model.LayerManager;
+import com.vividsolutions.jump.workbench.model.StandardCategoryNames;
+
+public class JoinTableTestCase extends TestCase {
+
+  public JoinTableTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {JoinTableTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private File csv;
+
+  protected void setUp() throws Exception {
+    csv = File.createTempFile("join", ".csv");
+    try (Writer writer = new FileWriter(csv)) {
+      writer.write("key;count;ratio;label\n");
+      writer.write("a;2000000000;1.5;x\n");
+      writer.write("b;7;2.5;y\n");
+      writer.write("a;2000000000;;z\n");
+      writer.write("a;;0.5;w\n");
+      writer.write("c;1;1;v\n");
+      writer.write(";3;3;empty\n");
+    }
+  }
+
+  protected void tearDown() {
+    csv.delete();
+  }
+
+  private static String[] randomKeys(Random random, int size) {
+    String[] keys = new String[size];
+    for (int i = 0; i < size; i++) {
+      int k = random.nextInt(12);
+      keys[i] = k == 0 ? null : "k" + k;
+    }
+    return keys;
+  }
+
+  private static String nestedLoops(String[] left, String[] right) {
+    List<String> matches = new ArrayList<>();
+    for (String key : left) {
+      List<Integer> positions = new ArrayList<>();
+      for (int j = 0; j < right.length; j++) {
+        if (key != null && key.equals(right[j])) positions.add(j);
+      }
+      matches.add(positions.isEmpty() ? "null" : positions.toString());
+    }
+    return matches.toString();
+  }
+
+  private static String toString(int[][] matches) {
+    List<String> strings = new ArrayList<>();
+    for (int[] positions : matches) {
+      strings.add(positions == null ? "null" : Arrays.toString(positions));
+    }
+    return strings.toString();
+  }
+
+  public void testHashJoinSameAsNestedLoops() {
+    Random random = new Random(4);
+    // the left list is indexed, or the right one
+    for (int[] sizes : new int[][] {{30, 200}, {200, 30}, {50, 50}, {0, 10}, {10, 0}}) {
+      String[] left = randomKeys(random, sizes[0]);
+      String[] right = randomKeys(random, sizes[1]);
+      assertEquals(nestedLoops(left, right), toString(HashJoin.match(left, right)));
+    }
+  }
+
+  public void testNullKeysNeverMatch() {
+    String[] left = {null, "a", null};
+    String[] right = {null, "a", null, "a"};
+    assertEquals("[null, [1, 3], null]", toString(HashJoin.match(left, right)));
+    assertEquals("[null, [1], null, [1]]", toString(HashJoin.match(right, left)));
+  }
+
+  private Layer join(Aggregation aggregation) {
+    FeatureSchema schema = new FeatureSchema();
+    schema.addAttribute("geometry", AttributeType.GEOMETRY);
+    schema.addAttribute("id", AttributeType.STRING);
+    FeatureDataset dataset = new FeatureDataset(schema);
+    GeometryFactory factory = new GeometryFactory();
+    for (String id : new String[] {"a", " b ", "d", null, "a"}) {
+      Feature feature = new BasicFeature(schema);
+      feature.setGeometry(factory.createPoint(new Coordinate(0, 0)));
+      feature.setAttribute("id", id);
+      dataset.add(feature);
+    }
+    Layer layer = new LayerManager().addLayer(StandardCategoryNames.WORKING, "layer", dataset);
+    JoinTable table = new JoinTable(csv.getPath());
+    table.setKeyIndex(0);
+    table.setAggregation(aggregation);
+    table.join(layer, 1);
+    return layer;
+  }
+
+  private static List<Object> values(Layer layer, int feature) {
+    Feature f = layer.getFeatureCollectionWrapper().getFeatures().get(feature);
+    return Arrays.asList(f.getAttribute("count"), f.getAttribute("ratio"), f.getAttribute("label"));
+  }
+
+  public void testSumIsWidenedToLong() {
+    Layer layer = join(Aggregation.SUM);
+    FeatureSchema schema = layer.getFeatureCollectionWrapper().getFeatureSchema();
+    assertEquals(AttributeType.LONG, schema.getAttributeType("count"));
+    assertEquals(AttributeType.DOUBLE, schema.getAttributeType("ratio"));
+    assertEquals(AttributeType.STRING, schema.getAttributeType("label"));
+    // empty values are ignored, strings take the first row
+    assertEquals(Arrays.asList(4000000000L, 2.0, "x"), values(layer, 0));
+    assertEquals(Arrays.asList(7L, 2.5, "y"), values(layer, 1));
+    // no matching row, null key
+    assertEquals(Arrays.asList(null, null, null), values(layer, 2));
+    assertEquals(Arrays.asList(null, null, null), values(layer, 3));
+    assertEquals(values(layer, 0), values(layer, 4));
+  }
+
+  public void testAggregations() {
+    Layer layer = join(Aggregation.MEAN);
+    assertEquals(AttributeType.DOUBLE,
+        layer.getFeatureCollectionWrapper().getFeatureSchema().getAttributeType("count"));
+    assertEquals(Arrays.asList(2000000000.0, 1.0, "x"), values(layer, 0));
+
+    assertEquals(Arrays.asList(2000000000, 0.5, "w"), values(join(Aggregation.MIN), 0));
+    assertEquals(Arrays.asList(2000000000, 1.5, "z"), values(join(Aggregation.MAX), 0));
+    assertEquals(Arrays.asList(2000000000, 1.5, "x"), values(join(Aggregation.FIRST), 0));
+    assertEquals(Arrays.asList(null, 0.5, "w"), values(join(Aggregation.LAST), 0));
+    assertEquals(Arrays.asList(7, 2.5, "y"), values(join(Aggregation.LAST), 1));
+  }
+}
@@ -0,0 +1,60 @@
+package jumptest.junit;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import com.vividsolutions.jump.workbench.ui.renderer.style.LabelCollisionGrid;
+
+public class LabelCollisionGridTestCase extends TestCase {
+
+  public LabelCollisionGridTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {LabelCollisionGridTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public void testTouchingLabelsDoNotCollide() {
+    LabelCollisionGrid grid = new LabelCollisionGrid();
+    Rectangle2D bounds = new Rectangle2D.Double(0, -10, 40, 12);
+    assertTrue(grid.add(bounds, AffineTransform.getTranslateInstance(0, 0)));
+    assertTrue(grid.add(bounds, AffineTransform.getTranslateInstance(40, 0)));
+    assertFalse(grid.add(bounds, AffineTransform.getTranslateInstance(39, 11)));
+    assertEquals(2, grid.size());
+  }
+
+  public void testSameLabelsAsAreaIntersection() {
+    // rotated labels placed at random, checked against the intersection of
+    // the areas of the labels already placed
+    Random random = new Random(11);
+    LabelCollisionGrid grid = new LabelCollisionGrid();
+    List<Area> placed = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      Rectangle2D bounds = new Rectangle2D.Double(0, -10,
+          5 + random.nextInt(80), 4 + random.nextInt(12));
+      AffineTransform transform = AffineTransform.getTranslateInstance(
+          random.nextInt(1000) - 100, random.nextInt(800) - 100);
+      if (i % 3 == 0) transform.rotate(random.nextDouble() * 2 * Math.PI);
+      Area area = new Area(bounds).createTransformedArea(transform);
+      boolean collides = false;
+      for (Area other : placed) {
+        Area intersection = new Area(other);
+        intersection.intersect(area);
+        if (!intersection.isEmpty()) {
+          collides = true;
+          break;
+        }
+      }
+      if (!collides) placed.add(area);
+      assertEquals("label " + i, !collides, grid.add(bounds, transform));
+    }
+    assertEquals(placed.size(), grid.size());
+  }
+}
@@ -0,0 +1,135 @@
+package jumptest.junit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import com.vividsolutions.jump.feature.AttributeType;
+import com.vividsolutions.jump.feature.BasicFeature;
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureDataset;
+import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.workbench.model.CategoryEvent;
+import com.vividsolutions.jump.workbench.model.FeatureEvent;
+import com.vividsolutions.jump.workbench.model.FeatureEventType;
+import com.vividsolutions.jump.workbench.model.Layer;
+import com.vividsolutions.jump.workbench.model.LayerEvent;
+import com.vividsolutions.jump.workbench.model.LayerEventType;
+import com.vividsolutions.jump.workbench.model.LayerListener;
+import com.vividsolutions.jump.workbench.model.LayerManager;
+
+public class LayerManagerEventsTestCase extends TestCase {
+
+  public LayerManagerEventsTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {LayerManagerEventsTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private LayerManager manager;
+  private Layer layer;
+  private FeatureSchema schema;
+  // feature events and layer events received, in order
+  private final List<Object> events = Collections.synchronizedList(new ArrayList<>());
+
+  protected void setUp() {
+    manager = new LayerManager();
+    schema = new FeatureSchema();
+    schema.addAttribute("geometry", AttributeType.GEOMETRY);
+    layer = manager.addLayer("test", "layer", new FeatureDataset(schema));
+    // adding features would otherwise fire a METADATA_CHANGED event
+    layer.setFeatureCollectionModified(true);
+    events.clear();
+  }
+
+  private LayerListener recorder() {
+    return new LayerListener() {
+      public void featuresChanged(FeatureEvent e) {
+        events.add(e);
+      }
+      public void layerChanged(LayerEvent e) {
+        if (e.getType() == LayerEventType.METADATA_CHANGED) events.add(e);
+      }
+      public void categoryChanged(CategoryEvent e) {}
+    };
+  }
+
+  private Feature feature() {
+    Feature f = new BasicFeature(schema);
+    f.setGeometry(new GeometryFactory().createPoint(new Coordinate(0, 0)));
+    return f;
+  }
+
+  public void testCoalescing() {
+    manager.addLayerListener(recorder());
+    long fired = manager.getFeatureEventsFired();
+    List<Feature> features = new ArrayList<>();
+    manager.startCoalescingFeatureEvents();
+    for (int i = 0; i < 100; i++) {
+      Feature f = feature();
+      features.add(f);
+      layer.getFeatureCollectionWrapper().add(f);
+    }
+    // nested transaction
+    manager.startCoalescingFeatureEvents();
+    manager.fireGeometryModified(features.subList(0, 10), layer, features.subList(0, 10));
+    manager.fireGeometryModified(features.subList(5, 20), layer, features.subList(5, 20));
+    manager.stopCoalescingFeatureEvents();
+    assertTrue(events.isEmpty());
+    manager.stopCoalescingFeatureEvents();
+
+    assertEquals(2, events.size());
+    FeatureEvent added = (FeatureEvent)events.get(0);
+    assertEquals(FeatureEventType.ADDED, added.getType());
+    assertEquals(features, new ArrayList<>(added.getFeatures()));
+    FeatureEvent modified = (FeatureEvent)events.get(1);
+    assertEquals(FeatureEventType.GEOMETRY_MODIFIED, modified.getType());
+    assertEquals(20, modified.getFeatures().size());
+    assertEquals(20, modified.getOldFeatureClones().size());
+    assertEquals(2, manager.getFeatureEventsFired() - fired);
+    assertEquals(99 + 1, manager.getFeatureEventsCoalesced());
+  }
+
+  public void testLayerEventsFlushPendingFeatureEvents() {
+    manager.addLayerListener(recorder());
+    manager.startCoalescingFeatureEvents();
+    layer.getFeatureCollectionWrapper().add(feature());
+    layer.setName("renamed");
+    layer.getFeatureCollectionWrapper().add(feature());
+    manager.stopCoalescingFeatureEvents();
+    assertEquals(3, events.size());
+    assertTrue(events.get(0) instanceof FeatureEvent);
+    assertTrue(events.get(1) instanceof LayerEvent);
+    assertTrue(events.get(2) instanceof FeatureEvent);
+  }
+
+  public void testBackgroundListener() throws Exception {
+    final Thread[] threads = new Thread[1];
+    manager.addBackgroundLayerListener(new LayerListener() {
+      public void featuresChanged(FeatureEvent e) {
+        synchronized (threads) {
+          threads[0] = Thread.currentThread();
+          threads.notifyAll();
+        }
+      }
+      public void layerChanged(LayerEvent e) {}
+      public void categoryChanged(CategoryEvent e) {}
+    });
+    layer.getFeatureCollectionWrapper().add(feature());
+    synchronized (threads) {
+      long end = System.currentTimeMillis() + 5000;
+      while (threads[0] == null && System.currentTimeMillis() < end) threads.wait(100);
+    }
+    assertNotNull(threads[0]);
+    assertNotSame(Thread.currentThread(), threads[0]);
+    assertFalse(SwingUtilities.isEventDispatchThread());
+  }
+}
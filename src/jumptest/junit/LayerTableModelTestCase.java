@@ -0,0 +1,162 @@
+package jumptest.junit;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import com.vividsolutions.jump.feature.AttributeType;
+import com.vividsolutions.jump.feature.BasicFeature;
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureDataset;
+import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.util.IndexSorter;
+import com.vividsolutions.jump.workbench.model.FeatureEventType;
+import com.vividsolutions.jump.workbench.model.Layer;
+import com.vividsolutions.jump.workbench.model.LayerManager;
+import com.vividsolutions.jump.workbench.ui.LayerTableModel;
+
+public class LayerTableModelTestCase extends TestCase {
+
+  public LayerTableModelTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {LayerTableModelTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private static final String[] NAMES = {"b", "A", "a", "c", "\u00e9", "e", null};
+
+  private FeatureSchema schema;
+  private Random random = new Random(7);
+
+  private Feature feature() {
+    Feature f = new BasicFeature(schema);
+    f.setGeometry(new GeometryFactory().createPoint(new Coordinate(0, 0)));
+    f.setAttribute("name", NAMES[random.nextInt(NAMES.length)]);
+    f.setAttribute("value", random.nextInt(10) == 0 ? null : (double)random.nextInt(50));
+    return f;
+  }
+
+  private Layer layer(int size) {
+    schema = new FeatureSchema();
+    schema.addAttribute("geometry", AttributeType.GEOMETRY);
+    schema.addAttribute("name", AttributeType.STRING);
+    schema.addAttribute("value", AttributeType.DOUBLE);
+    FeatureDataset dataset = new FeatureDataset(schema);
+    for (int i = 0; i < size; i++) dataset.add(feature());
+    return new LayerManager().addLayer("test", "test", dataset);
+  }
+
+  private LayerTableModel model(int size) {
+    Layer layer = layer(size);
+    LayerTableModel model = new LayerTableModel(layer);
+    model.addAll(layer.getFeatureCollectionWrapper().getFeatures());
+    return model;
+  }
+
+  // stable sort with the comparison of the table model
+  private List<Feature> expected(List<Feature> features, final String attribute, final boolean ascending) {
+    final Collator collator = Collator.getInstance();
+    collator.setStrength(Collator.PRIMARY);
+    List<Feature> sorted = new ArrayList<>(features);
+    Collections.sort(sorted, new Comparator<Feature>() {
+      public int compare(Feature f1, Feature f2) {
+        Object v1 = f1.getAttribute(attribute), v2 = f2.getAttribute(attribute);
+        int c;
+        if (v1 == null || v2 == null) c = v1 == v2 ? 0 : (v1 == null ? -1 : 1);
+        else if (v1 instanceof String) c = collator.compare(v1, v2);
+        else c = ((Double)v1).compareTo((Double)v2);
+        return ascending ? c : -c;
+      }
+    });
+    return sorted;
+  }
+
+  private void assertSorted(LayerTableModel model, List<Feature> before, String attribute, boolean ascending) {
+    assertEquals(expected(before, attribute, ascending), new ArrayList<>(model.getFeatures()));
+  }
+
+  public void testSort() {
+    LayerTableModel model = model(20000);
+    for (String attribute : new String[] {"name", "value", "name"}) {
+      for (boolean ascending : new boolean[] {true, false}) {
+        List<Feature> before = new ArrayList<>(model.getFeatures());
+        model.sort(attribute, ascending);
+        assertSorted(model, before, attribute, ascending);
+      }
+    }
+  }
+
+  public void testIncrementalChanges() {
+    LayerTableModel model = model(500);
+    model.sort("value", true);
+    // added features are sorted with the cached values of the others
+    List<Feature> added = new ArrayList<>();
+    for (int i = 0; i < 50; i++) added.add(feature());
+    List<Feature> before = new ArrayList<>(model.getFeatures());
+    before.addAll(added);
+    model.addAll(added);
+    assertSorted(model, before, "value", true);
+    // adding a feature twice does nothing
+    model.addAll(added.subList(0, 10));
+    assertEquals(550, model.getRowCount());
+
+    List<Feature> removed = new ArrayList<>(model.getFeatures().subList(100, 200));
+    model.removeAll(removed);
+    assertEquals(450, model.getRowCount());
+    before = new ArrayList<>(model.getFeatures());
+    model.sort("value", false);
+    assertSorted(model, before, "value", false);
+  }
+
+  public void testShowAllFeatures() {
+    Layer layer = layer(1000);
+    LayerTableModel model = new LayerTableModel(layer);
+    model.showAllFeatures();
+    List<Feature> features = layer.getFeatureCollectionWrapper().getFeatures();
+    assertEquals(features, new ArrayList<>(model.getFeatures()));
+    model.sort("name", true);
+    assertSorted(model, features, "name", true);
+
+    // rows follow the features added to and removed from the layer
+    List<Feature> added = new ArrayList<>();
+    for (int i = 0; i < 50; i++) added.add(feature());
+    layer.getFeatureCollectionWrapper().addAll(added);
+    assertEquals(1050, model.getRowCount());
+    assertSorted(model, features, "name", true);
+    layer.getFeatureCollectionWrapper().removeAll(new ArrayList<>(model.getFeatures().subList(0, 100)));
+    assertEquals(950, model.getRowCount());
+    // FeatureDataset#removeAll replaces its list of features
+    features = layer.getFeatureCollectionWrapper().getFeatures();
+    assertSorted(model, features, "name", true);
+
+    // modified attributes are sorted with the cached values of the others
+    Feature modified = model.getFeature(0);
+    Feature clone = modified.clone(true);
+    modified.setAttribute("name", "z");
+    layer.getLayerManager().fireFeaturesAttChanged(Collections.singletonList(modified),
+            FeatureEventType.ATTRIBUTES_MODIFIED, layer, Collections.singletonList(clone));
+    List<Feature> before = new ArrayList<>(model.getFeatures());
+    model.sort("name", true);
+    assertSorted(model, before, "name", true);
+    assertSame(modified, model.getFeature(model.getRowCount() - 1));
+  }
+
+  public void testIndexSorterIsStable() {
+    final int[] keys = new int[100000];
+    for (int i = 0; i < keys.length; i++) keys[i] = random.nextInt(100);
+    int[] order = IndexSorter.sort(keys.length, (i, j) -> Integer.compare(keys[i], keys[j]), true);
+    for (int i = 1; i < order.length; i++) {
+      assertTrue(keys[order[i - 1]] < keys[order[i]]
+              || (keys[order[i - 1]] == keys[order[i]] && order[i - 1] < order[i]));
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package jumptest.junit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.algorithm.distance.DiscreteHausdorffDistance;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.openjump.core.ui.plugin.tools.analysis.twolayers.NearestNeighbours;
+import org.openjump.core.ui.plugin.tools.analysis.twolayers.NearestNeighbours.Metric;
+
+public class NearestNeighboursTestCase extends TestCase {
+
+  public NearestNeighboursTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {NearestNeighboursTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private static final GeometryFactory FACTORY = new GeometryFactory();
+
+  // random mix of points, lines and polygons in a 1000 x 1000 square
+  private static List<Geometry> randomGeometries(int count, long seed) {
+    Random random = new Random(seed);
+    List<Geometry> geometries = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      double x = random.nextDouble() * 1000;
+      double y = random.nextDouble() * 1000;
+      double size = 1 + random.nextDouble() * 50;
+      switch (i % 3) {
+        case 0:
+          geometries.add(FACTORY.createPoint(new Coordinate(x, y)));
+          break;
+        case 1:
+          geometries.add(FACTORY.createLineString(new Coordinate[] {
+              new Coordinate(x, y), new Coordinate(x + size, y + size / 3)}));
+          break;
+        default:
+          geometries.add(FACTORY.toGeometry(new Envelope(x, x + size, y, y + size / 2)));
+      }
+    }
+    return geometries;
+  }
+
+  private static double distance(Metric metric, Geometry g1, Geometry g2) {
+    switch (metric) {
+      case CENTROID:
+        return g1.getCentroid().distance(g2.getCentroid());
+      case HAUSDORFF:
+        return DiscreteHausdorffDistance.distance(g1, g2);
+      default:
+        return g1.distance(g2);
+    }
+  }
+
+  // k nearest by brute force, ties ordered by index
+  private static int[] bruteForce(Metric metric, List<Geometry> destinations,
+      Geometry origin, int k, double maxDistance) {
+    List<double[]> candidates = new ArrayList<>();
+    for (int i = 0; i < destinations.size(); i++) {
+      Geometry destination = destinations.get(i);
+      if (destination == null || destination.isEmpty()) continue;
+      double d = distance(metric, origin, destination);
+      if (maxDistance > 0 && d > maxDistance) continue;
+      candidates.add(new double[] {d, i});
+    }
+    Collections.sort(candidates, (a, b) -> a[0] != b[0]
+        ? Double.compare(a[0], b[0]) : Double.compare(a[1], b[1]));
+    int[] result = new int[Math.min(k, candidates.size())];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = (int) candidates.get(i)[1];
+    }
+    return result;
+  }
+
+  public void testSameAsBruteForce() {
+    List<Geometry> destinations = randomGeometries(300, 1);
+    destinations.set(10, null);
+    destinations.set(20, FACTORY.createPoint());
+    List<Geometry> origins = randomGeometries(30, 2);
+    for (Metric metric : Metric.values()) {
+      NearestNeighbours index = new NearestNeighbours(destinations, metric);
+      for (Geometry origin : origins) {
+        for (int k : new int[] {1, 4, 400}) {
+          for (double maxDistance : new double[] {0, 80}) {
+            String message = metric + " k=" + k + " max=" + maxDistance + " " + origin;
+            assertEquals(message,
+                Arrays.toString(bruteForce(metric, destinations, origin, k, maxDistance)),
+                Arrays.toString(index.nearest(origin, k, maxDistance)));
+          }
+        }
+      }
+    }
+  }
+
+  public void testTiesAreOrderedByIndex() {
+    // 16 points at distance 10 from the origin, plus farther points
+    List<Geometry> destinations = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      double radius = i % 2 == 0 ? 10 : 20 + i;
+      double angle = Math.PI * 2 * i / 40;
+      destinations.add(FACTORY.createPoint(new Coordinate(
+          radius * Math.cos(angle), radius * Math.sin(angle))));
+    }
+    Geometry origin = FACTORY.createPoint(new Coordinate(0, 0));
+    for (Metric metric : Metric.values()) {
+      NearestNeighbours index = new NearestNeighbours(destinations, metric);
+      // distances are rounded, so ties are compared with the brute force
+      for (int k : new int[] {1, 3, 20, 25}) {
+        assertEquals(metric + " k=" + k,
+            Arrays.toString(bruteForce(metric, destinations, origin, k, 0)),
+            Arrays.toString(index.nearest(origin, k, 0)));
+      }
+    }
+  }
+
+  public void testMaxDistance() {
+    List<Geometry> destinations = Arrays.asList(
+        FACTORY.createPoint(new Coordinate(5, 0)),
+        FACTORY.createPoint(new Coordinate(0, 3)),
+        FACTORY.createPoint(new Coordinate(10, 10)),
+        FACTORY.toGeometry(new Envelope(2, 20, -1, 1)));
+    Geometry origin = FACTORY.createPoint(new Coordinate(0, 0));
+    NearestNeighbours index = new NearestNeighbours(destinations, Metric.SHORTEST);
+    assertEquals("[3, 1, 0, 2]", Arrays.toString(index.nearest(origin, 10, 0)));
+    // the limit is inclusive
+    assertEquals("[3, 1, 0]", Arrays.toString(index.nearest(origin, 10, 5)));
+    assertEquals("[3, 1]", Arrays.toString(index.nearest(origin, 2, 5)));
+    assertEquals("[3]", Arrays.toString(index.nearest(origin, 10, 2.5)));
+    assertEquals("[]", Arrays.toString(index.nearest(origin, 10, 1.5)));
+    // the envelope of the polygon is within the limit, not its centroid
+    index = new NearestNeighbours(destinations, Metric.CENTROID);
+    assertEquals("[1, 0]", Arrays.toString(index.nearest(origin, 10, 5)));
+    assertEquals(11.0, index.distance(origin, 3), 1e-12);
+    assertEquals("[]", Arrays.toString(index.nearest(origin, 0, 5)));
+    assertEquals("[]", Arrays.toString(index.nearest(FACTORY.createPoint(), 3, 0)));
+  }
+}
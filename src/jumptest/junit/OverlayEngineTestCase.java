@@ -39,6 +39,45 @@ public class OverlayEngineTestCase extends TestCase {
     assertEquals(1, doTest(a, b, false, false));
   }
 
+  public void testParallelOverlay() throws Exception {
+    FeatureSchema schema = new FeatureSchema();
+    schema.addAttribute("GEOMETRY", AttributeType.GEOMETRY);
+    FeatureCollection a = new FeatureDataset(schema);
+    FeatureCollection b = new FeatureDataset(schema);
+    // a : grid of 20x20 squares, b : grid of shifted larger squares
+    for (int i = 0; i < 20; i++) {
+      for (int j = 0; j < 20; j++) {
+        Feature aFeature = new BasicFeature(schema);
+        aFeature.setGeometry(reader.read("POLYGON((" + i + " " + j + ", " + (i+1) + " " + j + ", "
+              + (i+1) + " " + (j+1) + ", " + i + " " + (j+1) + ", " + i + " " + j + "))"));
+        a.add(aFeature);
+      }
+    }
+    // a feature of a containing all the features of b
+    Feature container = new BasicFeature(schema);
+    container.setGeometry(reader.read("POLYGON((-1 -1, 30 -1, 30 30, -1 30, -1 -1))"));
+    a.add(container);
+    for (int i = 0; i < 7; i++) {
+      for (int j = 0; j < 7; j++) {
+        Feature bFeature = new BasicFeature(schema);
+        double x = i * 3 + 0.5, y = j * 3 + 0.5;
+        bFeature.setGeometry(reader.read("POLYGON((" + x + " " + y + ", " + (x+3) + " " + y + ", "
+              + (x+3) + " " + (y+3) + ", " + x + " " + (y+3) + ", " + x + " " + y + "))"));
+        b.add(bFeature);
+      }
+    }
+    OverlayEngine sequential = new OverlayEngine();
+    OverlayEngine parallel = new OverlayEngine();
+    parallel.setParallel(true);
+    FeatureCollection expected = sequential.overlay(a, b, new DummyTaskMonitor());
+    FeatureCollection actual = parallel.overlay(a, b, new DummyTaskMonitor());
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertTrue(expected.getFeatures().get(i).getGeometry()
+            .equalsExact(actual.getFeatures().get(i).getGeometry()));
+    }
+  }
+
   private WKTReader reader = new WKTReader(new GeometryFactory());
 
   private int doTest(String wktA, String wktB,
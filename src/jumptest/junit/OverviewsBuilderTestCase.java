@@ -0,0 +1,116 @@
+package jumptest.junit;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.openjump.core.rasterimage.OverviewsBuilder;
+
+import com.sun.media.jai.codec.FileSeekableStream;
+import com.sun.media.jai.codec.ImageCodec;
+import com.sun.media.jai.codec.ImageEncoder;
+import com.sun.media.jai.codec.TIFFEncodeParam;
+
+public class OverviewsBuilderTestCase extends TestCase {
+
+  public OverviewsBuilderTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {OverviewsBuilderTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private File dir;
+
+  protected void setUp() throws Exception {
+    dir = Files.createTempDirectory("overviews").toFile();
+  }
+
+  protected void tearDown() {
+    for (File file : dir.listFiles()) {
+      file.delete();
+    }
+    dir.delete();
+  }
+
+  // waits for the end of a build and returns its success
+  private static class Result implements OverviewsBuilder.Listener {
+    final CountDownLatch finished = new CountDownLatch(1);
+    boolean success;
+    public void progress(File tiffFile, int tilesDone, int totalTiles) {}
+    public void finished(File tiffFile, boolean success) {
+      this.success = success;
+      finished.countDown();
+    }
+    boolean await() throws InterruptedException {
+      assertTrue(finished.await(120, TimeUnit.SECONDS));
+      return success;
+    }
+  }
+
+  public void testBuildOverviews() throws Exception {
+    int size = OverviewsBuilder.MIN_IMAGE_SIZE;
+    BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_BYTE_GRAY);
+    WritableRaster raster = image.getRaster();
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        raster.setSample(x, y, 0, (x % 4) * 10);
+      }
+    }
+    File tiff = new File(dir, "image.tif");
+    try (OutputStream out = new FileOutputStream(tiff)) {
+      TIFFEncodeParam param = new TIFFEncodeParam();
+      param.setTileSize(512, 512);
+      param.setWriteTiled(true);
+      ImageEncoder encoder = ImageCodec.createImageEncoder("TIFF", out, param);
+      encoder.encode(image);
+    }
+    try (Writer writer = new FileWriter(new File(dir, "image.tfw"))) {
+      writer.write("1\n0\n0\n-1\n0.5\n" + (size - 0.5) + "\n");
+    }
+
+    Result result = new Result();
+    // 0 is nodata, and is not part of the averages
+    assertTrue(OverviewsBuilder.getInstance().buildIfMissing(tiff, 0, result));
+    assertTrue(result.await());
+    File ovr = OverviewsBuilder.getOverviewsFile(tiff);
+    assertTrue(ovr.exists());
+    assertFalse(OverviewsBuilder.getInstance().buildIfMissing(tiff, 0, null));
+
+    try (FileSeekableStream stream = new FileSeekableStream(ovr)) {
+      Raster level1 = ImageCodec.createImageDecoder("tiff", stream, null)
+          .decodeAsRaster(0);
+      assertEquals(size / 2, level1.getWidth());
+      assertEquals(size / 2, level1.getHeight());
+      assertEquals(10, level1.getSample(0, 0, 0));
+      assertEquals(25, level1.getSample(1, 0, 0));
+      assertEquals(10, level1.getSample(size / 2 - 2, size / 2 - 1, 0));
+    }
+  }
+
+  public void testFailedBuildIsRetried() throws Exception {
+    File tiff = new File(dir, "broken.tif");
+    try (Writer writer = new FileWriter(tiff)) {
+      writer.write("not a tiff file");
+    }
+    Result result = new Result();
+    assertTrue(OverviewsBuilder.getInstance().buildIfMissing(tiff, Double.NaN, result));
+    assertFalse(result.await());
+    assertFalse(OverviewsBuilder.getOverviewsFile(tiff).exists());
+
+    result = new Result();
+    assertTrue(OverviewsBuilder.getInstance().buildIfMissing(tiff, Double.NaN, result));
+    assertFalse(result.await());
+  }
+}
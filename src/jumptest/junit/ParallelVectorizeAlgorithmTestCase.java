@@ -0,0 +1,158 @@
+package jumptest.junit;
+import java.awt.image.DataBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Polygon;
+import org.openjump.core.rasterimage.algorithms.ParallelVectorizeAlgorithm;
+import org.openjump.core.rasterimage.algorithms.VectorizeAlgorithm;
+import org.openjump.core.rasterimage.sextante.OpenJUMPSextanteRasterLayer;
+import org.openjump.core.rasterimage.sextante.rasterWrappers.GridExtent;
+import org.openjump.core.rasterimage.sextante.rasterWrappers.GridWrapperNotInterpolated;
+
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureCollection;
+import com.vividsolutions.jump.workbench.model.LayerManager;
+
+public class ParallelVectorizeAlgorithmTestCase extends TestCase {
+
+  public ParallelVectorizeAlgorithmTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {ParallelVectorizeAlgorithmTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private static final double NO_DATA = -9999;
+
+  // rows from top to bottom, '.' is nodata
+  private static final String[] HOLES = {
+      "11111111111111",
+      "12221111111111",
+      "12321111.....1",
+      "12221111.111.1",
+      "11111111.....1",
+      "14441111111111",
+      "14.41155555111",
+      "14441151115111",
+      "11111155555111",
+      "16161111111177",
+      "11611111111177"
+  };
+
+  private static GridWrapperNotInterpolated grid(double[][] values) {
+    int ny = values.length;
+    int nx = values[0].length;
+    GridExtent extent = new GridExtent();
+    extent.setXRange(10, 10 + nx * 2);
+    extent.setYRange(20, 20 + ny * 2);
+    extent.setCellSize(2, 2);
+    OpenJUMPSextanteRasterLayer layer = new OpenJUMPSextanteRasterLayer();
+    layer.create("grid", "", extent, DataBuffer.TYPE_DOUBLE, 1, null, new LayerManager());
+    layer.setNoDataValue(NO_DATA);
+    layer.setWindowExtent(extent);
+    for (int y = 0; y < ny; y++) {
+      for (int x = 0; x < nx; x++) {
+        layer.setCellValue(x, y, 0, values[y][x]);
+      }
+    }
+    return new GridWrapperNotInterpolated(layer, layer.getLayerGridExtent());
+  }
+
+  private static double[][] parse(String[] rows) {
+    double[][] values = new double[rows.length][rows[0].length()];
+    for (int y = 0; y < rows.length; y++) {
+      for (int x = 0; x < rows[y].length(); x++) {
+        char c = rows[y].charAt(x);
+        values[y][x] = c == '.' ? NO_DATA : c - '0';
+      }
+    }
+    return values;
+  }
+
+  private static double[][] random(int nx, int ny, long seed) {
+    Random random = new Random(seed);
+    double[][] values = new double[ny][nx];
+    for (int y = 0; y < ny; y++) {
+      for (int x = 0; x < nx; x++) {
+        int value = random.nextInt(4);
+        values[y][x] = value == 0 ? NO_DATA : value;
+      }
+    }
+    return values;
+  }
+
+  // same polygons as the AdbToolBox algorithm, which unions the cells of
+  // each value, exploded or grouped by value
+  private static void assertSameAsAdbToolBox(GridWrapperNotInterpolated gwrapper) {
+    List<Feature> expected = VectorizeAlgorithm
+        .toPolygonsAdbToolBox(gwrapper, true, "value", 0).getFeatures();
+    List<Feature> actual = ParallelVectorizeAlgorithm
+        .toPolygons(gwrapper, true, "value", 0).getFeatures();
+    assertEquals(expected.size(), actual.size());
+    List<Feature> unmatched = new ArrayList<>(expected);
+    for (Feature feature : actual) {
+      Geometry polygon = feature.getGeometry();
+      assertTrue(polygon.toString(), polygon.isValid());
+      Feature match = null;
+      for (Feature candidate : unmatched) {
+        if (candidate.getAttribute("value").equals(feature.getAttribute("value"))
+            && candidate.getGeometry().equalsTopo(polygon)) {
+          match = candidate;
+          break;
+        }
+      }
+      assertNotNull(polygon.toString(), match);
+      unmatched.remove(match);
+    }
+
+    FeatureCollection grouped = VectorizeAlgorithm.toPolygonsAdbToolBox(gwrapper, false, "value", 0);
+    Map<Object,Geometry> byValue = new HashMap<>();
+    for (Feature feature : grouped.getFeatures()) {
+      byValue.put(feature.getAttribute("value"), feature.getGeometry());
+    }
+    FeatureCollection parallelGrouped = ParallelVectorizeAlgorithm.toPolygons(gwrapper, false, "value", 0);
+    assertEquals(grouped.size(), parallelGrouped.size());
+    for (Feature feature : parallelGrouped.getFeatures()) {
+      Geometry geometry = byValue.get(feature.getAttribute("value"));
+      assertNotNull(geometry);
+      assertTrue(feature.getGeometry().toString(), geometry.equalsTopo(feature.getGeometry()));
+    }
+  }
+
+  public void testGridWithHoles() {
+    GridWrapperNotInterpolated gwrapper = grid(parse(HOLES));
+    assertSameAsAdbToolBox(gwrapper);
+
+    // polygons come in the order of the Sextante algorithm, which does not
+    // build holes and cannot be compared geometrically
+    List<Feature> sextante = VectorizeAlgorithm
+        .toPolygonsSextante(gwrapper, "value", 0).getFeatures();
+    List<Feature> polygons = ParallelVectorizeAlgorithm
+        .toPolygons(gwrapper, true, "value", 0).getFeatures();
+    assertEquals(sextante.size(), polygons.size());
+    for (int i = 0; i < polygons.size(); i++) {
+      assertEquals(sextante.get(i).getAttribute("value"), polygons.get(i).getAttribute("value"));
+    }
+
+    // the background polygon has one hole per enclosed region, including
+    // the nodata block and the cells touching each other by a corner
+    Polygon background = (Polygon) polygons.get(0).getGeometry();
+    assertEquals(6, background.getNumInteriorRing());
+    assertEquals(4.0 * (11 * 14 - 9 - 15 - 9 - 15 - 3 - 4), background.getArea(), 0.0);
+  }
+
+  public void testRandomGrids() {
+    for (long seed = 1; seed <= 5; seed++) {
+      assertSameAsAdbToolBox(grid(random(23, 17, seed)));
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package jumptest.junit;
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.openjump.core.rasterimage.RasterSymbology;
+import org.openjump.core.rasterimage.RasterSymbologyLUT;
+
+public class RasterSymbologyLUTTestCase extends TestCase {
+
+  public RasterSymbologyLUTTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {RasterSymbologyLUTTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private static final double NO_DATA = -9999;
+
+  private static RasterSymbology symbology(String type) {
+    RasterSymbology symbology = new RasterSymbology(type);
+    symbology.addColorMapEntry(NO_DATA, new Color(0, 0, 0, 0));
+    symbology.addColorMapEntry(-50, new Color(255, 0, 0, 40));
+    symbology.addColorMapEntry(0, new Color(0, 255, 0));
+    symbology.addColorMapEntry(12.5, new Color(0, 0, 255, 200));
+    symbology.addColorMapEntry(30, null);
+    symbology.addColorMapEntry(75, new Color(255, 255, 0, 128));
+    symbology.addColorMapEntry(1000, new Color(0, 255, 255, 10));
+    symbology.setTransparency(0.25);
+    return symbology;
+  }
+
+  // the colors computed for each cell by RasterImageLayer before the LUT
+  private static int expectedARGB(RasterSymbology symbology, double value) {
+    // nodata values are compared as floats, as in RasterImageLayer#isNoData
+    boolean noData = (float) value == (float) NO_DATA;
+    if (!noData && value < -50) value = -50;
+    Color color = symbology.getColor(value);
+    if (color == null) return 0;
+    int alpha = (int)(((1 - symbology.getTransparency()) * (color.getAlpha() / 255d)) * 255);
+    return new Color(color.getRed(), color.getGreen(), color.getBlue(), alpha).getRGB();
+  }
+
+  private static void assertSameColors(RasterSymbology symbology) {
+    RasterSymbologyLUT lut = new RasterSymbologyLUT(symbology, NO_DATA);
+    List<Double> values = new ArrayList<>();
+    for (double limit : symbology.getColorMapEntries_tm().keySet()) {
+      values.add(limit);
+      values.add(Math.nextUp(limit));
+      values.add(Math.nextDown(limit));
+    }
+    Random random = new Random(3);
+    for (int i = 0; i < 20000; i++) {
+      values.add(-100 + random.nextDouble() * 1200);
+    }
+    values.add(Double.NaN);
+    values.add(Double.POSITIVE_INFINITY);
+    for (double value : values) {
+      int expected = expectedARGB(symbology, value);
+      int actual = lut.getARGB(value);
+      String message = symbology.getColorMapType() + " " + value;
+      if (expected >>> 24 == 0) {
+        assertEquals(message, 0, actual >>> 24);
+      } else {
+        assertEquals(message, Integer.toHexString(expected), Integer.toHexString(actual));
+      }
+    }
+  }
+
+  public void testRamp() {
+    assertSameColors(symbology(RasterSymbology.TYPE_RAMP));
+  }
+
+  public void testIntervals() {
+    assertSameColors(symbology(RasterSymbology.TYPE_INTERVALS));
+  }
+
+  public void testSingle() {
+    assertSameColors(symbology(RasterSymbology.TYPE_SINGLE));
+  }
+
+  public void testRampInterpolatesAlpha() {
+    RasterSymbology symbology = new RasterSymbology(RasterSymbology.TYPE_RAMP);
+    symbology.addColorMapEntry(0, new Color(0, 0, 0, 0));
+    symbology.addColorMapEntry(100, new Color(0, 0, 0, 200));
+    RasterSymbologyLUT lut = new RasterSymbologyLUT(symbology, NO_DATA);
+    assertEquals(0, lut.getARGB(0) >>> 24);
+    assertEquals(100, lut.getARGB(50) >>> 24);
+    assertEquals(200, lut.getARGB(100) >>> 24);
+  }
+}
@@ -0,0 +1,168 @@
+package jumptest.junit;
+import java.awt.image.Raster;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.util.AffineTransformation;
+import org.openjump.core.rasterimage.algorithms.RasterizeAlgorithm;
+import org.openjump.core.rasterimage.algorithms.ScanlineRasterizer;
+
+import com.sun.media.jai.codec.FileSeekableStream;
+import com.sun.media.jai.codec.ImageCodec;
+import com.vividsolutions.jump.feature.AttributeType;
+import com.vividsolutions.jump.feature.BasicFeature;
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureCollection;
+import com.vividsolutions.jump.feature.FeatureDataset;
+import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.task.DummyTaskMonitor;
+
+public class ScanlineRasterizerTestCase extends TestCase {
+
+  public ScanlineRasterizerTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {ScanlineRasterizerTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  // the nodata value used by RasterizeAlgorithm
+  private static final double NO_DATA = -99999.0;
+
+  private static final GeometryFactory FACTORY = new GeometryFactory();
+
+  private File dir;
+
+  protected void setUp() throws Exception {
+    dir = Files.createTempDirectory("rasterize").toFile();
+  }
+
+  protected void tearDown() {
+    for (File file : dir.listFiles()) {
+      file.delete();
+    }
+    dir.delete();
+  }
+
+  private static FeatureCollection featureCollection(Geometry... geometries) {
+    FeatureSchema schema = new FeatureSchema();
+    schema.addAttribute("geometry", AttributeType.GEOMETRY);
+    schema.addAttribute("value", AttributeType.DOUBLE);
+    FeatureCollection fc = new FeatureDataset(schema);
+    for (int i = 0; i < geometries.length; i++) {
+      Feature feature = new BasicFeature(schema);
+      feature.setGeometry(geometries[i]);
+      feature.setAttribute("value", i + 1.0);
+      fc.add(feature);
+    }
+    return fc;
+  }
+
+  // a random star-shaped ring around x, y, inside a square of size 2 * radius
+  private static LinearRing randomRing(Random random, double x, double y, double radius) {
+    int n = 5 + random.nextInt(20);
+    Coordinate[] coordinates = new Coordinate[n + 1];
+    for (int i = 0; i < n; i++) {
+      double angle = 2 * Math.PI * i / n;
+      double r = radius * (0.3 + 0.7 * random.nextDouble());
+      coordinates[i] = new Coordinate(x + r * Math.cos(angle), y + r * Math.sin(angle));
+    }
+    coordinates[n] = coordinates[0];
+    return FACTORY.createLinearRing(coordinates);
+  }
+
+  // disjoint polygons, some of them with a hole, spanning several tiles
+  private static Geometry[] randomPolygons(long seed) {
+    Random random = new Random(seed);
+    Geometry[] polygons = new Geometry[18];
+    for (int i = 0; i < polygons.length; i++) {
+      double x = 50.3 + (i % 6) * 100;
+      double y = 50.7 + (i / 6) * 100;
+      LinearRing[] holes = i % 3 == 0
+          ? new LinearRing[] {randomRing(random, x, y, 10)} : new LinearRing[0];
+      polygons[i] = FACTORY.createPolygon(randomRing(random, x, y, 49), holes);
+    }
+    return polygons;
+  }
+
+  private static Raster read(File file) throws Exception {
+    try (FileSeekableStream stream = new FileSeekableStream(file)) {
+      return ImageCodec.createImageDecoder("tiff", stream, null).decodeAsRaster();
+    }
+  }
+
+  public void testSameCellsAsRasterizeAlgorithm() throws Exception {
+    Envelope envelope = new Envelope(0, 600, 0, 300);
+    double cellSize = 1;
+    Geometry[] polygons = randomPolygons(1);
+    File file = new File(dir, "scanline.tif");
+    RasterizeAlgorithm.rasterizeToTiledTIFF(file, envelope, featureCollection(polygons),
+        "value", cellSize, new DummyTaskMonitor());
+    assertTrue(new File(dir, "scanline.tfw").exists());
+    Raster actual = read(file);
+    assertEquals(600, actual.getWidth());
+    assertEquals(300, actual.getHeight());
+
+    // RasterizeAlgorithm tests the upper left corner of each cell where
+    // ScanlineRasterizer tests its center : shift its input by half a cell
+    AffineTransformation shift = AffineTransformation
+        .translationInstance(-cellSize / 2, cellSize / 2);
+    Geometry[] shifted = new Geometry[polygons.length];
+    for (int i = 0; i < polygons.length; i++) {
+      shifted[i] = shift.transform(polygons[i]);
+    }
+    RasterizeAlgorithm old = new RasterizeAlgorithm(envelope, featureCollection(shifted),
+        "value", cellSize);
+    old.process();
+    Raster expected = old.getRaster();
+
+    int filled = 0;
+    for (int y = 0; y < 300; y++) {
+      for (int x = 0; x < 600; x++) {
+        float value = expected.getSampleFloat(x, y, 0);
+        assertEquals(x + "," + y, value, actual.getSampleFloat(x, y, 0), 0f);
+        if (value != (float) NO_DATA) filled++;
+      }
+    }
+    // most of the grid is covered, holes included
+    assertTrue(filled > 600 * 300 / 4);
+  }
+
+  public void testBurnWindowDoesNotDependOnTiling() {
+    Envelope envelope = new Envelope(0, 600, 0, 300);
+    Geometry[] geometries = randomPolygons(2);
+    // overlapping features : the last one wins
+    geometries[1] = FACTORY.toGeometry(new Envelope(20.2, 400.6, 30.1, 80.4));
+    geometries[2] = FACTORY.createLineString(new Coordinate[] {
+        new Coordinate(3.3, 4.4), new Coordinate(590.1, 290.9)});
+    geometries[3] = FACTORY.createPoint(new Coordinate(100.5, 200.5));
+    ScanlineRasterizer rasterizer = new ScanlineRasterizer(envelope,
+        featureCollection(geometries), "value", 1, NO_DATA);
+    float[] whole = new float[600 * 300];
+    rasterizer.burnWindow(0, 0, 600, 300, whole);
+    float[] tile = new float[70 * 45];
+    for (int row0 = 0; row0 < 300; row0 += 45) {
+      for (int col0 = 0; col0 < 600; col0 += 70) {
+        rasterizer.burnWindow(col0, row0, 70, 45, tile);
+        for (int r = 0; r < 45 && row0 + r < 300; r++) {
+          for (int c = 0; c < 70 && col0 + c < 600; c++) {
+            assertEquals(whole[(row0 + r) * 600 + col0 + c], tile[r * 70 + c], 0f);
+          }
+        }
+      }
+    }
+    assertEquals(4f, whole[99 * 600 + 100], 0f);
+    assertEquals(2f, whole[(300 - 50) * 600 + 200], 0f);
+    assertEquals(3f, whole[(300 - 5) * 600 + 4], 0f);
+  }
+}
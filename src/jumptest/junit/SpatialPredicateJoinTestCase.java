@@ -0,0 +1,190 @@
+package jumptest.junit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.openjump.test.PerformanceUtils;
+
+import com.vividsolutions.jump.feature.AttributeType;
+import com.vividsolutions.jump.feature.BasicFeature;
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureCollection;
+import com.vividsolutions.jump.feature.FeatureDataset;
+import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.task.DummyTaskMonitor;
+import com.vividsolutions.jump.workbench.ui.plugin.analysis.GeometryPredicate;
+import com.vividsolutions.jump.workbench.ui.plugin.analysis.SpatialPredicateJoin;
+import com.vividsolutions.jump.workbench.ui.plugin.analysis.SpatialQueryExecuter;
+
+public class SpatialPredicateJoinTestCase extends TestCase {
+
+  public SpatialPredicateJoinTestCase(String Name_) {
+    super(Name_);
+  }
+
+  /**
+   * Runs the tests, or with a size argument, compares the time of nested
+   * loops and of the join for each predicate.
+   */
+  public static void main(String[] args) {
+    if (args.length > 0) {
+      benchmark(Integer.parseInt(args[0]));
+      return;
+    }
+    String[] testCaseName = {SpatialPredicateJoinTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private static void benchmark(int size) {
+    List<Geometry> first = randomGeometries(size, 5);
+    List<Geometry> second = randomGeometries(size * 5, 6);
+    double[] params = {2.0};
+    for (GeometryPredicate predicate : predicates()) {
+      long startTime = PerformanceUtils.startTime();
+      int count = nestedLoops(predicate, params, first, second).size();
+      PerformanceUtils.printDuration(predicate.getName() + " nested loops (" + count + ")", startTime);
+      startTime = PerformanceUtils.startTime();
+      count = join(predicate, params, first, second, false).size();
+      PerformanceUtils.printDuration(predicate.getName() + " join (" + count + ")", startTime);
+    }
+  }
+
+  public void testSamePairsAsNestedLoops() {
+    List<Geometry> small = randomGeometries(40, 1);
+    List<Geometry> large = randomGeometries(300, 2);
+    double[] params = {2.0};
+    List<GeometryPredicate> predicates = predicates();
+    predicates.add(new GeometryPredicate.DisjointPredicate());
+    for (GeometryPredicate predicate : predicates) {
+      // pairs come in the order of the smaller list
+      assertEquals(predicate.getName(), nestedLoops(predicate, params, small, large),
+              join(predicate, params, small, large, false));
+      List<String> expected = nestedLoops(predicate, params, large, small);
+      List<String> actual = join(predicate, params, large, small, false);
+      Collections.sort(expected);
+      Collections.sort(actual);
+      assertEquals(predicate.getName(), expected, actual);
+    }
+  }
+
+  public void testFirstMatchOnly() {
+    List<Geometry> small = randomGeometries(40, 3);
+    List<Geometry> large = randomGeometries(300, 4);
+    GeometryPredicate intersects = predicates().get(0);
+    List<List<List<Geometry>>> cases = Arrays.asList(
+            Arrays.asList(small, large), Arrays.asList(large, small));
+    for (List<List<Geometry>> lists : cases) {
+      List<String> pairs = join(intersects, null, lists.get(0), lists.get(1), true);
+      List<String> expected = nestedLoops(intersects, null, lists.get(0), lists.get(1));
+      // each geometry of the first list is reported once if it matches
+      assertEquals(expected.stream().map(p -> p.split(",")[0]).distinct().count(), pairs.size());
+      for (String pair : pairs) {
+        assertTrue(expected.contains(pair));
+      }
+    }
+  }
+
+  public void testQueryWithDuplicatesIsInMaskOrder() {
+    GeometryPredicate intersects = predicates().get(0);
+    // the source layer is the smaller one, or the larger one
+    for (int[] sizes : new int[][] {{40, 300}, {300, 40}}) {
+      List<Geometry> sources = randomGeometries(sizes[0], 7);
+      List<Geometry> masks = randomGeometries(sizes[1], 8);
+      SpatialQueryExecuter executer = new SpatialQueryExecuter(
+              featureCollection(masks), featureCollection(sources));
+      executer.setAllowDuplicates(true);
+      FeatureCollection result = executer.getResultFC();
+      executer.execute(new DummyTaskMonitor(), intersects, null, result);
+
+      List<Integer> expected = new ArrayList<>();
+      for (int j = 0; j < masks.size(); j++) {
+        for (int i = 0; i < sources.size(); i++) {
+          if (intersects.isTrue(sources.get(i), masks.get(j), null)) {
+            expected.add(i);
+          }
+        }
+      }
+      List<Integer> actual = new ArrayList<>();
+      for (Feature feature : result.getFeatures()) {
+        actual.add((Integer) feature.getAttribute("index"));
+      }
+      assertEquals(expected, actual);
+    }
+  }
+
+  private static List<GeometryPredicate> predicates() {
+    List<GeometryPredicate> predicates = new ArrayList<>();
+    for (String name : GeometryPredicate.getNames()) {
+      predicates.add(GeometryPredicate.getPredicate(name));
+    }
+    return predicates;
+  }
+
+  private static List<String> join(GeometryPredicate predicate, double[] params,
+          List<Geometry> first, List<Geometry> second, boolean firstMatchOnly) {
+    List<String> pairs = new ArrayList<>();
+    SpatialPredicateJoin join = new SpatialPredicateJoin(predicate, params);
+    join.setFirstMatchOnly(firstMatchOnly);
+    join.execute(first, second, new DummyTaskMonitor(), (i, j) -> pairs.add(i + "," + j));
+    return pairs;
+  }
+
+  private static List<String> nestedLoops(GeometryPredicate predicate, double[] params,
+          List<Geometry> first, List<Geometry> second) {
+    List<String> pairs = new ArrayList<>();
+    for (int i = 0; i < first.size(); i++) {
+      for (int j = 0; j < second.size(); j++) {
+        if (predicate.isTrue(first.get(i), second.get(j), params)) {
+          pairs.add(i + "," + j);
+        }
+      }
+    }
+    return pairs;
+  }
+
+  private static FeatureCollection featureCollection(List<Geometry> geometries) {
+    FeatureSchema schema = new FeatureSchema();
+    schema.addAttribute("geometry", AttributeType.GEOMETRY);
+    schema.addAttribute("index", AttributeType.INTEGER);
+    FeatureDataset dataset = new FeatureDataset(schema);
+    for (int i = 0; i < geometries.size(); i++) {
+      Feature feature = new BasicFeature(schema);
+      feature.setGeometry(geometries.get(i));
+      feature.setAttribute("index", i);
+      dataset.add(feature);
+    }
+    return dataset;
+  }
+
+  // random mix of points, lines and polygons in a 100 x 100 square
+  private static List<Geometry> randomGeometries(int count, long seed) {
+    GeometryFactory factory = new GeometryFactory();
+    Random random = new Random(seed);
+    List<Geometry> geometries = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      double x = random.nextInt(100);
+      double y = random.nextInt(100);
+      double size = 1 + random.nextInt(10);
+      switch (i % 3) {
+        case 0:
+          geometries.add(factory.createPoint(new Coordinate(x, y)));
+          break;
+        case 1:
+          geometries.add(factory.createLineString(new Coordinate[] {
+                  new Coordinate(x, y), new Coordinate(x + size, y + size / 2)}));
+          break;
+        default:
+          geometries.add(factory.toGeometry(new Envelope(x, x + size, y, y + size)));
+      }
+    }
+    return geometries;
+  }
+}
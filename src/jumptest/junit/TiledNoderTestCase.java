@@ -0,0 +1,79 @@
+package jumptest.junit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.algorithm.RobustLineIntersector;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.noding.IntersectionAdder;
+import org.locationtech.jts.noding.MCIndexNoder;
+import org.locationtech.jts.noding.NodedSegmentString;
+import org.locationtech.jts.noding.Noder;
+import org.locationtech.jts.noding.SegmentString;
+import com.vividsolutions.jump.geom.TiledNoder;
+
+public class TiledNoderTestCase extends TestCase {
+
+  public TiledNoderTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {TiledNoderTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  public void testSameSubstringsAsMCIndexNoder() {
+    MCIndexNoder mcIndexNoder = new MCIndexNoder();
+    mcIndexNoder.setSegmentIntersector(new IntersectionAdder(new RobustLineIntersector()));
+    List<String> expected = node(mcIndexNoder);
+    for (int tilesPerSide : new int[] {1, 4, 9}) {
+      assertEquals(expected, node(new TiledNoder(tilesPerSide)));
+    }
+  }
+
+  public void testNodeOnTileBorder() {
+    // the two lines cross at (5 5), on the border of the four tiles
+    List<SegmentString> lines = new ArrayList<>();
+    lines.add(new NodedSegmentString(new Coordinate[] {
+        new Coordinate(0, 0), new Coordinate(10, 10)}, null));
+    lines.add(new NodedSegmentString(new Coordinate[] {
+        new Coordinate(0, 10), new Coordinate(10, 0)}, null));
+    TiledNoder noder = new TiledNoder(2);
+    noder.computeNodes(lines);
+    assertEquals(4, noder.getNodedSubstrings().size());
+  }
+
+  /**
+   * Nodes random lines and rings, and returns the sorted noded substrings.
+   */
+  private static List<String> node(Noder noder) {
+    Random random = new Random(7);
+    List<SegmentString> segmentStrings = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      Coordinate[] pts = new Coordinate[4 + random.nextInt(4)];
+      double x = random.nextInt(500);
+      double y = random.nextInt(500);
+      for (int j = 0; j < pts.length; j++) {
+        pts[j] = new Coordinate(x, y);
+        x += random.nextInt(61) - 30;
+        y += random.nextInt(61) - 30;
+      }
+      if (i % 5 == 0) pts[pts.length - 1] = pts[0];
+      segmentStrings.add(new NodedSegmentString(pts, null));
+    }
+    noder.computeNodes(segmentStrings);
+    Collection<?> substrings = noder.getNodedSubstrings();
+    List<String> result = new ArrayList<>();
+    for (Object ss : substrings) {
+      result.add(Arrays.toString(((SegmentString)ss).getCoordinates()));
+    }
+    Collections.sort(result);
+    return result;
+  }
+}
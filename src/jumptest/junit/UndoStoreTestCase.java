@@ -0,0 +1,166 @@
+package jumptest.junit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.WKTReader;
+import com.vividsolutions.jump.feature.AttributeType;
+import com.vividsolutions.jump.feature.BasicFeature;
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureDataset;
+import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.workbench.model.Layer;
+import com.vividsolutions.jump.workbench.model.LayerManager;
+import com.vividsolutions.jump.workbench.model.UndoStore;
+import com.vividsolutions.jump.workbench.model.UndoableEditReceiver;
+import com.vividsolutions.jump.workbench.ui.EditTransaction;
+import com.vividsolutions.jump.workbench.ui.LayerViewPanelContext;
+
+public class UndoStoreTestCase extends TestCase {
+
+  public UndoStoreTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {UndoStoreTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private final WKTReader reader = new WKTReader();
+
+  private Geometry read(String wkt) throws Exception {
+    return reader.read(wkt);
+  }
+
+  public void testStoreAndLoad() throws Exception {
+    Map<Integer,Geometry> references = new LinkedHashMap<>();
+    Map<Integer,Geometry> geometries = new LinkedHashMap<>();
+    Geometry live = read("POINT (5 5)");
+    // same structure, one vertex moved : delta
+    references.put(1, read("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0), (2 2, 3 2, 3 3, 2 2))"));
+    geometries.put(1, read("POLYGON ((0 0, 10 0, 12 12, 0 10, 0 0), (2 2, 3 2, 3 3, 2 2))"));
+    // different structure : WKB
+    references.put(2, read("LINESTRING (0 0, 1 1)"));
+    geometries.put(2, read("LINESTRING (0 0, 1 1, 2 2)"));
+    geometries.get(2).setSRID(4326);
+    // z values
+    references.put(3, read("LINESTRING (0 0 1, 1 1 2)"));
+    geometries.put(3, read("LINESTRING (0 0 1, 1 1 3)"));
+    geometries.put(4, read("MULTIPOINT ((0 0 1), (1 1 2))"));
+    // identical reference and kept reference
+    references.put(5, live);
+    geometries.put(5, live);
+    geometries.put(6, live);
+
+    UndoStore store = new UndoStore();
+    UndoStore.Entry entry = store.store(geometries, references, g -> g == live);
+    assertTrue(store.getBytesInMemory() > 0);
+    Map<Integer,Geometry> loaded = entry.load(references);
+    assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), Arrays.asList(loaded.keySet().toArray()));
+    for (Integer id : geometries.keySet()) {
+      assertTrue(id.toString(), geometries.get(id).equalsExact(loaded.get(id)));
+      assertTrue(Arrays.equals(geometries.get(id).getCoordinates(), loaded.get(id).getCoordinates()));
+    }
+    assertEquals(1.0, loaded.get(3).getCoordinates()[0].getZ(), 0.0);
+    assertEquals(3.0, loaded.get(3).getCoordinates()[1].getZ(), 0.0);
+    assertEquals(2.0, loaded.get(4).getCoordinates()[1].getZ(), 0.0);
+    assertEquals(4326, loaded.get(2).getSRID());
+    assertSame(live, loaded.get(5));
+    assertSame(live, loaded.get(6));
+    // the reference is not modified by the delta
+    assertEquals(new Coordinate(10, 10), references.get(1).getCoordinates()[2]);
+    entry.release();
+    assertEquals(0, store.getBytesInMemory());
+    store.dispose();
+  }
+
+  public void testSpill() throws Exception {
+    UndoStore store = new UndoStore();
+    store.setMemoryBudget(1000);
+    Map<Integer,Geometry> references = new LinkedHashMap<>();
+    UndoStore.Entry[] entries = new UndoStore.Entry[20];
+    List<Map<Integer,Geometry>> stored = new ArrayList<>();
+    for (int i = 0; i < entries.length; i++) {
+      Map<Integer,Geometry> geometries = new LinkedHashMap<>();
+      geometries.put(i, read("LINESTRING (" + i + " 0, 1 1, 2 2, 3 3)"));
+      stored.add(geometries);
+      entries[i] = store.store(geometries, references, g -> false);
+    }
+    assertTrue(store.getBytesInMemory() <= 1000);
+    assertTrue(store.getBytesSpilled() > 0);
+    assertTrue(entries[0].isSpilled());
+    assertFalse(entries[entries.length - 1].isSpilled());
+    for (int i = 0; i < entries.length; i++) {
+      assertTrue(stored.get(i).get(i).equalsExact(entries[i].load(references).get(i)));
+    }
+    for (UndoStore.Entry entry : entries) entry.release();
+    assertEquals(0, store.getBytesInMemory());
+    assertEquals(0, store.getBytesSpilled());
+    store.dispose();
+  }
+
+  public void testUnreadableSpilledEntry() throws Exception {
+    UndoStore store = new UndoStore();
+    store.setMemoryBudget(0);
+    Map<Integer,Geometry> references = new LinkedHashMap<>();
+    Map<Integer,Geometry> geometries = new LinkedHashMap<>();
+    geometries.put(1, read("LINESTRING (0 0, 1 1)"));
+    UndoStore.Entry entry = store.store(geometries, references, g -> false);
+    assertTrue(entry.isSpilled());
+    // the temporary file is gone
+    store.dispose();
+    try {
+      entry.load(references);
+      fail();
+    } catch (IllegalStateException e) {
+      assertNotNull(e.getCause());
+    }
+  }
+
+  public void testUndoRedoEditTransaction() throws Exception {
+    LayerManager manager = new LayerManager();
+    FeatureSchema schema = new FeatureSchema();
+    schema.addAttribute("geometry", AttributeType.GEOMETRY);
+    FeatureDataset dataset = new FeatureDataset(schema);
+    Feature moved = new BasicFeature(schema);
+    moved.setGeometry(read("LINESTRING (0 0, 10 10, 20 0)"));
+    Feature removed = new BasicFeature(schema);
+    removed.setGeometry(read("POINT (1 1)"));
+    dataset.add(moved);
+    dataset.add(removed);
+    Layer layer = manager.addLayer("test", "layer", dataset);
+    manager.getUndoableEditReceiver().getUndoStore().setMemoryBudget(0);
+
+    EditTransaction transaction = new EditTransaction(Arrays.asList(moved), "edit", layer,
+            false, true, (LayerViewPanelContext)null);
+    transaction.setGeometry(moved, read("LINESTRING (0 0, 10 15, 20 0)"));
+    transaction.deleteFeature(removed);
+    UndoableEditReceiver receiver = manager.getUndoableEditReceiver();
+    receiver.startReceiving();
+    transaction.commit();
+    receiver.stopReceiving();
+    assertEquals(1, dataset.size());
+    assertTrue(moved.getGeometry().equalsExact(read("LINESTRING (0 0, 10 15, 20 0)")));
+
+    for (int i = 0; i < 3; i++) {
+      receiver.getUndoManager().undo();
+      assertEquals(2, dataset.size());
+      assertTrue(moved.getGeometry().equalsExact(read("LINESTRING (0 0, 10 10, 20 0)")));
+      assertTrue(dataset.getFeatures().contains(removed));
+      receiver.getUndoManager().redo();
+      assertEquals(1, dataset.size());
+      assertTrue(moved.getGeometry().equalsExact(read("LINESTRING (0 0, 10 15, 20 0)")));
+    }
+    assertTrue(receiver.getUndoStore().getBytesSpilled() > 0);
+    receiver.getUndoManager().discardAllEdits();
+    assertEquals(0, receiver.getUndoStore().getBytesSpilled());
+    manager.dispose();
+  }
+}
@@ -3,14 +3,17 @@ package jumptest.junit;
 import org.locationtech.jts.geom.*;
 import org.locationtech.jts.io.ParseException;
 import org.locationtech.jts.io.WKTReader;
+import org.locationtech.jts.operation.valid.IsValidOp;
 import com.vividsolutions.jump.feature.AttributeType;
 import com.vividsolutions.jump.feature.BasicFeature;
 import com.vividsolutions.jump.feature.Feature;
 import com.vividsolutions.jump.feature.FeatureSchema;
 import com.vividsolutions.jump.geom.Angle;
+import com.vividsolutions.jump.qa.ValidationCache;
 import com.vividsolutions.jump.qa.ValidationError;
 import com.vividsolutions.jump.qa.ValidationErrorType;
 import com.vividsolutions.jump.qa.Validator;
+import com.vividsolutions.jump.task.DummyTaskMonitor;
 import junit.framework.TestCase;
 
 import java.util.ArrayList;
@@ -334,6 +337,78 @@ public class ValidatorTestCase extends TestCase {
         new Coordinate(50, 50));
   }
 
+  public void testValidateCollectionInParallel() {
+    // chunks of features are validated in parallel, errors keep the feature order
+    List<Feature> features = new ArrayList<>();
+    for (int i = 0; i < 3 * Validator.CHUNK_SIZE; i++) {
+      features.add(toFeature(i % 7 == 0 ?
+          "POLYGON((0 0, 10 10, 10 0, 0 10, 0 0))" :
+          "POLYGON((0 0, 10 0, 10 10, 0 10, 0 0))"));
+    }
+    Validator validator = new Validator();
+    ValidationCache cache = new ValidationCache();
+    validator.setCache(cache);
+    List errors = validator.validate(features, new DummyTaskMonitor());
+    assertEquals((features.size() + 6) / 7, errors.size());
+    for (int i = 0; i < errors.size(); i++) {
+      ValidationError error = (ValidationError) errors.get(i);
+      assertSame(features.get(7 * i), error.getFeature());
+      assertEquals(ValidationErrorType.BASIC_TOPOLOGY_INVALID, error.getType());
+    }
+    // cached results are attached to the feature, a new geometry is validated again
+    features.get(0).setGeometry(toFeature("POINT(0 0)").getGeometry());
+    errors = validator.validate(features, new DummyTaskMonitor());
+    assertEquals((features.size() + 6) / 7 - 1, errors.size());
+    assertSame(features.get(7), ((ValidationError) errors.get(0)).getFeature());
+  }
+
+  public void testBasicTopologyShortcuts() {
+    // geometries skipping the full validation get the same result
+    testValidator.setCheckingBasicTopology(true);
+    GeometryFactory factory = geometryFactory;
+    Coordinate nan = new Coordinate(Double.NaN, 1);
+    LineString degenerate = factory.createLineString(new Coordinate[] {
+        new Coordinate(1, 1), new Coordinate(1, 1), new Coordinate(1, 1)});
+    LineString line = factory.createLineString(new Coordinate[] {
+        new Coordinate(1, 1), new Coordinate(1, 1), new Coordinate(2, 1)});
+    List<Geometry> geometries = new ArrayList<>(Arrays.asList(
+        factory.createPoint(nan),
+        factory.createPoint(new Coordinate(1, Double.POSITIVE_INFINITY)),
+        factory.createMultiPointFromCoords(new Coordinate[] {new Coordinate(0, 0), nan}),
+        factory.createLineString(new Coordinate[] {new Coordinate(0, 0), nan}),
+        degenerate,
+        line,
+        factory.createMultiLineString(new LineString[] {line, degenerate}),
+        factory.createMultiLineString(new LineString[] {line, line}),
+        factory.createGeometryCollection(new Geometry[] {line, degenerate}),
+        factory.createGeometryCollection(new Geometry[] {line, factory.createPoint(nan)}),
+        factory.createLinearRing(new Coordinate[] {new Coordinate(0, 0),
+            new Coordinate(1, 1), new Coordinate(1, 0), new Coordinate(0, 1), new Coordinate(0, 0)})));
+    for (String wkt : new String[] {
+        "POINT (1 2)", "MULTIPOINT ((1 2), (1 2))", "LINESTRING (0 0, 1 1, 0 0)",
+        "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))", "POLYGON ((0 0, 10 0, 10 0, 0 0, 0 0))",
+        "MULTIPOLYGON (((0 0, 10 0, 10 10, 0 10, 0 0)), ((5 5, 15 5, 15 15, 5 15, 5 5)))",
+        "GEOMETRYCOLLECTION (POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0)), POLYGON ((5 5, 15 5, 15 15, 5 15, 5 5)))"}) {
+      geometries.add(toFeature(wkt).getGeometry());
+    }
+    for (Geometry g : geometries) {
+      boolean valid = new IsValidOp(g).isValid();
+      assertEquals(g.toString(), valid, testValidator.validateBasicTopology(toFeature(g)) == null);
+    }
+  }
+
+  public void testCachedErrorsAreCopies() {
+    Validator validator = new Validator();
+    validator.setCheckingNoRepeatedConsecutivePoints(true);
+    validator.setCache(new ValidationCache());
+    List<Feature> features = Arrays.asList(toFeature("LINESTRING (0 0, 5 5, 5 5, 10 10)"));
+    ValidationError error = (ValidationError) validator.validate(features, new DummyTaskMonitor()).get(0);
+    assertEquals(new Coordinate(5, 5), error.getLocation());
+    error.getLocation().x = 100;
+    error = (ValidationError) validator.validate(features, new DummyTaskMonitor()).get(0);
+    assertEquals(new Coordinate(5, 5), error.getLocation());
+  }
+
   private WKTReader reader = new WKTReader(geometryFactory);
 
   private void assertTypeEquals(ValidationErrorType type, ValidationError error) {
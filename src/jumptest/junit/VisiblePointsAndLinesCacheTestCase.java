@@ -0,0 +1,124 @@
+package jumptest.junit;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.io.WKTReader;
+import com.vividsolutions.jump.feature.AttributeType;
+import com.vividsolutions.jump.feature.BasicFeature;
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureDataset;
+import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.workbench.model.Layer;
+import com.vividsolutions.jump.workbench.model.LayerEventType;
+import com.vividsolutions.jump.workbench.model.LayerManager;
+import com.vividsolutions.jump.workbench.ui.LayerViewPanel;
+import com.vividsolutions.jump.workbench.ui.LayerViewPanelContext;
+import com.vividsolutions.jump.workbench.ui.renderer.LayerRendererFactory;
+import com.vividsolutions.jump.workbench.ui.renderer.RenderingManager;
+import com.vividsolutions.jump.workbench.ui.snap.VisiblePointsAndLinesCache;
+
+public class VisiblePointsAndLinesCacheTestCase extends TestCase {
+
+  public VisiblePointsAndLinesCacheTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {VisiblePointsAndLinesCacheTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private final WKTReader reader = new WKTReader();
+  private LayerManager manager;
+  private Layer layer;
+  private Feature feature;
+  private LayerViewPanel panel;
+  private VisiblePointsAndLinesCache cache;
+
+  protected void setUp() throws Exception {
+    manager = new LayerManager();
+    FeatureSchema schema = new FeatureSchema();
+    schema.addAttribute("geometry", AttributeType.GEOMETRY);
+    FeatureDataset dataset = new FeatureDataset(schema);
+    feature = new BasicFeature(schema);
+    feature.setGeometry(reader.read("LINESTRING (0 0, 10 0)"));
+    dataset.add(feature);
+    layer = manager.addLayer("test", "layer", dataset);
+    panel = new LayerViewPanel(manager, new LayerViewPanelContext() {
+      public void setStatusMessage(String message) {}
+      // no renderer for the layer in a headless test
+      public void handleThrowable(Throwable t) {}
+      public void warnUser(String warning) {}
+    });
+    cache = VisiblePointsAndLinesCache.instance(panel);
+  }
+
+  public void testGeometryModifiedWithoutEvents() throws Exception {
+    assertEquals(new Coordinate(0, 0), cache.getClosestVertex(new Coordinate(0.5, 0.5), 1));
+    // an edit committed while events are off, as MergePolygonsWithNeighbourPlugIn does
+    manager.setFiringEvents(false);
+    Feature clone = feature.clone(true);
+    feature.setGeometry(reader.read("LINESTRING (100 100, 110 100)"));
+    manager.fireGeometryModified(Collections.singletonList(feature), layer,
+            Collections.singletonList(clone));
+    manager.setFiringEvents(true);
+    assertNull(cache.getClosestVertex(new Coordinate(0.5, 0.5), 1));
+    assertEquals(new Coordinate(100, 100), cache.getClosestVertex(new Coordinate(100.5, 100.5), 1));
+  }
+
+  public void testFeatureDeletedWithoutEvents() throws Exception {
+    assertEquals(new Coordinate(5, 0), cache.getClosestPoint(new Coordinate(5, 0.5), 1));
+    manager.setFiringEvents(false);
+    layer.getFeatureCollectionWrapper().remove(feature);
+    manager.setFiringEvents(true);
+    assertNull(cache.getClosestPoint(new Coordinate(5, 0.5), 1));
+  }
+
+  public void testGeometryModifiedWithEvents() throws Exception {
+    assertEquals(new Coordinate(0, 0), cache.getClosestVertex(new Coordinate(0.5, 0.5), 1));
+    Feature clone = feature.clone(true);
+    feature.setGeometry(reader.read("LINESTRING (100 100, 110 100)"));
+    long suppressed = manager.getEventsSuppressed();
+    manager.fireGeometryModified(Collections.singletonList(feature), layer,
+            Collections.singletonList(clone));
+    assertEquals(suppressed, manager.getEventsSuppressed());
+    assertEquals(new Coordinate(100, 100), cache.getClosestVertex(new Coordinate(100.5, 100.5), 1));
+    assertNull(cache.getClosestVertex(new Coordinate(0.5, 0.5), 1));
+  }
+
+  // a feature removed without any event is still found until the index of
+  // its layer is rebuilt
+  private void removeSilently() {
+    assertEquals(new Coordinate(0, 0), cache.getClosestVertex(new Coordinate(0.5, 0.5), 1));
+    layer.getFeatureCollectionWrapper().getUltimateWrappee().remove(feature);
+  }
+
+  public void testIndexKeptAcrossZooms() throws Exception {
+    RenderingManager.setRendererFactory(Layer.class, new LayerRendererFactory());
+    removeSilently();
+    panel.getViewport().zoom(new Envelope(-10, 20, -10, 20));
+    assertEquals(new Coordinate(0, 0), cache.getClosestVertex(new Coordinate(0.5, 0.5), 1));
+  }
+
+  public void testEventsSuppressedOnAnotherLayer() throws Exception {
+    FeatureSchema schema = new FeatureSchema();
+    schema.addAttribute("geometry", AttributeType.GEOMETRY);
+    Layer other = manager.addLayer("test", "other", new FeatureDataset(schema));
+    removeSilently();
+    manager.setFiringEvents(false);
+    Feature added = new BasicFeature(schema);
+    added.setGeometry(reader.read("POINT (50 50)"));
+    other.getFeatureCollectionWrapper().add(added);
+    manager.setFiringEvents(true);
+    assertEquals(new Coordinate(50, 50), cache.getClosestVertex(new Coordinate(50.5, 50.5), 1));
+    // the index of the first layer is still the one built before the removal
+    assertEquals(new Coordinate(0, 0), cache.getClosestVertex(new Coordinate(0.5, 0.5), 1));
+    manager.setFiringEvents(false);
+    manager.fireLayerChanged(layer, LayerEventType.METADATA_CHANGED);
+    manager.setFiringEvents(true);
+    assertNull(cache.getClosestVertex(new Coordinate(0.5, 0.5), 1));
+  }
+}
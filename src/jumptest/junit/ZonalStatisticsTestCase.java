@@ -0,0 +1,155 @@
+package jumptest.junit;
+import java.awt.image.DataBuffer;
+import java.awt.image.SampleModel;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.media.jai.PlanarImage;
+import javax.media.jai.RasterFactory;
+import javax.media.jai.TiledImage;
+
+import junit.framework.TestCase;
+
+import org.locationtech.jts.algorithm.locate.SimplePointInAreaLocator;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Location;
+import org.locationtech.jts.io.WKTReader;
+import org.openjump.core.rasterimage.RasterImageLayer;
+import org.openjump.core.rasterimage.algorithms.ZonalStatistics;
+
+import com.sun.media.jai.codec.ImageCodec;
+import com.sun.media.jai.codec.ImageEncoder;
+import com.sun.media.jai.codec.TIFFEncodeParam;
+import com.vividsolutions.jump.feature.AttributeType;
+import com.vividsolutions.jump.feature.BasicFeature;
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureCollection;
+import com.vividsolutions.jump.feature.FeatureDataset;
+import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.task.DummyTaskMonitor;
+import com.vividsolutions.jump.workbench.model.LayerManager;
+
+public class ZonalStatisticsTestCase extends TestCase {
+
+  public ZonalStatisticsTestCase(String Name_) {
+    super(Name_);
+  }
+
+  public static void main(String[] args) {
+    String[] testCaseName = {ZonalStatisticsTestCase.class.getName()};
+    junit.textui.TestRunner.main(testCaseName);
+  }
+
+  private static final int WIDTH = 300;
+  private static final int HEIGHT = 200;
+
+  private File tiff;
+  private RasterImageLayer layer;
+  private float[][] values;
+
+  // a float raster of WIDTH x HEIGHT cells of size 1 starting at 0,0, with
+  // a block of NaN cells, which are nodata for the layer
+  protected void setUp() throws Exception {
+    values = new float[HEIGHT][WIDTH];
+    SampleModel sampleModel = RasterFactory.createBandedSampleModel(
+        DataBuffer.TYPE_FLOAT, WIDTH, HEIGHT, 1);
+    TiledImage image = new TiledImage(0, 0, WIDTH, HEIGHT, 0, 0, sampleModel,
+        PlanarImage.createColorModel(sampleModel));
+    for (int row = 0; row < HEIGHT; row++) {
+      for (int col = 0; col < WIDTH; col++) {
+        boolean noData = col >= 40 && col < 60 && row >= 40 && row < 60;
+        values[row][col] = noData ? Float.NaN : (col * 7 + row * 13) % 1000 + 0.5f;
+        image.setSample(col, row, 0, values[row][col]);
+      }
+    }
+    tiff = File.createTempFile("zonal", ".tif");
+    try (OutputStream out = new FileOutputStream(tiff)) {
+      TIFFEncodeParam param = new TIFFEncodeParam();
+      param.setTileSize(64, 64);
+      param.setWriteTiled(true);
+      ImageEncoder encoder = ImageCodec.createImageEncoder("TIFF", out, param);
+      encoder.encode(image);
+    }
+    layer = new RasterImageLayer("raster", new LayerManager(), tiff.getPath(), null,
+        new Envelope(0, WIDTH, 0, HEIGHT));
+  }
+
+  protected void tearDown() {
+    tiff.delete();
+  }
+
+  public void testSameStatisticsAsCellCenters() throws Exception {
+    WKTReader reader = new WKTReader();
+    List<String> wkts = Arrays.asList(
+        "POLYGON ((10 10, 30 10, 30 20, 10 20, 10 10))",
+        "POLYGON ((5.3 2.1, 290.7 30.2, 150.5 190.9, 5.3 2.1))",
+        "POLYGON ((20 20, 120 20, 120 120, 20 120, 20 20), (45 45, 70 45, 70 70, 45 70, 45 45))",
+        "MULTIPOLYGON (((0 0, 3 0, 3 3, 0 3, 0 0)), ((250 150, 320 150, 320 220, 250 220, 250 150)))",
+        "POLYGON ((10.1 10.1, 10.4 10.1, 10.4 10.4, 10.1 10.1))",
+        "LINESTRING (0 0, 100 100)");
+    FeatureSchema schema = new FeatureSchema();
+    schema.addAttribute("geometry", AttributeType.GEOMETRY);
+    schema.addAttribute("count", AttributeType.STRING);
+    FeatureCollection fc = new FeatureDataset(schema);
+    for (String wkt : wkts) {
+      Feature feature = new BasicFeature(schema);
+      feature.setGeometry(reader.read(wkt));
+      feature.setAttribute("count", wkt);
+      fc.add(feature);
+    }
+    ZonalStatistics statistics = new ZonalStatistics(layer, 0);
+    statistics.setHistogram(4, 0, 1000);
+    FeatureCollection result = statistics.process(fc, "", new DummyTaskMonitor());
+    assertEquals(fc.size(), result.size());
+
+    // the existing attribute is kept, statistics get a unique name
+    FeatureSchema resultSchema = result.getFeatureSchema();
+    String countName = resultSchema.getAttributeName(schema.getAttributeCount());
+    assertFalse("count".equals(countName));
+
+    for (int i = 0; i < wkts.size(); i++) {
+      Feature feature = result.getFeatures().get(i);
+      assertEquals(wkts.get(i), feature.getAttribute("count"));
+      Geometry geometry = feature.getGeometry();
+      if (geometry.getDimension() < 2) {
+        assertNull(feature.getAttribute(countName));
+        continue;
+      }
+      long count = 0;
+      double sum = 0;
+      double min = Double.POSITIVE_INFINITY;
+      double max = Double.NEGATIVE_INFINITY;
+      int[] histogram = new int[4];
+      for (int row = 0; row < HEIGHT; row++) {
+        for (int col = 0; col < WIDTH; col++) {
+          Coordinate center = new Coordinate(col + 0.5, HEIGHT - row - 0.5);
+          if (Float.isNaN(values[row][col])
+              || SimplePointInAreaLocator.locate(center, geometry) != Location.INTERIOR) {
+            continue;
+          }
+          double value = values[row][col];
+          count++;
+          sum += value;
+          min = Math.min(min, value);
+          max = Math.max(max, value);
+          histogram[Math.min(3, (int) (value / 250))]++;
+        }
+      }
+      assertEquals(wkts.get(i), (int) count, feature.getAttribute(countName));
+      if (count == 0) {
+        continue;
+      }
+      assertEquals(sum, (Double) feature.getAttribute(ZonalStatistics.SUM), 1e-6);
+      assertEquals(sum / count, (Double) feature.getAttribute(ZonalStatistics.MEAN), 1e-9);
+      assertEquals(min, feature.getAttribute(ZonalStatistics.MIN));
+      assertEquals(max, feature.getAttribute(ZonalStatistics.MAX));
+      assertEquals(histogram[0] + ";" + histogram[1] + ";" + histogram[2] + ";" + histogram[3],
+          feature.getAttribute(ZonalStatistics.HISTOGRAM));
+    }
+  }
+}
@@ -486,7 +486,7 @@ public class IOTools {
             throw new Exception(
                     I18N.get("org.openjump.core.ui.plugin.tools.statistics.StatisticOverViewPlugIn.Selected-layer-is-empty"));
         }
-        final BasicFeature bf = (BasicFeature) layer
+        final Feature bf = layer
                 .getFeatureCollectionWrapper().getFeatures().get(0);
         final Geometry geo = bf.getGeometry();
         final String geoType = geo.getGeometryType();
@@ -976,7 +976,7 @@ public class IOTools {
             throw new Exception(
                     I18N.get("org.openjump.core.ui.plugin.tools.statistics.StatisticOverViewPlugIn.Selected-layer-is-empty"));
         }
-        final BasicFeature bf = (BasicFeature) layer
+        final Feature bf = layer
                 .getFeatureCollectionWrapper().getFeatures().get(0);
         final Geometry geo = bf.getGeometry();
         final String geoType = geo.getGeometryType();
@@ -1022,7 +1022,7 @@ public class IOTools {
     public static void saveSimbology_SLD2(File file, Layer layer)
             throws Exception {
         final String name = layer.getName();
-        final BasicFeature bf = (BasicFeature) layer
+        final Feature bf = layer
                 .getFeatureCollectionWrapper().getFeatures().get(0);
         final Geometry geo = bf.getGeometry();
         final String geoType = geo.getGeometryType();
@@ -65,7 +65,25 @@ public class BeanshellAttributeOperation implements Operation {
     }
     
     public Object invoke(Feature feature) throws Exception {
-        return evaluate((BasicFeature)feature);
+        return evaluate(feature);
+    }
+
+    /**
+     * Evaluates the expression for a feature which may not be a BasicFeature
+     * (e.g. a view of a ColumnarFeatureCollection), through a BasicFeature
+     * holding its stored attributes.
+     */
+    public Object evaluate(Feature f) throws EvalError,
+                           NumberFormatException, IllegalArgumentException, ParseException {
+        if (f instanceof BasicFeature) {
+            return evaluate((BasicFeature)f);
+        }
+        FeatureSchema schema = f.getSchema();
+        BasicFeature copy = new BasicFeature(schema);
+        for (int i = 0 ; i < schema.getAttributeCount() ; i++) {
+            if (!schema.isOperation(i)) copy.setAttribute(i, f.getAttribute(i));
+        }
+        return evaluate(copy);
     }
     
     public Object evaluate(BasicFeature f) throws EvalError, 
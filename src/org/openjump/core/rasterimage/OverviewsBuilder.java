@@ -0,0 +1,293 @@
+package org.openjump.core.rasterimage;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.ColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Vector;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.media.jai.ImageLayout;
+import javax.media.jai.PlanarImage;
+import javax.media.jai.RasterFactory;
+
+import com.sun.media.jai.codec.FileSeekableStream;
+import com.sun.media.jai.codec.ImageCodec;
+import com.sun.media.jai.codec.ImageEncoder;
+import com.sun.media.jai.codec.TIFFEncodeParam;
+import com.vividsolutions.jump.workbench.Logger;
+
+/**
+ * Background service building external overviews (.ovr pyramid) of GeoTIFF
+ * files which have none.
+ * <p>
+ * Overviews are built on a single low priority worker thread. Each level is
+ * computed tile by tile from the previous one (2x2 average ignoring nodata)
+ * and written to a temporary tiled TIFF, so that memory use does not depend
+ * on the image size. When all levels are ready, they are gathered into
+ * the .ovr file read by {@link TiffUtilsV2}, and the listener is notified,
+ * so that the layer can reload its image from the overviews.
+ * </p>
+ */
+public class OverviewsBuilder {
+
+    /** Images smaller than this size (width and height) do not need overviews */
+    public static final int MIN_IMAGE_SIZE = 4096;
+
+    /** The smallest overview level is not smaller than this size */
+    public static final int MIN_OVERVIEW_SIZE = 256;
+
+    private static final int TILE_SIZE = 512;
+
+    private static final OverviewsBuilder INSTANCE = new OverviewsBuilder();
+
+    /**
+     * Receives progress and completion notifications. Methods are called from
+     * the worker thread.
+     */
+    public interface Listener {
+        void progress(File tiffFile, int tilesDone, int totalTiles);
+        void finished(File tiffFile, boolean success);
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "OverviewsBuilder");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    // files already submitted, so that each file is processed once per session
+    // (a file is removed if its overviews could not be built, to be retried)
+    private final Set<File> requested = new HashSet<>();
+
+    private boolean enabled = true;
+
+    private OverviewsBuilder() {}
+
+    public static OverviewsBuilder getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param tiffFile a tiff file
+     * @return the external overviews file associated to tiffFile
+     */
+    public static File getOverviewsFile(File tiffFile) {
+        return new File(tiffFile.getParent(), tiffFile.getName() + ".ovr");
+    }
+
+    /**
+     * Schedule the creation of external overviews for tiffFile, unless it
+     * already has some, it is small or it has already been requested.
+     * @param tiffFile the GeoTIFF file
+     * @param noData nodata value excluded from averages (may be NaN)
+     * @param listener listener notified of progress and completion, may be null
+     * @return true if the file has been scheduled
+     */
+    public synchronized boolean buildIfMissing(final File tiffFile, final double noData,
+            final Listener listener) {
+        final File file = tiffFile.getAbsoluteFile();
+        if (!enabled || getOverviewsFile(file).exists() || !requested.add(file)) {
+            return false;
+        }
+        executor.submit(() -> {
+            boolean success = false;
+            try {
+                success = build(file, noData, listener);
+            } catch (Throwable t) {
+                Logger.warn("Could not build overviews of " + file, t);
+                synchronized (this) {
+                    requested.remove(file);
+                }
+            }
+            if (listener != null) {
+                listener.finished(file, success);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Build the overviews synchronously.
+     * @return true if the .ovr file has been created
+     */
+    private boolean build(File tiffFile, double noData, Listener listener) throws IOException {
+        final RenderedImage original = TiffUtilsV2.getRenderedOp(tiffFile);
+        if (original.getWidth() < MIN_IMAGE_SIZE && original.getHeight() < MIN_IMAGE_SIZE) {
+            return false;
+        }
+        // Skip images having internal overviews
+        if (OverviewsUtils.getOverviews(tiffFile, TiffUtilsV2.getEnvelope(tiffFile))
+                .getInternalOverviewsCount() > 1) {
+            return false;
+        }
+
+        // Compute the number of levels and the total number of tiles
+        int levels = 0;
+        int totalTiles = 0;
+        for (int w = original.getWidth(), h = original.getHeight();
+             Math.max(w, h) > MIN_OVERVIEW_SIZE; levels++) {
+            w = (w + 1) / 2;
+            h = (h + 1) / 2;
+            totalTiles += tilesCount(w) * tilesCount(h);
+        }
+        if (levels == 0) return false;
+
+        Logger.info("Building " + levels + " overview levels for " + tiffFile);
+        final AtomicInteger tilesDone = new AtomicInteger();
+        final List<File> tmpFiles = new ArrayList<>();
+        final List<FileSeekableStream> streams = new ArrayList<>();
+        final File ovrFile = getOverviewsFile(tiffFile);
+        final File tmpOvrFile = new File(ovrFile.getPath() + ".tmp");
+        try {
+            RenderedImage previous = original;
+            final PlanarImage[] overviews = new PlanarImage[levels];
+            for (int level = 0; level < levels; level++) {
+                final HalfResolutionImage image = new HalfResolutionImage(previous, noData,
+                        tiffFile, tilesDone, totalTiles, listener);
+                final File tmpFile = File.createTempFile("ovr" + (level + 1) + "_", ".tif");
+                tmpFile.deleteOnExit();
+                tmpFiles.add(tmpFile);
+                try (OutputStream out = new FileOutputStream(tmpFile)) {
+                    final TIFFEncodeParam param = new TIFFEncodeParam();
+                    param.setTileSize(TILE_SIZE, TILE_SIZE);
+                    param.setWriteTiled(true);
+                    param.setCompression(TIFFEncodeParam.COMPRESSION_NONE);
+                    final ImageEncoder encoder = ImageCodec.createImageEncoder("TIFF", out, param);
+                    encoder.encode(image);
+                }
+                // Next level is computed from this one, read back tile by tile
+                final FileSeekableStream stream = new FileSeekableStream(tmpFile);
+                streams.add(stream);
+                previous = ImageCodec.createImageDecoder("tiff", stream, null)
+                        .decodeAsRenderedImage();
+                overviews[level] = PlanarImage.wrapRenderedImage(previous);
+            }
+            try (OutputStream out = new FileOutputStream(tmpOvrFile)) {
+                OverviewsUtils.saveTiffJAI(out, overviews);
+            } catch (IOException | RuntimeException e) {
+                tmpOvrFile.delete();
+                throw e;
+            }
+        } finally {
+            for (FileSeekableStream stream : streams) {
+                stream.close();
+            }
+            for (File tmpFile : tmpFiles) {
+                if (!tmpFile.delete()) Logger.debug("Could not delete " + tmpFile);
+            }
+        }
+        if (!tmpOvrFile.renameTo(ovrFile)) {
+            tmpOvrFile.delete();
+            throw new IOException("Could not rename " + tmpOvrFile + " to " + ovrFile);
+        }
+        TiffUtilsV2.removeFromOverviewsCache(tiffFile);
+        return true;
+    }
+
+    private static int tilesCount(int size) {
+        return (size + TILE_SIZE - 1) / TILE_SIZE;
+    }
+
+    /**
+     * Image of half the size of its source, each cell being the average of
+     * the valid cells of the corresponding 2x2 block of the source. Tiles are
+     * computed on request and not cached.
+     */
+    private static class HalfResolutionImage extends PlanarImage {
+
+        private final RenderedImage source;
+        private final double noData;
+        private final File tiffFile;
+        private final AtomicInteger tilesDone;
+        private final int totalTiles;
+        private final Listener listener;
+
+        HalfResolutionImage(RenderedImage source, double noData, File tiffFile,
+                AtomicInteger tilesDone, int totalTiles, Listener listener) {
+            this.source = source;
+            this.noData = noData;
+            this.tiffFile = tiffFile;
+            this.tilesDone = tilesDone;
+            this.totalTiles = totalTiles;
+            this.listener = listener;
+            final SampleModel sampleModel = source.getSampleModel()
+                    .createCompatibleSampleModel(TILE_SIZE, TILE_SIZE);
+            ColorModel colorModel = source.getColorModel();
+            if (colorModel == null) colorModel = PlanarImage.createColorModel(sampleModel);
+            setImageLayout(new ImageLayout(0, 0,
+                    (source.getWidth() + 1) / 2, (source.getHeight() + 1) / 2,
+                    0, 0, TILE_SIZE, TILE_SIZE, sampleModel, colorModel));
+        }
+
+        // the source is read directly and not registered as a JAI source
+        @Override
+        public Vector<RenderedImage> getSources() {
+            return null;
+        }
+
+        @Override
+        public Raster getTile(int tileX, int tileY) {
+            final Rectangle bounds = new Rectangle(tileX * TILE_SIZE, tileY * TILE_SIZE,
+                    TILE_SIZE, TILE_SIZE).intersection(getBounds());
+            final WritableRaster tile = RasterFactory.createWritableRaster(getSampleModel(),
+                    new Point(tileX * TILE_SIZE, tileY * TILE_SIZE));
+            final Rectangle srcBounds = new Rectangle(bounds.x * 2, bounds.y * 2,
+                    bounds.width * 2, bounds.height * 2).intersection(new Rectangle(
+                    source.getMinX(), source.getMinY(), source.getWidth(), source.getHeight()));
+            final Raster src = source.getData(srcBounds);
+            final boolean integral = getSampleModel().getDataType() <= java.awt.image.DataBuffer.TYPE_INT;
+            final double[] samples = new double[srcBounds.width * srcBounds.height];
+            for (int b = 0; b < getSampleModel().getNumBands(); b++) {
+                src.getSamples(srcBounds.x, srcBounds.y, srcBounds.width, srcBounds.height, b, samples);
+                for (int y = 0; y < bounds.height; y++) {
+                    for (int x = 0; x < bounds.width; x++) {
+                        double sum = 0;
+                        int count = 0;
+                        for (int dy = 0; dy < 2; dy++) {
+                            final int sy = (bounds.y + y) * 2 + dy - srcBounds.y;
+                            if (sy >= srcBounds.height) continue;
+                            for (int dx = 0; dx < 2; dx++) {
+                                final int sx = (bounds.x + x) * 2 + dx - srcBounds.x;
+                                if (sx >= srcBounds.width) continue;
+                                final double v = samples[sy * srcBounds.width + sx];
+                                if (Double.isNaN(v) || v == noData) continue;
+                                sum += v;
+                                count++;
+                            }
+                        }
+                        final double value = count == 0 ? noData : sum / count;
+                        tile.setSample(bounds.x + x, bounds.y + y, b,
+                                integral && count > 0 ? Math.round(value) : value);
+                    }
+                }
+            }
+            final int done = tilesDone.incrementAndGet();
+            if (listener != null) listener.progress(tiffFile, done, totalTiles);
+            return tile;
+        }
+    }
+
+}
@@ -65,7 +65,9 @@ public class OverviewsUtils {
                 Resolution resolution = calcResolution(envelope, new java.awt.Point(reader.getWidth(i), reader.getHeight(i)));
                 overviews.addOverview(new Overview(overviewLocation, resolution));
             }
+            reader.dispose();
         }
+        is.close();
         
         return overviews;
     
@@ -171,7 +173,7 @@ public class OverviewsUtils {
         return JAI.create("filteredsubsample", pb);
     }
     
-    private static void saveTiffJAI(OutputStream out, PlanarImage[] images) throws IOException {
+    static void saveTiffJAI(OutputStream out, PlanarImage[] images) throws IOException {
         
         TIFFEncodeParam param = new TIFFEncodeParam();
         param.setTileSize(512, 512);
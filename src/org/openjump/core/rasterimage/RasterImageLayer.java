@@ -14,6 +14,7 @@ import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
 import java.awt.image.IndexColorModel;
 import java.awt.image.Raster;
 import java.awt.image.renderable.ParameterBlock;
@@ -23,6 +24,7 @@ import java.util.Objects;
 import java.util.UUID;
 
 import javax.media.jai.JAI;
+import javax.swing.SwingUtilities;
 
 import com.vividsolutions.jump.workbench.model.*;
 import org.apache.commons.imaging.ImageReadException;
@@ -543,6 +545,40 @@ public final class RasterImageLayer extends GeoReferencedLayerable
         if(image != null) {
             setImage(image);
         }
+        String lowerCaseName = imageFileName.toLowerCase();
+        if (lowerCaseName.endsWith(".tif") || lowerCaseName.endsWith(".tiff")) {
+            requestOverviews(layerViewPanel);
+        }
+    }
+
+    /**
+     * Asks the OverviewsBuilder to create external overviews if this is a large
+     * GeoTIFF without overviews. Once they are ready, the image is reloaded
+     * from the overviews.
+     */
+    private void requestOverviews(final LayerViewPanel layerViewPanel) {
+        OverviewsBuilder.getInstance().buildIfMissing(new File(imageFileName), noDataValue,
+            new OverviewsBuilder.Listener() {
+                int lastPercent = -1;
+                public void progress(File tiffFile, int tilesDone, int totalTiles) {
+                    final int percent = 100 * tilesDone / totalTiles;
+                    if (percent == lastPercent) return;
+                    lastPercent = percent;
+                    SwingUtilities.invokeLater(() -> layerViewPanel.getContext().setStatusMessage(
+                        I18N.getMessage("org.openjump.core.rasterimage.OverviewsBuilder.building-overviews-of-{0}-{1}",
+                            getName(), percent)));
+                }
+                public void finished(File tiffFile, boolean success) {
+                    SwingUtilities.invokeLater(() -> {
+                        layerViewPanel.getContext().setStatusMessage("");
+                        if (success) {
+                            // force the image to be reloaded from the overviews
+                            visibleEnv = null;
+                            fireAppearanceChanged();
+                        }
+                    });
+                }
+            });
     }
     
     ///**
@@ -558,103 +594,73 @@ public final class RasterImageLayer extends GeoReferencedLayerable
     
     protected BufferedImage stretchImageValuesForDisplay() throws NoninvertibleTransformException{
 
-        Raster actualRasterData = image.copyData(null);
-        int width = actualRasterData.getWidth();
-        int height = actualRasterData.getHeight();
-
         // Need to change image type to support transparency and apply symbology
         if(image.getColorModel() instanceof IndexColorModel) {
             return image;  
         }
 
+        if(symbology == null && stats.getBandCount() < 3) {
+            final RasterSymbology rasterSymbology;
+            if (metadata.getStats().getMin(0) == metadata
+                    .getStats().getMax(0)) {
+                rasterSymbology = new RasterSymbology(RasterSymbology.TYPE_SINGLE);
+            } else {
+                rasterSymbology = new RasterSymbology(RasterSymbology.TYPE_RAMP);
+            }
+            if (!Double.isNaN(metadata.getNoDataValue())) {
+                rasterSymbology.addColorMapEntry(metadata.getNoDataValue(), transparentColor);
+            }
+            rasterSymbology.addColorMapEntry(metadata.getStats().getMin(0), Color.WHITE);
+            rasterSymbology.addColorMapEntry(metadata.getStats().getMax(0), Color.BLACK);
+            setSymbology(rasterSymbology);
+        }
+
+        if(symbology != null) {
+            // Symbology exists : compile it into a lookup table and apply it
+            // directly to the pixel buffer of the new image
+            Raster rasterData = image.getRaster();
+            BufferedImage newImage = new BufferedImage(rasterData.getWidth(), rasterData.getHeight(),
+                    BufferedImage.TYPE_INT_ARGB);
+            int[] pixels = ((DataBufferInt)newImage.getRaster().getDataBuffer()).getData();
+            new RasterSymbologyLUT(symbology, noDataValue).apply(rasterData, 0, pixels);
+            return newImage;
+        }
+
+        Raster actualRasterData = image.copyData(null);
+        int width = actualRasterData.getWidth();
+        int height = actualRasterData.getHeight();
+
         BufferedImage newImage = new BufferedImage(width, height, BufferedImage.TYPE_4BYTE_ABGR);
         for (int row = 0; row < height; row++) {
             for (int col = 0; col < width; col++) {
-
-                if(symbology == null) {
-                    if(stats.getBandCount() < 3) {
-                        
-                        final RasterSymbology rasterSymbology;
-                        if (metadata.getStats().getMin(0) == metadata
-                                .getStats().getMax(0)) {
-                            rasterSymbology = new RasterSymbology(RasterSymbology.TYPE_SINGLE);
-                        } else {
-                            rasterSymbology = new RasterSymbology(RasterSymbology.TYPE_RAMP);
-                        }
-                        if (!Double.isNaN(metadata.getNoDataValue())) {
-                            rasterSymbology.addColorMapEntry(metadata.getNoDataValue(), transparentColor);
-                        }
-                        rasterSymbology.addColorMapEntry(metadata.getStats().getMin(0), Color.WHITE);
-                        rasterSymbology.addColorMapEntry(metadata.getStats().getMax(0), Color.BLACK);
-                        setSymbology(rasterSymbology);
-                        
-                    } else {
-                        double valueR = actualRasterData.getSampleDouble(col, row, 0);
-                        double valueG = actualRasterData.getSampleDouble(col, row, 1);
-                        double valueB = actualRasterData.getSampleDouble(col, row, 2);
-                        double valueAlpha = 255;
-                        if(stats.getBandCount() > 3) {
-                            valueAlpha = actualRasterData.getSampleDouble(col, row, 3);
-                        }
-                        if(Double.isNaN(valueR) || Double.isInfinite(valueR) || valueR == noDataValue
-                                || Double.isNaN(valueG) || Double.isInfinite(valueG) || valueG == noDataValue
-                                || Double.isNaN(valueB) || Double.isInfinite(valueB) || valueB == noDataValue
-                                || valueAlpha <= 0) {
-                            newImage.setRGB(col, row, Color.TRANSLUCENT);
-                            continue;
-                        }
-                        
-                        int r = (int) ((valueR - stats.getMin(0)) * 255./(stats.getMax(0) - stats.getMin(0)));
-                        if(r > 255) r = 255;
-                        if(r < 0) r = 0;
-                        int g = (int) ((valueG - stats.getMin(1)) * 255./(stats.getMax(1) - stats.getMin(0)));
-                        if(g > 255) g = 255;
-                        if(g < 0) g = 0;
-                        int b = (int) ((valueB - stats.getMin(2)) * 255./(stats.getMax(2) - stats.getMin(0)));
-                        if(b > 255) b = 255;
-                        if(b < 0) b = 0;
-
-                        int alpha = (int) valueAlpha;
-                        
-                        newImage.setRGB(col, row, new Color(r, g, b, alpha).getRGB());
-                    }
-                } else {
-                    // Symbology exists
-                    double value = actualRasterData.getSampleDouble(col, row, 0);
-                    
-
-                    // If symbology min value is higher than raster min value
-                    // the value becomes equal to the symbology min value
-                    Double[] symbologyClassLimits =  symbology.getColorMapEntries_tm().keySet().toArray(new Double[0]);
-                    double symbMinValue = symbologyClassLimits[0];
-                    double symbFirstValue = symbologyClassLimits[0];
-                    if(this.isNoData(symbFirstValue)) {
-                        symbMinValue = symbologyClassLimits[1];
-                    }
-                    
-                    if(!this.isNoData(value) && value < symbMinValue) {
-                        value = symbMinValue;
-                    }
-                    
-                    Color color = symbology.getColor(value);
-                    
-                    if((Double.isNaN(value) || Double.isInfinite(value) || this.isNoData(value))
-                            && color == null) {
-                        newImage.setRGB(col, row, Color.TRANSLUCENT);
-                        continue;
-                    }
-                    
-                    // Transparency is a combination of total layer transparency
-                    // and single cell transparency
-                    int transparency = 
-                            (int)(((1 - symbology.getTransparency()) * 
-                            (color.getAlpha() / 255d)) * 255);
-                    newImage.setRGB(col, row, new Color(
-                            color.getRed(),
-                            color.getGreen(),
-                            color.getBlue(),
-                            transparency).getRGB());
-                }  
+                double valueR = actualRasterData.getSampleDouble(col, row, 0);
+                double valueG = actualRasterData.getSampleDouble(col, row, 1);
+                double valueB = actualRasterData.getSampleDouble(col, row, 2);
+                double valueAlpha = 255;
+                if(stats.getBandCount() > 3) {
+                    valueAlpha = actualRasterData.getSampleDouble(col, row, 3);
+                }
+                if(Double.isNaN(valueR) || Double.isInfinite(valueR) || valueR == noDataValue
+                        || Double.isNaN(valueG) || Double.isInfinite(valueG) || valueG == noDataValue
+                        || Double.isNaN(valueB) || Double.isInfinite(valueB) || valueB == noDataValue
+                        || valueAlpha <= 0) {
+                    newImage.setRGB(col, row, Color.TRANSLUCENT);
+                    continue;
+                }
+                
+                int r = (int) ((valueR - stats.getMin(0)) * 255./(stats.getMax(0) - stats.getMin(0)));
+                if(r > 255) r = 255;
+                if(r < 0) r = 0;
+                int g = (int) ((valueG - stats.getMin(1)) * 255./(stats.getMax(1) - stats.getMin(0)));
+                if(g > 255) g = 255;
+                if(g < 0) g = 0;
+                int b = (int) ((valueB - stats.getMin(2)) * 255./(stats.getMax(2) - stats.getMin(0)));
+                if(b > 255) b = 255;
+                if(b < 0) b = 0;
+
+                int alpha = (int) valueAlpha;
+                
+                newImage.setRGB(col, row, new Color(r, g, b, alpha).getRGB());
             }
         }
         return newImage;
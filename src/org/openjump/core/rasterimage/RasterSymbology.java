@@ -144,8 +144,9 @@ public class RasterSymbology {
         int red = (int) Math.round((upColor.getRed() - downColor.getRed()) * relDist + downColor.getRed());
         int green = (int) Math.round((upColor.getGreen() - downColor.getGreen()) * relDist + downColor.getGreen());
         int blue = (int) Math.round((upColor.getBlue() - downColor.getBlue()) * relDist + downColor.getBlue());
+        int alpha = (int) Math.round((upColor.getAlpha() - downColor.getAlpha()) * relDist + downColor.getAlpha());
         
-        return new Color(red, green, blue);        
+        return new Color(red, green, blue, alpha);        
     }
     
     
@@ -0,0 +1,200 @@
+package org.openjump.core.rasterimage;
+
+import java.awt.Color;
+import java.awt.image.Raster;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Precompiled form of a {@link RasterSymbology}, used to symbolize a whole
+ * raster band quickly.
+ * <p>
+ * Color map entries are copied into primitive arrays, and the value range
+ * is divided into a dense lookup table giving, for each quantized value,
+ * the index of the color map entry to use. Cells falling in a bin which
+ * contains a class limit fall back to a binary search. The colors produced
+ * are the same as the ones returned by {@link RasterSymbology#getColor(double)},
+ * combined with the symbology transparency.
+ * </p>
+ * A RasterSymbologyLUT is immutable and must be rebuilt if the symbology
+ * changes.
+ */
+public class RasterSymbologyLUT {
+
+    private static final int BINS = 4096;
+
+    private static final int TRANSPARENT = 0;
+
+    private static final int STRIP_HEIGHT = 64;
+
+    private final boolean ramp;
+    private final double noData;
+
+    // class limits (ascending) and colors of the color map entries
+    private final double[] limits;
+    private final boolean[] hasColor;
+    private final int[] red, green, blue, alpha;
+    // final ARGB of each entry, including layer transparency
+    private final int[] argb;
+    private final double opacity;
+
+    // values lower than minValue are rendered with the minValue color
+    private final double minValue;
+    private final int noDataARGB;
+    private final int nanARGB;
+
+    // dense lookup table : bin -> entry index, or -1 if the bin contains a limit
+    private final int[] lut = new int[BINS];
+    private final double lutMin;
+    private final double lutScale;
+
+    /**
+     * @param symbology the symbology to compile
+     * @param noData the nodata value of the layer
+     */
+    public RasterSymbologyLUT(RasterSymbology symbology, double noData) {
+        this.ramp = RasterSymbology.TYPE_RAMP.equals(symbology.getColorMapType());
+        this.noData = noData;
+        this.opacity = 1 - symbology.getTransparency();
+        final int n = symbology.getColorMapEntries_tm().size();
+        limits = new double[n];
+        hasColor = new boolean[n];
+        red = new int[n];
+        green = new int[n];
+        blue = new int[n];
+        alpha = new int[n];
+        argb = new int[n];
+        int i = 0;
+        for (Map.Entry<Double,Color> entry : symbology.getColorMapEntries_tm().entrySet()) {
+            limits[i] = entry.getKey();
+            final Color color = entry.getValue();
+            if (color != null) {
+                hasColor[i] = true;
+                red[i] = color.getRed();
+                green[i] = color.getGreen();
+                blue[i] = color.getBlue();
+                alpha[i] = color.getAlpha();
+                argb[i] = toARGB(color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha());
+            }
+            i++;
+        }
+        // Same rule as RasterImageLayer : the first limit is ignored if it is
+        // the nodata entry
+        minValue = n == 0 ? Double.NaN : (n > 1 && isNoData(limits[0]) ? limits[1] : limits[0]);
+
+        // Colors of nodata and NaN cells do not depend on the cell, compute them once
+        noDataARGB = toARGB(symbology.getColor(noData));
+        nanARGB = toARGB(symbology.getColor(Double.NaN));
+
+        // Build the lookup table from the first usable limit to the last one
+        final int first = Math.max(0, Arrays.binarySearch(limits, minValue));
+        lutMin = n == 0 ? 0 : limits[first];
+        final double range = n == 0 ? 0 : limits[n - 1] - lutMin;
+        lutScale = range > 0 && !Double.isInfinite(range) ? BINS / range : 0;
+        if (lutScale > 0) {
+            final double width = 1 / lutScale;
+            for (int b = 0; b < BINS; b++) {
+                // bins are slightly enlarged so that rounding errors cannot
+                // put a value in the wrong class
+                final int i0 = floorIndex(lutMin + (b - 0.01) * width);
+                final int i1 = floorIndex(lutMin + (b + 1.01) * width);
+                lut[b] = i0 == i1 ? i0 : -1;
+            }
+        }
+    }
+
+    /**
+     * Returns the ARGB color of a cell value.
+     */
+    public int getARGB(double value) {
+        if (limits.length == 0) return TRANSPARENT;
+        if (isNoData(value)) return noDataARGB;
+        if (Double.isNaN(value)) return nanARGB;
+        if (value < minValue) value = minValue;
+        int index = -1;
+        if (lutScale > 0) {
+            final int b = (int)((value - lutMin) * lutScale);
+            // values just below the last limit may be rounded up to BINS
+            if (b >= BINS) index = value >= limits[limits.length - 1] ? limits.length - 1 : -1;
+            else if (b >= 0) index = lut[b];
+        }
+        if (index < 0) index = floorIndex(value);
+        return ramp ? rampARGB(index, value) : index < 0 ? TRANSPARENT : argb[index];
+    }
+
+    /**
+     * Symbolizes one band of raster into an ARGB buffer of the same size
+     * (raster.getWidth() * raster.getHeight()). Strips of rows are processed
+     * in parallel.
+     */
+    public void apply(final Raster raster, final int band, final int[] buffer) {
+        final int width = raster.getWidth();
+        final int height = raster.getHeight();
+        final int strips = (height + STRIP_HEIGHT - 1) / STRIP_HEIGHT;
+        IntStream.range(0, strips).parallel().forEach(s -> {
+            final int y0 = s * STRIP_HEIGHT;
+            final int h = Math.min(STRIP_HEIGHT, height - y0);
+            final double[] values = raster.getSamples(raster.getMinX(), raster.getMinY() + y0,
+                    width, h, band, (double[])null);
+            final int offset = y0 * width;
+            for (int i = 0; i < values.length; i++) {
+                buffer[offset + i] = getARGB(values[i]);
+            }
+        });
+    }
+
+    private int rampARGB(int index, double value) {
+        if (index < 0) {
+            return argb[0];
+        }
+        if (index == limits.length - 1) {
+            return argb[index];
+        }
+        if (!hasColor[index]) {
+            return TRANSPARENT;
+        }
+        if (!hasColor[index + 1]) {
+            return argb[index];
+        }
+        final double distDown = value - limits[index];
+        final double distUp = limits[index + 1] - value;
+        final double relDist = distDown / (distUp + distDown);
+        return toARGB(
+                (int)Math.round((red[index + 1] - red[index]) * relDist + red[index]),
+                (int)Math.round((green[index + 1] - green[index]) * relDist + green[index]),
+                (int)Math.round((blue[index + 1] - blue[index]) * relDist + blue[index]),
+                (int)Math.round((alpha[index + 1] - alpha[index]) * relDist + alpha[index]));
+    }
+
+    /**
+     * Index of the greatest limit less than or equal to value, or -1.
+     */
+    private int floorIndex(double value) {
+        int i = Arrays.binarySearch(limits, value);
+        if (i >= 0) return i;
+        return -i - 2;
+    }
+
+    private boolean isNoData(double value) {
+        if (Double.isInfinite(noData) && Double.isInfinite(value)) {
+            return true;
+        }
+        if (Double.isNaN(noData) && Double.isNaN(value)) {
+            return true;
+        }
+        return value == noData || (float)value == (float)noData;
+    }
+
+    private int toARGB(Color color) {
+        return color == null ? TRANSPARENT :
+                toARGB(color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha());
+    }
+
+    // Transparency is a combination of total layer transparency
+    // and single cell transparency
+    private int toARGB(int r, int g, int b, int alpha) {
+        final int a = (int)((opacity * (alpha / 255d)) * 255);
+        return (a & 0xFF) << 24 | (r & 0xFF) << 16 | (g & 0xFF) << 8 | (b & 0xFF);
+    }
+}
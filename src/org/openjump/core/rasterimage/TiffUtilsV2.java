@@ -12,6 +12,7 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.WeakHashMap;
 
 import javax.imageio.ImageIO;
@@ -42,10 +43,31 @@ public class TiffUtilsV2 {
   // a File -> RenderedOp cache mapping to prevent recreating inputs for the same file
   private static WeakHashMap<File,GeoReferencedRaster> geoRasterCache = new WeakHashMap<>();
 
+  // a File -> Overviews cache, only used for files having an external .ovr file
+  private static final Map<File,Overviews> overviewsCache = new WeakHashMap<>();
+
 	public static void removeFromGeoRastercache(File file) {
 		geoRasterCache.remove(file);
+		removeFromOverviewsCache(file);
 	}
 
+  public static void removeFromOverviewsCache(File file) {
+    synchronized (overviewsCache) {
+      overviewsCache.remove(file.getAbsoluteFile());
+    }
+  }
+
+  private static Overviews getOverviews(File tiffFile, Envelope envelope) throws IOException {
+    synchronized (overviewsCache) {
+      Overviews overviews = overviewsCache.get(tiffFile.getAbsoluteFile());
+      if (overviews == null) {
+        overviews = OverviewsUtils.getOverviews(tiffFile, envelope);
+        overviewsCache.put(tiffFile.getAbsoluteFile(), overviews);
+      }
+      return overviews;
+    }
+  }
+
   public static RenderedOp getRenderedOp(File tiffFile) throws IOException {
     GeoReferencedRaster geoRaster = getGeoReferencedRaster(tiffFile);
     RenderedOp rop;
@@ -328,6 +350,24 @@ public class TiffUtilsV2 {
 	      stats = calculateStats(tiffFile, noData, tiffFile);
 	    }
 
+	    // Read from external overviews (e.g. built by OverviewsBuilder) if
+	    // one of them matches the requested resolution better than the image
+	    File ovrFile = OverviewsBuilder.getOverviewsFile(tiffFile);
+	    if (ovrFile.exists()) {
+	      Overviews overviews = getOverviews(tiffFile, wholeImageEnvelope);
+	      int overviewLevel = overviews.pickOverviewLevel(requestedRes);
+	      if (overviewLevel >= overviews.getInternalOverviewsCount()) {
+	        ImageAndMetadata imageAndMetadata = readImage(ovrFile, overviewLevel,
+	            overviews.getInternalOverviewsCount(),
+	            new Point(renderedOp1.getWidth(), renderedOp1.getHeight()),
+	            new Resolution(cellSizeX, cellSizeY), wholeImageEnvelope, viewportEnvelope,
+	            noData, stats);
+	        if (imageAndMetadata != null) {
+	          return imageAndMetadata;
+	        }
+	      }
+	    }
+
 	      float xScale = (float) (cellSizeX / requestedRes.getX());
 	      float yScale = (float) (cellSizeY  / requestedRes.getY());
 	      xScale = Math.min(xScale, 1);
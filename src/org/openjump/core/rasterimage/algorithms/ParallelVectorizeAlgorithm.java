@@ -0,0 +1,410 @@
+package org.openjump.core.rasterimage.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Polygon;
+import org.openjump.core.rasterimage.sextante.rasterWrappers.GridWrapperNotInterpolated;
+
+import com.vividsolutions.jump.feature.AttributeType;
+import com.vividsolutions.jump.feature.BasicFeature;
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureCollection;
+import com.vividsolutions.jump.feature.FeatureDataset;
+import com.vividsolutions.jump.feature.FeatureSchema;
+
+/**
+ * Raster to polygon vectorization working on horizontal strips in parallel.
+ * <ul>
+ *   <li>each strip is labelled independently (4-connected cells having the
+ *   same value) with a union-find structure</li>
+ *   <li>regions touching the border between two strips are stitched</li>
+ *   <li>region boundaries are traced directly from the label grid, so that
+ *   polygons (shell and holes) are emitted without any union operation</li>
+ * </ul>
+ * Contrary to {@link VectorizeAlgorithm#toPolygonsSextante}, this class does
+ * not keep any state in static fields and can be used by several threads.
+ * Polygons are returned in the order of their upper-left cell, which is
+ * also the order used by the Sextante algorithm.
+ */
+public class ParallelVectorizeAlgorithm {
+
+    // minimum number of rows processed by a single task
+    private static final int MIN_STRIP_HEIGHT = 64;
+
+    // directions used by the boundary tracer (y axis pointing downward)
+    private static final int EAST = 0;
+    private static final int SOUTH = 1;
+    private static final int WEST = 2;
+    private static final int NORTH = 3;
+    private static final int[] DX = { 1, 0, -1, 0 };
+    private static final int[] DY = { 0, 1, 0, -1 };
+
+    private final GridWrapperNotInterpolated gwrapper;
+    private final int band;
+    private final int nx;
+    private final int ny;
+    private final GeometryFactory factory = new GeometryFactory();
+
+    // final label of each cell (0 for nodata), row by row
+    private int[] labels;
+    // value of each region, indexed by region label
+    private double[] regionValues;
+    private int regionCount;
+
+    private ParallelVectorizeAlgorithm(GridWrapperNotInterpolated gwrapper, int band) {
+        this.gwrapper = gwrapper;
+        this.band = band;
+        this.nx = gwrapper.getNX();
+        this.ny = gwrapper.getNY();
+    }
+
+    /**
+     * Create a FeatureCollection of polygons from a GridWrapperNotInterpolated
+     * and a band number. Each polygon is a 4-connected set of cells sharing the
+     * same value.
+     * @param gwrapper GridWrapperNotInterpolated
+     * @param explodeMultipolygons if false, polygons sharing the same value are
+     *                             grouped into a single MultiPolygon feature
+     * @param attributeName name of the attribute receiving the cell value
+     * @param band Number of band (0,1,2,etc)
+     * @return a FeatureCollection containing vectorized polygons
+     */
+    public static FeatureCollection toPolygons(GridWrapperNotInterpolated gwrapper,
+            boolean explodeMultipolygons, String attributeName, int band) {
+        return new ParallelVectorizeAlgorithm(gwrapper, band)
+                .vectorize(explodeMultipolygons, attributeName);
+    }
+
+    private FeatureCollection vectorize(boolean explodeMultipolygons, String attributeName) {
+        final FeatureSchema featSchema = new FeatureSchema();
+        featSchema.addAttribute("GEOMETRY", AttributeType.GEOMETRY);
+        featSchema.addAttribute("ID", AttributeType.INTEGER);
+        featSchema.addAttribute(attributeName, AttributeType.DOUBLE);
+        final FeatureCollection featColl = new FeatureDataset(featSchema);
+        if (nx == 0 || ny == 0) return featColl;
+
+        final int[] stripStarts = computeStrips();
+        label(stripStarts);
+        final Polygon[] polygons = buildPolygons(stripStarts);
+
+        int ID = 1;
+        if (explodeMultipolygons) {
+            for (int i = 1; i <= regionCount; i++) {
+                Feature feature = new BasicFeature(featSchema);
+                feature.setGeometry(polygons[i]);
+                feature.setAttribute(1, ID++);
+                feature.setAttribute(2, regionValues[i]);
+                featColl.add(feature);
+            }
+        } else {
+            final Map<Double,List<Polygon>> byValue = new TreeMap<>();
+            for (int i = 1; i <= regionCount; i++) {
+                byValue.computeIfAbsent(regionValues[i], v -> new ArrayList<>()).add(polygons[i]);
+            }
+            for (Map.Entry<Double,List<Polygon>> entry : byValue.entrySet()) {
+                Feature feature = new BasicFeature(featSchema);
+                feature.setGeometry(factory.buildGeometry(entry.getValue()));
+                feature.setAttribute(1, ID++);
+                feature.setAttribute(2, entry.getKey());
+                featColl.add(feature);
+            }
+        }
+        return featColl;
+    }
+
+    /**
+     * Split the grid into horizontal strips. The returned array contains the
+     * first row of each strip followed by ny.
+     */
+    private int[] computeStrips() {
+        int nStrips = Runtime.getRuntime().availableProcessors() * 4;
+        nStrips = Math.max(1, Math.min(nStrips, ny / MIN_STRIP_HEIGHT));
+        final int[] starts = new int[nStrips + 1];
+        for (int s = 0; s <= nStrips; s++) {
+            starts[s] = (int)((long)ny * s / nStrips);
+        }
+        return starts;
+    }
+
+    /**
+     * Connected-components labelling. Strips are labelled in parallel with
+     * provisional labels, which are then merged across strip borders and
+     * renumbered in scan order.
+     */
+    private void label(final int[] stripStarts) {
+        final int nStrips = stripStarts.length - 1;
+        labels = new int[nx * ny];
+        final StripLabels[] strips = new StripLabels[nStrips];
+        IntStream.range(0, nStrips).parallel().forEach(s ->
+                strips[s] = labelStrip(stripStarts[s], stripStarts[s + 1]));
+
+        // Global union-find over all provisional labels
+        final int[] offsets = new int[nStrips + 1];
+        for (int s = 0; s < nStrips; s++) {
+            offsets[s + 1] = offsets[s] + strips[s].count;
+        }
+        final int total = offsets[nStrips];
+        final int[] parent = new int[total + 1];
+        final double[] values = new double[total + 1];
+        for (int s = 0; s < nStrips; s++) {
+            for (int l = 1; l <= strips[s].count; l++) {
+                parent[offsets[s] + l] = offsets[s] + strips[s].parent[l];
+                values[offsets[s] + l] = strips[s].values[l];
+            }
+        }
+        // Stitch regions touching the border between two consecutive strips
+        for (int s = 1; s < nStrips; s++) {
+            final int above = (stripStarts[s] - 1) * nx;
+            final int below = stripStarts[s] * nx;
+            for (int x = 0; x < nx; x++) {
+                final int la = labels[above + x];
+                final int lb = labels[below + x];
+                if (la != 0 && lb != 0) {
+                    final int ga = offsets[s - 1] + la;
+                    final int gb = offsets[s] + lb;
+                    if (values[ga] == values[gb]) union(parent, ga, gb);
+                }
+            }
+        }
+        // Provisional labels are created in scan order, so that numbering the
+        // roots by increasing provisional label orders regions by first cell
+        final int[] finalLabel = new int[total + 1];
+        final int[] rootLabel = new int[total + 1];
+        regionValues = new double[total + 1];
+        regionCount = 0;
+        for (int l = 1; l <= total; l++) {
+            final int root = find(parent, l);
+            if (rootLabel[root] == 0) {
+                rootLabel[root] = ++regionCount;
+                regionValues[regionCount] = values[root];
+            }
+            finalLabel[l] = rootLabel[root];
+        }
+        regionValues = Arrays.copyOf(regionValues, regionCount + 1);
+        IntStream.range(0, nStrips).parallel().forEach(s -> {
+            final int offset = offsets[s];
+            for (int i = stripStarts[s] * nx, end = stripStarts[s + 1] * nx; i < end; i++) {
+                if (labels[i] != 0) labels[i] = finalLabel[offset + labels[i]];
+            }
+        });
+    }
+
+    /**
+     * Label rows [y0, y1) with labels local to the strip (starting at 1).
+     */
+    private StripLabels labelStrip(int y0, int y1) {
+        final StripLabels strip = new StripLabels();
+        double[] previous = new double[nx];
+        double[] current = new double[nx];
+        for (int y = y0; y < y1; y++) {
+            final int row = y * nx;
+            for (int x = 0; x < nx; x++) {
+                final double value = gwrapper.getCellValueAsDouble(x, y, band);
+                current[x] = value;
+                if (gwrapper.isNoDataValue(value)) continue;
+                final int left = x > 0 && current[x - 1] == value ? labels[row + x - 1] : 0;
+                final int up = y > y0 && previous[x] == value ? labels[row - nx + x] : 0;
+                if (left != 0) {
+                    labels[row + x] = left;
+                    if (up != 0 && up != left) union(strip.parent, left, up);
+                } else if (up != 0) {
+                    labels[row + x] = up;
+                } else {
+                    labels[row + x] = strip.newLabel(value);
+                }
+            }
+            final double[] tmp = previous;
+            previous = current;
+            current = tmp;
+        }
+        return strip;
+    }
+
+    private static int find(int[] parent, int l) {
+        int root = l;
+        while (parent[root] != root) root = parent[root];
+        while (parent[l] != root) {
+            final int next = parent[l];
+            parent[l] = root;
+            l = next;
+        }
+        return root;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        final int ra = find(parent, a);
+        final int rb = find(parent, b);
+        // keep the smallest label as root
+        if (ra < rb) parent[rb] = ra;
+        else if (rb < ra) parent[ra] = rb;
+    }
+
+    /**
+     * Trace region boundaries and assemble them into polygons. Each strip
+     * traces the rings whose upper-left edge lies in the strip.
+     */
+    private Polygon[] buildPolygons(final int[] stripStarts) {
+        final int nStrips = stripStarts.length - 1;
+        final List<List<Ring>> ringsByStrip = new ArrayList<>(nStrips);
+        for (int s = 0; s < nStrips; s++) ringsByStrip.add(null);
+        IntStream.range(0, nStrips).parallel().forEach(s ->
+                ringsByStrip.set(s, traceStrip(stripStarts[s], stripStarts[s + 1])));
+
+        final LinearRing[] shells = new LinearRing[regionCount + 1];
+        final List<List<LinearRing>> holes = new ArrayList<>(regionCount + 1);
+        for (int i = 0; i <= regionCount; i++) holes.add(null);
+        for (List<Ring> rings : ringsByStrip) {
+            for (Ring ring : rings) {
+                if (ring.shell) {
+                    shells[ring.label] = ring.ring;
+                } else {
+                    if (holes.get(ring.label) == null) holes.set(ring.label, new ArrayList<>());
+                    holes.get(ring.label).add(ring.ring);
+                }
+            }
+        }
+        final Polygon[] polygons = new Polygon[regionCount + 1];
+        IntStream.rangeClosed(1, regionCount).parallel().forEach(i -> {
+            final List<LinearRing> h = holes.get(i);
+            polygons[i] = factory.createPolygon(shells[i],
+                    h == null ? null : h.toArray(new LinearRing[0]));
+        });
+        return polygons;
+    }
+
+    private List<Ring> traceStrip(int y0, int y1) {
+        final List<Ring> rings = new ArrayList<>();
+        // top edges of the strip already visited by a ring
+        final boolean[] visited = new boolean[(y1 - y0) * nx];
+        for (int y = y0; y < y1; y++) {
+            for (int x = 0; x < nx; x++) {
+                final int label = labels[y * nx + x];
+                if (label == 0 || visited[(y - y0) * nx + x] || labelAt(x, y - 1) == label) continue;
+                final Ring ring = traceRing(x, y, label, y0, y1, visited);
+                if (ring != null) rings.add(ring);
+            }
+        }
+        return rings;
+    }
+
+    /**
+     * Follow the boundary of region label starting at the top edge of cell
+     * (x0, y0), keeping the region on the right-hand side (y axis pointing
+     * downward). Returns null if the ring is owned by another strip, i.e. its
+     * first top edge in scan order is not the starting edge.
+     */
+    private Ring traceRing(int x0, int y0, int label, int stripY0, int stripY1,
+            boolean[] visited) {
+        final int startIndex = y0 * nx + x0;
+        int minIndex = startIndex;
+        int[] vertices = new int[16];
+        int n = 0;
+        long area2 = 0;
+        int x = x0, y = y0, dir = EAST;
+        do {
+            if (dir == EAST) {
+                final int index = y * nx + x;
+                minIndex = Math.min(minIndex, index);
+                if (y >= stripY0 && y < stripY1) visited[(y - stripY0) * nx + x] = true;
+            }
+            final int nextX = x + DX[dir];
+            final int nextY = y + DY[dir];
+            area2 += (long)x * nextY - (long)nextX * y;
+            x = nextX;
+            y = nextY;
+            final int nextDir = nextDirection(x, y, dir, label);
+            if (nextDir != dir) {
+                if (n + 2 > vertices.length) vertices = Arrays.copyOf(vertices, vertices.length * 2);
+                vertices[n++] = x;
+                vertices[n++] = y;
+            }
+            dir = nextDir;
+        } while (x != x0 || y != y0 || dir != EAST);
+        if (minIndex != startIndex) return null;
+
+        final double xMin = gwrapper.getGridExtent().getXMin();
+        final double yMax = gwrapper.getGridExtent().getYMax();
+        final double dCellSizeX = gwrapper.getCellSize().x;
+        final double dCellSizeY = gwrapper.getCellSize().y;
+        final Coordinate[] coords = new Coordinate[n / 2 + 1];
+        for (int i = 0; i < n / 2; i++) {
+            coords[i] = new Coordinate(xMin + vertices[2 * i] * dCellSizeX,
+                    yMax - vertices[2 * i + 1] * dCellSizeY);
+        }
+        coords[n / 2] = new Coordinate(coords[0]);
+        // with the y axis pointing downward, shells are clockwise (positive
+        // area) and holes are counter-clockwise
+        return new Ring(label, area2 > 0, factory.createLinearRing(coords));
+    }
+
+    /**
+     * Choose the boundary edge leaving vertex (x, y) after an edge followed in
+     * direction dir. Where two cells of the region only touch by a corner,
+     * turning left goes around the diagonal cell, which keeps rings simple.
+     */
+    private int nextDirection(int x, int y, int dir, int label) {
+        final int left = (dir + 3) % 4;
+        if (isBoundaryEdge(x, y, left, label)) return left;
+        if (isBoundaryEdge(x, y, dir, label)) return dir;
+        return (dir + 1) % 4;
+    }
+
+    private boolean isBoundaryEdge(int x, int y, int dir, int label) {
+        switch (dir) {
+            case EAST:
+                return labelAt(x, y) == label && labelAt(x, y - 1) != label;
+            case SOUTH:
+                return labelAt(x - 1, y) == label && labelAt(x, y) != label;
+            case WEST:
+                return labelAt(x - 1, y - 1) == label && labelAt(x - 1, y) != label;
+            default:
+                return labelAt(x, y - 1) == label && labelAt(x - 1, y - 1) != label;
+        }
+    }
+
+    private int labelAt(int x, int y) {
+        if (x < 0 || y < 0 || x >= nx || y >= ny) return 0;
+        return labels[y * nx + x];
+    }
+
+    /**
+     * Provisional labels of a strip.
+     */
+    private static class StripLabels {
+        int[] parent = new int[64];
+        double[] values = new double[64];
+        int count = 0;
+
+        int newLabel(double value) {
+            count++;
+            if (count == parent.length) {
+                parent = Arrays.copyOf(parent, parent.length * 2);
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            parent[count] = count;
+            values[count] = value;
+            return count;
+        }
+    }
+
+    private static class Ring {
+        final int label;
+        final boolean shell;
+        final LinearRing ring;
+
+        Ring(int label, boolean shell, LinearRing ring) {
+            this.label = label;
+            this.shell = shell;
+            this.ring = ring;
+        }
+    }
+
+}
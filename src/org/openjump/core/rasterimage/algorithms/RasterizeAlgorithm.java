@@ -18,6 +18,7 @@ import org.openjump.core.rasterimage.RasterImageIO;
 import org.openjump.core.rasterimage.sextante.rasterWrappers.GridCell;
 import org.openjump.core.rasterimage.sextante.rasterWrappers.GridExtent;
 import org.openjump.core.ui.util.LayerableUtil;
+import com.vividsolutions.jump.task.TaskMonitor;
 
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Envelope;
@@ -94,6 +95,28 @@ public class RasterizeAlgorithm {
   	      } 
      }
     
+    /**
+     * Rasterize a FeatureCollection with a scanline algorithm, tile by tile
+     * and in parallel, writing the result directly to a tiled GeoTIFF file.
+     * Contrary to process(), features are not merged by attribute value and
+     * the raster is never fully loaded in memory, which makes it usable for
+     * large layers and small cell sizes.
+     * @param file destination File
+     * @param limitEnvelope envelope of the raster
+     * @param fCollection the FeatureCollection to rasterize
+     * @param attributeName numeric attribute containing the cell values
+     * @param CellSize the cell size
+     * @param monitor a TaskMonitor to report progress
+     * @throws IOException if an IOException occurs
+     * @see ScanlineRasterizer
+     */
+    public static void rasterizeToTiledTIFF(File file, Envelope limitEnvelope,
+            FeatureCollection fCollection, String attributeName, double CellSize,
+            TaskMonitor monitor) throws IOException {
+        new ScanlineRasterizer(limitEnvelope, fCollection, attributeName, CellSize, noData)
+                .writeGeoTIFF(file, monitor);
+    }
+
     /**
      * Method to save results to a TIFF file
      * @param file destination File
@@ -0,0 +1,358 @@
+package org.openjump.core.rasterimage.algorithms;
+
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferFloat;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.CancellationException;
+import java.util.stream.IntStream;
+
+import javax.media.jai.ImageLayout;
+import javax.media.jai.PlanarImage;
+import javax.media.jai.RasterFactory;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.Polygonal;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.openjump.core.rasterimage.GeoTiffConstants;
+import org.openjump.core.rasterimage.TiffTags;
+import org.openjump.core.rasterimage.WorldFileHandler;
+
+import com.sun.media.jai.codec.TIFFEncodeParam;
+import com.sun.media.jai.codec.TIFFField;
+import com.sun.media.jai.codecimpl.TIFFCodec;
+import com.sun.media.jai.codecimpl.TIFFImageEncoder;
+import com.vividsolutions.jump.I18N;
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureCollection;
+import com.vividsolutions.jump.task.TaskMonitor;
+
+/**
+ * High-throughput rasterization of a FeatureCollection.
+ * The output grid is split into square tiles. For each tile, features are
+ * fetched from a spatial index and burnt into a float array :
+ * <ul>
+ *   <li>polygons with a scanline algorithm (a cell is filled if its center
+ *   is inside the polygon, holes are handled by the even-odd rule)</li>
+ *   <li>linestrings by sampling each segment twice per cell</li>
+ *   <li>points into the cell containing them</li>
+ * </ul>
+ * Features are burnt in the order of the collection, so that a feature
+ * overwrites the features preceding it. The result does not depend on the
+ * tiling.
+ * Tiles of a same row are computed in parallel and directly streamed to a
+ * tiled GeoTIFF, so that the whole raster is never held in memory.
+ */
+public class ScanlineRasterizer {
+
+    public static final int TILE_SIZE = 256;
+
+    private final double xMin;
+    private final double yMax;
+    private final double cellSize;
+    private final int nx;
+    private final int ny;
+    private final float noData;
+
+    private final List<Geometry> geometries = new ArrayList<>();
+    private final List<Float> values = new ArrayList<>();
+    private final STRtree index = new STRtree();
+
+    /**
+     * @param limitEnvelope the envelope of the raster to create
+     * @param fCollection the features to rasterize
+     * @param attributeName the numeric attribute containing the value to burn
+     * @param cellSize the size of a cell in model units
+     * @param noData the value of cells not covered by any feature
+     */
+    public ScanlineRasterizer(Envelope limitEnvelope, FeatureCollection fCollection,
+            String attributeName, double cellSize, double noData) {
+        this.cellSize = cellSize;
+        this.noData = (float)noData;
+        // Same grid definition as GridExtent
+        this.nx = (int)Math.round(limitEnvelope.getWidth() / cellSize);
+        this.ny = (int)Math.round(limitEnvelope.getHeight() / cellSize);
+        this.xMin = limitEnvelope.getMinX();
+        this.yMax = limitEnvelope.getMinY() + ny * cellSize;
+        final Envelope gridEnvelope = getEnvelope();
+        for (Feature feature : fCollection.getFeatures()) {
+            final Geometry geometry = feature.getGeometry();
+            if (geometry == null || geometry.isEmpty()) continue;
+            if (!gridEnvelope.intersects(geometry.getEnvelopeInternal())) continue;
+            final float value;
+            try {
+                value = Float.parseFloat(feature.getAttribute(attributeName).toString());
+            } catch (Exception e) {
+                continue;
+            }
+            index.insert(geometry.getEnvelopeInternal(), geometries.size());
+            geometries.add(geometry);
+            values.add(value);
+        }
+        index.build();
+    }
+
+    public int getNX() {
+        return nx;
+    }
+
+    public int getNY() {
+        return ny;
+    }
+
+    /**
+     * @return the envelope of the grid, adjusted to a whole number of cells
+     */
+    public Envelope getEnvelope() {
+        return new Envelope(xMin, xMin + nx * cellSize, yMax - ny * cellSize, yMax);
+    }
+
+    /**
+     * Burn all the features intersecting a window of the grid into data.
+     * @param col0 first column of the window
+     * @param row0 first row of the window
+     * @param width number of columns of the window (line stride of data)
+     * @param height number of rows of the window
+     * @param data the array receiving the cell values
+     */
+    public void burnWindow(int col0, int row0, int width, int height, float[] data) {
+        Arrays.fill(data, 0, width * height, noData);
+        final Window window = new Window(col0, row0, width, height, data);
+        final Envelope env = new Envelope(
+                xMin + col0 * cellSize, xMin + (col0 + width) * cellSize,
+                yMax - (row0 + height) * cellSize, yMax - row0 * cellSize);
+        @SuppressWarnings("unchecked")
+        final List<Integer> candidates = index.query(env);
+        // keep the collection order whatever the order of the index
+        final int[] ordinals = new int[candidates.size()];
+        for (int i = 0; i < ordinals.length; i++) ordinals[i] = candidates.get(i);
+        Arrays.sort(ordinals);
+        for (int ordinal : ordinals) {
+            burnGeometry(geometries.get(ordinal), values.get(ordinal), window);
+        }
+    }
+
+    private void burnGeometry(Geometry geometry, float value, Window window) {
+        if (geometry instanceof Polygonal) {
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                burnPolygon((Polygon)geometry.getGeometryN(i), value, window);
+            }
+        } else if (geometry instanceof LineString) {
+            burnLineString(((LineString)geometry).getCoordinates(), value, window);
+        } else if (geometry instanceof Point) {
+            burnPoint(geometry.getCoordinate(), value, window);
+        } else {
+            // multi-linestrings, multi-points and heterogeneous collections
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                burnGeometry(geometry.getGeometryN(i), value, window);
+            }
+        }
+    }
+
+    private void burnPolygon(Polygon polygon, float value, Window window) {
+        // world y of the centers of the first and last rows of the window
+        final double yTop = yMax - (window.row0 + 0.5) * cellSize;
+        final double yBottom = yMax - (window.row0 + window.height - 0.5) * cellSize;
+        // collect the edges crossing the vertical range of the window
+        double[] edges = new double[64];
+        int n = 0;
+        for (int r = -1; r < polygon.getNumInteriorRing(); r++) {
+            final Coordinate[] cc = r < 0 ? polygon.getExteriorRing().getCoordinates()
+                    : polygon.getInteriorRingN(r).getCoordinates();
+            for (int i = 1; i < cc.length; i++) {
+                final Coordinate a = cc[i - 1];
+                final Coordinate b = cc[i];
+                if (a.y == b.y) continue;
+                if (Math.max(a.y, b.y) < yBottom || Math.min(a.y, b.y) > yTop) continue;
+                if (n + 4 > edges.length) edges = Arrays.copyOf(edges, edges.length * 2);
+                edges[n++] = a.x;
+                edges[n++] = a.y;
+                edges[n++] = b.x;
+                edges[n++] = b.y;
+            }
+        }
+        if (n == 0) return;
+        double[] crossings = new double[16];
+        for (int r = 0; r < window.height; r++) {
+            final double y = yMax - (window.row0 + r + 0.5) * cellSize;
+            int nc = 0;
+            for (int e = 0; e < n; e += 4) {
+                final double ay = edges[e + 1];
+                final double by = edges[e + 3];
+                // half-open rule, so that a vertex is counted once
+                if ((ay <= y && y < by) || (by <= y && y < ay)) {
+                    if (nc == crossings.length) crossings = Arrays.copyOf(crossings, nc * 2);
+                    crossings[nc++] = edges[e] + (y - ay) * (edges[e + 2] - edges[e]) / (by - ay);
+                }
+            }
+            if (nc < 2) continue;
+            Arrays.sort(crossings, 0, nc);
+            final int offset = r * window.width - window.col0;
+            for (int i = 0; i + 1 < nc; i += 2) {
+                // cells whose center lies in [crossings[i], crossings[i+1])
+                final int c0 = Math.max(window.col0,
+                        (int)Math.ceil((crossings[i] - xMin) / cellSize - 0.5));
+                final int c1 = Math.min(window.col0 + window.width,
+                        (int)Math.ceil((crossings[i + 1] - xMin) / cellSize - 0.5));
+                for (int c = c0; c < c1; c++) {
+                    window.data[offset + c] = value;
+                }
+            }
+        }
+    }
+
+    private void burnLineString(Coordinate[] cc, float value, Window window) {
+        for (int i = 1; i < cc.length; i++) {
+            final double gx0 = (cc[i - 1].x - xMin) / cellSize;
+            final double gy0 = (yMax - cc[i - 1].y) / cellSize;
+            final double gx1 = (cc[i].x - xMin) / cellSize;
+            final double gy1 = (yMax - cc[i].y) / cellSize;
+            if (Math.max(gx0, gx1) < window.col0 || Math.min(gx0, gx1) >= window.col0 + window.width
+                    || Math.max(gy0, gy1) < window.row0 || Math.min(gy0, gy1) >= window.row0 + window.height) {
+                continue;
+            }
+            final int steps = (int)Math.ceil(2 * Math.max(Math.abs(gx1 - gx0), Math.abs(gy1 - gy0)));
+            for (int s = 0; s <= steps; s++) {
+                final double t = steps == 0 ? 0 : (double)s / steps;
+                window.set((int)Math.floor(gx0 + t * (gx1 - gx0)),
+                        (int)Math.floor(gy0 + t * (gy1 - gy0)), value);
+            }
+        }
+    }
+
+    private void burnPoint(Coordinate c, float value, Window window) {
+        window.set((int)Math.floor((c.x - xMin) / cellSize),
+                (int)Math.floor((yMax - c.y) / cellSize), value);
+    }
+
+    /**
+     * Rasterize the features and write the result to a tiled, float32 GeoTIFF
+     * (plus a world file). Only one row of tiles is held in memory at a time.
+     * If the monitor requests cancellation, the partial file is deleted and
+     * no world file is written.
+     * @param file the output file
+     * @param monitor a TaskMonitor reporting progress and checked for
+     *                cancellation between rows of tiles, may be null
+     * @throws IOException if the file cannot be written
+     */
+    public void writeGeoTIFF(File file, TaskMonitor monitor) throws IOException {
+        final Envelope envelope = getEnvelope();
+        final TIFFEncodeParam param = new TIFFEncodeParam();
+        param.setCompression(TIFFEncodeParam.COMPRESSION_NONE);
+        param.setWriteTiled(true);
+        param.setTileSize(TILE_SIZE, TILE_SIZE);
+        final String noDataS = Double.toString(noData);
+        param.setExtraFields(new TIFFField[] {
+            new TIFFField(GeoTiffConstants.ModelPixelScaleTag,
+                    TIFFField.TIFF_DOUBLE, 2, new double[] { cellSize, cellSize }),
+            new TIFFField(TiffTags.TIFFTAG_GDAL_NODATA,
+                    TIFFField.TIFF_BYTE, noDataS.length(), noDataS.getBytes()),
+            new TIFFField(GeoTiffConstants.ModelTiepointTag,
+                    TIFFField.TIFF_DOUBLE, 6, new double[] { 0, 0, 0,
+                    envelope.getMinX(), envelope.getMaxY(), 0 })
+        });
+        try (OutputStream out = new FileOutputStream(file)) {
+            final TIFFImageEncoder encoder = (TIFFImageEncoder)TIFFCodec
+                    .createImageEncoder("tiff", out, param);
+            encoder.encode(new RasterizedImage(monitor));
+        } catch (CancellationException e) {
+            file.delete();
+            return;
+        }
+        new WorldFileHandler(file.getAbsolutePath(), false)
+                .writeWorldFile(envelope, nx, ny);
+    }
+
+    /**
+     * A window of the grid backed by a float array.
+     */
+    private static class Window {
+        final int col0, row0, width, height;
+        final float[] data;
+
+        Window(int col0, int row0, int width, int height, float[] data) {
+            this.col0 = col0;
+            this.row0 = row0;
+            this.width = width;
+            this.height = height;
+            this.data = data;
+        }
+
+        void set(int col, int row, float value) {
+            if (col >= col0 && col < col0 + width && row >= row0 && row < row0 + height) {
+                data[(row - row0) * width + col - col0] = value;
+            }
+        }
+    }
+
+    /**
+     * Image computing its tiles on demand. When a tile is requested, the
+     * whole row of tiles it belongs to is rasterized in parallel, which
+     * matches the order used by the TIFF encoder.
+     */
+    private class RasterizedImage extends PlanarImage {
+
+        private final TaskMonitor monitor;
+        private final int nTilesX;
+        private final int nTilesY;
+        private Raster[] cachedRow;
+        private int cachedRowIndex = -1;
+
+        RasterizedImage(TaskMonitor monitor) {
+            this.monitor = monitor;
+            final SampleModel sampleModel = RasterFactory.createBandedSampleModel(
+                    DataBuffer.TYPE_FLOAT, TILE_SIZE, TILE_SIZE, 1);
+            final ColorModel colorModel = PlanarImage.createColorModel(sampleModel);
+            setImageLayout(new ImageLayout(0, 0, nx, ny, 0, 0,
+                    TILE_SIZE, TILE_SIZE, sampleModel, colorModel));
+            nTilesX = (nx + TILE_SIZE - 1) / TILE_SIZE;
+            nTilesY = (ny + TILE_SIZE - 1) / TILE_SIZE;
+        }
+
+        // this image has no source
+        @Override
+        public Vector<RenderedImage> getSources() {
+            return null;
+        }
+
+        @Override
+        public synchronized Raster getTile(int tileX, int tileY) {
+            if (tileY != cachedRowIndex) {
+                if (monitor != null && monitor.isCancelRequested()) {
+                    throw new CancellationException();
+                }
+                final Raster[] row = new Raster[nTilesX];
+                IntStream.range(0, nTilesX).parallel().forEach(tx -> {
+                    final float[] data = new float[TILE_SIZE * TILE_SIZE];
+                    burnWindow(tx * TILE_SIZE, tileY * TILE_SIZE, TILE_SIZE, TILE_SIZE, data);
+                    row[tx] = RasterFactory.createWritableRaster(getSampleModel(),
+                            new DataBufferFloat(data, data.length),
+                            new java.awt.Point(tx * TILE_SIZE, tileY * TILE_SIZE));
+                });
+                cachedRow = row;
+                cachedRowIndex = tileY;
+                if (monitor != null) {
+                    monitor.report(tileY + 1, nTilesY, I18N.get(
+                            "org.openjump.core.rasterimage.algorithms.ScanlineRasterizer.tile-rows"));
+                }
+            }
+            return cachedRow[tileX];
+        }
+    }
+
+}
@@ -33,8 +33,6 @@ import com.vividsolutions.jump.workbench.ui.WorkbenchFrame;
  */
 public class VectorizeAlgorithm {
 
-    public static WorkbenchFrame frame = JUMPWorkbench.getInstance().getFrame();
-
     /**
      * Create a FeatureCollection of polygons defining a GridWrapperNotInterpolated and number of band
      * AdbToolbox algorithm
@@ -502,6 +500,8 @@ public class VectorizeAlgorithm {
 
         featSchema.addAttribute(attributeName, AttributeType.DOUBLE);
         final FeatureCollection featColl = new FeatureDataset(featSchema);
+        // looked up here so that the polygon methods can be used without a workbench
+        final WorkbenchFrame frame = JUMPWorkbench.getInstance().getFrame();
 
         m_Visited.create("a", "a", gwrapper.getGridExtent(),
                 DataBuffer.TYPE_DOUBLE, 1, null, frame.getContext()
@@ -0,0 +1,353 @@
+package org.openjump.core.rasterimage.algorithms;
+
+import java.awt.Rectangle;
+import java.awt.image.Raster;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.Polygonal;
+import org.openjump.core.apitools.FeatureCollectionTools;
+import org.openjump.core.rasterimage.RasterImageLayer;
+
+import com.vividsolutions.jump.I18N;
+import com.vividsolutions.jump.feature.AttributeType;
+import com.vividsolutions.jump.feature.BasicFeature;
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.feature.FeatureCollection;
+import com.vividsolutions.jump.feature.FeatureDataset;
+import com.vividsolutions.jump.feature.FeatureSchema;
+import com.vividsolutions.jump.task.TaskMonitor;
+import com.vividsolutions.jump.workbench.Logger;
+
+import it.geosolutions.imageioimpl.plugins.tiff.TIFFImageReaderSpi;
+
+/**
+ * Computes statistics of the cells of a raster band covered by each polygon
+ * of a FeatureCollection (zonal statistics).
+ * <p>
+ * Each polygon is rasterized on the fly against the raster grid with a
+ * scanline algorithm (a cell belongs to the polygon if its center is inside
+ * the polygon). For GeoTIFFs, only the region covering the polygon envelope
+ * is read, by bands of {@link #BLOCK_HEIGHT} rows, each worker thread having
+ * its own image reader. Values are aggregated in primitive accumulators.
+ * Polygons are processed in parallel, results keep the order of the input
+ * collection.
+ * </p>
+ * Computed attributes are count, sum, mean, min, max, standard deviation
+ * and optionally a histogram of the values. Attribute names already used by
+ * the input collection are made unique.
+ */
+public class ZonalStatistics {
+
+    public static final String COUNT = "count";
+    public static final String SUM = "sum";
+    public static final String MEAN = "mean";
+    public static final String MIN = "min";
+    public static final String MAX = "max";
+    public static final String STD = "std";
+    public static final String HISTOGRAM = "histogram";
+
+    static final int BLOCK_HEIGHT = 256;
+
+    // one of tiffFile or raster is set
+    private final File tiffFile;
+    private final Raster raster;
+    private final int band;
+    private final double noData;
+    private final int width, height;
+    private final double xMin, yMax, cellSizeX, cellSizeY;
+
+    private int histogramBins = 0;
+    private double histogramMin, histogramMax;
+
+    /**
+     * @param layer the raster layer
+     * @param band the band to compute statistics on
+     * @throws IOException if the raster data cannot be read
+     */
+    public ZonalStatistics(RasterImageLayer layer, int band) throws IOException {
+        this.band = band;
+        this.noData = layer.getNoDataValue();
+        final String fileName = layer.getImageFileName();
+        final String lowerCaseName = fileName.toLowerCase();
+        if (lowerCaseName.endsWith(".tif") || lowerCaseName.endsWith(".tiff")) {
+            // region access : only blocks intersecting polygons are read
+            tiffFile = new File(fileName);
+            raster = null;
+            final ImageReader reader = openReader(tiffFile);
+            try {
+                width = reader.getWidth(0);
+                height = reader.getHeight(0);
+            } finally {
+                close(reader);
+            }
+        } else {
+            tiffFile = null;
+            raster = layer.getRasterData(null);
+            width = raster.getWidth();
+            height = raster.getHeight();
+        }
+        final Envelope envelope = layer.getWholeImageEnvelope();
+        xMin = envelope.getMinX();
+        yMax = envelope.getMaxY();
+        cellSizeX = envelope.getWidth() / width;
+        cellSizeY = envelope.getHeight() / height;
+    }
+
+    /**
+     * Also compute a histogram of the values of each polygon.
+     * @param bins number of classes of the histogram (0 for no histogram)
+     * @param min lower limit of the first class
+     * @param max upper limit of the last class
+     */
+    public void setHistogram(int bins, double min, double max) {
+        this.histogramBins = bins;
+        this.histogramMin = min;
+        this.histogramMax = max;
+    }
+
+    /**
+     * Compute the statistics of each feature of fc.
+     * @param fc the features (non polygonal features get null statistics)
+     * @param prefix prefix of the new attribute names
+     * @param monitor the TaskMonitor reporting progress, may be null
+     * @return a new FeatureCollection with the attributes of fc and the
+     * statistics, or null if the process has been cancelled
+     */
+    public FeatureCollection process(FeatureCollection fc, String prefix, TaskMonitor monitor) {
+        final List<Feature> features = fc.getFeatures();
+        final Accumulator[] results = new Accumulator[features.size()];
+        final AtomicInteger done = new AtomicInteger();
+        final String label = I18N.get("org.openjump.core.rasterimage.algorithms.ZonalStatistics.features");
+        // image readers are not thread-safe : one reader per worker thread
+        final List<ImageReader> readers = Collections.synchronizedList(new ArrayList<>());
+        final ThreadLocal<ImageReader> reader = ThreadLocal.withInitial(() -> {
+            try {
+                final ImageReader r = openReader(tiffFile);
+                readers.add(r);
+                return r;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        try {
+            IntStream.range(0, features.size()).parallel().forEach(i -> {
+                if (monitor != null && monitor.isCancelRequested()) return;
+                final Geometry geometry = features.get(i).getGeometry();
+                if (geometry instanceof Polygonal && !geometry.isEmpty()) {
+                    results[i] = compute(geometry, reader);
+                }
+                if (monitor != null) monitor.report(done.incrementAndGet(), results.length, label);
+            });
+        } finally {
+            for (ImageReader r : readers) close(r);
+        }
+        if (monitor != null && monitor.isCancelRequested()) return null;
+
+        final FeatureSchema schema = fc.getFeatureSchema().clone();
+        final String countName = addAttribute(fc, schema, prefix + COUNT, AttributeType.INTEGER);
+        final String sumName = addAttribute(fc, schema, prefix + SUM, AttributeType.DOUBLE);
+        final String meanName = addAttribute(fc, schema, prefix + MEAN, AttributeType.DOUBLE);
+        final String minName = addAttribute(fc, schema, prefix + MIN, AttributeType.DOUBLE);
+        final String maxName = addAttribute(fc, schema, prefix + MAX, AttributeType.DOUBLE);
+        final String stdName = addAttribute(fc, schema, prefix + STD, AttributeType.DOUBLE);
+        final String histogramName = histogramBins > 0
+                ? addAttribute(fc, schema, prefix + HISTOGRAM, AttributeType.STRING) : null;
+        final FeatureCollection result = new FeatureDataset(schema);
+        for (int i = 0; i < results.length; i++) {
+            final Feature feature = features.get(i);
+            final Feature bf = new BasicFeature(schema);
+            final Object[] attributes = new Object[schema.getAttributeCount()];
+            System.arraycopy(feature.getAttributes(), 0, attributes, 0,
+                    feature.getSchema().getAttributeCount());
+            bf.setAttributes(attributes);
+            final Accumulator acc = results[i];
+            if (acc != null) {
+                bf.setAttribute(countName, (int)acc.count);
+                if (acc.count > 0) {
+                    final double mean = acc.sum / acc.count;
+                    bf.setAttribute(sumName, acc.sum);
+                    bf.setAttribute(meanName, mean);
+                    bf.setAttribute(minName, acc.min);
+                    bf.setAttribute(maxName, acc.max);
+                    bf.setAttribute(stdName,
+                            Math.sqrt(Math.max(0, acc.sumSq / acc.count - mean * mean)));
+                }
+                if (acc.histogram != null) {
+                    final StringBuilder sb = new StringBuilder();
+                    for (int b = 0; b < acc.histogram.length; b++) {
+                        if (b > 0) sb.append(';');
+                        sb.append(acc.histogram[b]);
+                    }
+                    bf.setAttribute(histogramName, sb.toString());
+                }
+            }
+            result.add(bf);
+        }
+        return result;
+    }
+
+    /**
+     * Adds an attribute to schema, named name, or name followed by a number
+     * if fc already has an attribute with this name.
+     * @return the name of the new attribute
+     */
+    private static String addAttribute(FeatureCollection fc, FeatureSchema schema,
+            String name, AttributeType type) {
+        final String uniqueName = FeatureCollectionTools.getUniqueAttributeName(fc, name);
+        schema.addAttribute(uniqueName, type);
+        return uniqueName;
+    }
+
+    /**
+     * Accumulates the valid values of the cells whose center is inside polygon.
+     * @param reader the image reader of the current thread
+     */
+    Accumulator compute(Geometry polygon, ThreadLocal<ImageReader> reader) {
+        final Accumulator acc = new Accumulator(histogramBins);
+        final Envelope env = polygon.getEnvelopeInternal();
+        // cells whose center is in the envelope
+        final int c0 = Math.max(0, (int)Math.ceil((env.getMinX() - xMin) / cellSizeX - 0.5));
+        final int c1 = Math.min(width - 1, (int)Math.floor((env.getMaxX() - xMin) / cellSizeX - 0.5));
+        final int r0 = Math.max(0, (int)Math.ceil((yMax - env.getMaxY()) / cellSizeY - 0.5));
+        final int r1 = Math.min(height - 1, (int)Math.floor((yMax - env.getMinY()) / cellSizeY - 0.5));
+        if (c0 > c1 || r0 > r1) return acc;
+
+        // edges of all the rings of all the components, as x0,y0,x1,y1
+        double[] edges = new double[64];
+        int n = 0;
+        for (int p = 0; p < polygon.getNumGeometries(); p++) {
+            final Polygon component = (Polygon)polygon.getGeometryN(p);
+            for (int r = -1; r < component.getNumInteriorRing(); r++) {
+                final Coordinate[] cc = r < 0 ? component.getExteriorRing().getCoordinates()
+                        : component.getInteriorRingN(r).getCoordinates();
+                for (int i = 1; i < cc.length; i++) {
+                    if (cc[i - 1].y == cc[i].y) continue;
+                    if (n + 4 > edges.length) edges = Arrays.copyOf(edges, edges.length * 2);
+                    edges[n++] = cc[i - 1].x;
+                    edges[n++] = cc[i - 1].y;
+                    edges[n++] = cc[i].x;
+                    edges[n++] = cc[i].y;
+                }
+            }
+        }
+
+        final int w = c1 - c0 + 1;
+        final double[] row = new double[w];
+        double[] crossings = new double[16];
+        for (int blockRow = r0; blockRow <= r1; blockRow += BLOCK_HEIGHT) {
+            final int h = Math.min(BLOCK_HEIGHT, r1 - blockRow + 1);
+            final Raster block = readBlock(new Rectangle(c0, blockRow, w, h), reader);
+            for (int rr = blockRow; rr < blockRow + h; rr++) {
+                final double y = yMax - (rr + 0.5) * cellSizeY;
+                int nc = 0;
+                for (int e = 0; e < n; e += 4) {
+                    final double ay = edges[e + 1];
+                    final double by = edges[e + 3];
+                    // half-open rule, so that a vertex is counted once
+                    if ((ay <= y && y < by) || (by <= y && y < ay)) {
+                        if (nc == crossings.length) crossings = Arrays.copyOf(crossings, nc * 2);
+                        crossings[nc++] = edges[e] + (y - ay) * (edges[e + 2] - edges[e]) / (by - ay);
+                    }
+                }
+                if (nc < 2) continue;
+                Arrays.sort(crossings, 0, nc);
+                block.getSamples(c0, rr, w, 1, band, row);
+                for (int i = 0; i + 1 < nc; i += 2) {
+                    // cells whose center lies in [crossings[i], crossings[i+1])
+                    final int from = Math.max(c0,
+                            (int)Math.ceil((crossings[i] - xMin) / cellSizeX - 0.5));
+                    final int to = Math.min(c1 + 1,
+                            (int)Math.ceil((crossings[i + 1] - xMin) / cellSizeX - 0.5));
+                    for (int c = from; c < to; c++) {
+                        acc.add(row[c - c0]);
+                    }
+                }
+            }
+        }
+        return acc;
+    }
+
+    private Raster readBlock(Rectangle rectangle, ThreadLocal<ImageReader> reader) {
+        if (tiffFile == null) return raster;
+        final ImageReader r = reader.get();
+        final ImageReadParam param = r.getDefaultReadParam();
+        param.setSourceRegion(rectangle);
+        try {
+            // the raster read starts at 0,0 : move it to its place in the image
+            return r.read(0, param).getRaster()
+                    .createTranslatedChild(rectangle.x, rectangle.y);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ImageReader openReader(File file) throws IOException {
+        final ImageInputStream input = ImageIO.createImageInputStream(file);
+        final ImageReader reader = new TIFFImageReaderSpi().createReaderInstance();
+        reader.setInput(input);
+        return reader;
+    }
+
+    private static void close(ImageReader reader) {
+        final Object input = reader.getInput();
+        reader.dispose();
+        if (input instanceof ImageInputStream) {
+            try {
+                ((ImageInputStream)input).close();
+            } catch (IOException e) {
+                Logger.warn(e);
+            }
+        }
+    }
+
+    private boolean isNoData(double value) {
+        return Double.isNaN(value) || value == noData || (float)value == (float)noData;
+    }
+
+    /**
+     * Primitive accumulator of the statistics of one polygon.
+     */
+    class Accumulator {
+        long count;
+        double sum, sumSq;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        final int[] histogram;
+
+        Accumulator(int bins) {
+            histogram = bins > 0 ? new int[bins] : null;
+        }
+
+        void add(double value) {
+            if (isNoData(value)) return;
+            count++;
+            sum += value;
+            sumSq += value * value;
+            if (value < min) min = value;
+            if (value > max) max = value;
+            if (histogram != null && value >= histogramMin && value <= histogramMax) {
+                final int bin = (int)((value - histogramMin) / (histogramMax - histogramMin)
+                        * histogram.length);
+                histogram[Math.min(bin, histogram.length - 1)]++;
+            }
+        }
+    }
+
+}
@@ -1,6 +1,8 @@
 package org.openjump.core.ui;
 
 import com.vividsolutions.jump.I18N;
+import com.vividsolutions.jump.feature.ColumnarFeatureCollection;
+import com.vividsolutions.jump.geom.CoordinateStorage;
 import com.vividsolutions.jump.io.datasource.DataSource;
 import com.vividsolutions.jump.util.Blackboard;
 import com.vividsolutions.jump.workbench.WorkbenchContext;
@@ -16,6 +18,8 @@ import java.awt.Insets;
 import java.nio.charset.Charset;
 import java.util.List;
 import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.border.EmptyBorder;
 import org.openjump.core.ui.io.file.DataSourceFileLayerLoader;
@@ -24,6 +28,8 @@ import org.openjump.core.ui.io.file.FileLayerLoader;
 /**
  * OptionsPanel for setting up some dataset options.
  * - should the Charset selection be shown
+ * - how the coordinates of loaded layers are stored
+ * - whether the attributes of loaded shapefiles are stored in columns
  *
  * @author Matthias Scholz &lt;ms@jammerhund.de&gt;
  */
@@ -31,10 +37,14 @@ public class DatasetOptionsPanel extends JPanel implements OptionsPanel {
 
 	// Blackboard keys
 	public static final String BB_DATASET_OPTIONS_SHOW_CHARSET_SELECTION = DatasetOptionsPanel.class.getName() + "SHOW_CHARSET_SELECTION";
+	public static final String BB_DATASET_OPTIONS_COORDINATE_STORAGE = DatasetOptionsPanel.class.getName() + "COORDINATE_STORAGE";
+	public static final String BB_DATASET_OPTIONS_COLUMNAR_ATTRIBUTES = DatasetOptionsPanel.class.getName() + "COLUMNAR_ATTRIBUTES";
 
 	private JPanel mainPanel;
 	private JPanel fillPanel;
 	private JCheckBox charsetSelectionCheckBox;
+	private JComboBox<CoordinateStorage> coordinateStorageComboBox;
+	private JCheckBox columnarAttributesCheckBox;
 
 	private Blackboard blackboard = null;
 	private WorkbenchContext context = null;
@@ -50,6 +60,10 @@ public class DatasetOptionsPanel extends JPanel implements OptionsPanel {
 		mainPanel = new JPanel();
 		fillPanel = new JPanel();
 		charsetSelectionCheckBox = new JCheckBox(I18N.get("ui.DatasetOptionsPanel.ShowCharsetSelection"));
+		coordinateStorageComboBox = new JComboBox<>(CoordinateStorage.values());
+		coordinateStorageComboBox.setToolTipText(I18N.get("ui.DatasetOptionsPanel.CoordinateStorage-tooltip"));
+		columnarAttributesCheckBox = new JCheckBox(I18N.get("ui.DatasetOptionsPanel.ColumnarAttributes"));
+		columnarAttributesCheckBox.setToolTipText(I18N.get("ui.DatasetOptionsPanel.ColumnarAttributes-tooltip"));
 
 		this.setLayout(new BorderLayout());
 		this.setBorder(new EmptyBorder(new Insets(5, 10, 5, 10)));
@@ -64,6 +78,25 @@ public class DatasetOptionsPanel extends JPanel implements OptionsPanel {
         gridBagConstraints.insets = new java.awt.Insets(5, 10, 5, 10);
         mainPanel.add(charsetSelectionCheckBox, gridBagConstraints);
 
+		// Coordinate storage of the loaded layers
+		JPanel coordinateStoragePanel = new JPanel();
+		coordinateStoragePanel.add(new JLabel(I18N.get("ui.DatasetOptionsPanel.CoordinateStorage")));
+		coordinateStoragePanel.add(coordinateStorageComboBox);
+		gridBagConstraints = new java.awt.GridBagConstraints();
+        gridBagConstraints.gridx = 0;
+        gridBagConstraints.gridy = 1;
+        gridBagConstraints.anchor = java.awt.GridBagConstraints.WEST;
+        gridBagConstraints.insets = new java.awt.Insets(5, 5, 5, 10);
+        mainPanel.add(coordinateStoragePanel, gridBagConstraints);
+
+		// Columnar attributes of the loaded shapefiles
+		gridBagConstraints = new java.awt.GridBagConstraints();
+        gridBagConstraints.gridx = 0;
+        gridBagConstraints.gridy = 2;
+        gridBagConstraints.anchor = java.awt.GridBagConstraints.WEST;
+        gridBagConstraints.insets = new java.awt.Insets(5, 10, 5, 10);
+        mainPanel.add(columnarAttributesCheckBox, gridBagConstraints);
+
 		// empty fill Panel for nice layout
         gridBagConstraints = new java.awt.GridBagConstraints();
         gridBagConstraints.gridx = 0;
@@ -81,6 +114,11 @@ public class DatasetOptionsPanel extends JPanel implements OptionsPanel {
 
 	public void okPressed() {
 		blackboard.put(BB_DATASET_OPTIONS_SHOW_CHARSET_SELECTION, charsetSelectionCheckBox.isSelected());
+		CoordinateStorage storage = (CoordinateStorage)coordinateStorageComboBox.getSelectedItem();
+		blackboard.put(BB_DATASET_OPTIONS_COORDINATE_STORAGE, storage.name());
+		CoordinateStorage.setDefault(storage);
+		blackboard.put(BB_DATASET_OPTIONS_COLUMNAR_ATTRIBUTES, columnarAttributesCheckBox.isSelected());
+		ColumnarFeatureCollection.setUsedByDefault(columnarAttributesCheckBox.isSelected());
 		Registry registry = context.getRegistry();
 		List loaders = registry.getEntries(FileLayerLoader.KEY);
 		for (Object loader : loaders) {
@@ -111,6 +149,8 @@ public class DatasetOptionsPanel extends JPanel implements OptionsPanel {
 			// or to false, if we do not have an Blackboard value
 			charsetSelectionCheckBox.setSelected(false);
 		}
+		coordinateStorageComboBox.setSelectedItem(CoordinateStorage.getDefault());
+		columnarAttributesCheckBox.setSelected(ColumnarFeatureCollection.isUsedByDefault());
 	}
 
 }
@@ -6,6 +6,7 @@ import org.locationtech.jts.geom.Geometry;
 import com.vividsolutions.jump.I18N;
 import com.vividsolutions.jump.coordsys.CoordinateSystem;
 import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.geom.CoordinateStorage;
 import com.vividsolutions.jump.task.TaskMonitor;
 import com.vividsolutions.jump.workbench.WorkbenchContext;
 import com.vividsolutions.jump.workbench.model.Layer;
@@ -202,7 +203,7 @@ public class CTSPlugIn extends ThreadedBasePlugIn implements Iconified, EnableCh
             for (Object object : layer.getFeatureCollectionWrapper().getFeatures()) {
                 Geometry srcGeom = ((Feature)object).getGeometry();
                 srcGeometries.add(srcGeom);
-                Geometry tgtGeom = (Geometry)srcGeom.clone();
+                Geometry tgtGeom = CoordinateStorage.editableCopy(srcGeom);
                 tgtGeom.apply(filter);
                 tgtGeom.setSRID(epsgCode);
                 tgtGeom.geometryChanged();
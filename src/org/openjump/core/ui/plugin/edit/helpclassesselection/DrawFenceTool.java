@@ -37,17 +37,14 @@
  *****************************************************/
 package org.openjump.core.ui.plugin.edit.helpclassesselection;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
-import java.util.Iterator;
 
 import javax.swing.AbstractButton;
 import javax.swing.Icon;
 
 import com.vividsolutions.jump.I18N;
-import com.vividsolutions.jump.feature.Feature;
-import com.vividsolutions.jump.feature.FeatureCollection;
+import com.vividsolutions.jump.feature.FenceFilter;
 import com.vividsolutions.jump.workbench.model.Layer;
 import com.vividsolutions.jump.workbench.plugin.PlugInContext;
 import com.vividsolutions.jump.workbench.ui.LayerNamePanelProxy;
@@ -92,17 +89,12 @@ public class DrawFenceTool extends PolygonTool {
         **/
 		int count = 0;
 		Layer[] selectedLayers = context.getLayerNamePanel().getSelectedLayers();
+		// the indexed wrapper only returns the features near the fence
+		FenceFilter filter = new FenceFilter(this.getPolygon());
 		for (int i = 0; i < selectedLayers.length; i++) {
 			Layer actualLayer = selectedLayers[i]; 		
-			FeatureCollection fc = context.getSelectedLayer(i).getFeatureCollectionWrapper().getWrappee();
-			Collection features = new ArrayList();
-			for (Iterator iter = fc.iterator(); iter.hasNext();) {
-				Feature element = (Feature) iter.next();
-				if(!this.getPolygon().disjoint(element.getGeometry())){
-					features.add(element);
-					count++;
-				}
-			}
+			Collection features = filter.query(actualLayer.getFeatureCollectionWrapper(), null);
+			count += features.size();
 			context.getLayerViewPanel().getSelectionManager().getFeatureSelection().selectItems(actualLayer, features);			
 		}		
 	    final Collection myf = context.getLayerViewPanel().getSelectionManager().getFeaturesWithSelectedItems();
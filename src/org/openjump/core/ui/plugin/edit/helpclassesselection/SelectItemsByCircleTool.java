@@ -41,10 +41,8 @@ import java.awt.Cursor;
 import java.awt.Shape;
 import java.awt.event.MouseEvent;
 import java.awt.geom.NoninvertibleTransformException;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
-import java.util.Iterator;
 import java.util.List;
 
 import javax.swing.AbstractButton;
@@ -56,8 +54,7 @@ import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
 import com.vividsolutions.jump.I18N;
-import com.vividsolutions.jump.feature.Feature;
-import com.vividsolutions.jump.feature.FeatureCollection;
+import com.vividsolutions.jump.feature.FenceFilter;
 import com.vividsolutions.jump.workbench.model.Layer;
 import com.vividsolutions.jump.workbench.plugin.PlugInContext;
 import com.vividsolutions.jump.workbench.ui.cursortool.DragTool;
@@ -280,17 +277,12 @@ public class SelectItemsByCircleTool extends DragTool {
     private void selectItems(Geometry circle){
 		int count = 0;
 		Layer[] selectedLayers = context.getLayerNamePanel().getSelectedLayers();
+		// the indexed wrapper only returns the features near the circle
+		FenceFilter filter = new FenceFilter(circle);
 		for (int i = 0; i < selectedLayers.length; i++) {
 			Layer actualLayer = selectedLayers[i]; 		
-			FeatureCollection fc = context.getSelectedLayer(i).getFeatureCollectionWrapper().getWrappee();
-			Collection features = new ArrayList();
-			for (Iterator iter = fc.iterator(); iter.hasNext();) {
-				Feature element = (Feature) iter.next();
-				if(!circle.disjoint(element.getGeometry())){
-					features.add(element);
-					count++;
-				}
-			}
+			Collection features = filter.query(actualLayer.getFeatureCollectionWrapper(), null);
+			count += features.size();
 			context.getLayerViewPanel().getSelectionManager().getFeatureSelection().selectItems(actualLayer, features);			
 		}		
 	    final Collection myf = context.getLayerViewPanel().getSelectionManager().getFeaturesWithSelectedItems();
@@ -19,6 +19,7 @@ import org.locationtech.jts.geom.Geometry;
 import com.vividsolutions.jump.I18N;
 import com.vividsolutions.jump.feature.Feature;
 import com.vividsolutions.jump.geom.CoordUtil;
+import com.vividsolutions.jump.geom.CoordinateStorage;
 import com.vividsolutions.jump.io.WKTReader;
 import com.vividsolutions.jump.workbench.WorkbenchContext;
 import com.vividsolutions.jump.workbench.model.Layer;
@@ -108,7 +109,7 @@ public class PasteItemsAtPlugIn extends PasteItemsPlugIn {
   }
 
   private void move(Geometry geometry, final Coordinate displacement) {
-    geometry.apply(new CoordinateFilter() {
+    CoordinateStorage.apply(geometry, new CoordinateFilter() {
       public void filter(Coordinate coordinate) {
         // coordinate.setCoordinate(CoordUtil.add(coordinate, displacement));
         coordinate.x += displacement.x;
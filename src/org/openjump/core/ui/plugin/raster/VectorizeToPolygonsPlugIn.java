@@ -15,6 +15,7 @@ import javax.swing.JComponent;
 
 import org.openjump.core.apitools.LayerTools;
 import org.openjump.core.rasterimage.RasterImageLayer;
+import org.openjump.core.rasterimage.algorithms.ParallelVectorizeAlgorithm;
 import org.openjump.core.rasterimage.algorithms.VectorizeAlgorithm;
 import org.openjump.core.rasterimage.sextante.OpenJUMPSextanteRasterLayer;
 import org.openjump.core.rasterimage.sextante.rasterWrappers.GridWrapperNotInterpolated;
@@ -56,6 +57,7 @@ public class VectorizeToPolygonsPlugIn extends ThreadedBasePlugIn {
             .get("ui.plugin.raster.VectorizeToPolygonsPlugIn.algorithms");
     String alg1 = "AdbToolbox";
     String alg2 = "Sextante";
+    String alg3 = "Parallel";
 
     String choose;
     boolean explodeb = true;
@@ -113,6 +115,7 @@ public class VectorizeToPolygonsPlugIn extends ThreadedBasePlugIn {
         final ArrayList<String> srsArray = new ArrayList<String>();
         srsArray.add(alg1);
         srsArray.add(alg2);
+        srsArray.add(alg3);
         comboBox = dialog.addComboBox(algorithms, "", srsArray, null);
         comboBox.setSize(200, comboBox.getPreferredSize().height);
         comboBox.addActionListener(new ActionListener() {
@@ -137,6 +140,9 @@ public class VectorizeToPolygonsPlugIn extends ThreadedBasePlugIn {
         case 1:
             explode.setEnabled(false);
             break;
+        case 2:
+            explode.setEnabled(true);
+            break;
 
         }
     }
@@ -178,6 +184,10 @@ public class VectorizeToPolygonsPlugIn extends ThreadedBasePlugIn {
             featDataset = VectorizeAlgorithm.toPolygonsSextante(gwrapper,
                     sValue, 0);
             break;
+        case 2:
+            featDataset = ParallelVectorizeAlgorithm.toPolygons(gwrapper,
+                    explodeb, sValue, 0);
+            break;
         }
         final Layer vlayer = context.addLayer(StandardCategoryNames.WORKING,
                 rstLayer.getName() + "_" + "vectorized", featDataset);
@@ -0,0 +1,119 @@
+package org.openjump.core.ui.plugin.raster.statistics;
+
+import org.openjump.core.rasterimage.RasterImageLayer;
+import org.openjump.core.rasterimage.Stats;
+import org.openjump.core.rasterimage.algorithms.ZonalStatistics;
+
+import com.vividsolutions.jump.I18N;
+import com.vividsolutions.jump.feature.FeatureCollection;
+import com.vividsolutions.jump.task.TaskMonitor;
+import com.vividsolutions.jump.workbench.WorkbenchContext;
+import com.vividsolutions.jump.workbench.model.Layer;
+import com.vividsolutions.jump.workbench.model.StandardCategoryNames;
+import com.vividsolutions.jump.workbench.plugin.EnableCheckFactory;
+import com.vividsolutions.jump.workbench.plugin.MultiEnableCheck;
+import com.vividsolutions.jump.workbench.plugin.PlugInContext;
+import com.vividsolutions.jump.workbench.plugin.ThreadedBasePlugIn;
+import com.vividsolutions.jump.workbench.ui.GUIUtil;
+import com.vividsolutions.jump.workbench.ui.MultiInputDialog;
+
+/**
+ * Computes, for each polygon of a layer, statistics of the cells of a raster
+ * layer covered by the polygon, and adds them as new attributes in a result
+ * layer.
+ * @see ZonalStatistics
+ */
+public class ZonalStatisticsPlugIn extends ThreadedBasePlugIn {
+
+    private final static String POLYGON_LAYER = I18N
+            .get("org.openjump.core.ui.plugin.raster.statistics.ZonalStatisticsPlugIn.polygon-layer");
+    private final static String RASTER_LAYER = I18N
+            .get("org.openjump.core.ui.plugin.raster.statistics.ZonalStatisticsPlugIn.raster-layer");
+    private final static String BAND = I18N
+            .get("org.openjump.core.ui.plugin.raster.statistics.ZonalStatisticsPlugIn.band");
+    private final static String HISTOGRAM_BINS = I18N
+            .get("org.openjump.core.ui.plugin.raster.statistics.ZonalStatisticsPlugIn.histogram-bins");
+    private final static String PREFIX = I18N
+            .get("org.openjump.core.ui.plugin.raster.statistics.ZonalStatisticsPlugIn.attribute-prefix");
+    private final static String DESCRIPTION = I18N
+            .get("org.openjump.core.ui.plugin.raster.statistics.ZonalStatisticsPlugIn.description");
+
+    private Layer polygonLayer;
+    private RasterImageLayer rasterLayer;
+    private int band = 0;
+    private int histogramBins = 0;
+    private String prefix = "zs_";
+
+    public static MultiEnableCheck createEnableCheck(
+            WorkbenchContext workbenchContext) {
+        final EnableCheckFactory checkFactory = new EnableCheckFactory(
+                workbenchContext);
+        return new MultiEnableCheck()
+                .add(checkFactory
+                        .createWindowWithAssociatedTaskFrameMustBeActiveCheck())
+                .add(checkFactory.createAtLeastNLayersMustExistCheck(1))
+                .add(checkFactory.createAtLeastNLayerablesOfTypeMustExistCheck(
+                        1, RasterImageLayer.class));
+    }
+
+    @Override
+    public String getName() {
+        return I18N
+                .get("org.openjump.core.ui.plugin.raster.statistics.ZonalStatisticsPlugIn.name");
+    }
+
+    @Override
+    public boolean execute(PlugInContext context) throws Exception {
+        final MultiInputDialog dialog = new MultiInputDialog(
+                context.getWorkbenchFrame(), getName(), true);
+        dialog.setSideBarDescription(DESCRIPTION);
+        final Layer candidateLayer = polygonLayer != null
+                && context.getLayerManager().getLayers().contains(polygonLayer) ? polygonLayer
+                : context.getCandidateLayer(0);
+        dialog.addLayerComboBox(POLYGON_LAYER, candidateLayer, null,
+                context.getLayerManager());
+        dialog.addRasterLayerComboBox(RASTER_LAYER, rasterLayer, null,
+                context.getLayerManager());
+        dialog.addIntegerField(BAND, band, 5, null);
+        dialog.addIntegerField(HISTOGRAM_BINS, histogramBins, 5, null);
+        dialog.addTextField(PREFIX, prefix, 10, null, null);
+        GUIUtil.centreOnWindow(dialog);
+        dialog.setVisible(true);
+        if (!dialog.wasOKPressed()) {
+            return false;
+        }
+        polygonLayer = dialog.getLayer(POLYGON_LAYER);
+        rasterLayer = (RasterImageLayer) dialog.getLayerable(RASTER_LAYER);
+        band = dialog.getInteger(BAND);
+        histogramBins = Math.max(0, dialog.getInteger(HISTOGRAM_BINS));
+        prefix = dialog.getText(PREFIX);
+        return true;
+    }
+
+    @Override
+    public void run(TaskMonitor monitor, PlugInContext context)
+            throws Exception {
+        monitor.allowCancellationRequests();
+        monitor.report(getName());
+        if (band < 0 || band >= rasterLayer.getNumBands()) {
+            context.getWorkbenchFrame().warnUser(BAND + " : " + band);
+            return;
+        }
+        final ZonalStatistics zonalStatistics = new ZonalStatistics(
+                rasterLayer, band);
+        final Stats stats = rasterLayer.getMetadata() == null ? null
+                : rasterLayer.getMetadata().getStats();
+        if (histogramBins > 0 && stats != null) {
+            zonalStatistics.setHistogram(histogramBins, stats.getMin(band),
+                    stats.getMax(band));
+        }
+        final FeatureCollection result = zonalStatistics.process(
+                polygonLayer.getFeatureCollectionWrapper(), prefix, monitor);
+        if (result == null) {
+            return;
+        }
+        context.addLayer(StandardCategoryNames.RESULT, polygonLayer.getName()
+                + "_" + rasterLayer.getName(), result);
+    }
+
+}
@@ -272,7 +272,7 @@ public class BeanshellAttributeCalculatorPlugIn extends ThreadedBasePlugIn
                 // values are added if the new attribue is not dynamic
                 // otherwise, values are evaluated as needed
                 if (!dynamic) newFeature.setAttribute(new_attribute_name, 
-                    operation.evaluate((BasicFeature)oldFeature));
+                    operation.evaluate(oldFeature));
                 result.add(newFeature);
             } 
             catch(EvalError e) {
@@ -321,7 +321,7 @@ public class BeanshellAttributeCalculatorPlugIn extends ThreadedBasePlugIn
                 .createOperation(new_attribute_type, tmp_bsh_expression);
             int count = 0;
             for (Iterator it = fc.iterator() ; it.hasNext() ; ) {
-                BasicFeature old = (BasicFeature)it.next();
+                Feature old = (Feature)it.next();
                 operation.evaluate(old);
                 if (count++ > 6) break;
             }
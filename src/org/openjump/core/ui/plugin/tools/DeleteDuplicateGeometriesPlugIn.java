@@ -28,19 +28,22 @@
 package org.openjump.core.ui.plugin.tools;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
+import java.util.stream.IntStream;
 
 import javax.swing.JMenuItem;
 
-import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.Polygon;
 import com.vividsolutions.jump.I18N;
 import com.vividsolutions.jump.feature.Feature;
 import com.vividsolutions.jump.feature.FeatureCollection;
 import com.vividsolutions.jump.feature.FeatureDataset;
 import com.vividsolutions.jump.feature.FeatureSchema;
-import com.vividsolutions.jump.feature.IndexedFeatureCollection;
 import com.vividsolutions.jump.task.TaskMonitor;
 import com.vividsolutions.jump.workbench.WorkbenchContext;
 import com.vividsolutions.jump.workbench.model.Layer;
@@ -179,66 +182,142 @@ public final class DeleteDuplicateGeometriesPlugIn extends AbstractPlugIn implem
     }
 
     private FeatureCollection[] deleteDuplicateGeometries(TaskMonitor monitor) {
-        // Method is completely reworked to take advantage of indexes [mmichaud
-        // 2012-01-15].
+        // Duplicates are found by hashing normalized geometries, and by
+        // comparing only geometries having the same hash.
         FeatureCollection sourceDataset = confSourceLayer.getFeatureCollectionWrapper();
         FeatureSchema sourceSchema = sourceDataset.getFeatureSchema();
-        
-        // Input data is indexed.
-        FeatureCollection indexedDataset = new IndexedFeatureCollection(sourceDataset);
-        Set<Integer> duplicateIDs = new HashSet<Integer>();
-        
-        @SuppressWarnings("unchecked")
         List<Feature> sourceFeatures = sourceDataset.getFeatures();
-        List<Feature> emptyFeatures = getEmptyFeatures(sourceFeatures);
-        int checkCount = 0;
-        int checkSize = sourceDataset.size();
         
-        for (Feature feature : sourceFeatures) {
-            monitor.report(checkCount, checkSize, langMonitorCheckedFeatures);
-            
-            // For each feature, only candidate features are compared.
-            @SuppressWarnings("unchecked")
-            List<Feature> candidates = null;
-            if (feature.getGeometry().isEmpty()) {
-                candidates = emptyFeatures;
+        BitSet duplicates = findDuplicates(sourceFeatures, sourceSchema, 
+                confDeleteOnlySameAttributes, monitor);
+        
+        // Create a feature collection with features which are not duplicates.
+        FeatureCollection resultDataset = new FeatureDataset(sourceSchema);
+        FeatureCollection duplicateDataset = new FeatureDataset(sourceSchema);
+        for (int i = 0; i < sourceFeatures.size(); i++) {
+            if (!duplicates.get(i)) {
+                resultDataset.add(sourceFeatures.get(i).clone(true));
             } else {
-                Envelope envelope = feature.getGeometry().getEnvelopeInternal();
-                candidates = indexedDataset.query(envelope);
+                duplicateDataset.add(sourceFeatures.get(i).clone(true));
             }
-            
-            for (Feature candidate : candidates) {
-                // For equal features, the one with the greater ID is removed.
-                if (candidate.getID() > feature.getID()
-                        && feature.getGeometry().equalsNorm(candidate.getGeometry())) {
-                    if (confDeleteOnlySameAttributes) {
-                        // If geometry and attributes are equals, add ID to
-                        // duplicates.
-                        if (areAttributesEqual(feature, candidate, sourceSchema)) {
-                            duplicateIDs.add(candidate.getID());
+        }
+
+        return new FeatureCollection[] {resultDataset, duplicateDataset};
+    }
+    
+    /**
+     * Returns the positions of the duplicate features of a list. Among
+     * features having equal geometries (see {@link Geometry#equalsNorm}),
+     * and equal attributes if onlySameAttributes is true, the one with the
+     * smallest ID is kept and the others are duplicates.
+     * <p>
+     * A fingerprint of each normalized geometry is computed in parallel.
+     * Fingerprints and positions are packed in a primitive array and sorted,
+     * so that features with the same fingerprint are contiguous, and
+     * geometries are only compared within these buckets.
+     */
+    public BitSet findDuplicates(final List<Feature> features, FeatureSchema schema, 
+            boolean onlySameAttributes, TaskMonitor monitor) {
+        final int size = features.size();
+        final long[] keys = new long[size];
+        IntStream.range(0, size).parallel().forEach(i -> 
+                keys[i] = ((long)fingerprint(features.get(i).getGeometry().norm()) << 32) | i);
+        Arrays.sort(keys);
+        
+        BitSet duplicates = new BitSet(size);
+        int start = 0;
+        while (start < size) {
+            monitor.report(start, size, langMonitorCheckedFeatures);
+            int end = start + 1;
+            while (end < size && (keys[end] >>> 32) == (keys[start] >>> 32)) end++;
+            if (end - start > 1) {
+                List<Integer> bucket = new ArrayList<Integer>(end - start);
+                for (int k = start; k < end; k++) bucket.add((int)keys[k]);
+                for (List<Integer> equal : partition(features, bucket, true, schema)) {
+                    if (onlySameAttributes) {
+                        for (List<Integer> same : partition(features, equal, false, schema)) {
+                            markAllButFirst(features, same, duplicates);
                         }
-                    }
-                    // If geometry are equals, add ID to duplicates.
-                    else {
-                        duplicateIDs.add(candidate.getID());
+                    } else {
+                        markAllButFirst(features, equal, duplicates);
                     }
                 }
             }
-            checkCount += 1;
+            start = end;
         }
-        
-        // Create a feature collection with features which ID is not in duplicates.
-        FeatureCollection resultDataset = new FeatureDataset(sourceSchema);
-        FeatureCollection duplicateDataset = new FeatureDataset(sourceSchema);
-        for (Feature feature : sourceFeatures) {
-            if (!duplicateIDs.contains(feature.getID())) {
-                resultDataset.add(feature.clone(true));
-            } else {
-                duplicateDataset.add(feature.clone(true));
+        return duplicates;
+    }
+    
+    /**
+     * Splits features (given by their positions) into groups of features
+     * with equal geometries (if byGeometry is true) or equal attributes.
+     * Both equalities are transitive, so that each feature is only compared
+     * to the first feature of each group.
+     */
+    private List<List<Integer>> partition(List<Feature> features, List<Integer> positions, 
+            boolean byGeometry, FeatureSchema schema) {
+        List<List<Integer>> groups = new ArrayList<List<Integer>>();
+        for (int position : positions) {
+            Feature feature = features.get(position);
+            List<Integer> group = null;
+            for (List<Integer> g : groups) {
+                Feature first = features.get(g.get(0));
+                if (byGeometry ? first.getGeometry().equalsNorm(feature.getGeometry()) 
+                        : areAttributesEqual(first, feature, schema)) {
+                    group = g;
+                    break;
+                }
+            }
+            if (group == null) {
+                group = new ArrayList<Integer>();
+                groups.add(group);
             }
+            group.add(position);
+        }
+        return groups;
+    }
+    
+    /**
+     * Marks all the features of a group as duplicates, except the one with 
+     * the smallest ID.
+     */
+    private void markAllButFirst(List<Feature> features, List<Integer> group, 
+            BitSet duplicates) {
+        int kept = group.get(0);
+        for (int position : group) {
+            if (features.get(position).getID() < features.get(kept).getID()) kept = position;
+        }
+        for (int position : group) {
+            if (position != kept) duplicates.set(position);
         }
-
-        return new FeatureCollection[] {resultDataset, duplicateDataset};
+    }
+    
+    /**
+     * Hash of the structure and of the coordinates of a geometry, equal for
+     * geometries which are equal with {@link Geometry#equalsExact(Geometry)}.
+     */
+    public static int fingerprint(Geometry geometry) {
+        int hash = geometry.getGeometryType().hashCode();
+        if (geometry instanceof Polygon) {
+            Polygon polygon = (Polygon)geometry;
+            hash = 31 * hash + fingerprint(polygon.getExteriorRing());
+            for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+                hash = 31 * hash + fingerprint(polygon.getInteriorRingN(i));
+            }
+        } else if (geometry instanceof GeometryCollection) {
+            for (int i = 0; i < geometry.getNumGeometries(); i++) {
+                hash = 31 * hash + fingerprint(geometry.getGeometryN(i));
+            }
+        } else {
+            for (Coordinate c : geometry.getCoordinates()) {
+                // adding 0.0 turns -0.0 into 0.0, which are equal coordinates
+                long bits = Double.doubleToLongBits(c.x + 0.0);
+                hash = 31 * hash + (int)(bits ^ (bits >>> 32));
+                bits = Double.doubleToLongBits(c.y + 0.0);
+                hash = 31 * hash + (int)(bits ^ (bits >>> 32));
+            }
+        }
+        return hash;
     }
     
     private boolean areAttributesEqual(Feature feature, Feature candidate, 
@@ -261,12 +340,5 @@ public final class DeleteDuplicateGeometriesPlugIn extends AbstractPlugIn implem
         return attributesEqual;
     }
 
-    List<Feature> getEmptyFeatures(List<Feature> features) {
-        List<Feature> list = new ArrayList<Feature>();
-        for (Feature f : features) {
-            if (f.getGeometry().isEmpty()) list.add(f);
-        }
-        return list;
-    }
 
 }
@@ -37,6 +37,7 @@ import javax.swing.DefaultComboBoxModel;
 import javax.swing.JComboBox;
 
 import org.openjump.core.ui.plugin.AbstractThreadedUiPlugIn;
+import org.openjump.sigle.plugin.joinTable.HashJoin;
 
 import org.locationtech.jts.geom.Geometry;
 import com.vividsolutions.jump.I18N;
@@ -143,39 +144,32 @@ public class JoinTableFromExistingLayerPlugIn extends AbstractThreadedUiPlugIn{
 		FeatureCollection featuresMissing = new FeatureDataset(baseFC.getFeatureSchema());
 		FeatureCollection featuresWithManyMatches = new FeatureDataset(mapping.createSchema("Geometry"));
 		
+		//-- find the matching join features of all the base features at
+		//   once, with a hash join on the string value of the ids
+		List<Feature> baseFeatures = baseFC.getFeatures();
+		List<Feature> joinFeatures = joinFC.getFeatures();
+		int[][] matches = HashJoin.match(
+				keys(baseFeatures, baseLayerAttributeIndex),
+				keys(joinFeatures, joinLayerAttributeIndex));
+
 		//-- loop over all base features (as they are our reference)
 		int i = 0;
 		int baseLayerSize = baseFC.size();
-		for (Feature baseFeature : baseFC.getFeatures()) {
-			monitor.report(i++, baseLayerSize, sItemsProcessed);
-			Object baseId = baseFeature.getAttribute(baseLayerAttributeIndex);
-
-			//-- find the base-features corresponding entry
-			//   we could optimize this procedure by removing found
-			//   table items from the list
-			//boolean notFound = true;
-			//boolean foundFirst = false;
-			//boolean foundSecond = false;
+		for (Feature baseFeature : baseFeatures) {
+			monitor.report(i, baseLayerSize, sItemsProcessed);
+			int[] baseMatches = matches[i++];
+
 			Feature firstJoinFeature = null;
 			List<Feature> nextJoinFeatures = new ArrayList<>();
-			int countMatches = 0;
-			//int j = 0;
-			for (Feature joinCandidateFeature : joinFC.getFeatures()) {
-			//while(notFound){
-				//Feature tmpTableItem = joinFeatures.get(j);
-				//int tableItemId = tmpTableItem.getInteger(joinLayerAttributeIndex);
-				Object joinId = joinCandidateFeature.getAttribute(joinLayerAttributeIndex);
-				if(baseId != null && joinId != null && baseId.toString().equals(joinId.toString())) {
-					if (countMatches == 0) {
-						firstJoinFeature = joinCandidateFeature;
-
-					} else {
-						nextJoinFeatures.add(joinCandidateFeature);
-						context.getWorkbenchFrame().warnUser(sMultiMatchesMsg + " : " + baseFeature.getID());
-					}
-					countMatches++;
+			int countMatches = baseMatches == null ? 0 : baseMatches.length;
+			for (int j = 0; j < countMatches; j++) {
+				if (j == 0) {
+					firstJoinFeature = joinFeatures.get(baseMatches[j]);
+				} else {
+					nextJoinFeatures.add(joinFeatures.get(baseMatches[j]));
+					context.getWorkbenchFrame().warnUser(sMultiMatchesMsg + " : " + baseFeature.getID());
 				}
-			} //end while loop over stop-list
+			}
 			// Unique join
 			if (countMatches > 0) {
 				Feature newFeature = new BasicFeature(featuresFound.getFeatureSchema());
@@ -213,6 +207,19 @@ public class JoinTableFromExistingLayerPlugIn extends AbstractThreadedUiPlugIn{
 		}
 	}
 
+	/**
+	 * String values of an attribute, used as join keys (null for null
+	 * values).
+	 */
+	private static String[] keys(List<Feature> features, int attributeIndex) {
+		String[] keys = new String[features.size()];
+		for (int i = 0; i < keys.length; i++) {
+			Object id = features.get(i).getAttribute(attributeIndex);
+			keys[i] = id == null ? null : id.toString();
+		}
+		return keys;
+	}
+
 	private void initDialog(PlugInContext context) {
 
 		dialog = new MultiInputDialog(context.getWorkbenchFrame(), this.getName(), true);
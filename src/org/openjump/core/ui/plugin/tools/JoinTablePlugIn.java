@@ -8,6 +8,7 @@
 package org.openjump.core.ui.plugin.tools;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.swing.JComboBox;
@@ -54,6 +55,7 @@ public class JoinTablePlugIn extends ThreadedBasePlugIn {
 	private MultiInputDialog layerdialog;
 	private String LAYER_ATTRIBUTES = null;
 	private String TABLE_ATTRIBUTES = null;
+	private String AGGREGATION = null;
     private String sLAYER = GenericNames.LAYER;
 
 	public void initialize(PlugInContext context) throws Exception {
@@ -63,6 +65,7 @@ public class JoinTablePlugIn extends ThreadedBasePlugIn {
 		JoinTablePlugIn.JOIN_TABLE_FILE_FILTER = GUIUtil.createFileFilter(I18N.get("org.openjump.sigle.plugin.joinTable.text_file"), new String[]{"txt", "text"});
 		LAYER_ATTRIBUTES = I18N.get("org.openjump.sigle.plugin.joinTable.layer_field");
 		TABLE_ATTRIBUTES = I18N.get("org.openjump.sigle.plugin.joinTable.table_field");
+		AGGREGATION = I18N.get("org.openjump.sigle.plugin.joinTable.aggregation");
 		
 		/*
 		context.getFeatureInstaller().addPopupMenuItem(
@@ -138,7 +141,7 @@ public class JoinTablePlugIn extends ThreadedBasePlugIn {
 		//System.out.println("indice du champ de la table : " + dialog.getComboBox(TABLE_ATTRIBUTES).getSelectedIndex() );
 		//System.out.println("indice du champ de la couche : " + dialog.getComboBox(LAYER_ATTRIBUTES).getSelectedIndex() );
 		jt.setKeyIndex(dialog.getComboBox(TABLE_ATTRIBUTES).getSelectedIndex());
-		jt.build();
+		jt.setAggregation((JoinTable.Aggregation) dialog.getComboBox(AGGREGATION).getSelectedItem());
 		//jointure sur la couche en memoire
 		jt.join(layer,dialog.getComboBox(LAYER_ATTRIBUTES).getSelectedIndex());
 		
@@ -167,6 +170,8 @@ public class JoinTablePlugIn extends ThreadedBasePlugIn {
 				
 		dialog.addComboBox(LAYER_ATTRIBUTES,layerAttributes.get(0), layerAttributes, null);
 		dialog.addComboBox(TABLE_ATTRIBUTES,jt.getFieldName(0), jt.getFieldNames(), null);
+		dialog.addComboBox(AGGREGATION, jt.getAggregation(), Arrays.asList(JoinTable.Aggregation.values()),
+				I18N.get("org.openjump.sigle.plugin.joinTable.aggregation-tooltip"));
 		GUIUtil.centreOnWindow(dialog);
 	}
 	
@@ -3,6 +3,7 @@ package org.openjump.core.ui.plugin.tools;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.operation.valid.IsValidOp;
+import org.locationtech.jts.operation.valid.TopologyValidationError;
 import com.vividsolutions.jump.I18N;
 import com.vividsolutions.jump.feature.*;
 import com.vividsolutions.jump.geom.MakeValidOp;
@@ -24,6 +25,8 @@ import org.openjump.core.ui.plugin.AbstractThreadedUiPlugIn;
 
 import javax.swing.*;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
 
 
 /**
@@ -198,21 +201,34 @@ public class MakeValidPlugIn extends AbstractThreadedUiPlugIn
         errorSchema.addAttribute("SOURCE_FID", AttributeType.INTEGER);
         FeatureCollection errors = new FeatureDataset(errorSchema);
 
-        for (Feature feature : fc.getFeatures()) {
-            IsValidOp op = new IsValidOp(feature.getGeometry());
-            if (!op.isValid()) {
+        // features are checked and repaired in parallel (MakeValidOp is
+        // stateless), the transaction is then filled in the feature order
+        final List<Feature> features = fc.getFeatures();
+        final TopologyValidationError[] validationErrors = new TopologyValidationError[features.size()];
+        final Geometry[] fixedGeometries = new Geometry[features.size()];
+        IntStream.range(0, features.size()).parallel().forEach(i -> {
+            Geometry geometry = features.get(i).getGeometry();
+            validationErrors[i] = new IsValidOp(geometry).getValidationError();
+            if (validationErrors[i] != null) {
+                fixedGeometries[i] = makeValidOp.makeValid(geometry);
+            }
+        });
+
+        for (int i = 0 ; i < features.size() ; i++) {
+            Feature feature = features.get(i);
+            if (validationErrors[i] != null) {
                 Feature error = new BasicFeature(errorSchema);
                 error.setGeometry(feature.getGeometry().getFactory()
-                        .createPoint(op.getValidationError().getCoordinate()));
-                error.setAttribute("ERROR", op.getValidationError().getMessage());
+                        .createPoint(validationErrors[i].getCoordinate()));
+                error.setAttribute("ERROR", validationErrors[i].getMessage());
                 error.setAttribute("SOURCE_FID", feature.getID());
                 errors.add(error);
-                Geometry fixedGeometry = makeValidOp.makeValid(feature.getGeometry());
+                Geometry fixedGeometry = fixedGeometries[i];
                 if (decomposeMulti && fixedGeometry.getNumGeometries() > 1) {
                     transaction.deleteFeature(feature);
-                    for (int i = 0 ; i < fixedGeometry.getNumGeometries() ; i++) {
+                    for (int j = 0 ; j < fixedGeometry.getNumGeometries() ; j++) {
                         Feature newFeature = feature.clone(false, false);
-                        newFeature.setGeometry(fixedGeometry.getGeometryN(i));
+                        newFeature.setGeometry(fixedGeometry.getGeometryN(j));
                         transaction.createFeature(newFeature);
                     }
                 } else {
@@ -238,11 +254,13 @@ public class MakeValidPlugIn extends AbstractThreadedUiPlugIn
         for (Object o : layerA.getFeatureCollectionWrapper().getFeatures()) {
             result1.add(((Feature)o).clone(true, true));
         }
-        for (Object o : result1.getFeatures()) {
-            Feature feature = (Feature)o;
+        // features are repaired in parallel, MakeValidOp is stateless
+        final List<Feature> features = result1.getFeatures();
+        IntStream.range(0, features.size()).parallel().forEach(i -> {
+            Feature feature = features.get(i);
             Geometry validGeom = makeValidOp.makeValid(feature.getGeometry());
             feature.setGeometry(validGeom);
-        }
+        });
         if (decomposeMulti) {
             FeatureCollection result2 = new FeatureDataset(result1.getFeatureSchema());
             for (Object o : result1.getFeatures()) {
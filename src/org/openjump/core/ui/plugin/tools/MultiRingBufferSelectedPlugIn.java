@@ -67,7 +67,7 @@ import com.vividsolutions.jump.workbench.ui.renderer.style.ColorScheme;
 import org.locationtech.jts.util.Assert;
 
 public class MultiRingBufferSelectedPlugIn extends AbstractPlugIn
-        implements ThreadedPlugIn {
+        implements ThreadedPlugIn, FeatureEventsCoalesced {
     private static String BUFFER;
     private static String LAYER;
     private static String NEWLAYERNAME;
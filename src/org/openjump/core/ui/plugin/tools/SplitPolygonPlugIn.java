@@ -44,6 +44,7 @@ import com.vividsolutions.jump.I18N;
 import com.vividsolutions.jump.feature.Feature;
 import com.vividsolutions.jump.feature.FeatureCollection;
 import com.vividsolutions.jump.feature.FeatureDataset;
+import com.vividsolutions.jump.geom.CoordinateStorage;
 import com.vividsolutions.jump.task.TaskMonitor;
 import com.vividsolutions.jump.workbench.WorkbenchContext;
 import com.vividsolutions.jump.workbench.model.Layer;
@@ -191,7 +192,7 @@ public class SplitPolygonPlugIn extends AbstractPlugIn implements ThreadedPlugIn
 	            //snap the resulting geos to the cut line
 	            Geometry geo = (Geometry)result.getGeometryN(j).clone();
 	            
-	            geo.apply(new CoordinateFilter() {
+	            CoordinateStorage.apply(geo, new CoordinateFilter() {
 	                public void filter(Coordinate coordinate) {
 		        		for (int n = 0; n < lsNumPts - 1; n++)
 		        		{
@@ -34,9 +34,9 @@ package org.openjump.core.ui.plugin.tools;
 
 import org.locationtech.jts.geom.*;
 import org.locationtech.jts.operation.linemerge.LineMerger;
-import org.locationtech.jts.operation.union.UnaryUnionOp;
 import com.vividsolutions.jump.I18N;
 import com.vividsolutions.jump.feature.*;
+import com.vividsolutions.jump.geom.ParallelCascadedUnion;
 import com.vividsolutions.jump.task.TaskMonitor;
 import com.vividsolutions.jump.workbench.WorkbenchContext;
 import com.vividsolutions.jump.workbench.model.Layer;
@@ -56,6 +56,8 @@ import javax.swing.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 /**
  * UnionByAttribute plugin is used to union features in a Layer or to Dissolve
@@ -285,42 +287,75 @@ public class UnionByAttributePlugIn extends AbstractThreadedUiPlugIn {
             }
         }
         
-        // Order features by attribute value in a map
-        Map map = new HashMap();
+        // Group features by attribute value : each key gets a group number
+        // in order of appearance, and each feature the number of its group
         monitor.report(I18N.get("ui.plugin.analysis.UnionByAttributePlugIn"));
-        for (Iterator i = inputFC.iterator() ; i.hasNext() ; ) {
-            Feature f = (Feature)i.next();
+        final List<Feature> features = inputFC.getFeatures();
+        final Map<Object,Integer> groupIndex = new HashMap<>();
+        final List<Object> keys = new ArrayList<>();
+        final int[] groupOf = new int[features.size()];
+        for (int i = 0 ; i < groupOf.length ; i++) {
+            Feature f = features.get(i);
             Object key = use_attribute ? f.getAttribute(attribute) : null;
             if (ignore_empty && (key == null || key.toString().trim().length() == 0)) {
+                groupOf[i] = -1;
                 continue;
             }
-            else if (!map.containsKey(key)) {
-                FeatureCollection fd = new FeatureDataset(inputFC.getFeatureSchema());
-                fd.add(f);
-                map.put(key, fd);
+            Integer group = groupIndex.get(key);
+            if (group == null) {
+                group = keys.size();
+                groupIndex.put(key, group);
+                keys.add(key);
             }
-            else {
-                ((FeatureCollection)map.get(key)).add(f);
+            groupOf[i] = group;
+        }
+        // Feature ordinals sorted by group (counting sort)
+        final int[] offsets = new int[keys.size() + 1];
+        for (int group : groupOf) if (group >= 0) offsets[group + 1]++;
+        for (int g = 0 ; g < keys.size() ; g++) offsets[g + 1] += offsets[g];
+        final int[] members = new int[offsets[keys.size()]];
+        final int[] fill = Arrays.copyOf(offsets, keys.size());
+        for (int i = 0 ; i < groupOf.length ; i++) {
+            if (groupOf[i] >= 0) members[fill[groupOf[i]]++] = i;
+        }
+
+        if (aggregate_unused_fields) reportNonAggregatedFields(context, schema);
+
+        // Computing the result : groups are processed concurrently, each
+        // group releasing its features as soon as its union is computed
+        final Feature[] results = new Feature[keys.size()];
+        final List<Object> excluded = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger count = new AtomicInteger();
+        final FeatureSchema inputSchema = inputFC.getFeatureSchema();
+        IntStream.range(0, keys.size()).parallel().forEach(g -> {
+            if (monitor.isCancelRequested()) return;
+            FeatureCollection fca = new FeatureDataset(inputSchema);
+            for (int m = offsets[g] ; m < offsets[g + 1] ; m++) {
+                fca.add(features.get(members[m]));
+            }
+            Feature feature = union(fca, excluded);
+            if (use_attribute) feature.setAttribute(attribute, keys.get(g));
+            Feature newFeature = new BasicFeature(newSchema);
+            // Copy feature attributes in newFeature
+            for (int j = 0, max = newSchema.getAttributeCount() ; j < max ; j++) {
+                newFeature.setAttribute(j, feature.getAttribute(newSchema.getAttributeName(j)));
+            }
+            results[g] = newFeature;
+            monitor.report(I18N.get("ui.plugin.analysis.UnionByAttributePlugIn.computing-union") +
+                " (" + count.incrementAndGet() + "/" + keys.size() + ")");
+        });
+        if (!excluded.isEmpty()) {
+            context.getWorkbenchFrame().warnUser(
+                I18N.get("ui.plugin.analysis.UnionByAttributePlugIn.invalid-geometry-excluded"));
+            for (Object id : excluded) {
+                context.getOutputFrame().addText(
+                    I18N.getMessage("ui.plugin.analysis.UnionByAttributePlugIn.exclusion", new Object[]{id}));
             }
         }
-        
-        // Computing the result
-        int count = 1;
+        if (monitor.isCancelRequested()) return;
         FeatureCollection resultfc = new FeatureDataset(newSchema);
-        for (Iterator i = map.keySet().iterator() ; i.hasNext() ; ) {
-            monitor.report(I18N.get("ui.plugin.analysis.UnionByAttributePlugIn.computing-union") + " (" + count++ + "/" + map.size() + ")");
-            Object key = i.next();
-            FeatureCollection fca = (FeatureCollection)map.get(key);
-            if (fca.size() > 0) {
-                Feature feature = union(context, monitor, fca);
-                if (use_attribute) feature.setAttribute(attribute, key);
-                Feature newFeature = new BasicFeature(newSchema);
-                // Copy feature attributes in newFeature
-                for (int j = 0, max = newSchema.getAttributeCount() ; j < max ; j++) {
-                    newFeature.setAttribute(j, feature.getAttribute(newSchema.getAttributeName(j)));
-                }
-                resultfc.add(newFeature);
-            }
+        for (Feature feature : results) {
+            resultfc.add(feature);
         }
         context.getLayerManager().addCategory(StandardCategoryNames.RESULT);
         String newLayerName = layer.getName() +
@@ -332,36 +367,36 @@ public class UnionByAttributePlugIn extends AbstractThreadedUiPlugIn {
     }
     
    /**
-    * New method for union. Uses new UnaryUnionOp which is much more
+    * New method for union. Uses ParallelCascadedUnion which is much more
     * efficient than Geometry.union() for large datasets.
+    * @param excluded list receiving the ids of features excluded because
+    *                 their geometry is invalid
     */
-    private Feature union(PlugInContext context, TaskMonitor monitor, FeatureCollection fc) {
+    private Feature union(FeatureCollection fc, List<Object> excluded) {
         // Eliminate invalid geomeries and log their fid
-        Collection geometries  = new ArrayList();
-        for (Iterator it = fc.iterator() ; it.hasNext() ; ) {
-            Feature f = (Feature) it.next();
+        List<Geometry> geometries = new ArrayList<>();
+        for (Feature f : fc.getFeatures()) {
             Geometry g = f.getGeometry();
             if (!g.isValid()) {
-                context.getWorkbenchFrame().warnUser(
-                    I18N.get("ui.plugin.analysis.UnionByAttributePlugIn.invalid-geometry-excluded"));
-                context.getOutputFrame().addText(
-                    I18N.getMessage("ui.plugin.analysis.UnionByAttributePlugIn.exclusion", new Object[]{f.getID()}));
+                excluded.add(f.getID());
                 continue;
             }
             else geometries.add(g);
         }
-        Geometry unioned = UnaryUnionOp.union(geometries);
+        Geometry unioned = ParallelCascadedUnion.union(geometries);
         // Post process linestring if merged is wanted
         if (merge_linestrings) {
             geometries.clear();
-            List points      = new ArrayList();
-            List lineStrings = new ArrayList();
-            List polygons    = new ArrayList();
+            List<Geometry> points      = new ArrayList<>();
+            List<Geometry> lineStrings = new ArrayList<>();
+            List<Geometry> polygons    = new ArrayList<>();
             decompose(unioned, points, lineStrings, polygons);
             LineMerger merger = new LineMerger();
             merger.add(lineStrings);
             geometries.addAll(points);
-            geometries.addAll(merger.getMergedLineStrings());
+            for (Object lineString : merger.getMergedLineStrings()) {
+                geometries.add((Geometry) lineString);
+            }
             geometries.addAll(polygons);
             unioned = unioned.getFactory().buildGeometry(geometries);
         }
@@ -374,12 +409,13 @@ public class UnionByAttributePlugIn extends AbstractThreadedUiPlugIn {
             feature.setGeometry(unioned);
         }
         if (aggregate_unused_fields) {
-            feature = aggregateValues(context, fc, feature);
+            feature = aggregateValues(fc, feature);
         }
         return feature;
     }
 
-    private void decompose(Geometry geometry, List dim0, List dim1, List dim2) {
+    private void decompose(Geometry geometry, List<Geometry> dim0,
+                           List<Geometry> dim1, List<Geometry> dim2) {
         if (geometry instanceof GeometryCollection) {
             for (int i = 0 ; i < geometry.getNumGeometries() ; i++) {
                 decompose(geometry.getGeometryN(i), dim0, dim1, dim2);
@@ -393,7 +429,7 @@ public class UnionByAttributePlugIn extends AbstractThreadedUiPlugIn {
         };
     }
     
-    private Feature aggregateValues(PlugInContext context, FeatureCollection fc, Feature feature) {
+    private Feature aggregateValues(FeatureCollection fc, Feature feature) {
         FeatureSchema schema = fc.getFeatureSchema();
         for (int i = 0, max = schema.getAttributeCount() ; i < max ; i++) {
             if (schema.getAttributeType(i) == AttributeType.INTEGER) {
@@ -420,13 +456,20 @@ public class UnionByAttributePlugIn extends AbstractThreadedUiPlugIn {
                 }
                 feature.setAttribute(i, java.util.Arrays.toString(set.toArray()));
             }
-            else if (schema.getAttributeType(i) != AttributeType.GEOMETRY) {
+        }
+        return feature;
+    }
+
+    private void reportNonAggregatedFields(PlugInContext context, FeatureSchema schema) {
+        for (int i = 0, max = schema.getAttributeCount() ; i < max ; i++) {
+            AttributeType type = schema.getAttributeType(i);
+            if (type != AttributeType.INTEGER && type != AttributeType.DOUBLE &&
+                type != AttributeType.STRING && type != AttributeType.GEOMETRY) {
                 context.getOutputFrame().addText(
                     I18N.getMessage("ui.plugin.analysis.UnionByAttributePlugIn.cannot-be-aggregated", 
-                    new Object[]{schema.getAttributeName(i), schema.getAttributeType(i)}));
+                    new Object[]{schema.getAttributeName(i), type}));
             }
         }
-        return feature;
     }
     
     private void writeReport(PlugInContext context) {
@@ -4,8 +4,8 @@ import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.operation.linemerge.LineMerger;
-import org.locationtech.jts.operation.union.UnaryUnionOp;
 import com.vividsolutions.jump.feature.AttributeType;
+import com.vividsolutions.jump.geom.ParallelCascadedUnion;
 
 import java.util.*;
 
@@ -186,7 +186,7 @@ public class Aggregators {
             List<Geometry> geometries = new ArrayList<Geometry>();
             geometries.addAll(points);
             geometries.addAll(merger.getMergedLineStrings());
-            Geometry mpoly = UnaryUnionOp.union(polygons);
+            Geometry mpoly = ParallelCascadedUnion.union(polygons);
             if (mpoly != null) {
                 for (int i = 0; i < mpoly.getNumGeometries(); i++) {
                     geometries.add(mpoly.getGeometryN(i));
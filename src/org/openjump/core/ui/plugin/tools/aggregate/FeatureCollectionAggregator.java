@@ -4,6 +4,7 @@ import com.vividsolutions.jump.feature.*;
 import com.vividsolutions.jump.I18N;
 
 import java.util.*;
+import java.util.stream.IntStream;
 
 /**
  * Creates a new FeatureDataset from a source FeatureCollection,
@@ -47,7 +48,7 @@ public class FeatureCollectionAggregator {
      * @return the featureCollection with aggregated attributes
      */
     public FeatureCollection getAggregatedFeatureCollection() {
-        Map<Key,List<AttributeAggregator>> map = new HashMap<>();
+        Map<Key,List<AttributeAggregator>> map = new LinkedHashMap<>();
         // Add attribute values to features with the same key
         for (Object object : fc.getFeatures()) {
             Feature feature = (Feature)object;
@@ -69,9 +70,13 @@ public class FeatureCollectionAggregator {
             }
         }
 
+        // Aggregators of different keys are independent : compute their
+        // results (e.g. geometry unions) concurrently, in the order of keys
         FeatureSchema newSchema = getFeatureSchema();
-        FeatureCollection result = new FeatureDataset(newSchema);
-        for (Map.Entry<Key,List<AttributeAggregator>> entry : map.entrySet()) {
+        List<Map.Entry<Key,List<AttributeAggregator>>> entries = new ArrayList<>(map.entrySet());
+        Feature[] features = new Feature[entries.size()];
+        IntStream.range(0, entries.size()).parallel().forEach(i -> {
+            Map.Entry<Key,List<AttributeAggregator>> entry = entries.get(i);
             Feature feature = new BasicFeature(newSchema);
             for (String keyAtt : keyAttributes) {
                 feature.setAttribute(keyAtt, entry.getKey().map.get(keyAtt));
@@ -79,6 +84,10 @@ public class FeatureCollectionAggregator {
             for (AttributeAggregator agg : entry.getValue()) {
                 feature.setAttribute(agg.getOutputName(), agg.getAggregator().getResult());
             }
+            features[i] = feature;
+        });
+        FeatureCollection result = new FeatureDataset(newSchema);
+        for (Feature feature : features) {
             result.add(feature);
         }
         return result;
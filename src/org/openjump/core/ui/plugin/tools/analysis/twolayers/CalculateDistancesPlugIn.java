@@ -39,7 +39,11 @@ package org.openjump.core.ui.plugin.tools.analysis.twolayers;
 import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.JComboBox;
@@ -92,6 +96,16 @@ public class CalculateDistancesPlugIn extends ThreadedBasePlugIn{
 	private String sCalcCentroidDist = 		I18N.get("org.openjump.core.ui.plugin.tools.CalculateDistancesPlugIn.calculate-centroid-distance");
 	private String sCalcHausdorffDsit = 	I18N.get("org.openjump.core.ui.plugin.tools.CalculateDistancesPlugIn.calculate-Hausdorff-distance-a-maximal-distance");
 	private String sGenerateLines = 		I18N.get("org.openjump.core.ui.plugin.tools.CalculateDistancesPlugIn.generate-line-distance-geometries-to-first-destination");
+	private String sNearestCount = 			I18N.get("org.openjump.core.ui.plugin.tools.CalculateDistancesPlugIn.number-of-nearest-destinations");
+	private String sNearestCountTT = 		I18N.get("org.openjump.core.ui.plugin.tools.CalculateDistancesPlugIn.number-of-nearest-destinations-tooltip");
+	private String sMaxDistance = 			I18N.get("org.openjump.core.ui.plugin.tools.CalculateDistancesPlugIn.maximum-distance");
+	private String sMaxDistanceTT = 		I18N.get("org.openjump.core.ui.plugin.tools.CalculateDistancesPlugIn.maximum-distance-tooltip");
+	private String sRankBy = 				I18N.get("org.openjump.core.ui.plugin.tools.CalculateDistancesPlugIn.rank-nearest-destinations-by");
+	// labels of the NearestNeighbours.Metric values, in the same order
+	private List<String> sMetrics = 		Arrays.asList(
+			I18N.get("org.openjump.core.ui.plugin.tools.CalculateDistancesPlugIn.shortest-distance"),
+			I18N.get("org.openjump.core.ui.plugin.tools.CalculateDistancesPlugIn.centroid-distance"),
+			I18N.get("org.openjump.core.ui.plugin.tools.CalculateDistancesPlugIn.Hausdorff-distance"));
 		
 	//-- vars
 	private Layer orgLayer = null;
@@ -101,6 +115,11 @@ public class CalculateDistancesPlugIn extends ThreadedBasePlugIn{
 	public boolean calcCentroidDistance = true;
 	public boolean calcHausdorffDistance = true;
 	public boolean displayLineGeoms = true;
+	// 0 : distances to all destinations, one column per destination
+	// > 0 : distances to the nearestCount nearest destinations, one row per pair
+	public int nearestCount = 0;
+	public double maxDistance = 0;
+	public NearestNeighbours.Metric rankBy = NearestNeighbours.Metric.SHORTEST;
 	    
 	private MultiInputDialog dialog;	
 	private PlugInContext pcontext = null;
@@ -156,9 +175,19 @@ public class CalculateDistancesPlugIn extends ThreadedBasePlugIn{
 		FeatureCollection originFeatures = this.orgLayer.getFeatureCollectionWrapper();
 		FeatureCollection destinationFeatures = this.destLayer.getFeatureCollectionWrapper();	
 				
-		FeatureDataset results = calcDistances(originFeatures, destinationFeatures, this.orgAttrName,
+		FeatureDataset results;
+		if (this.nearestCount > 0) {
+			results = calcNearestDistances(originFeatures, destinationFeatures, this.orgAttrName,
+											this.destAttrName, this.nearestCount, this.maxDistance, this.rankBy,
+											this.calcCentroidDistance, this.calcHausdorffDistance,
+											this.displayLineGeoms, monitor);
+			if (results == null) return; // cancelled
+		}
+		else {
+			results = calcDistances(originFeatures, destinationFeatures, this.orgAttrName,
 		        						this.destAttrName, this.calcCentroidDistance, 
 		        						this.calcHausdorffDistance, this.displayLineGeoms, monitor);
+		}
 		if(results.size() > 0){
 			context.addLayer(StandardCategoryNames.RESULT, distresult, results);
 		}
@@ -306,6 +335,96 @@ public class CalculateDistancesPlugIn extends ThreadedBasePlugIn{
 		return resultDistFeatures;
 	}
 	
+	/**
+	 * Calculates the distances between each origin and its k nearest destinations.
+	 * Destinations are searched in an STRtree (see {@link NearestNeighbours}) and
+	 * origins are processed in parallel. The result contains one feature per
+	 * origin/destination pair, with the rank of the destination (1 for the nearest).
+	 * @return the distances, or null if the process has been cancelled
+	 */
+	private FeatureDataset calcNearestDistances(FeatureCollection originFeatures,
+			FeatureCollection destinationFeatures, String orgAttrName, String destAttrName,
+			int k, double maxDist, NearestNeighbours.Metric metric,
+			boolean calcCentroidDist, boolean calcHausdorffDist, boolean displayLines,
+			TaskMonitor monitor) {
+		
+		monitor.allowCancellationRequests();
+		
+		final List<Feature> origins = originFeatures.getFeatures();
+		final List<Feature> destinations = destinationFeatures.getFeatures();
+		final List<Geometry> destGeoms = new ArrayList<>(destinations.size());
+		for (Feature f : destinations) destGeoms.add(f.getGeometry());
+		final NearestNeighbours index = new NearestNeighbours(destGeoms, metric);
+		
+		final String destIdName = destAttrName.equals(orgAttrName) ? "dest_" + destAttrName : destAttrName;
+		final FeatureSchema newFs = new FeatureSchema();
+		newFs.addAttribute("geometry", AttributeType.GEOMETRY);
+		newFs.addAttribute(orgAttrName, originFeatures.getFeatureSchema().getAttributeType(orgAttrName));
+		newFs.addAttribute("rank", AttributeType.INTEGER);
+		newFs.addAttribute(destIdName, destinationFeatures.getFeatureSchema().getAttributeType(destAttrName));
+		newFs.addAttribute("sd", AttributeType.DOUBLE);
+		if (calcCentroidDist) newFs.addAttribute("sdc", AttributeType.DOUBLE);
+		if (calcHausdorffDist) newFs.addAttribute("sdh", AttributeType.DOUBLE);
+		
+		final GeometryFactory gf = new GeometryFactory();
+		final Feature[][] pairs = new Feature[origins.size()][];
+		final AtomicInteger numItemsProcessed = new AtomicInteger();
+		IntStream.range(0, origins.size()).parallel().forEach(i -> {
+			if (monitor.isCancelRequested()) return;
+			final Feature orgF = origins.get(i);
+			final int[] nearest = index.nearest(orgF.getGeometry(), k, maxDist);
+			pairs[i] = new Feature[nearest.length];
+			for (int rank = 0; rank < nearest.length; rank++) {
+				final Feature destF = destinations.get(nearest[rank]);
+				final Feature newFeature = new BasicFeature(newFs);
+				newFeature.setAttribute(orgAttrName, orgF.getAttribute(orgAttrName));
+				newFeature.setAttribute("rank", rank + 1);
+				newFeature.setAttribute(destIdName, destF.getAttribute(destAttrName));
+				final List<LineString> lines = new ArrayList<>(3);
+				try {
+					DistanceOp dops = new DistanceOp(orgF.getGeometry(), destF.getGeometry());
+					newFeature.setAttribute("sd", dops.distance());
+					if (displayLines) lines.add(gf.createLineString(dops.nearestPoints()));
+				}
+				catch (Exception e) {
+					newFeature.setAttribute("sd", Double.NaN);
+				}
+				if (calcCentroidDist) {
+					try {
+						DistanceOp dopc = new DistanceOp(orgF.getGeometry().getCentroid(), destF.getGeometry().getCentroid());
+						newFeature.setAttribute("sdc", dopc.distance());
+						if (displayLines) lines.add(gf.createLineString(dopc.nearestPoints()));
+					}
+					catch (Exception e) {
+						newFeature.setAttribute("sdc", Double.NaN);
+					}
+				}
+				if (calcHausdorffDist) {
+					try {
+						DiscreteHausdorffDistance doph = new DiscreteHausdorffDistance(orgF.getGeometry(), destF.getGeometry());
+						newFeature.setAttribute("sdh", doph.distance());
+						if (displayLines) lines.add(gf.createLineString(doph.getCoordinates()));
+					}
+					catch (Exception e) {
+						newFeature.setAttribute("sdh", Double.NaN);
+					}
+				}
+				newFeature.setGeometry(lines.isEmpty() ? gf.createGeometryCollection(null)
+						: gf.createMultiLineString(lines.toArray(new LineString[0])));
+				pairs[i][rank] = newFeature;
+			}
+			monitor.report(numItemsProcessed.incrementAndGet(), origins.size(), sMonitorMsg);
+		});
+		if (monitor.isCancelRequested()) return null;
+		
+		//-- gather results in the order of origins
+		final FeatureDataset resultDistFeatures = new FeatureDataset(newFs);
+		for (Feature[] originPairs : pairs) {
+			resultDistFeatures.addAll(Arrays.asList(originPairs));
+		}
+		return resultDistFeatures;
+	}
+	
 	//============================================================
 	// dialog things 
 	//============================================================
@@ -349,6 +468,11 @@ public class CalculateDistancesPlugIn extends ThreadedBasePlugIn{
 		this.dialog.addCheckBox(sCalcHausdorffDsit, calcHausdorffDistance);
 		this.dialog.addSeparator();
 		this.dialog.addCheckBox(sGenerateLines, displayLineGeoms);
+		//-- nearest destinations only
+		this.dialog.addSeparator();
+		this.dialog.addIntegerField(sNearestCount, nearestCount, 6, sNearestCountTT);
+		this.dialog.addDoubleField(sMaxDistance, maxDistance, 10, sMaxDistanceTT);
+		this.dialog.addComboBox(sRankBy, sMetrics.get(rankBy.ordinal()), sMetrics, "");
 	}
 	
 	private void updateUIForAttributesOrg(){	
@@ -397,6 +521,9 @@ public class CalculateDistancesPlugIn extends ThreadedBasePlugIn{
 		this.calcCentroidDistance = dialog.getBoolean(sCalcCentroidDist);
 		this.calcHausdorffDistance = dialog.getBoolean(sCalcHausdorffDsit);
 		this.displayLineGeoms = dialog.getBoolean(sGenerateLines);
+		this.nearestCount = Math.max(0, dialog.getInteger(sNearestCount));
+		this.maxDistance = dialog.getDouble(sMaxDistance);
+		this.rankBy = NearestNeighbours.Metric.values()[dialog.getComboBox(sRankBy).getSelectedIndex()];
 	}
 	
 	
@@ -0,0 +1,137 @@
+package org.openjump.core.ui.plugin.tools.analysis.twolayers;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.locationtech.jts.algorithm.distance.DiscreteHausdorffDistance;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.ItemBoundable;
+import org.locationtech.jts.index.strtree.ItemDistance;
+import org.locationtech.jts.index.strtree.STRtree;
+
+/**
+ * Finds the k nearest destinations of an origin geometry.
+ * <p>
+ * Destinations are indexed in an STRtree, and searched with its
+ * branch-and-bound k nearest neighbour search : tree nodes are explored in
+ * order of the distance between envelopes, which is a lower bound of the
+ * distance between geometries, and nodes farther than the current k-th
+ * neighbour are pruned. When a maximum distance is given, only the
+ * destinations whose envelope is within this distance are evaluated.
+ * </p>
+ * The distance used to rank destinations may be the shortest distance, the
+ * distance between centroids or the (discrete) Hausdorff distance, which are
+ * all greater than or equal to the distance between envelopes (centroids
+ * are indexed instead of geometries for the centroid distance).
+ * Once built, a NearestNeighbours can be queried concurrently.
+ */
+public class NearestNeighbours {
+
+    public enum Metric {SHORTEST, CENTROID, HAUSDORFF}
+
+    private final Geometry[] destinations;
+    private final Metric metric;
+    private final STRtree tree = new STRtree();
+
+    // destinations are indexed by their ordinal
+    private final ItemDistance itemDistance = new ItemDistance() {
+        public double distance(ItemBoundable item1, ItemBoundable item2) {
+            return NearestNeighbours.this.distance(geometry(item1.getItem()), geometry(item2.getItem()));
+        }
+    };
+
+    /**
+     * @param destinations the geometries to search (null or empty geometries
+     *                     are never returned)
+     * @param metric the distance used to rank destinations
+     */
+    public NearestNeighbours(List<Geometry> destinations, Metric metric) {
+        this.metric = metric;
+        this.destinations = new Geometry[destinations.size()];
+        for (int i = 0; i < this.destinations.length; i++) {
+            Geometry g = destinations.get(i);
+            if (g == null || g.isEmpty()) continue;
+            this.destinations[i] = metric == Metric.CENTROID ? g.getCentroid() : g;
+            tree.insert(this.destinations[i].getEnvelopeInternal(), i);
+        }
+        // build the tree now, so that it can be shared by several threads
+        tree.build();
+    }
+
+    /**
+     * Returns the indices of the k destinations nearest to origin, ordered
+     * by increasing distance. Destinations at the same distance are ordered
+     * by index, including those tied with the k-th one.
+     * @param origin the origin geometry
+     * @param k maximum number of destinations to return
+     * @param maxDistance maximum distance of the destinations, or a value
+     *                    &lt;= 0 for no limit
+     * @return the indices of the nearest destinations
+     */
+    public int[] nearest(Geometry origin, int k, double maxDistance) {
+        if (origin == null || origin.isEmpty() || tree.size() == 0 || k <= 0) return new int[0];
+        final Geometry query = metric == Metric.CENTROID ? origin.getCentroid() : origin;
+        double limit = maxDistance;
+        if (limit <= 0) {
+            // the distance of the k-th nearest destination is used as limit,
+            // so that the destinations tied with it are all found below
+            limit = 0;
+            for (Object item : tree.nearestNeighbour(query.getEnvelopeInternal(), query,
+                    itemDistance, Math.min(k, tree.size()))) {
+                limit = Math.max(limit, distance(query, destinations[(Integer)item]));
+            }
+        }
+        final Envelope env = new Envelope(query.getEnvelopeInternal());
+        env.expandBy(limit);
+        final Object[] items = tree.query(env).toArray();
+        // compute distances once, then sort candidates by distance
+        // (ties are sorted by destination index to keep results stable)
+        final Neighbour[] neighbours = new Neighbour[items.length];
+        int n = 0;
+        for (Object item : items) {
+            final int index = (Integer)item;
+            final double d = distance(query, destinations[index]);
+            if (d > limit) continue;
+            neighbours[n++] = new Neighbour(index, d);
+        }
+        Arrays.sort(neighbours, 0, n);
+        final int[] result = new int[Math.min(k, n)];
+        for (int i = 0; i < result.length; i++) result[i] = neighbours[i].index;
+        return result;
+    }
+
+    /**
+     * @return the distance between origin and the destination of index i,
+     * according to the metric of this index
+     */
+    public double distance(Geometry origin, int i) {
+        return distance(metric == Metric.CENTROID ? origin.getCentroid() : origin, destinations[i]);
+    }
+
+    private Geometry geometry(Object item) {
+        return item instanceof Integer ? destinations[(Integer)item] : (Geometry)item;
+    }
+
+    private double distance(Geometry g1, Geometry g2) {
+        if (metric == Metric.HAUSDORFF) {
+            return DiscreteHausdorffDistance.distance(g1, g2);
+        }
+        return g1.distance(g2);
+    }
+
+    private static class Neighbour implements Comparable<Neighbour> {
+        final int index;
+        final double distance;
+
+        Neighbour(int index, double distance) {
+            this.index = index;
+            this.distance = distance;
+        }
+
+        public int compareTo(Neighbour other) {
+            final int c = Double.compare(distance, other.distance);
+            return c != 0 ? c : Integer.compare(index, other.index);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.openjump.core.ui.plugin.tools.generalization;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjump.core.graph.polygongraph.PolygonGraph;
+import org.openjump.core.graph.polygongraph.PolygonGraphNode;
+
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.IntersectionMatrix;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
+import com.vividsolutions.jump.feature.Feature;
+import com.vividsolutions.jump.task.TaskMonitor;
+
+/**
+ * The unique edges of a polygonal coverage (boundaries shared by two
+ * polygons and boundaries belonging to a single polygon), extracted once
+ * with a {@link PolygonGraph}, so that the coverage can be simplified
+ * several times with different tolerances.
+ * <p>
+ * Boundaries of the graph are computed in parallel. Each edge is then
+ * simplified exactly once per tolerance, in parallel, and an edge whose
+ * simplified version crosses or overlaps the simplified version of a
+ * neighbour edge keeps its original geometry.
+ * </p>
+ */
+public class CoverageEdgeGraph {
+
+    private final Geometry[] sourceGeometries;
+    private final Geometry[] edges;
+    private final STRtree index = new STRtree();
+
+    /**
+     * Extracts the edges of a polygonal coverage.
+     * @param features the polygonal features of the coverage
+     * @param monitor can be null, used to cancel operation (the graph is then
+     *                incomplete, see {@link #isComplete()})
+     */
+    public CoverageEdgeGraph(Collection<Feature> features, TaskMonitor monitor) {
+        PolygonGraph pg = new PolygonGraph(features, monitor);
+        if (isCancelled(monitor)) {
+            sourceGeometries = null;
+            edges = new Geometry[0];
+            return;
+        }
+        // shared boundaries of each pair of polygons are independent
+        pg.edges.parallelStream().forEach(edge -> edge.getBoundaries());
+        List<Geometry> edgeList = new ArrayList<>();
+        for (Object f : pg.getSharedBoundaries().getFeatures()) {
+            edgeList.add(((Feature)f).getGeometry());
+        }
+        // and non shared boundaries of a polygon only read the boundaries
+        // shared with its neighbours
+        final List<List<Feature>> nonShared = pg.nodes.parallelStream()
+                .map(PolygonGraphNode::getNonSharedBoundariesAsFeature)
+                .collect(Collectors.toList());
+        for (List<Feature> boundaries : nonShared) {
+            for (Feature f : boundaries) edgeList.add(f.getGeometry());
+        }
+        edges = edgeList.toArray(new Geometry[0]);
+        for (int i = 0; i < edges.length; i++) {
+            index.insert(edges[i].getEnvelopeInternal(), i);
+        }
+        // build now, so that the tree can be queried concurrently
+        index.build();
+
+        sourceGeometries = new Geometry[features.size()];
+        int i = 0;
+        for (Feature feature : features) sourceGeometries[i++] = feature.getGeometry();
+    }
+
+    /**
+     * @return false if the extraction of the edges has been cancelled
+     */
+    public boolean isComplete() {
+        return sourceGeometries != null;
+    }
+
+    /**
+     * Returns true if this graph has been built from the same geometries as
+     * features (in the same order), so that it can be reused to simplify
+     * them.
+     */
+    public boolean isBuiltFrom(Collection<Feature> features) {
+        if (!isComplete() || features.size() != sourceGeometries.length) return false;
+        int i = 0;
+        for (Feature feature : features) {
+            if (feature.getGeometry() != sourceGeometries[i++]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of unique edges of the coverage
+     */
+    public int size() {
+        return edges.length;
+    }
+
+    /**
+     * Simplifies the edges of the coverage with a
+     * {@link TopologyPreservingSimplifier}.
+     * @param tolerance maximum point displacement
+     * @param monitor can be null, used to cancel operation
+     * @return the simplified edges, or null if the operation has been cancelled
+     */
+    public List<Geometry> simplify(final double tolerance, TaskMonitor monitor) {
+        final Geometry[] simplified = new Geometry[edges.length];
+        IntStream.range(0, edges.length).parallel().forEach(i ->
+                simplified[i] = TopologyPreservingSimplifier.simplify(edges[i], tolerance));
+        if (isCancelled(monitor)) return null;
+        // [mmichaud 2013-03-16] an edge which cannot be safely simplified
+        // rolls back to its original geometry
+        final Geometry[] result = new Geometry[edges.length];
+        IntStream.range(0, edges.length).parallel().forEach(i ->
+                result[i] = isSafelySimplified(i, simplified, tolerance) ? simplified[i] : edges[i]);
+        if (isCancelled(monitor)) return null;
+        List<Geometry> list = new ArrayList<>(result.length);
+        for (Geometry g : result) list.add(g);
+        return list;
+    }
+
+    private boolean isSafelySimplified(int i, Geometry[] simplified, double tolerance) {
+        Envelope env = new Envelope(edges[i].getEnvelopeInternal());
+        env.expandBy(tolerance);
+        for (Object item : index.query(env)) {
+            int j = (Integer)item;
+            if (j == i) continue;
+            IntersectionMatrix im = simplified[i].relate(simplified[j]);
+            if (im.matches("0********") || im.matches("1********")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCancelled(TaskMonitor monitor) {
+        return monitor != null && monitor.isCancelRequested();
+    }
+}
@@ -35,7 +35,6 @@
 
 package org.openjump.core.ui.plugin.tools.generalization;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -43,17 +42,13 @@ import java.util.List;
 import javax.swing.JComboBox;
 
 import org.openjump.core.geomutils.algorithm.IntersectGeometries;
-import org.openjump.core.graph.polygongraph.PolygonGraph;
 
 import org.locationtech.jts.geom.Coordinate;
-import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
-import org.locationtech.jts.geom.IntersectionMatrix;
 import org.locationtech.jts.geom.Polygon;
 import org.locationtech.jts.index.SpatialIndex;
 import org.locationtech.jts.index.strtree.STRtree;
 import org.locationtech.jts.operation.polygonize.Polygonizer;
-import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
 import com.vividsolutions.jump.I18N;
 import com.vividsolutions.jump.feature.BasicFeature;
 import com.vividsolutions.jump.feature.Feature;
@@ -100,6 +95,9 @@ public class SimplifyPolygonCoveragePlugIn extends AbstractPlugIn implements Thr
     private Layer input = null;
     private MultiInputDialog dialog;
     private double tolerance = 1.0;
+    // unique edges of the last processed coverage, reused if the plugin is
+    // run again on the same coverage with another tolerance
+    private CoverageEdgeGraph edgeGraph = null;
         
     public void initialize(PlugInContext context) throws Exception {
     
@@ -157,65 +155,29 @@ public class SimplifyPolygonCoveragePlugIn extends AbstractPlugIn implements Thr
 	    	Collection<Feature> features = this.regions.getFeatures();
 	    	Feature firstFeature = (Feature)features.iterator().next();
 	    	if (firstFeature.getGeometry().getDimension() == 2){
-	    		//-- extract the unique boundaries
-		    	monitor.report(sCreateGraph);
-		    	PolygonGraph pg = new PolygonGraph(features, monitor);
-		    	FeatureCollection boundaries = pg.getSharedBoundaries();
-		    	boundaries.addAll(pg.getNonSharedBoundaries().getFeatures());
-		    	
-		    	SpatialIndex index = new STRtree();
-		    	for (Iterator iterator = boundaries.iterator(); iterator.hasNext();) {
-		    	    Geometry geom = ((Feature)iterator.next()).getGeometry();
-		    	    index.insert(geom.getEnvelopeInternal(), geom);
-		    	}
-		    	
-		    	if (monitor.isCancelRequested()){
-		    		return;
-		    	}
+	    		//-- extract the unique boundaries, unless the graph of the
+	    		//   previous run can be reused
+	    		if (edgeGraph == null || !edgeGraph.isBuiltFrom(features)) {
+	    		    edgeGraph = null;
+	    		    monitor.report(sCreateGraph);
+	    		    CoverageEdgeGraph graph = new CoverageEdgeGraph(features, monitor);
+	    		    if (!graph.isComplete()) {
+	    		        return;
+	    		    }
+	    		    edgeGraph = graph;
+	    		}
+	    		
 	    		//-- simplify the unique boundaries
-		    	monitor.report(sSimplify);
-		    	int count = 0; int noItems = boundaries.size();
-		    	for (Iterator iterator = boundaries.iterator(); iterator.hasNext();) {
-		    		count++;
-					Feature edge = (Feature) iterator.next();
-					Geometry resultgeom = TopologyPreservingSimplifier.simplify(edge.getGeometry(), Math.abs(tolerance));
-					
-					// [mmichaud 2013-03-16] add a test to check if the edge can 
-					// be safely simplified.
-					// If not we roll back to original edge geometry
-					Envelope env = edge.getGeometry().getEnvelopeInternal();
-					env.expandBy(Math.abs(tolerance));
-					List neighbours = index.query(env);
-					boolean simplify = true;
-					for (Object object : neighbours) {
-					    if (object == edge.getGeometry()) continue;
-					    Geometry neighbour = TopologyPreservingSimplifier.simplify((Geometry)object, Math.abs(tolerance));
-					    IntersectionMatrix im = resultgeom.relate(neighbour);
-					    if (im.matches("0********") || im.matches("1********")) {
-					        simplify = false;
-					        break;
-					    }
-					}
-					if (simplify == false) {
-					    resultgeom = edge.getGeometry();
-					}
-					// end
-					
-					edge.setGeometry(resultgeom);
-				    String mytext =  count + " / " + noItems + " : " + sSimplificationFinalized;
-				    monitor.report(mytext);
-			    	if (monitor.isCancelRequested()){
-			    		return;
-			    	}
-				}
+	    		monitor.report(edgeGraph.size() + " : " + sSimplify);
+	    		Collection<Geometry> lines = edgeGraph.simplify(Math.abs(tolerance), monitor);
+	    		if (lines == null) {
+	    		    return;
+	    		}
+	    		monitor.report(sSimplificationFinalized);
+		    	
 		    	//-- create polygons	  
 		    	monitor.report(sPolygonize);
 				//-- calculate the intersections and use the Polygonizer
-		    	Collection<Geometry> lines = new ArrayList<Geometry>();
-		    	for (Iterator iterator = boundaries.iterator(); iterator.hasNext();) {
-					Feature edge = (Feature) iterator.next();
-		    		lines.add(edge.getGeometry());
-		    	}
 				Collection<Geometry>  nodedLines = IntersectGeometries.nodeLines(lines);
 			    Polygonizer polygonizer = new Polygonizer();
 			    for (Iterator i = nodedLines.iterator(); i.hasNext(); ) {
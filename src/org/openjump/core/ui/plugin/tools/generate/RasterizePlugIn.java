@@ -279,9 +279,11 @@ public class RasterizePlugIn extends AbstractPlugIn
     FeatureCollection fc = sourceLayer.getFeatureCollectionWrapper();
     final File outFile = FileUtil.addExtensionIfNone(new File(path), "tif");
     monitor.report(RASTERIZING_VECTOR + "...");
-    RasterizeAlgorithm rasterize = new RasterizeAlgorithm(fix, fc, selAttribute, cellValue);
-    rasterize.process();
-    rasterize.saveToFile(outFile);
+    RasterizeAlgorithm.rasterizeToTiledTIFF(outFile, fix, fc, selAttribute,
+        cellValue, monitor);
+    if (monitor.isCancelRequested()) {
+      return;
+    }
 
     String catName = StandardCategoryNames.WORKING;
     try {
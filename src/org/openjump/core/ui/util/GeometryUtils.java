@@ -8,6 +8,7 @@ import org.locationtech.jts.geom.CoordinateFilter;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
 import com.vividsolutions.jump.geom.CoordUtil;
+import com.vividsolutions.jump.geom.CoordinateStorage;
 import com.vividsolutions.jump.workbench.Logger;
 
 public class GeometryUtils {
@@ -20,7 +21,7 @@ public class GeometryUtils {
    */
   public static void scaleGeometry(Geometry geometry, final double scale) {
     final Coordinate center = geometry.getCentroid().getCoordinate();
-    geometry.apply(new CoordinateFilter() {
+    CoordinateStorage.apply(geometry, new CoordinateFilter() {
       public void filter(Coordinate coordinate) {
         coordinate.x = center.x + (scale / 100) * (coordinate.x - center.x);
         coordinate.y = center.y + (scale / 100) * (coordinate.y - center.y);
@@ -36,7 +37,7 @@ public class GeometryUtils {
    */
   public static void rotateGeometry(Geometry geometry, final double angle) {
     final Coordinate center = geometry.getCentroid().getCoordinate();
-    geometry.apply(new CoordinateFilter() {
+    CoordinateStorage.apply(geometry, new CoordinateFilter() {
       public void filter(Coordinate coordinate) {
         double cosAngle = Math.cos(angle);
         double sinAngle = Math.sin(angle);
@@ -61,7 +62,7 @@ public class GeometryUtils {
     radiansAngle = Deg2Rad * (-angle);
     final double cosAngle = Math.cos(radiansAngle);
     final double sinAngle = Math.sin(radiansAngle);
-    geometry.apply(new CoordinateFilter() {
+    CoordinateStorage.apply(geometry, new CoordinateFilter() {
       public void filter(Coordinate coordinate) {
         double x = coordinate.x - center.x;
         double y = coordinate.y - center.y;
@@ -79,7 +80,7 @@ public class GeometryUtils {
    */
   public static void centerGeometry(final Geometry geometry,
       final Coordinate displacement) {
-    geometry.apply(new CoordinateFilter() {
+    CoordinateStorage.apply(geometry, new CoordinateFilter() {
       public void filter(Coordinate coordinate) {
         coordinate.setCoordinate(CoordUtil.add(coordinate, displacement));
       }
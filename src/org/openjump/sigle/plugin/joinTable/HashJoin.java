@@ -0,0 +1,85 @@
+package org.openjump.sigle.plugin.joinTable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Equi-join of two lists of String keys.
+ * <p>
+ * The smaller list is indexed once in a hash table (key to positions), and
+ * the larger list is streamed against this index, so that the join takes
+ * linear time instead of comparing every pair of keys. Null keys never
+ * match.
+ * </p>
+ */
+public class HashJoin {
+
+	private HashJoin() {}
+
+	/**
+	 * Returns, for each left key, the positions of the equal right keys in
+	 * ascending order, or null if no right key matches.
+	 * @param leftKeys keys of the left list
+	 * @param rightKeys keys of the right list
+	 * @return an array with the matching right positions of each left key
+	 */
+	public static int[][] match(String[] leftKeys, String[] rightKeys) {
+		int[][] matches = new int[leftKeys.length][];
+		if (leftKeys.length <= rightKeys.length) {
+			// left keys are indexed, and matches of each left key are
+			// appended while right keys are streamed
+			Map<String,int[]> index = index(leftKeys);
+			int[] counts = new int[leftKeys.length];
+			for (int j = 0; j < rightKeys.length; j++) {
+				int[] positions = rightKeys[j] == null ? null : index.get(rightKeys[j]);
+				if (positions == null) continue;
+				for (int i : positions) {
+					if (matches[i] == null) matches[i] = new int[1];
+					else if (counts[i] == matches[i].length) {
+						matches[i] = Arrays.copyOf(matches[i], 2 * counts[i]);
+					}
+					matches[i][counts[i]++] = j;
+				}
+			}
+			for (int i = 0; i < matches.length; i++) {
+				if (matches[i] != null && matches[i].length > counts[i]) {
+					matches[i] = Arrays.copyOf(matches[i], counts[i]);
+				}
+			}
+		} else {
+			Map<String,int[]> index = index(rightKeys);
+			for (int i = 0; i < leftKeys.length; i++) {
+				matches[i] = leftKeys[i] == null ? null : index.get(leftKeys[i]);
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * Positions of each non null key, in ascending order.
+	 */
+	private static Map<String,int[]> index(String[] keys) {
+		// positions are grown by doubling, and the number of positions is
+		// kept in the first element until the arrays are trimmed
+		Map<String,int[]> index = new HashMap<>();
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] == null) continue;
+			int[] positions = index.get(keys[i]);
+			if (positions == null) {
+				index.put(keys[i], new int[] {1, i});
+				continue;
+			}
+			if (positions[0] + 1 == positions.length) {
+				positions = Arrays.copyOf(positions, 2 * positions.length);
+				index.put(keys[i], positions);
+			}
+			positions[++positions[0]] = i;
+		}
+		for (Map.Entry<String,int[]> entry : index.entrySet()) {
+			int[] positions = entry.getValue();
+			entry.setValue(Arrays.copyOfRange(positions, 1, positions[0] + 1));
+		}
+		return index;
+	}
+}
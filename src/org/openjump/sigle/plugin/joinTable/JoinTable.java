@@ -7,13 +7,14 @@
  */
 package org.openjump.sigle.plugin.joinTable;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
-import java.util.Hashtable;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import com.vividsolutions.jump.I18N;
 import com.vividsolutions.jump.feature.AttributeType;
 import com.vividsolutions.jump.feature.BasicFeature;
 import com.vividsolutions.jump.feature.Feature;
@@ -34,12 +35,27 @@ public class JoinTable {
 	// TODO: obedel voir pour la definition d'un type enumere
 	//static Object DataSourceType =  CSV ;
 	
+	/**
+	 * How the values of several rows having the key of a feature are
+	 * combined. Numeric aggregations (SUM, MEAN) take the first value of
+	 * STRING fields.
+	 */
+	public enum Aggregation {
+		
+		LAST, FIRST, SUM, MEAN, MIN, MAX;
+		
+		public String toString() {
+			return I18N.get("org.openjump.sigle.plugin.joinTable.aggregation-" + name().toLowerCase());
+		}
+	}
+	
 	private JoinTableDataSource dataSource = null;
 	private ArrayList fieldNames = null;
 	private ArrayList fieldTypes = null;
-	private Hashtable table = null;
 	private int keyIndex = -1;
 	private int fieldCount = 0;
+	// the last row of a key is used by default, as in a table indexed by key
+	private Aggregation aggregation = Aggregation.LAST;
 
 	//	TODO: obedel voir pour la prise en compte du type de source de donnee
 	public JoinTable(String filePath ) { 
@@ -76,18 +92,40 @@ public class JoinTable {
 		return keyIndex;
 	}
 	
-	public void build()
-	{
-		if (keyIndex>-1)
-		{
-			table = dataSource.buildTable(keyIndex);
-			fieldTypes = dataSource.getFieldTypes();
-		}
-			 
+	public void setAggregation(Aggregation aggregation) {
+		this.aggregation = aggregation;
+	}
+	
+	public Aggregation getAggregation() {
+		return aggregation;
 	}
 	
-	public void join(Layer layer, int attributeIndex) throws SecurityException, NoSuchMethodException, IllegalArgumentException, InstantiationException, IllegalAccessException, InvocationTargetException
+	/**
+	 * Joins the table to the layer (hash join) : keys of the layer are
+	 * collected first, then the table is streamed, only the rows matching a
+	 * feature being kept, and the rows of each key are combined once with
+	 * the {@link Aggregation}.
+	 */
+	public void join(Layer layer, int attributeIndex)
 	{
+		if (keyIndex<0) return;
+		
+		FeatureCollection fc = layer.getFeatureCollectionWrapper();
+		List<Feature> features = fc.getFeatures(); 
+		
+		// cles de la couche
+		String[] featureKeys = new String[features.size()];
+		Set<String> keys = new HashSet<>();
+		for (int i=0; i<featureKeys.length; i++) {
+			// null keys never match, not even an empty key of the table
+			Object keyValue = features.get(i).getAttribute(attributeIndex);
+			if (keyValue == null) continue;
+			featureKeys[i] = keyValue.toString().trim();
+			keys.add(featureKeys[i]);
+		}
+		Map<String,List<String[]>> table = dataSource.buildTable(keyIndex, keys);
+		fieldTypes = dataSource.getFieldTypes();
+		
 		layer.setEditable(true);
 		
 		// rajout des attributs de la table dans la couche
@@ -110,80 +148,120 @@ public class JoinTable {
 				nomChamp = nomChamp + suffixe;
 				fieldNames.set(i,nomChamp);
 				
-				AttributeType t = (AttributeType) fieldTypes.get(i);
-				schema.addAttribute(nomChamp, t);
+				schema.addAttribute(nomChamp, aggregatedType((AttributeType) fieldTypes.get(i)));
 			}
 		}
 		
 		// parcours des entites de la couche et remplissage des nouveaux champs
 		Feature f, fNew;
-		String keyValue;
-		Object value;
-		ArrayList newFeatures;
-		String[] valeurs;
-		
-		FeatureCollection fc = layer.getFeatureCollectionWrapper();
-		List features = fc.getFeatures(); 
-		
-		
-		newFeatures = new ArrayList(features.size());
+		ArrayList newFeatures = new ArrayList(features.size());
+		// valeurs agregees de chaque cle
+		Map<String,Object[]> aggregatedValues = new HashMap<>();
 		
-		for (Iterator i = features.iterator(); i.hasNext();) {
-			f = (Feature) i.next();
-			
-			// probleme de restitution de la classe de l'objet f dans fNew --> voir methode clone
-			//Class [] parameterType = { FeatureSchema.class };
-			//Object [] parameter = { schema };
-			//Constructor c = f.getClass().getConstructor(parameterType); 
-			//fNew = (Feature) c.newInstance(parameter);
+		for (int i=0; i<featureKeys.length; i++) {
+			f = features.get(i);
 			
 			fNew = f.clone(true);
 			fNew.setSchema(schema);
-			fNew.setAttributes(new Object[schema.getAttributeCount()]);
-			int j=0;
-			while(j<nbOldAttributes) {
-				fNew.setAttribute(j, f.getAttribute(j));
-				j++;
+			Object[] attributes = new Object[schema.getAttributeCount()];
+			for (int j=0; j<nbOldAttributes; j++) {
+				attributes[j] = f.getAttribute(j);
 			}
-					
-			newFeatures.add(fNew);			
-				
-			keyValue = fNew.getString(attributeIndex);
-			if (keyValue != null) keyValue = keyValue.trim();
-			valeurs = (String[]) table.get(keyValue);
-			for (j=0; j<fieldCount; j++){
-				if (j!=keyIndex) {
-					if (valeurs != null)
-						value = castValue(valeurs[j], (AttributeType) fieldTypes.get(j));
-					else 
-						value =null;					
-					fNew.setAttribute((String) fieldNames.get(j), value);
+			
+			List<String[]> rows = table.get(featureKeys[i]);
+			if (rows != null) {
+				Object[] values = aggregatedValues.get(featureKeys[i]);
+				if (values == null) {
+					values = aggregate(rows);
+					aggregatedValues.put(featureKeys[i], values);
+				}
+				int k = nbOldAttributes;
+				for (int j=0; j<fieldCount; j++){
+					if (j!=keyIndex) attributes[k++] = values[j];
 				}
 			}
-					
+			fNew.setAttributes(attributes);
+			newFeatures.add(fNew);			
 		}
 		
 		// mise a jour de la couche
 		layer.setFeatureCollection(new FeatureDataset(newFeatures, schema));
 		
 		layer.setEditable(false);
-		
-
 	}
 	
 	// liberation memoire organisee
 	public void dispose() {
-		if (table!=null) table.clear();
 		if (fieldTypes!=null) fieldTypes.clear();
 		if (fieldNames!=null) fieldNames.clear();
 		keyIndex = -1;
 		fieldCount = 0;
-		table=null;
 		fieldTypes=null;
 		fieldNames=null;
 		dataSource = null;
 	}
 	
+	/**
+	 * Type of a field once aggregated.
+	 */
+	private AttributeType aggregatedType(AttributeType t) {
+		if (aggregation == Aggregation.MEAN && t == AttributeType.INTEGER)
+			return AttributeType.DOUBLE;
+		if (aggregation == Aggregation.SUM && t == AttributeType.INTEGER)
+			return AttributeType.LONG;
+		return t;
+	}
+	
+	/**
+	 * Combines the typed values of the rows of a key.
+	 */
+	private Object[] aggregate(List<String[]> rows) {
+		Object[] values = new Object[fieldCount];
+		for (int j=0; j<fieldCount; j++) {
+			if (j==keyIndex) continue;
+			AttributeType t = (AttributeType) fieldTypes.get(j);
+			boolean numeric = t == AttributeType.INTEGER || t == AttributeType.DOUBLE;
+			if (aggregation == Aggregation.LAST) {
+				values[j] = castValue(rows.get(rows.size()-1)[j], t);
+			}
+			else if (aggregation == Aggregation.FIRST ||
+					(!numeric && (aggregation == Aggregation.SUM || aggregation == Aggregation.MEAN))) {
+				values[j] = castValue(rows.get(0)[j], t);
+			}
+			else if (aggregation == Aggregation.MIN || aggregation == Aggregation.MAX) {
+				Comparable<Object> best = null;
+				for (String[] row : rows) {
+					Object castValue = castValue(row[j], t);
+					if (!(castValue instanceof Comparable)) continue;
+					// values of a field are all Integer, Double or String
+					@SuppressWarnings("unchecked")
+					Comparable<Object> value = (Comparable<Object>) castValue;
+					int c = best == null ? 0 : value.compareTo(best);
+					if (best == null || (aggregation == Aggregation.MIN ? c < 0 : c > 0)) best = value;
+				}
+				values[j] = best;
+			}
+			else {
+				// somme ou moyenne des valeurs non nulles
+				double sum = 0;
+				long longSum = 0;
+				int count = 0;
+				for (String[] row : rows) {
+					Number value = (Number) castValue(row[j], t);
+					if (value == null) continue;
+					sum += value.doubleValue();
+					longSum += value.longValue();
+					count++;
+				}
+				if (count == 0) values[j] = null;
+				else if (aggregation == Aggregation.MEAN) values[j] = sum / count;
+				else if (t == AttributeType.INTEGER) values[j] = longSum;
+				else values[j] = sum;
+			}
+		}
+		return values;
+	}
+	
 	private Object castValue(String s, AttributeType t) {
 		try 
 		{
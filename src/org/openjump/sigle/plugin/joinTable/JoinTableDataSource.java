@@ -9,6 +9,9 @@ package org.openjump.sigle.plugin.joinTable;
 
 import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @author Olivier BEDEL
@@ -26,4 +29,11 @@ public interface JoinTableDataSource {
 	
 	Hashtable buildTable (int keyIndex);
 	
+	/**
+	 * Reads the rows whose key (value of field keyIndex) belongs to keys,
+	 * and computes the field types from all the rows.
+	 * @return the rows of each key, in the order of the data source
+	 */
+	Map<String,List<String[]>> buildTable (int keyIndex, Set<String> keys);
+	
 }
@@ -12,7 +12,13 @@ import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
 import org.locationtech.jts.io.ParseException;
@@ -38,6 +44,7 @@ public class JoinTableDataSourceCSV implements JoinTableDataSource {
 	private int fieldCount = 0;
 	private String DEFAULT_DELEM = "\t";
 	private String DELIMITATEURS = ";|\t"; //expression reguliere de qualification des delimitateurs de champs : tab ou ;
+	private static final Pattern DELIMITATEURS_PATTERN = Pattern.compile("[;\t]");
 	
 	public JoinTableDataSourceCSV(String filePath) {
 		this.filePath = filePath;
@@ -54,14 +61,39 @@ public class JoinTableDataSourceCSV implements JoinTableDataSource {
 	}
 		
 	public Hashtable buildTable (int keyIndex) {
+		final Hashtable table = new Hashtable();
+		read(keyIndex, valeurs -> table.put(valeurs[keyIndex], valeurs));
+		return table;
+	}
+	
+	/**
+	 * Streams the file and only keeps the rows whose key belongs to keys, so
+	 * that memory is bounded by the number of matching rows. Field types
+	 * are still computed from all the rows.
+	 */
+	public Map<String,List<String[]>> buildTable (int keyIndex, Set<String> keys) {
+		final Map<String,List<String[]>> table = new HashMap<>();
+		read(keyIndex, valeurs -> {
+			if (keys.contains(valeurs[keyIndex])) {
+				table.computeIfAbsent(valeurs[keyIndex], k -> new ArrayList<>(1)).add(valeurs);
+			}
+		});
+		return table;
+	}
+	
+	/**
+	 * Reads the rows of the file one by one, hands them to rowConsumer and
+	 * updates field types.
+	 */
+	private void read (int keyIndex, Consumer<String[]> rowConsumer) {
 		FileReader fileReader;
 		BufferedReader bufferedReader;
 
-		Hashtable table = new Hashtable();	
 		int nl=1;
-		int nbCol;
-		String s, line;
-		String[] valeurs, val;
+		String line;
+		String[] valeurs;
+		// a STRING field cannot change its type any more
+		AttributeType[] types = new AttributeType[fieldCount];
 			
 		fieldTypes = new ArrayList();
 		try {
@@ -80,33 +112,31 @@ public class JoinTableDataSourceCSV implements JoinTableDataSource {
 				nl=1;
 				while (line!=null) {
 					if (line.trim().length() > 0) {
-						valeurs = line.split(DELIMITATEURS, -1);
+						valeurs = DELIMITATEURS_PATTERN.split(line, -1);
 						// verification de la coherence du nombre de colonnes de l'entete et de la ligne 
 						if ((valeurs.length)!=fieldCount)
 								throw (new Exception(I18N.get("org.openjump.sigle.plugin.joinTable.Field_problem_at_line") + nl));
 						    
 						for (int i = 0 ; i < valeurs.length; i++) {
-						    s = (String) valeurs[i]; 
 						    // mise a jour du type du champ
-						    if ((i+1)>fieldTypes.size())
-						    		fieldTypes.add(i,typeOfString(s));
-						    else {
-						    	AttributeType newFieldType = typeOfString(s);
-						    	AttributeType fieldType = (AttributeType) fieldTypes.get(i);
-						    	if 	(newFieldType!=fieldType) {
-						    		if (newFieldType == AttributeType.STRING)
-						    			fieldTypes.set(i,newFieldType);
-						    		else if (fieldType!= AttributeType.STRING && newFieldType==AttributeType.DOUBLE)
-						    			fieldTypes.set(i,newFieldType);
-						    	}
+						    AttributeType fieldType = types[i];
+						    if (fieldType == AttributeType.STRING) continue;
+						    AttributeType newFieldType = typeOfString(valeurs[i]);
+						    if (fieldType == null)
+						    		types[i] = newFieldType;
+						    else if (newFieldType!=fieldType) {
+						    	if (newFieldType == AttributeType.STRING)
+						    		types[i] = newFieldType;
+						    	else if (newFieldType==AttributeType.DOUBLE)
+						    		types[i] = newFieldType;
 						    }
 						}
-						//enregistrement de la ligne dans la table
-						table.put(valeurs[keyIndex], valeurs);
+						rowConsumer.accept(valeurs);
 					}
 					line= bufferedReader.readLine(); 
 					nl++;
 				}
+				fieldTypes.addAll(Arrays.asList(types));
 			}
 			catch(Exception e) {
 				String msg = I18N.get("org.openjump.sigle.plugin.joinTable.Error_while_reading_file") + filePath +" (" + e.getMessage() + ").";
@@ -120,7 +150,6 @@ public class JoinTableDataSourceCSV implements JoinTableDataSource {
 		catch (Exception e) {
 			throw new IllegalStateException(e.getMessage());
 		}
-		return table;
 	}
 
 	private void readHeader() {